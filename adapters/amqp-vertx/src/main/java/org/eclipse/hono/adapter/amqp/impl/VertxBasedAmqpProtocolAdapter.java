@@ -62,6 +62,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 
 import io.micrometer.core.instrument.Timer.Sample;
 import io.opentracing.Span;
+import io.opentracing.Tracer;
 import io.opentracing.log.Fields;
 import io.opentracing.tag.Tags;
 import io.vertx.core.AsyncResult;
@@ -99,6 +100,11 @@ public final class VertxBasedAmqpProtocolAdapter extends AbstractProtocolAdapter
      */
     private static final int MEMORY_PER_CONNECTION = 20_000; // 20KB: expected avg. memory consumption per connection
 
+    /**
+     * The number of credits issued to a device for sending messages.
+     */
+    private static final int RECEIVER_CREDIT = 30;
+
     /**
      * The AMQP server instance that maps to a secure port.
      */
@@ -489,7 +495,15 @@ public final class VertxBasedAmqpProtocolAdapter extends AbstractProtocolAdapter
             receiver.setTarget(receiver.getRemoteTarget());
             receiver.setSource(receiver.getRemoteSource());
             receiver.setQoS(receiver.getRemoteQoS());
-            receiver.setPrefetch(30);
+            final boolean manageCredit = getConfig().getDownstreamCreditWaitTimeout() > 0;
+            if (manageCredit) {
+                // manage credit manually so that the device's credit is only replenished
+                // after a message has been processed, thus applying back pressure
+                // while messages are waiting for downstream credit
+                receiver.setPrefetch(0);
+            } else {
+                receiver.setPrefetch(RECEIVER_CREDIT);
+            }
             // manage disposition handling manually
             receiver.setAutoAccept(false);
             HonoProtonHelper.setCloseHandler(receiver, remoteDetach -> onLinkDetach(receiver));
@@ -497,9 +511,19 @@ public final class VertxBasedAmqpProtocolAdapter extends AbstractProtocolAdapter
             receiver.handler((delivery, message) -> {
                 final AmqpContext ctx = AmqpContext.fromMessage(delivery, message, authenticatedDevice);
                 ctx.setTimer(metrics.startTimer());
-                onMessageReceived(ctx);
+                final Future<ProtonDelivery> processing = onMessageReceived(ctx);
+                if (manageCredit) {
+                    processing.setHandler(processed -> {
+                        if (receiver.isOpen()) {
+                            receiver.flow(1);
+                        }
+                    });
+                }
             });
             receiver.open();
+            if (manageCredit) {
+                receiver.flow(RECEIVER_CREDIT);
+            }
             if (authenticatedDevice == null) {
                 LOG.debug("established link for receiving messages from device [container: {}]",
                         conn.getRemoteContainer());
@@ -529,7 +553,14 @@ public final class VertxBasedAmqpProtocolAdapter extends AbstractProtocolAdapter
      */
     protected Future<ProtonDelivery> onMessageReceived(final AmqpContext ctx) {
 
-        final Span msgSpan = newSpan("upload message", ctx.getAuthenticatedDevice());
+        final String tenantId = ctx.isDeviceAuthenticated() ? ctx.getAuthenticatedDevice().getTenantId()
+                : Optional.ofNullable(ctx.getAddress()).map(ResourceIdentifier::getTenantId).orElse(null);
+        // messages that carry a trace context provided by the device are always traced
+        final boolean hasTraceContext = TracingHelper.isSampled(TracingHelper.extractSpanContext(tracer, ctx.getMessage()));
+        final Span msgSpan = newSpan(
+                getTracerForMessage(tenantId, hasTraceContext),
+                "upload message",
+                ctx.getAuthenticatedDevice());
         msgSpan.log(Collections.singletonMap(Tags.MESSAGE_BUS_DESTINATION.getKey(), ctx.getAddress()));
 
         return validateEndpoint(ctx)
@@ -546,7 +577,12 @@ public final class VertxBasedAmqpProtocolAdapter extends AbstractProtocolAdapter
             } else {
                 ProtonHelper.released(ctx.delivery(), true);
             }
-            TracingHelper.logError(msgSpan, t);
+            traceError(
+                    msgSpan,
+                    "upload message",
+                    tenantId,
+                    ctx.isDeviceAuthenticated() ? ctx.getAuthenticatedDevice().getDeviceId() : null,
+                    t);
             msgSpan.finish();
             return Future.failedFuture(t);
         });
@@ -620,7 +656,11 @@ public final class VertxBasedAmqpProtocolAdapter extends AbstractProtocolAdapter
     }
 
     private Span newSpan(final String operationName, final Device authenticatedDevice) {
-        final Span span = tracer.buildSpan(operationName)
+        return newSpan(tracer, operationName, authenticatedDevice);
+    }
+
+    private Span newSpan(final Tracer spanTracer, final String operationName, final Device authenticatedDevice) {
+        final Span span = spanTracer.buildSpan(operationName)
                 .ignoreActiveSpan()
                 .withTag(Tags.SPAN_KIND.getKey(), Tags.SPAN_KIND_SERVER)
                 .withTag(Tags.COMPONENT.getKey(), getTypeName())
@@ -851,9 +891,9 @@ public final class VertxBasedAmqpProtocolAdapter extends AbstractProtocolAdapter
                 currentSpan.context()).compose(tenantObject -> isAdapterEnabled(tenantObject));
 
         return CompositeFuture.all(tenantEnabledFuture, tokenFuture, senderFuture)
-                .compose(ok -> {
+                .compose(ok -> waitForCredit(senderFuture.result()))
+                .compose(sender -> {
 
-                    final DownstreamSender sender = senderFuture.result();
                     final Message downstreamMessage = addProperties(
                             context.getMessage(),
                             ResourceIdentifier.from(context.getEndpoint().getCanonicalName(), resource.getTenantId(), resource.getResourceId()),
@@ -16,6 +16,7 @@ import static org.hamcrest.core.IsEqual.equalTo;
 import static org.junit.Assert.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
@@ -216,6 +217,49 @@ public class VertxBasedAmqpProtocolAdapterTest {
         verify(link).close();
     }
 
+    /**
+     * Verifies that the adapter uses a prefetch window for links opened by devices
+     * if waiting for downstream credit is disabled.
+     */
+    @Test
+    public void testAdapterUsesPrefetchIfWaitingForCreditIsDisabled() {
+
+        // GIVEN an AMQP adapter that does not wait for downstream credit
+        final ProtonServer server = getAmqpServer();
+        final VertxBasedAmqpProtocolAdapter adapter = getAdapter(server);
+
+        // WHEN a device opens an anonymous relay link
+        final ProtonReceiver link = getReceiver(ProtonQoS.AT_LEAST_ONCE, null);
+        adapter.handleRemoteReceiverOpen(getConnection(null), link);
+
+        // THEN the adapter uses a prefetch window for issuing credit
+        verify(link).open();
+        verify(link).setPrefetch(30);
+        verify(link, never()).flow(anyInt());
+    }
+
+    /**
+     * Verifies that the adapter manages credit for links opened by devices
+     * manually if waiting for downstream credit is enabled.
+     */
+    @Test
+    public void testAdapterManagesCreditIfWaitingForCreditIsEnabled() {
+
+        // GIVEN an AMQP adapter that waits for downstream credit
+        config.setDownstreamCreditWaitTimeout(1000);
+        final ProtonServer server = getAmqpServer();
+        final VertxBasedAmqpProtocolAdapter adapter = getAdapter(server);
+
+        // WHEN a device opens an anonymous relay link
+        final ProtonReceiver link = getReceiver(ProtonQoS.AT_LEAST_ONCE, null);
+        adapter.handleRemoteReceiverOpen(getConnection(null), link);
+
+        // THEN the adapter disables prefetching and issues credit itself
+        verify(link).open();
+        verify(link).setPrefetch(0);
+        verify(link).flow(30);
+    }
+
     /**
      * Verifies that a request to upload a pre-settled telemetry message results
      * in the downstream sender not waiting for the consumer's acknowledgment.
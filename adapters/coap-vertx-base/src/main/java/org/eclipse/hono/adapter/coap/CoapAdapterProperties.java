@@ -1,5 +1,5 @@
 /**
- * Copyright (c) 2018 Contributors to the Eclipse Foundation
+ * Copyright (c) 2018, 2019 Contributors to the Eclipse Foundation
  *
  * See the NOTICE file(s) distributed with this work for additional
  * information regarding copyright ownership.
@@ -34,6 +34,18 @@ public class CoapAdapterProperties extends ProtocolAdapterProperties {
      * The default maximum size of device cache.
      */
     public static final long DEFAULT_DEVICE_CACHE_MAX_SIZE = 1000000L;
+    /**
+     * The default maximum number of pre-shared keys to cache.
+     */
+    public static final long DEFAULT_PSK_CACHE_MAX_SIZE = 10000L;
+    /**
+     * The default maximum number of seconds that a pre-shared key is cached for.
+     */
+    public static final long DEFAULT_PSK_CACHE_TIMEOUT = 60L;
+    /**
+     * The default number of milliseconds to wait for a pre-shared key to be retrieved.
+     */
+    public static final long DEFAULT_PSK_LOOKUP_TIMEOUT = 10000L;
 
     private String idSplitRegex = DEFAULT_ID_SPLIT_REGEX;
     private String networkConfig = null;
@@ -43,6 +55,9 @@ public class CoapAdapterProperties extends ProtocolAdapterProperties {
     private int coapThreads = 2;
     private int deviceCacheMinSize = DEFAULT_DEVICE_CACHE_MIN_SIZE;
     private long deviceCacheMaxSize = DEFAULT_DEVICE_CACHE_MAX_SIZE;
+    private long pskCacheMaxSize = DEFAULT_PSK_CACHE_MAX_SIZE;
+    private long pskCacheTimeout = DEFAULT_PSK_CACHE_TIMEOUT;
+    private long pskLookupTimeout = DEFAULT_PSK_LOOKUP_TIMEOUT;
 
     /**
      * Gets the regular expression used for splitting up
@@ -210,6 +225,96 @@ public class CoapAdapterProperties extends ProtocolAdapterProperties {
         this.deviceCacheMaxSize = size;
     }
 
+    /**
+     * Gets the maximum number of pre-shared keys that are kept in the local key cache.
+     * <p>
+     * Once the maximum number of entries is reached, the cache applies an implementation specific policy for handling
+     * new entries that are put to the cache.
+     * <p>
+     * The default value is {@link #DEFAULT_PSK_CACHE_MAX_SIZE}.
+     *
+     * @return The maximum number of keys to keep in the cache.
+     */
+    public final long getPskCacheMaxSize() {
+        return pskCacheMaxSize;
+    }
+
+    /**
+     * Sets the maximum number of pre-shared keys that are kept in the local key cache.
+     * <p>
+     * Setting this property to 0 disables caching of keys.
+     *
+     * @param size The maximum number of keys to keep in the cache.
+     * @throws IllegalArgumentException if size is &lt; 0.
+     */
+    public final void setPskCacheMaxSize(final long size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("maximum PSK cache size must not be negative");
+        }
+        this.pskCacheMaxSize = size;
+    }
+
+    /**
+     * Gets the maximum period of time that a pre-shared key retrieved from the
+     * Credentials service is kept in the local key cache.
+     * <p>
+     * A cached key is used for DTLS handshakes without invoking the Credentials
+     * service. A key is cached for the period of time indicated by the cache directive
+     * of the Credentials service's response but never longer than this period and never
+     * beyond the <em>not-after</em> instant of the secret it has been taken from.
+     * <p>
+     * The default value is {@link #DEFAULT_PSK_CACHE_TIMEOUT}.
+     * 
+     * @return The number of seconds.
+     */
+    public final long getPskCacheTimeout() {
+        return pskCacheTimeout;
+    }
+
+    /**
+     * Sets the maximum period of time that a pre-shared key retrieved from the
+     * Credentials service is kept in the local key cache.
+     * <p>
+     * Setting this property to 0 disables caching of keys.
+     * 
+     * @param timeout The number of seconds.
+     * @throws IllegalArgumentException if timeout is &lt; 0.
+     */
+    public final void setPskCacheTimeout(final long timeout) {
+        if (timeout < 0) {
+            throw new IllegalArgumentException("PSK cache timeout must not be negative");
+        }
+        this.pskCacheTimeout = timeout;
+    }
+
+    /**
+     * Gets the maximum period of time that a DTLS handshake waits for a
+     * pre-shared key to be retrieved from the Credentials service.
+     * <p>
+     * The handshake fails if no key has been retrieved within this period.
+     * <p>
+     * The default value is {@link #DEFAULT_PSK_LOOKUP_TIMEOUT}.
+     * 
+     * @return The number of milliseconds.
+     */
+    public final long getPskLookupTimeout() {
+        return pskLookupTimeout;
+    }
+
+    /**
+     * Sets the maximum period of time that a DTLS handshake waits for a
+     * pre-shared key to be retrieved from the Credentials service.
+     * 
+     * @param timeout The number of milliseconds.
+     * @throws IllegalArgumentException if timeout is &lt; 1.
+     */
+    public final void setPskLookupTimeout(final long timeout) {
+        if (timeout < 1) {
+            throw new IllegalArgumentException("PSK lookup timeout must be at least 1 ms");
+        }
+        this.pskLookupTimeout = timeout;
+    }
+
     /**
      * Gets the number of connector threads.
      * 
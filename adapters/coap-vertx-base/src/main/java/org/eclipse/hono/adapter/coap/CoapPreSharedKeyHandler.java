@@ -16,11 +16,14 @@ package org.eclipse.hono.adapter.coap;
 import java.net.HttpURLConnection;
 import java.net.InetSocketAddress;
 import java.security.Principal;
+import java.time.Instant;
 import java.util.Base64;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -30,9 +33,12 @@ import org.eclipse.californium.elements.auth.PreSharedKeyIdentity;
 import org.eclipse.californium.scandium.dtls.pskstore.PskStore;
 import org.eclipse.californium.scandium.util.ServerNames;
 import org.eclipse.hono.auth.Device;
+import org.eclipse.hono.cache.BasicExpiringValue;
+import org.eclipse.hono.cache.ExpiringValue;
 import org.eclipse.hono.client.ClientErrorException;
 import org.eclipse.hono.client.CredentialsClientFactory;
 import org.eclipse.hono.client.ServiceInvocationException;
+import org.eclipse.hono.util.CacheDirective;
 import org.eclipse.hono.util.CredentialsConstants;
 import org.eclipse.hono.util.CredentialsObject;
 import org.slf4j.Logger;
@@ -44,9 +50,17 @@ import com.google.common.cache.CacheBuilder;
 
 import io.vertx.core.Context;
 import io.vertx.core.Future;
+import io.vertx.core.json.JsonObject;
 
 /**
  * A coap pre-shared-key store based on a credentials service client.
+ * <p>
+ * Keys retrieved from the Credentials service are kept in a local cache so that
+ * subsequent DTLS handshakes of the same device can be served without blocking
+ * the handshake thread. Keys are cached as long as permitted by the cache directive
+ * of the Credentials service's response, limited by the configured
+ * {@linkplain CoapAdapterProperties#getPskCacheTimeout() PSK cache timeout}.
+ * Concurrent handshakes for the same identity share a single lookup of the key.
  */
 public class CoapPreSharedKeyHandler implements PskStore, CoapAuthenticationHandler {
 
@@ -64,6 +78,14 @@ public class CoapPreSharedKeyHandler implements PskStore, CoapAuthenticationHand
      * Cache mapping principal information to hono devices.
      */
     private final Cache<PreSharedKeyDeviceIdentity, Device> devices;
+    /**
+     * Cache mapping principal information to pre-shared keys and the devices they belong to.
+     */
+    private final Cache<PreSharedKeyDeviceIdentity, ExpiringValue<CachedKey>> keys;
+    /**
+     * The lookups of pre-shared keys that are currently in progress.
+     */
+    private final Map<PreSharedKeyDeviceIdentity, CompletableFuture<byte[]>> pendingLookups = new ConcurrentHashMap<>();
     /**
      * Configuration used to split identity into authentication id and tenant.
      */
@@ -93,6 +115,9 @@ public class CoapPreSharedKeyHandler implements PskStore, CoapAuthenticationHand
                 .initialCapacity(config.getDeviceCacheMinSize())
                 .maximumSize(config.getDeviceCacheMaxSize());
         this.devices = builder.build();
+        this.keys = CacheBuilder.newBuilder()
+                .maximumSize(config.getPskCacheMaxSize())
+                .build();
     }
 
     /**
@@ -108,12 +133,17 @@ public class CoapPreSharedKeyHandler implements PskStore, CoapAuthenticationHand
 
         Objects.requireNonNull(handshakeIdentity);
         return credentialsClientFactory.getOrCreateCredentialsClient(handshakeIdentity.getTenantId())
-                .compose(client -> client.get(handshakeIdentity.getType(), handshakeIdentity.getAuthId()))
-                .compose((credentials) -> {
-                    final byte[] key = getCandidateKey(credentials);
+                .compose(client -> client.getCredentialsResult(handshakeIdentity.getType(),
+                        handshakeIdentity.getAuthId(), new JsonObject(), null))
+                .compose((result) -> {
+                    final CredentialsObject credentials = result.getPayload();
+                    final JsonObject secret = getCandidateSecret(credentials);
+                    final byte[] key = getKey(secret);
                     if (key != null) {
-                        devices.put(handshakeIdentity,
-                                new Device(handshakeIdentity.getTenantId(), credentials.getDeviceId()));
+                        final Device device = new Device(handshakeIdentity.getTenantId(), credentials.getDeviceId());
+                        devices.put(handshakeIdentity, device);
+                        putKeyToCache(handshakeIdentity, new CachedKey(key, device),
+                                result.getCacheDirective(), CredentialsObject.getNotAfter(secret));
                         return Future.succeededFuture(key);
                     } else {
                         return Future.failedFuture(new ClientErrorException(HttpURLConnection.HTTP_UNAUTHORIZED,
@@ -123,26 +153,83 @@ public class CoapPreSharedKeyHandler implements PskStore, CoapAuthenticationHand
     }
 
     /**
-     * Extracts the (pre-shared) key from the candidate secret(s) on record for the device.
+     * Puts a key to the local cache.
+     * <p>
+     * The key is cached for the period of time indicated by the cache directive, limited by
+     * the configured PSK cache timeout and the <em>not-after</em> instant of the secret.
+     * If no cache directive is given, the key is cached for the configured PSK cache timeout.
+     *
+     * @param handshakeIdentity The identity used by the device.
+     * @param key The key and the device it belongs to.
+     * @param cacheDirective The cache directive of the Credentials service's response (may be {@code null}).
+     * @param notAfter The instant after which the secret is no longer valid (may be {@code null}).
+     */
+    private void putKeyToCache(final PreSharedKeyDeviceIdentity handshakeIdentity, final CachedKey key,
+            final CacheDirective cacheDirective, final Instant notAfter) {
+
+        long maxAge = config.getPskCacheTimeout();
+        if (cacheDirective != null) {
+            maxAge = cacheDirective.isCachingAllowed() ? Math.min(maxAge, cacheDirective.getMaxAge()) : 0;
+        }
+        if (maxAge > 0) {
+            final Instant maxExpiration = Instant.now().plusSeconds(maxAge);
+            final Instant expiration = notAfter != null && notAfter.isBefore(maxExpiration) ? notAfter : maxExpiration;
+            keys.put(handshakeIdentity, new BasicExpiringValue<>(key, expiration));
+        }
+    }
+
+    /**
+     * Gets the (pre-shared) key for an identity from the local cache.
+     * 
+     * @param handshakeIdentity The identity used by the device.
+     * @return The key and the device it belongs to or {@code null} if no unexpired key
+     *         is cached for the identity.
+     */
+    private CachedKey getCachedKey(final PreSharedKeyDeviceIdentity handshakeIdentity) {
+
+        final ExpiringValue<CachedKey> cachedKey = keys.getIfPresent(handshakeIdentity);
+        if (cachedKey == null) {
+            return null;
+        } else if (cachedKey.isExpired()) {
+            keys.invalidate(handshakeIdentity);
+            return null;
+        } else {
+            return cachedKey.getValue();
+        }
+    }
+
+    /**
+     * Gets the first candidate secret on record for the device.
      * 
      * @param credentialsOnRecord The credentials on record as returned by the Credentials service.
-     * @return The key or {@code null} if no candidate secret is on record.
+     * @return The secret or {@code null} if no candidate secret is on record.
      */
-    private static byte[] getCandidateKey(final CredentialsObject credentialsOnRecord) {
+    private static JsonObject getCandidateSecret(final CredentialsObject credentialsOnRecord) {
 
-        final List<byte[]> keys = credentialsOnRecord.getCandidateSecrets(candidateSecret -> {
+        final List<JsonObject> secrets = credentialsOnRecord.getCandidateSecrets();
+        if (secrets.isEmpty()) {
+            return null;
+        } else {
+            return secrets.get(0);
+        }
+    }
 
-            final String secretKeyBase64 = candidateSecret.getString(CredentialsConstants.FIELD_SECRETS_KEY);
-            if (secretKeyBase64 != null) {
-                return Base64.getDecoder().decode(secretKeyBase64);
-            } else {
-                return new byte[0];
-            }
-        });
-        if (keys.isEmpty()) {
+    /**
+     * Extracts the (pre-shared) key from a candidate secret.
+     * 
+     * @param candidateSecret The secret or {@code null}.
+     * @return The key or {@code null} if the secret is {@code null}.
+     */
+    private static byte[] getKey(final JsonObject candidateSecret) {
+
+        if (candidateSecret == null) {
             return null;
+        }
+        final String secretKeyBase64 = candidateSecret.getString(CredentialsConstants.FIELD_SECRETS_KEY);
+        if (secretKeyBase64 != null) {
+            return Base64.getDecoder().decode(secretKeyBase64);
         } else {
-            return keys.get(0);
+            return new byte[0];
         }
     }
 
@@ -157,6 +244,15 @@ public class CoapPreSharedKeyHandler implements PskStore, CoapAuthenticationHand
         return PreSharedKeyDeviceIdentity.create(identity, splitRegex);
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The key is taken from the local key cache, if present. Otherwise, the key is
+     * retrieved from the Credentials service and the calling thread waits for at most
+     * the configured {@linkplain CoapAdapterProperties#getPskLookupTimeout() lookup timeout}.
+     * Threads looking up the key for the same identity concurrently share the same
+     * request to the Credentials service.
+     */
     @Override
     public byte[] getKey(final String identity) {
         LOG.debug("getting PSK secret for identity [{}]", identity);
@@ -165,9 +261,38 @@ public class CoapPreSharedKeyHandler implements PskStore, CoapAuthenticationHand
             return null;
         }
 
+        final CachedKey cachedKey = getCachedKey(handshakeIdentity);
+        if (cachedKey != null) {
+            LOG.trace("using cached PSK secret for identity [{}]", identity);
+            // the device may have been evicted from the device cache in the meantime
+            devices.put(handshakeIdentity, cachedKey.device);
+            return cachedKey.key;
+        }
+
+        try {
+            // timeout, don't block handshake too long
+            return getPendingLookup(handshakeIdentity).get(config.getPskLookupTimeout(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (TimeoutException e) {
+        } catch (CancellationException e) {
+        } catch (ExecutionException e) {
+        }
+        LOG.debug("no candidate PSK secret found for identity [{}]", identity);
+        return null;
+    }
+
+    private CompletableFuture<byte[]> getPendingLookup(final PreSharedKeyDeviceIdentity handshakeIdentity) {
+
         final CompletableFuture<byte[]> secret = new CompletableFuture<>();
+        final CompletableFuture<byte[]> pendingLookup = pendingLookups.putIfAbsent(handshakeIdentity, secret);
+        if (pendingLookup != null) {
+            LOG.trace("joining pending PSK lookup for identity [{}]", handshakeIdentity.getAuthId());
+            return pendingLookup;
+        }
         context.runOnContext((v) -> {
             getSharedKeyForDevice(handshakeIdentity).setHandler((getAttempt) -> {
+                pendingLookups.remove(handshakeIdentity, secret);
                 if (getAttempt.succeeded()) {
                     secret.complete(getAttempt.result());
                 } else {
@@ -175,16 +300,7 @@ public class CoapPreSharedKeyHandler implements PskStore, CoapAuthenticationHand
                 }
             });
         });
-        try {
-            // timeout, don't block handshake too long
-            return secret.get(10000, TimeUnit.MILLISECONDS);
-        } catch (InterruptedException e) {
-        } catch (TimeoutException e) {
-        } catch (CancellationException e) {
-        } catch (ExecutionException e) {
-        }
-        LOG.debug("no candidate PSK secret found for identity [{}]", identity);
-        return null;
+        return secret;
     }
 
     @Override
@@ -215,11 +331,35 @@ public class CoapPreSharedKeyHandler implements PskStore, CoapAuthenticationHand
     public Device getCachedDevice(final String identity) {
         final PreSharedKeyDeviceIdentity handshakeIdentity = getHandshakeIdentity(identity);
         if (handshakeIdentity != null) {
-            return devices.getIfPresent(handshakeIdentity);
+            return getDevice(handshakeIdentity);
+        }
+        return null;
+    }
+
+    private Device getDevice(final PreSharedKeyDeviceIdentity handshakeIdentity) {
+
+        final Device device = devices.getIfPresent(handshakeIdentity);
+        if (device != null) {
+            return device;
+        }
+        final CachedKey cachedKey = getCachedKey(handshakeIdentity);
+        if (cachedKey != null) {
+            devices.put(handshakeIdentity, cachedKey.device);
+            return cachedKey.device;
         }
         return null;
     }
 
+    /**
+     * Removes all devices from the cache of devices.
+     * <p>
+     * The devices are cached using soft references and may therefore be
+     * removed by the garbage collector at any time.
+     */
+    final void invalidateCachedDevices() {
+        devices.invalidateAll();
+    }
+
     @Override
     public Class<PreSharedKeyIdentity> getType() {
         return PreSharedKeyIdentity.class;
@@ -233,7 +373,7 @@ public class CoapPreSharedKeyHandler implements PskStore, CoapAuthenticationHand
             final PreSharedKeyDeviceIdentity handshakeIdentity = getHandshakeIdentity(
                     ((PreSharedKeyIdentity) peer).getIdentity());
             if (handshakeIdentity != null) {
-                final Device authorizedDevice = devices.getIfPresent(handshakeIdentity);
+                final Device authorizedDevice = getDevice(handshakeIdentity);
                 if (authorizedDevice != null) {
                     return Future.succeededFuture(authorizedDevice);
                 }
@@ -242,4 +382,18 @@ public class CoapPreSharedKeyHandler implements PskStore, CoapAuthenticationHand
         }
         return Future.failedFuture(new IllegalArgumentException("Principal not supported by this handler!"));
     }
+
+    /**
+     * A pre-shared key together with the device that it has been registered for.
+     */
+    private static final class CachedKey {
+
+        private final byte[] key;
+        private final Device device;
+
+        CachedKey(final byte[] key, final Device device) {
+            this.key = key;
+            this.device = device;
+        }
+    }
 }
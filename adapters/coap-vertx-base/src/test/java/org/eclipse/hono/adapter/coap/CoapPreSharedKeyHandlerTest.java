@@ -0,0 +1,235 @@
+/**
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+
+package org.eclipse.hono.adapter.coap;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.net.HttpURLConnection;
+import java.nio.charset.StandardCharsets;
+
+import org.eclipse.hono.client.ClientErrorException;
+import org.eclipse.hono.client.CredentialsClient;
+import org.eclipse.hono.client.CredentialsClientFactory;
+import org.eclipse.hono.util.CacheDirective;
+import org.eclipse.hono.util.CredentialsConstants;
+import org.eclipse.hono.util.CredentialsObject;
+import org.eclipse.hono.util.CredentialsResult;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Verifies behavior of {@link CoapPreSharedKeyHandler}.
+ */
+public class CoapPreSharedKeyHandlerTest {
+
+    private static final Vertx vertx = Vertx.vertx();
+    private static final byte[] KEY = "secret".getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * Global timeout for all test cases.
+     */
+    @Rule
+    public final Timeout globalTimeout = Timeout.seconds(5);
+
+    private CoapAdapterProperties config;
+    private CredentialsClient credentialsClient;
+    private CredentialsClientFactory credentialsClientFactory;
+
+    /**
+     * Sets up common fixture.
+     */
+    @Before
+    public void setup() {
+
+        config = new CoapAdapterProperties();
+        credentialsClient = mock(CredentialsClient.class);
+        credentialsClientFactory = mock(CredentialsClientFactory.class);
+        when(credentialsClientFactory.getOrCreateCredentialsClient(anyString()))
+            .thenReturn(Future.succeededFuture(credentialsClient));
+    }
+
+    /**
+     * Cleans up fixture.
+     */
+    @AfterClass
+    public static void shutDown() {
+        vertx.close();
+    }
+
+    /**
+     * Verifies that a key that has been retrieved from the Credentials service
+     * is used for subsequent handshakes of the same identity.
+     */
+    @Test
+    public void testGetKeyUsesCachedKey() {
+
+        givenCredentials(CacheDirective.maxAgeDirective(600));
+
+        final CoapPreSharedKeyHandler handler = new CoapPreSharedKeyHandler(vertx.getOrCreateContext(), config,
+                credentialsClientFactory);
+
+        assertThat(handler.getKey("device@tenant"), is(KEY));
+        assertThat(handler.getKey("device@tenant"), is(KEY));
+        assertCredentialsRetrieved(1);
+        assertThat(handler.getCachedDevice("device@tenant").getDeviceId(), is("4711"));
+    }
+
+    /**
+     * Verifies that the device that a cached key belongs to can be determined
+     * even if it has been removed from the device cache in the meantime.
+     */
+    @Test
+    public void testGetKeyUsesCachedKeyAfterDeviceHasBeenEvicted() {
+
+        givenCredentials(CacheDirective.maxAgeDirective(600));
+
+        final CoapPreSharedKeyHandler handler = new CoapPreSharedKeyHandler(vertx.getOrCreateContext(), config,
+                credentialsClientFactory);
+
+        // GIVEN a key that has been retrieved during a handshake
+        assertThat(handler.getKey("device@tenant"), is(KEY));
+        // WHEN the device is removed from the device cache
+        handler.invalidateCachedDevices();
+        // and the device performs another handshake
+        assertThat(handler.getKey("device@tenant"), is(KEY));
+        assertCredentialsRetrieved(1);
+
+        // THEN the device is still known
+        assertThat(handler.getCachedDevice("device@tenant").getDeviceId(), is("4711"));
+        // even if it gets removed from the device cache again
+        handler.invalidateCachedDevices();
+        assertThat(handler.getCachedDevice("device@tenant").getDeviceId(), is("4711"));
+    }
+
+    /**
+     * Verifies that keys are not cached if the cache timeout is set to 0.
+     */
+    @Test
+    public void testGetKeyDoesNotCacheKeyIfCachingIsDisabled() {
+
+        config.setPskCacheTimeout(0);
+        givenCredentials(CacheDirective.maxAgeDirective(600));
+
+        final CoapPreSharedKeyHandler handler = new CoapPreSharedKeyHandler(vertx.getOrCreateContext(), config,
+                credentialsClientFactory);
+
+        assertThat(handler.getKey("device@tenant"), is(KEY));
+        assertThat(handler.getKey("device@tenant"), is(KEY));
+        assertCredentialsRetrieved(2);
+    }
+
+    /**
+     * Verifies that keys are not cached if the Credentials service's response
+     * does not permit caching.
+     */
+    @Test
+    public void testGetKeyDoesNotCacheKeyIfResponseMustNotBeCached() {
+
+        givenCredentials(CacheDirective.noCacheDirective());
+
+        final CoapPreSharedKeyHandler handler = new CoapPreSharedKeyHandler(vertx.getOrCreateContext(), config,
+                credentialsClientFactory);
+
+        assertThat(handler.getKey("device@tenant"), is(KEY));
+        assertThat(handler.getKey("device@tenant"), is(KEY));
+        assertCredentialsRetrieved(2);
+    }
+
+    /**
+     * Verifies that keys are not cached longer than the configured cache timeout
+     * even if the Credentials service's response permits caching for a longer period.
+     *
+     * @throws InterruptedException if the test is interrupted.
+     */
+    @Test
+    public void testGetKeyLimitsCachingOfKeyToCacheTimeout() throws InterruptedException {
+
+        config.setPskCacheTimeout(1);
+        givenCredentials(CacheDirective.maxAgeDirective(600));
+
+        final CoapPreSharedKeyHandler handler = new CoapPreSharedKeyHandler(vertx.getOrCreateContext(), config,
+                credentialsClientFactory);
+
+        assertThat(handler.getKey("device@tenant"), is(KEY));
+        assertThat(handler.getKey("device@tenant"), is(KEY));
+        assertCredentialsRetrieved(1);
+
+        Thread.sleep(1100);
+        assertThat(handler.getKey("device@tenant"), is(KEY));
+        assertCredentialsRetrieved(2);
+    }
+
+    /**
+     * Verifies that keys are not cached if the maximum size of the key cache is set to 0.
+     */
+    @Test
+    public void testGetKeyDoesNotCacheKeyIfCacheSizeIsZero() {
+
+        config.setPskCacheMaxSize(0);
+        givenCredentials(CacheDirective.maxAgeDirective(600));
+
+        final CoapPreSharedKeyHandler handler = new CoapPreSharedKeyHandler(vertx.getOrCreateContext(), config,
+                credentialsClientFactory);
+
+        assertThat(handler.getKey("device@tenant"), is(KEY));
+        assertThat(handler.getKey("device@tenant"), is(KEY));
+        assertCredentialsRetrieved(2);
+    }
+
+    /**
+     * Verifies that no key is returned if the identity is unknown.
+     */
+    @Test
+    public void testGetKeyFailsForUnknownIdentity() {
+
+        when(credentialsClient.getCredentialsResult(eq(CredentialsConstants.SECRETS_TYPE_PRESHARED_KEY), eq("unknown"),
+                any(JsonObject.class), any()))
+            .thenReturn(Future.failedFuture(new ClientErrorException(HttpURLConnection.HTTP_NOT_FOUND)));
+
+        final CoapPreSharedKeyHandler handler = new CoapPreSharedKeyHandler(vertx.getOrCreateContext(), config,
+                credentialsClientFactory);
+
+        assertThat(handler.getKey("unknown@tenant"), is(nullValue()));
+    }
+
+    private void givenCredentials(final CacheDirective cacheDirective) {
+        when(credentialsClient.getCredentialsResult(eq(CredentialsConstants.SECRETS_TYPE_PRESHARED_KEY), eq("device"),
+                any(JsonObject.class), any()))
+            .thenReturn(Future.succeededFuture(CredentialsResult.from(
+                    HttpURLConnection.HTTP_OK,
+                    CredentialsObject.fromPresharedKey("4711", "device", KEY, null, null),
+                    cacheDirective)));
+    }
+
+    private void assertCredentialsRetrieved(final int times) {
+        verify(credentialsClient, times(times)).getCredentialsResult(eq(CredentialsConstants.SECRETS_TYPE_PRESHARED_KEY),
+                eq("device"), any(JsonObject.class), any());
+    }
+}
@@ -20,6 +20,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.qpid.proton.amqp.transport.ErrorCondition;
 import org.apache.qpid.proton.message.Message;
@@ -47,10 +48,15 @@ import org.eclipse.hono.util.Constants;
 import org.eclipse.hono.util.MessageHelper;
 import org.eclipse.hono.util.ResourceIdentifier;
 import org.eclipse.hono.util.TenantObject;
+import org.eclipse.hono.util.TimingWheel;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
 import io.micrometer.core.instrument.Timer.Sample;
 import io.opentracing.Span;
+import io.opentracing.Tracer;
 import io.opentracing.contrib.vertx.ext.web.TracingHandler;
 import io.opentracing.contrib.vertx.ext.web.WebSpanDecorator;
 import io.opentracing.tag.Tags;
@@ -64,6 +70,7 @@ import io.vertx.core.json.JsonObject;
 import io.vertx.ext.web.Router;
 import io.vertx.ext.web.RoutingContext;
 import io.vertx.ext.web.handler.BodyHandler;
+import io.vertx.proton.ProtonDelivery;
 
 /**
  * Base class for a Vert.x based Hono protocol adapter that uses the HTTP protocol.
@@ -78,11 +85,22 @@ public abstract class AbstractVertxBasedHttpProtocolAdapter<T extends HttpProtoc
      */
     protected static final String DEFAULT_UPLOADS_DIRECTORY = "/tmp";
 
-    private static final String KEY_TIMER_ID = "timerId";
+    private static final String KEY_COMMAND_RECEPTION_TIMEOUT = "commandReceptionTimeout";
+    /**
+     * The duration of a tick of the timing wheel used for command reception time-outs.
+     * The time until disconnect is specified in seconds, so a coarse tick is sufficient.
+     */
+    private static final long COMMAND_RECEPTION_TICK_DURATION = 100L;
+    /**
+     * The maximum number of devices to keep track of forwarded empty notifications for.
+     */
+    private static final int MAX_TRACKED_TTD_NOTIFICATIONS = 100_000;
 
     private HttpServer server;
     private HttpServer insecureServer;
     private HttpAdapterMetrics metrics = HttpAdapterMetrics.NOOP;
+    private TimingWheel commandReceptionTimingWheel;
+    private Cache<String, Boolean> forwardedTtdNotifications;
 
     /**
      * Sets the metrics for this service.
@@ -94,6 +112,18 @@ public abstract class AbstractVertxBasedHttpProtocolAdapter<T extends HttpProtoc
         this.metrics = metrics;
     }
 
+    /**
+     * Sets the timing wheel to use for scheduling command reception time-outs.
+     * <p>
+     * If not set explicitly, a timing wheel is created on first use.
+     *
+     * @param timingWheel The timing wheel.
+     * @throws NullPointerException if timing wheel is {@code null}.
+     */
+    final void setCommandReceptionTimingWheel(final TimingWheel timingWheel) {
+        this.commandReceptionTimingWheel = Objects.requireNonNull(timingWheel);
+    }
+
     /**
      * Gets the metrics for this service.
      *
@@ -220,6 +250,20 @@ public abstract class AbstractVertxBasedHttpProtocolAdapter<T extends HttpProtoc
         return ctx.get(KEY_MICROMETER_SAMPLE);
     }
 
+    /**
+     * Gets the tracer to use for processing a request.
+     * <p>
+     * Requests that contain a trace context provided by the device are always traced.
+     *
+     * @param ctx The context of the request.
+     * @param tenant The tenant that the device belongs to.
+     * @return The tracer.
+     */
+    private Tracer getTracerForRequest(final RoutingContext ctx, final String tenant) {
+        final boolean hasTraceContext = TracingHelper.isSampled(TracingHelper.extractSpanContext(tracer, ctx.request().headers()));
+        return getTracerForMessage(tenant, hasTraceContext);
+    }
+
     private void setTtdStatus(final RoutingContext ctx, final TtdStatus status) {
         ctx.put(TtdStatus.class.getName(), status);
     }
@@ -587,7 +631,7 @@ public abstract class AbstractVertxBasedHttpProtocolAdapter<T extends HttpProtoc
             } else {
 
                 final Device authenticatedDevice = getAuthenticatedDevice(ctx);
-                final Span currentSpan = tracer.buildSpan("upload " + endpoint.getCanonicalName())
+                final Span currentSpan = getTracerForRequest(ctx, tenant).buildSpan("upload " + endpoint.getCanonicalName())
                         .asChildOf(TracingHandler.serverSpanContext(ctx))
                         .ignoreActiveSpan()
                         .withTag(Tags.COMPONENT.getKey(), getTypeName())
@@ -641,18 +685,29 @@ public abstract class AbstractVertxBasedHttpProtocolAdapter<T extends HttpProtoc
 
                         addConnectionCloseHandler(ctx, commandConsumerTracker.result(), tenant, deviceId, currentSpan);
 
+                        if (ttd != null && isRedundantTtdNotification(ctx, tenant, deviceId)) {
+                            LOG.trace("suppressing empty notification [tenant: {}, device-id: {}], already forwarded recently",
+                                    tenant, deviceId);
+                            currentSpan.log("suppressing empty notification, has already been forwarded recently");
+                            return responseReady;
+                        }
+
+                        final Future<ProtonDelivery> sendTracker;
                         if (MetricsTags.QoS.AT_MOST_ONCE.equals(qos)) {
-                            return CompositeFuture.all(
-                                    sender.send(downstreamMessage, currentSpan.context()),
-                                    responseReady)
-                                    .map(s -> (Void) null);
+                            sendTracker = sender.send(downstreamMessage, currentSpan.context());
                         } else {
                             // unsettled
-                            return CompositeFuture.all(
-                                    sender.sendAndWaitForOutcome(downstreamMessage, currentSpan.context()),
-                                    responseReady)
-                                    .map(s -> (Void) null);
+                            sendTracker = sender.sendAndWaitForOutcome(downstreamMessage, currentSpan.context());
                         }
+                        return CompositeFuture.all(
+                                sendTracker.map(delivery -> {
+                                    if (ttd != null) {
+                                        onTtdNotificationForwarded(ctx, tenant, deviceId);
+                                    }
+                                    return delivery;
+                                }),
+                                responseReady)
+                                .map(s -> (Void) null);
                 }).recover(t -> {
                     if (t instanceof ResourceConflictException) {
                         // simply return an empty response
@@ -755,7 +810,7 @@ public abstract class AbstractVertxBasedHttpProtocolAdapter<T extends HttpProtoc
                             payload.length(),
                             getTtdStatus(ctx),
                             getMicrometerSample(ctx));
-                    TracingHelper.logError(currentSpan, t);
+                    traceError(currentSpan, "upload " + endpoint.getCanonicalName(), tenant, deviceId, t);
                     currentSpan.finish();
                     return Future.failedFuture(t);
                 });
@@ -763,6 +818,43 @@ public abstract class AbstractVertxBasedHttpProtocolAdapter<T extends HttpProtoc
         }
     }
 
+    /**
+     * Checks if a request is an empty notification that does not need to be forwarded
+     * downstream because an empty notification has already been forwarded for the device
+     * within the configured suppression period.
+     *
+     * @param ctx The device's currently executing HTTP request.
+     * @param tenantId The tenant that the device belongs to.
+     * @param deviceId The identifier of the device.
+     * @return {@code true} if the notification should not be forwarded.
+     */
+    private boolean isRedundantTtdNotification(final RoutingContext ctx, final String tenantId, final String deviceId) {
+
+        final Cache<String, Boolean> notifications = getForwardedTtdNotifications(ctx);
+        return notifications != null && notifications.getIfPresent(Device.asAddress(tenantId, deviceId)) != null;
+    }
+
+    private void onTtdNotificationForwarded(final RoutingContext ctx, final String tenantId, final String deviceId) {
+
+        Optional.ofNullable(getForwardedTtdNotifications(ctx))
+            .ifPresent(notifications -> notifications.put(Device.asAddress(tenantId, deviceId), Boolean.TRUE));
+    }
+
+    private Cache<String, Boolean> getForwardedTtdNotifications(final RoutingContext ctx) {
+
+        final int suppressionPeriod = getConfig().getTtdNotificationSuppressionPeriod();
+        if (suppressionPeriod <= 0 || !HttpUtils.isEmptyNotification(ctx)) {
+            return null;
+        }
+        if (forwardedTtdNotifications == null) {
+            forwardedTtdNotifications = Caffeine.newBuilder()
+                    .maximumSize(MAX_TRACKED_TTD_NOTIFICATIONS)
+                    .expireAfterWrite(suppressionPeriod, TimeUnit.SECONDS)
+                    .build();
+        }
+        return forwardedTtdNotifications;
+    }
+
     /**
      * Adds a handler for tidying up when a device closes the HTTP connection before
      * a response could be sent.
@@ -930,11 +1022,13 @@ public abstract class AbstractVertxBasedHttpProtocolAdapter<T extends HttpProtoc
     }
 
     /**
-     * Sets a timer to trigger the sending of a (empty) response to a device
+     * Schedules a time-out to trigger the sending of a (empty) response to a device
      * if no command has been received from an application within a
      * given amount of time.
      * <p>
-     * The created timer's ID is put to the routing context using key {@link #KEY_TIMER_ID}.
+     * All time-outs are scheduled on a single timing wheel per adapter instance instead
+     * of using a separate vert.x timer for each request.
+     * The scheduled time-out is put to the routing context using key {@link #KEY_COMMAND_RECEPTION_TIMEOUT}.
      *
      * @param ctx The device's currently executing HTTP request.
      * @param responseReady The future to complete when the time has expired.
@@ -945,9 +1039,13 @@ public abstract class AbstractVertxBasedHttpProtocolAdapter<T extends HttpProtoc
             final Future<Void> responseReady,
             final long delaySecs) {
 
-        final Long timerId = ctx.vertx().setTimer(delaySecs * 1000L, id -> {
+        if (commandReceptionTimingWheel == null) {
+            commandReceptionTimingWheel = new TimingWheel(ctx.vertx(), COMMAND_RECEPTION_TICK_DURATION,
+                    TimingWheel.DEFAULT_WHEEL_SIZE);
+        }
+        final TimingWheel.Timeout timeout = commandReceptionTimingWheel.schedule(delaySecs * 1000L, v -> {
 
-            LOG.trace("time to wait [{}s] for command expired [timer id: {}]", delaySecs, id);
+            LOG.trace("time to wait [{}s] for command expired", delaySecs);
 
             if (responseReady.isComplete()) {
                 // a command has been sent to the device already
@@ -960,19 +1058,19 @@ public abstract class AbstractVertxBasedHttpProtocolAdapter<T extends HttpProtoc
             }
         });
 
-        LOG.trace("adding command reception timer [id: {}]", timerId);
+        LOG.trace("adding command reception timer [delay: {}s]", delaySecs);
 
-        ctx.put(KEY_TIMER_ID, timerId);
+        ctx.put(KEY_COMMAND_RECEPTION_TIMEOUT, timeout);
     }
 
     private void cancelCommandReceptionTimer(final RoutingContext ctx) {
 
-        final Long timerId = ctx.get(KEY_TIMER_ID);
-        if (timerId != null && timerId >= 0) {
-            if (ctx.vertx().cancelTimer(timerId)) {
-                LOG.trace("Cancelled timer id {}", timerId);
+        final TimingWheel.Timeout timeout = ctx.get(KEY_COMMAND_RECEPTION_TIMEOUT);
+        if (timeout != null) {
+            if (timeout.cancel()) {
+                LOG.trace("Cancelled command reception timer");
             } else {
-                LOG.debug("Could not cancel timer id {}", timerId);
+                LOG.debug("Could not cancel command reception timer");
             }
         }
     }
@@ -1022,7 +1120,7 @@ public abstract class AbstractVertxBasedHttpProtocolAdapter<T extends HttpProtoc
         } else {
 
             final Device authenticatedDevice = getAuthenticatedDevice(ctx);
-            final Span currentSpan = tracer.buildSpan("upload Command response")
+            final Span currentSpan = getTracerForRequest(ctx, tenant).buildSpan("upload Command response")
                     .asChildOf(TracingHandler.serverSpanContext(ctx))
                     .ignoreActiveSpan()
                     .withTag(Tags.COMPONENT.getKey(), getTypeName())
@@ -1058,7 +1156,7 @@ public abstract class AbstractVertxBasedHttpProtocolAdapter<T extends HttpProtoc
                     }).otherwise(t -> {
                         LOG.debug("could not send command response [command-request-id: {}] to application",
                                 commandRequestId, t);
-                        TracingHelper.logError(currentSpan, t);
+                        traceError(currentSpan, "upload Command response", tenant, deviceId, t);
                         currentSpan.finish();
                         final ProcessingOutcome outcome = t instanceof ClientErrorException ?
                                 ProcessingOutcome.UNPROCESSABLE : ProcessingOutcome.UNDELIVERABLE;
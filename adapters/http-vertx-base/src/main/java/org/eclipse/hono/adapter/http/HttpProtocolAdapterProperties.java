@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016, 2018 Contributors to the Eclipse Foundation
+ * Copyright (c) 2016, 2019 Contributors to the Eclipse Foundation
  *
  * See the NOTICE file(s) distributed with this work for additional
  * information regarding copyright ownership.
@@ -30,6 +30,7 @@ public class HttpProtocolAdapterProperties extends ProtocolAdapterProperties {
     public static final String DEFAULT_REALM = "Hono";
     private String realm = DEFAULT_REALM;
     private String corsAllowedOrigin = "*";
+    private int ttdNotificationSuppressionPeriod = 0;
 
     /**
      * Gets the name of the realm that unauthenticated devices are prompted to provide credentials for.
@@ -90,4 +91,38 @@ public class HttpProtocolAdapterProperties extends ProtocolAdapterProperties {
         this.corsAllowedOrigin = Objects.requireNonNull(corsAllowedOrigin);
     }
 
+    /**
+     * Gets the period of time during which empty notifications containing a
+     * <em>time until disconnect</em> are not forwarded downstream again for a device.
+     * <p>
+     * Devices which are polling for commands frequently send an empty notification
+     * with each request. Once an empty notification has been forwarded for a device, the adapter
+     * does not forward any further empty notifications of the device during this period
+     * but still waits for a command to be sent to the device.
+     * <p>
+     * The default value of this property is 0, which means that all empty notifications
+     * are forwarded.
+     *
+     * @return The number of seconds.
+     */
+    public final int getTtdNotificationSuppressionPeriod() {
+        return ttdNotificationSuppressionPeriod;
+    }
+
+    /**
+     * Sets the period of time during which empty notifications containing a
+     * <em>time until disconnect</em> are not forwarded downstream again for a device.
+     * <p>
+     * The default value of this property is 0, which means that all empty notifications
+     * are forwarded.
+     *
+     * @param period The number of seconds.
+     * @throws IllegalArgumentException if period is &lt; 0.
+     */
+    public final void setTtdNotificationSuppressionPeriod(final int period) {
+        if (period < 0) {
+            throw new IllegalArgumentException("period must not be negative");
+        }
+        this.ttdNotificationSuppressionPeriod = period;
+    }
 }
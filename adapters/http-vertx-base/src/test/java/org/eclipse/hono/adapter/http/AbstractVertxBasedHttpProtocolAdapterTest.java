@@ -25,6 +25,7 @@ import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -58,6 +59,7 @@ import org.eclipse.hono.util.EventConstants;
 import org.eclipse.hono.util.MessageHelper;
 import org.eclipse.hono.util.TenantConstants;
 import org.eclipse.hono.util.TenantObject;
+import org.eclipse.hono.util.TimingWheel;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -74,6 +76,7 @@ import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
 import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.CaseInsensitiveHeaders;
 import io.vertx.core.http.HttpServer;
 import io.vertx.core.http.HttpServerRequest;
 import io.vertx.core.http.HttpServerResponse;
@@ -115,6 +118,7 @@ public class AbstractVertxBasedHttpProtocolAdapterTest {
     private Vertx                         vertx;
     private Context                       context;
     private HttpAdapterMetrics            metrics;
+    private TimingWheel                   timingWheel;
 
     /**
      * Sets up common fixture.
@@ -131,6 +135,12 @@ public class AbstractVertxBasedHttpProtocolAdapterTest {
             task.handle(null);
             return 1L;
         });
+        timingWheel = mock(TimingWheel.class);
+        when(timingWheel.schedule(anyLong(), any(Handler.class))).thenAnswer(invocation -> {
+            final Handler<Void> task = invocation.getArgument(1);
+            task.handle(null);
+            return mock(TimingWheel.Timeout.class);
+        });
 
         config = new HttpProtocolAdapterProperties();
         config.setInsecurePortEnabled(true);
@@ -715,6 +725,35 @@ public class AbstractVertxBasedHttpProtocolAdapterTest {
                 any());
     }
 
+    /**
+     * Verifies that the adapter does not forward an empty notification if it has already
+     * forwarded an empty notification for the device within the configured suppression period.
+     */
+    @Test
+    public void testUploadEmptyNotificationIsSuppressedWithinSuppressionPeriod() {
+
+        // GIVEN an adapter that suppresses empty notifications for 60 seconds
+        config.setTtdNotificationSuppressionPeriod(60);
+        final HttpServer server = getHttpServer(false);
+        final AbstractVertxBasedHttpProtocolAdapter<HttpProtocolAdapterProperties> adapter = getAdapter(server, null);
+        final DownstreamSender sender = givenAnEventSenderForOutcome(Future.succeededFuture());
+
+        // WHEN a device publishes two empty notifications with a TTD in short succession
+        for (int i = 0; i < 2; i++) {
+            final HttpServerResponse response = mock(HttpServerResponse.class);
+            final HttpServerRequest request = mock(HttpServerRequest.class);
+            when(request.getHeader(eq(Constants.HEADER_TIME_TIL_DISCONNECT))).thenReturn("10");
+            final RoutingContext ctx = newRoutingContext(null, EventConstants.CONTENT_TYPE_EMPTY_NOTIFICATION, request, response);
+            adapter.uploadEventMessage(ctx, "tenant", "device");
+
+            // THEN the device receives a response for each request
+            verify(response).setStatusCode(202);
+            verify(response).end();
+        }
+        // but only the first notification has been forwarded downstream
+        verify(sender, times(1)).sendAndWaitForOutcome(any(Message.class), (SpanContext) any());
+    }
+
     /**
      * Verifies that the adapter uses the max TTD configured for the adapter if a device provides
      * a TTD value that is greater than the max value.
@@ -774,7 +813,7 @@ public class AbstractVertxBasedHttpProtocolAdapterTest {
 
         when(response.setStatusCode(anyInt())).thenReturn(response);
         when(response.closed()).thenReturn(false);
-
+        when(request.headers()).thenReturn(new CaseInsensitiveHeaders());
 
         final RoutingContext ctx = mock(RoutingContext.class);
         when(ctx.getBody()).thenReturn(payload);
@@ -853,6 +892,7 @@ public class AbstractVertxBasedHttpProtocolAdapterTest {
         adapter.setRegistrationClientFactory(registrationClientFactory);
         adapter.setCredentialsClientFactory(credentialsClientFactory);
         adapter.setCommandConsumerFactory(commandConsumerFactory);
+        adapter.setCommandReceptionTimingWheel(timingWheel);
         return adapter;
     }
 
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016, 2018 Contributors to the Eclipse Foundation
+ * Copyright (c) 2016, 2019 Contributors to the Eclipse Foundation
  *
  * See the NOTICE file(s) distributed with this work for additional
  * information regarding copyright ownership.
@@ -14,7 +14,6 @@
 package org.eclipse.hono.adapter.kura.impl;
 
 import java.net.HttpURLConnection;
-import java.util.Arrays;
 
 import org.eclipse.hono.adapter.mqtt.AbstractVertxBasedMqttProtocolAdapter;
 import org.eclipse.hono.adapter.mqtt.MqttContext;
@@ -66,7 +65,7 @@ public final class KuraProtocolAdapter extends AbstractVertxBasedMqttProtocolAda
 
             // this is a "control" message
             ctx.setContentType(getConfig().getCtrlMsgContentType());
-            final String[] mappedPath = Arrays.copyOf(topic.getResourcePath(), topic.getResourcePath().length);
+            final String[] mappedPath = topic.getResourcePath();
             mappedPath[0] = getEndpoint(ctx.message().qosLevel());
             mappedTopic = ResourceIdentifier.fromPath(mappedPath);
 
@@ -74,13 +73,13 @@ public final class KuraProtocolAdapter extends AbstractVertxBasedMqttProtocolAda
 
             // map "data" messages based on QoS
             ctx.setContentType(getConfig().getDataMsgContentType());
-            final String[] mappedPath = new String[topic.getResourcePath().length + 1];
-            System.arraycopy(topic.getResourcePath(), 0, mappedPath, 1, topic.getResourcePath().length);
+            final String[] mappedPath = new String[topic.length() + 1];
+            System.arraycopy(topic.getResourcePath(), 0, mappedPath, 1, topic.length());
             mappedPath[0] = getEndpoint(ctx.message().qosLevel());
             mappedTopic = ResourceIdentifier.fromPath(mappedPath);
         }
 
-        if (mappedTopic.getResourcePath().length < 3) {
+        if (mappedTopic.length() < 3) {
             // topic does not contain account_name and client_id
             result.fail(new ClientErrorException(HttpURLConnection.HTTP_BAD_REQUEST, "topic does not comply with Kura format"));
         } else {
@@ -682,9 +682,9 @@ public abstract class AbstractVertxBasedMqttProtocolAdapter<T extends MqttProtoc
 
     void handlePublishedMessage(final MqttContext context) {
         // there is no way to extract a SpanContext from an MQTT 3.1 message
-        // so we start a new one for every message
+        // so we start a new one for every message that is sampled
         final MqttQoS qos = context.message().qosLevel();
-        final Span span = tracer.buildSpan("PUBLISH")
+        final Span span = getTracerForMessage(context.tenant(), false).buildSpan("PUBLISH")
             .ignoreActiveSpan()
             .withTag(Tags.SPAN_KIND.getKey(), Tags.SPAN_KIND_SERVER)
             .withTag(Tags.MESSAGE_BUS_DESTINATION.getKey(), context.message().topicName())
@@ -925,7 +925,7 @@ public abstract class AbstractVertxBasedMqttProtocolAdapter<T extends MqttProtoc
                     return Future.failedFuture(new ClientErrorException(HttpURLConnection.HTTP_BAD_REQUEST, "command response topic contains invalid data"));
                } else {
 
-                   final Span currentSpan = tracer.buildSpan("upload Command response")
+                   final Span currentSpan = getTracer(ctx.getTracingContext()).buildSpan("upload Command response")
                            .asChildOf(ctx.getTracingContext())
                            .ignoreActiveSpan()
                            .withTag(Tags.COMPONENT.getKey(), getTypeName())
@@ -961,7 +961,8 @@ public abstract class AbstractVertxBasedMqttProtocolAdapter<T extends MqttProtoc
                                currentSpan.finish();
                                return (Void) null;
                            }).recover(t -> {
-                               TracingHelper.logError(currentSpan, t);
+                               traceError(currentSpan, "upload Command response", targetAddress.getTenantId(),
+                                       targetAddress.getResourceId(), t);
                                currentSpan.finish();
                                metrics.reportCommand(
                                        Direction.RESPONSE,
@@ -998,7 +999,7 @@ public abstract class AbstractVertxBasedMqttProtocolAdapter<T extends MqttProtoc
                     String.format("Content-Type %s does not match payload", ctx.contentType())));
         } else {
 
-            final Span currentSpan = tracer.buildSpan("upload " + endpoint)
+            final Span currentSpan = getTracer(ctx.getTracingContext()).buildSpan("upload " + endpoint)
                     .asChildOf(ctx.getTracingContext())
                     .ignoreActiveSpan()
                     .withTag(Tags.COMPONENT.getKey(), getTypeName())
@@ -1013,9 +1014,10 @@ public abstract class AbstractVertxBasedMqttProtocolAdapter<T extends MqttProtoc
             final Future<TenantObject> tenantEnabledTracker = getTenantConfiguration(tenant, currentSpan.context())
                     .compose(tenantObject -> isAdapterEnabled(tenantObject));
 
-            return CompositeFuture.all(tokenTracker, tenantEnabledTracker, senderTracker).compose(ok -> {
+            return CompositeFuture.all(tokenTracker, tenantEnabledTracker, senderTracker)
+                    .compose(ok -> waitForCredit(senderTracker.result()))
+                    .compose(sender -> {
 
-                    final DownstreamSender sender = senderTracker.result();
                     final Message downstreamMessage = newMessage(
                             ResourceIdentifier.from(endpoint.getCanonicalName(), tenant, deviceId),
                             ctx.message().topicName(),
@@ -1055,7 +1057,7 @@ public abstract class AbstractVertxBasedMqttProtocolAdapter<T extends MqttProtoc
                     LOG.debug("cannot process message [endpoint: {}] from device [tenantId: {}, deviceId: {}]",
                             endpoint, tenant, deviceId, t);
                 }
-                TracingHelper.logError(currentSpan, t);
+                traceError(currentSpan, "upload " + endpoint, tenant, deviceId, t);
                 currentSpan.finish();
                 return Future.failedFuture(t);
             });
@@ -0,0 +1,93 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.hono.auth.Activity;
+import org.eclipse.hono.auth.AuthoritiesImpl;
+import org.eclipse.hono.util.ResourceIdentifier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for checking a client's authorities as done when
+ * a link is being opened or a request message is being processed.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthoritiesBenchmark {
+
+    private final ResourceIdentifier telemetry = ResourceIdentifier.from("telemetry", "DEFAULT_TENANT", null);
+    private final ResourceIdentifier registration = ResourceIdentifier.from("registration", "DEFAULT_TENANT", null);
+    private final ResourceIdentifier unauthorized = ResourceIdentifier.from("tenant", "OTHER_TENANT", null);
+    private AuthoritiesImpl authorities;
+
+    /**
+     * Creates authorities similar to the ones of a protocol adapter.
+     */
+    @Setup
+    public void setUp() {
+        authorities = new AuthoritiesImpl()
+                .addResource("telemetry", "*", Activity.WRITE)
+                .addResource("event", "*", Activity.WRITE)
+                .addResource("control", "*", Activity.READ, Activity.WRITE)
+                .addOperation("registration", "*", "assert")
+                .addOperation("credentials", "*", "get")
+                .addOperation("tenant", "DEFAULT_TENANT", "get");
+    }
+
+    /**
+     * Checks if the client is authorized to write telemetry data.
+     *
+     * @return {@code true} if the client is authorized.
+     */
+    @Benchmark
+    public boolean isAuthorizedForResource() {
+        return authorities.isAuthorized(telemetry, Activity.WRITE);
+    }
+
+    /**
+     * Checks if the client is authorized to assert a device's registration.
+     *
+     * @return {@code true} if the client is authorized.
+     */
+    @Benchmark
+    public boolean isAuthorizedForOperation() {
+        return authorities.isAuthorized(registration, "assert");
+    }
+
+    /**
+     * Checks if the client is authorized to invoke an operation that it
+     * has no authority for.
+     *
+     * @return {@code true} if the client is authorized.
+     */
+    @Benchmark
+    public boolean isNotAuthorizedForOperation() {
+        return authorities.isAuthorized(unauthorized, "get");
+    }
+}
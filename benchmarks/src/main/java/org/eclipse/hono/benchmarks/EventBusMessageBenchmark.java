@@ -0,0 +1,90 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.hono.util.EventBusMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Benchmarks for converting {@link EventBusMessage}s to and from their
+ * JSON representation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventBusMessageBenchmark {
+
+    private EventBusMessage message;
+    private JsonObject json;
+
+    /**
+     * Creates the message to convert.
+     */
+    @Setup
+    public void setUp() {
+        message = EventBusMessage.forOperation("assert")
+                .setTenant("DEFAULT_TENANT")
+                .setDeviceId("4711")
+                .setGatewayId("gw-1")
+                .setCorrelationId("corr-id")
+                .setJsonPayload(new JsonObject().put("device-id", "4711").put("enabled", true));
+        json = message.toJson();
+    }
+
+    /**
+     * Converts the message to JSON.
+     *
+     * @return The JSON object.
+     */
+    @Benchmark
+    public JsonObject toJson() {
+        return message.toJson();
+    }
+
+    /**
+     * Converts the message to JSON and back again.
+     *
+     * @return The message.
+     */
+    @Benchmark
+    public EventBusMessage roundTrip() {
+        return EventBusMessage.fromJson(message.toJson());
+    }
+
+    /**
+     * Creates the message from its JSON representation.
+     *
+     * @return The message.
+     */
+    @Benchmark
+    public EventBusMessage fromJson() {
+        return EventBusMessage.fromJson(json);
+    }
+}
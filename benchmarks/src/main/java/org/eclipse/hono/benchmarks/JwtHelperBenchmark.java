@@ -0,0 +1,85 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.hono.auth.Activity;
+import org.eclipse.hono.auth.AuthoritiesImpl;
+import org.eclipse.hono.service.auth.AuthTokenHelper;
+import org.eclipse.hono.service.auth.AuthTokenHelperImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jws;
+
+/**
+ * Benchmarks for creating and validating the tokens used for
+ * authenticating clients.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtHelperBenchmark {
+
+    private static final String SHARED_SECRET = "suzfgsuzdfguadsfgadsfgaufgauzdfgaudzsfg";
+
+    private AuthTokenHelper helper;
+    private AuthoritiesImpl authorities;
+    private String token;
+
+    /**
+     * Creates the helper and a token to validate.
+     */
+    @Setup
+    public void setUp() {
+        helper = AuthTokenHelperImpl.forSharedSecret(SHARED_SECRET, 3600);
+        authorities = new AuthoritiesImpl()
+                .addResource("telemetry", "*", Activity.WRITE)
+                .addOperation("registration", "*", "assert");
+        token = helper.createToken("hono-client@HONO", authorities);
+    }
+
+    /**
+     * Creates a signed token.
+     *
+     * @return The token.
+     */
+    @Benchmark
+    public String createToken() {
+        return helper.createToken("hono-client@HONO", authorities);
+    }
+
+    /**
+     * Validates and parses a token.
+     *
+     * @return The claims contained in the token.
+     */
+    @Benchmark
+    public Jws<Claims> expand() {
+        return helper.expand(token);
+    }
+}
@@ -0,0 +1,134 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+
+package org.eclipse.hono.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.qpid.proton.message.Message;
+import org.eclipse.hono.util.MessageHelper;
+import org.eclipse.hono.util.ResourceIdentifier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.proton.ProtonHelper;
+
+/**
+ * Benchmarks for the {@link MessageHelper} methods being invoked for each
+ * message forwarded by a protocol adapter.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageHelperBenchmark {
+
+    private static final String CONTENT_TYPE = "application/json";
+
+    private final ResourceIdentifier target = ResourceIdentifier.from("telemetry", "DEFAULT_TENANT", "4711");
+    private Buffer payload;
+    private Message message;
+
+    /**
+     * Creates the payload and the message to read from.
+     */
+    @Setup
+    public void setUp() {
+        payload = Buffer.buffer("{\"temp\": 5, \"unit\": \"celsius\", \"location\": \"kitchen\"}");
+        message = ProtonHelper.message();
+        MessageHelper.setPayload(message, CONTENT_TYPE, payload);
+        MessageHelper.addDeviceId(message, "4711");
+        MessageHelper.addProperty(message, MessageHelper.APP_PROPERTY_ORIG_ADAPTER, "hono-http");
+        MessageHelper.annotate(message, target);
+    }
+
+    /**
+     * Sets a message's payload.
+     *
+     * @return The message.
+     */
+    @Benchmark
+    public Message setPayload() {
+        final Message msg = ProtonHelper.message();
+        MessageHelper.setPayload(msg, CONTENT_TYPE, payload);
+        return msg;
+    }
+
+    /**
+     * Gets a message's payload.
+     *
+     * @return The payload.
+     */
+    @Benchmark
+    public Buffer getPayload() {
+        return MessageHelper.getPayload(message);
+    }
+
+    /**
+     * Adds application properties to a message.
+     *
+     * @return The message.
+     */
+    @Benchmark
+    public Message addProperties() {
+        final Message msg = ProtonHelper.message();
+        MessageHelper.addDeviceId(msg, "4711");
+        MessageHelper.addProperty(msg, MessageHelper.APP_PROPERTY_ORIG_ADAPTER, "hono-http");
+        MessageHelper.addProperty(msg, MessageHelper.APP_PROPERTY_ORIG_ADDRESS, "/telemetry");
+        return msg;
+    }
+
+    /**
+     * Gets an application property of a message.
+     *
+     * @return The property value.
+     */
+    @Benchmark
+    public String getApplicationProperty() {
+        return MessageHelper.getDeviceId(message);
+    }
+
+    /**
+     * Adds the tenant, device and resource annotations to a message.
+     *
+     * @return The message.
+     */
+    @Benchmark
+    public Message annotate() {
+        final Message msg = ProtonHelper.message();
+        MessageHelper.annotate(msg, target);
+        return msg;
+    }
+
+    /**
+     * Gets an annotation of a message.
+     *
+     * @return The annotation value.
+     */
+    @Benchmark
+    public String getAnnotation() {
+        return MessageHelper.getTenantIdAnnotation(message);
+    }
+}
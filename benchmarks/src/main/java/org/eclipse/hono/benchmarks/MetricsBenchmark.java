@@ -0,0 +1,70 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.hono.service.metric.MetricsTags;
+import org.eclipse.hono.service.metric.MicrometerBasedMetrics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Benchmarks for reporting the metrics collected for each message
+ * forwarded by a protocol adapter.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricsBenchmark {
+
+    private MicrometerBasedMetrics metrics;
+
+    /**
+     * Creates the metrics backed by a simple registry.
+     */
+    @Setup
+    public void setUp() {
+        metrics = new MicrometerBasedMetrics(new SimpleMeterRegistry()) {
+        };
+    }
+
+    /**
+     * Reports a telemetry message that has been forwarded downstream.
+     */
+    @Benchmark
+    public void reportTelemetry() {
+        metrics.reportTelemetry(
+                MetricsTags.EndpointType.TELEMETRY,
+                "DEFAULT_TENANT",
+                MetricsTags.ProcessingOutcome.FORWARDED,
+                MetricsTags.QoS.AT_MOST_ONCE,
+                128,
+                MetricsTags.TtdStatus.NONE,
+                metrics.startTimer());
+    }
+}
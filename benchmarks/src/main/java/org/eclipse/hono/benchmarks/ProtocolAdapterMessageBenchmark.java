@@ -0,0 +1,132 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+
+package org.eclipse.hono.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.qpid.proton.message.Message;
+import org.eclipse.hono.config.ProtocolAdapterProperties;
+import org.eclipse.hono.service.AbstractProtocolAdapterBase;
+import org.eclipse.hono.util.RegistrationConstants;
+import org.eclipse.hono.util.ResourceIdentifier;
+import org.eclipse.hono.util.TenantObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Benchmarks for creating the AMQP messages that a protocol adapter
+ * forwards downstream.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProtocolAdapterMessageBenchmark {
+
+    private final ResourceIdentifier target = ResourceIdentifier.from("telemetry", "DEFAULT_TENANT", "4711");
+    private final Buffer payload = Buffer.buffer("{\"temp\": 5}");
+    private BenchmarkAdapter adapter;
+    private TenantObject tenant;
+    private JsonObject registrationInfo;
+
+    /**
+     * Creates the adapter, tenant and registration information.
+     */
+    @Setup
+    public void setUp() {
+        adapter = new BenchmarkAdapter();
+        adapter.setConfig(new ProtocolAdapterProperties());
+        tenant = TenantObject.from("DEFAULT_TENANT", true);
+        tenant.setDefaults(new JsonObject().put("ttl", 30));
+        registrationInfo = new JsonObject()
+                .put(RegistrationConstants.FIELD_PAYLOAD_DEFAULTS, new JsonObject().put("importance", "high"));
+    }
+
+    /**
+     * Creates a message for a telemetry payload.
+     *
+     * @return The message.
+     */
+    @Benchmark
+    public Message newMessage() {
+        return adapter.createMessage(target, "telemetry", "application/json", payload, tenant, registrationInfo, null);
+    }
+
+    /**
+     * Creates a message for a telemetry payload which indicates that the
+     * device stays connected for receiving a command.
+     *
+     * @return The message.
+     */
+    @Benchmark
+    public Message newMessageWithTtd() {
+        return adapter.createMessage(target, "telemetry", "application/json", payload, tenant, registrationInfo, 30);
+    }
+
+    /**
+     * A protocol adapter exposing the method for creating messages.
+     */
+    static final class BenchmarkAdapter extends AbstractProtocolAdapterBase<ProtocolAdapterProperties> {
+
+        Message createMessage(
+                final ResourceIdentifier target,
+                final String publishAddress,
+                final String contentType,
+                final Buffer payload,
+                final TenantObject tenant,
+                final JsonObject registrationInfo,
+                final Integer ttd) {
+            return super.newMessage(target, publishAddress, contentType, payload, tenant, registrationInfo, ttd);
+        }
+
+        @Override
+        protected String getTypeName() {
+            return "hono-benchmark";
+        }
+
+        @Override
+        public int getPortDefaultValue() {
+            return 0;
+        }
+
+        @Override
+        public int getInsecurePortDefaultValue() {
+            return 0;
+        }
+
+        @Override
+        protected int getActualPort() {
+            return 0;
+        }
+
+        @Override
+        protected int getActualInsecurePort() {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.hono.util.TenantObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Benchmarks for looking up protocol adapter specific configuration
+ * of a {@link TenantObject}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TenantObjectBenchmark {
+
+    private static final String[] ADAPTER_TYPES = { "hono-http", "hono-mqtt", "hono-amqp", "hono-coap", "hono-lora" };
+
+    private TenantObject tenant;
+
+    /**
+     * Creates a tenant with configuration for all standard adapters.
+     */
+    @Setup
+    public void setUp() {
+        tenant = TenantObject.from("DEFAULT_TENANT", true);
+        for (final String type : ADAPTER_TYPES) {
+            tenant.addAdapterConfiguration(TenantObject.newAdapterConfig(type, true));
+        }
+    }
+
+    /**
+     * Looks up the configuration of the last adapter.
+     *
+     * @return The configuration.
+     */
+    @Benchmark
+    public JsonObject getAdapterConfiguration() {
+        return tenant.getAdapterConfiguration("hono-lora");
+    }
+
+    /**
+     * Checks if the last adapter is enabled.
+     *
+     * @return {@code true} if the adapter is enabled.
+     */
+    @Benchmark
+    public boolean isAdapterEnabled() {
+        return tenant.isAdapterEnabled("hono-lora");
+    }
+
+    /**
+     * Gets the max time until disconnect for the last adapter.
+     *
+     * @return The number of seconds.
+     */
+    @Benchmark
+    public int getMaxTimeUntilDisconnect() {
+        return tenant.getMaxTimeUntilDisconnect("hono-lora");
+    }
+}
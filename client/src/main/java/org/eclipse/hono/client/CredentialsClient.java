@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016, 2018 Contributors to the Eclipse Foundation
+ * Copyright (c) 2016, 2019 Contributors to the Eclipse Foundation
  *
  * See the NOTICE file(s) distributed with this work for additional
  * information regarding copyright ownership.
@@ -13,7 +13,10 @@
 
 package org.eclipse.hono.client;
 
+import java.net.HttpURLConnection;
+
 import org.eclipse.hono.util.CredentialsObject;
+import org.eclipse.hono.util.CredentialsResult;
 
 import io.opentracing.SpanContext;
 import io.vertx.core.Future;
@@ -97,4 +100,34 @@ public interface CredentialsClient extends RequestResponseClient {
             final SpanContext spanContext) {
         return get(type, authId, clientContext);
     }
+
+    /**
+     * Gets credentials for a device by type and authentication identifier including
+     * the restrictions regarding the caching of the credentials.
+     * <p>
+     * This default implementation simply returns a result containing the credentials returned by
+     * {@link #get(String, String, JsonObject, SpanContext)} and no cache directive.
+     *
+     * @param type The type of credentials to retrieve.
+     * @param authId The authentication identifier used in the credentials to retrieve.
+     * @param clientContext Optional bag of properties that can be used to identify the device
+     * @param spanContext The currently active OpenTracing span (may be {@code null}). An implementation
+     *                    should use this as the parent for any span it creates for tracing
+     *                    the execution of this operation.
+     * @return A future indicating the result of the operation.
+     *         <p>
+     *         The future will succeed with a result containing the credentials and the
+     *         cache directive (may be {@code null}) if a response with status 200 has been
+     *         received from the credentials service.
+     *         <p>
+     *         Otherwise, the future will fail with a {@link ServiceInvocationException} containing
+     *         the (error) status code returned by the service.
+     * @throws NullPointerException if any of the parameters (except spanContext) is {@code null}.
+     * @see RequestResponseClient#setRequestTimeout(long)
+     */
+    default Future<CredentialsResult<CredentialsObject>> getCredentialsResult(final String type, final String authId,
+            final JsonObject clientContext, final SpanContext spanContext) {
+        return get(type, authId, clientContext, spanContext)
+                .map(credentials -> CredentialsResult.from(HttpURLConnection.HTTP_OK, credentials, null));
+    }
 }
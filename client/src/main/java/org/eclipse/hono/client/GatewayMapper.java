@@ -41,4 +41,21 @@ public interface GatewayMapper extends ConnectionLifecycle {
      */
     Future<String> getMappedGatewayDevice(String tenantId, String deviceId, SpanContext context);
 
+    /**
+     * Records the gateway through which data has been published for the given device.
+     * <p>
+     * Implementations may use this information for determining the mapped gateway device
+     * without having to look up the device's registration information.
+     * <p>
+     * This default implementation does nothing.
+     *
+     * @param tenantId The tenant identifier.
+     * @param deviceId The device identifier.
+     * @param gatewayId The identifier of the gateway or the device identifier if the device
+     *                  has published the data itself.
+     */
+    default void setMappedGatewayDevice(final String tenantId, final String deviceId, final String gatewayId) {
+        // do nothing
+    }
+
 }
@@ -16,9 +16,11 @@ package org.eclipse.hono.client;
 import org.apache.qpid.proton.amqp.Symbol;
 import org.eclipse.hono.client.impl.HonoConnectionImpl;
 import org.eclipse.hono.config.ClientConfigProperties;
+import org.eclipse.hono.util.TimingWheel;
 
 import io.opentracing.Tracer;
 import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
 import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
@@ -91,6 +93,28 @@ public interface HonoConnection extends ConnectionLifecycle {
      */
     Vertx getVertx();
 
+    /**
+     * Gets the timing wheel used for scheduling time-outs of requests sent over this connection.
+     * <p>
+     * The timing wheel must only be used from the vert.x context that this
+     * connection has been established on.
+     * <p>
+     * This default implementation returns a timing wheel that is shared by all
+     * connections using the current vert.x context (as returned by
+     * {@link Vertx#getOrCreateContext()}). The wheel is created on first use.
+     *
+     * @return The timing wheel.
+     */
+    default TimingWheel getTimingWheel() {
+        final Context context = getVertx().getOrCreateContext();
+        TimingWheel timingWheel = context.get(TimingWheel.class.getName());
+        if (timingWheel == null) {
+            timingWheel = new TimingWheel(getVertx());
+            context.put(TimingWheel.class.getName(), timingWheel);
+        }
+        return timingWheel;
+    }
+
     /**
      * Gets the <em>OpenTracing</em> {@code Tracer} used for tracking
      * distributed interactions across process boundaries.
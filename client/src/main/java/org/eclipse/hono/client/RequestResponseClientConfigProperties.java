@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016, 2018 Contributors to the Eclipse Foundation
+ * Copyright (c) 2016, 2019 Contributors to the Eclipse Foundation
  *
  * See the NOTICE file(s) distributed with this work for additional
  * information regarding copyright ownership.
@@ -33,10 +33,15 @@ public class RequestResponseClientConfigProperties extends ClientConfigPropertie
      * The default timeout for cached responses in seconds until they are considered invalid.
      */
     public static final long DEFAULT_RESPONSE_CACHE_TIMEOUT = 600L;
+    /**
+     * The default timeout for cached <em>not found</em> responses in seconds until they are considered invalid.
+     */
+    public static final long DEFAULT_RESPONSE_CACHE_NOT_FOUND_TIMEOUT = 10L;
 
     private int responseCacheMinSize = DEFAULT_RESPONSE_CACHE_MIN_SIZE;
     private long responseCacheMaxSize = DEFAULT_RESPONSE_CACHE_MAX_SIZE;
     private long responseCacheDefaultTimeout = DEFAULT_RESPONSE_CACHE_TIMEOUT;
+    private long responseCacheNotFoundTimeout = DEFAULT_RESPONSE_CACHE_NOT_FOUND_TIMEOUT;
 
     /**
      * Gets the minimum size of the response cache.
@@ -129,4 +134,37 @@ public class RequestResponseClientConfigProperties extends ClientConfigPropertie
         }
         this.responseCacheDefaultTimeout = timeout;
     }
+
+    /**
+     * Gets the period of time after which cached <em>not found</em> responses are considered invalid.
+     * <p>
+     * This timeout is used for responses with status code 404 that do not contain a cache directive.
+     * It is usually much shorter than the {@linkplain #getResponseCacheDefaultTimeout() default timeout}
+     * so that a device that has been registered after a failed lookup is recognized quickly.
+     * <p>
+     * The default value of this property is {@link #DEFAULT_RESPONSE_CACHE_NOT_FOUND_TIMEOUT}.
+     *
+     * @return The timeout for cached <em>not found</em> responses in seconds.
+     */
+    public final long getResponseCacheNotFoundTimeout() {
+        return responseCacheNotFoundTimeout;
+    }
+
+    /**
+     * Sets the period of time after which cached <em>not found</em> responses are considered invalid.
+     * <p>
+     * Setting this property to 0 disables caching of <em>not found</em> responses
+     * that do not contain a cache directive.
+     * <p>
+     * The default value of this property is {@link #DEFAULT_RESPONSE_CACHE_NOT_FOUND_TIMEOUT}.
+     *
+     * @param timeout The timeout in seconds.
+     * @throws IllegalArgumentException if timeout is &lt; 0.
+     */
+    public final void setResponseCacheNotFoundTimeout(final long timeout) {
+        if (timeout < 0) {
+            throw new IllegalArgumentException("not found cache timeout must not be negative");
+        }
+        this.responseCacheNotFoundTimeout = timeout;
+    }
 }
@@ -32,6 +32,8 @@ import org.slf4j.LoggerFactory;
 import io.opentracing.References;
 import io.opentracing.Span;
 import io.opentracing.SpanContext;
+import io.opentracing.noop.NoopSpan;
+import io.opentracing.noop.NoopSpanContext;
 import io.opentracing.tag.Tags;
 import io.vertx.core.Handler;
 import io.vertx.proton.ProtonReceiver;
@@ -109,7 +111,8 @@ public abstract class AbstractHonoClient {
      * @param parent The existing span. If not {@code null} then the new span will have a
      *                     {@link References#CHILD_OF} reference to the existing span.
      * @param operationName The operation name that the span should be created for.
-     * @return The new span.
+     * @return The new span or a no-op span if the parent has been created by a no-op
+     *         tracer, i.e. if the message being processed has not been sampled.
      */
     protected final Span newChildSpan(final SpanContext parent, final String operationName) {
 
@@ -129,7 +132,8 @@ public abstract class AbstractHonoClient {
      * @param parent The existing span. If not {@code null} then the new span will have a
      *                     {@link References#FOLLOWS_FROM} reference to the existing span.
      * @param operationName The operation name that the span should be created for.
-     * @return The new span.
+     * @return The new span or a no-op span if the parent has been created by a no-op
+     *         tracer, i.e. if the message being processed has not been sampled.
      */
     protected final Span newFollowingSpan(final SpanContext parent, final String operationName) {
 
@@ -138,6 +142,10 @@ public abstract class AbstractHonoClient {
 
     private Span newSpan(final SpanContext parent, final String referenceType, final String operationName) {
 
+        if (parent instanceof NoopSpanContext) {
+            // the message being processed has not been sampled
+            return NoopSpan.INSTANCE;
+        }
         return connection.getTracer().buildSpan(operationName)
                     .addReference(referenceType, parent)
                     .withTag(Tags.COMPONENT.getKey(), "hono-client")
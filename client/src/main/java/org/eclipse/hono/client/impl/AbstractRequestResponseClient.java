@@ -14,8 +14,12 @@ package org.eclipse.hono.client.impl;
 
 import java.net.HttpURLConnection;
 import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
@@ -28,6 +32,8 @@ import org.apache.qpid.proton.amqp.messaging.Rejected;
 import org.apache.qpid.proton.amqp.messaging.Released;
 import org.apache.qpid.proton.amqp.transport.DeliveryState;
 import org.apache.qpid.proton.message.Message;
+import org.eclipse.hono.cache.BasicExpiringValue;
+import org.eclipse.hono.cache.ExpiringValue;
 import org.eclipse.hono.cache.ExpiringValueCache;
 import org.eclipse.hono.client.ClientErrorException;
 import org.eclipse.hono.client.HonoConnection;
@@ -41,7 +47,7 @@ import org.eclipse.hono.util.CacheDirective;
 import org.eclipse.hono.util.MessageHelper;
 import org.eclipse.hono.util.RequestResponseApiConstants;
 import org.eclipse.hono.util.RequestResponseResult;
-import org.eclipse.hono.util.TriTuple;
+import org.eclipse.hono.util.TimingWheel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -70,6 +76,11 @@ import io.vertx.proton.ProtonSender;
 public abstract class AbstractRequestResponseClient<R extends RequestResponseResult<?>>
         extends AbstractHonoClient implements RequestResponseClient {
 
+    /**
+     * The maximum number of <em>not found</em> responses that a client caches.
+     */
+    static final int MAX_CACHED_NOT_FOUND_RESPONSES = 1000;
+
     private static final Logger LOG = LoggerFactory.getLogger(AbstractRequestResponseClient.class);
     private static final int[] CACHEABLE_STATUS_CODES = new int[] {
                             HttpURLConnection.HTTP_OK,
@@ -80,7 +91,11 @@ public abstract class AbstractRequestResponseClient<R extends RequestResponseRes
                             HttpURLConnection.HTTP_GONE
     };
 
-    private final Map<Object, TriTuple<Handler<AsyncResult<R>>, Object, Span>> replyMap = new HashMap<>();
+    private final Map<Object, OutstandingRequest<R>> replyMap = new HashMap<>();
+    /**
+     * The handlers waiting for the outcome of an outstanding request, indexed by the request's cache key.
+     */
+    private final Map<Object, List<Handler<AsyncResult<R>>>> pendingRequests = new HashMap<>();
     private Handler<Void> drainHandler;
     private final String replyToAddress;
     private final String targetAddress;
@@ -90,6 +105,22 @@ public abstract class AbstractRequestResponseClient<R extends RequestResponseRes
      * A cache to use for responses received from the service.
      */
     private ExpiringValueCache<Object, R> responseCache;
+    /**
+     * The <em>not found</em> responses that do not contain a cache directive.
+     * <p>
+     * These responses are kept separately from the (shared) response cache so that
+     * requests for a large number of non-existing resources cannot evict responses
+     * for existing resources from the response cache.
+     */
+    private final Map<Object, ExpiringValue<R>> notFoundResponses = new LinkedHashMap<Object, ExpiringValue<R>>() {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<Object, ExpiringValue<R>> eldest) {
+            return size() > MAX_CACHED_NOT_FOUND_RESPONSES;
+        }
+    };
 
     private long requestTimeoutMillis;
 
@@ -220,6 +251,44 @@ public abstract class AbstractRequestResponseClient<R extends RequestResponseRes
         }
     }
 
+    /**
+     * Gets the period of time after which a <em>not found</em> response in the response cache
+     * is considered invalid.
+     * <p>
+     * The value is derived from the configuration properties as follows:
+     * <ol>
+     * <li>if the properties are of type {@link RequestResponseClientConfigProperties}
+     * then the value of its <em>responseCacheNotFoundTimeout</em> property is used</li>
+     * <li>otherwise the {@linkplain RequestResponseClientConfigProperties#DEFAULT_RESPONSE_CACHE_NOT_FOUND_TIMEOUT
+     * default timeout value} is used</li>
+     * </ol>
+     *
+     * @return The timeout period in seconds.
+     */
+    protected final long getResponseCacheNotFoundTimeout() {
+        if (connection.getConfig() instanceof RequestResponseClientConfigProperties) {
+            return ((RequestResponseClientConfigProperties) connection.getConfig()).getResponseCacheNotFoundTimeout();
+        } else {
+            return RequestResponseClientConfigProperties.DEFAULT_RESPONSE_CACHE_NOT_FOUND_TIMEOUT;
+        }
+    }
+
+    /**
+     * Checks if this client caches <em>not found</em> responses that do not contain a cache directive.
+     * <p>
+     * Subclasses should override this method if a <em>not found</em> response indicates that the
+     * requested resource does not exist (as opposed to e.g. an unknown operation) so that repeated
+     * requests for non-existing resources can be answered from the cache.
+     * <p>
+     * This default implementation returns {@code false}.
+     *
+     * @return {@code true} if <em>not found</em> responses are cached using the
+     *         timeout returned by {@link #getResponseCacheNotFoundTimeout()}.
+     */
+    protected boolean isNotFoundResponseCacheable() {
+        return false;
+    }
+
     /**
      * Sets the period of time after which any requests are considered to have timed out.
      * <p>
@@ -373,37 +442,34 @@ public abstract class AbstractRequestResponseClient<R extends RequestResponseRes
      */
     protected final void handleResponse(final ProtonDelivery delivery, final Message message) {
 
-        // the tuple from the reply map contains
-        // 1. the handler for processing the response and
-        // 2. the key to use for caching the response
-        // 3. the Opentracing span covering the execution
-        final TriTuple<Handler<AsyncResult<R>>, Object, Span> handler = replyMap.remove(message.getCorrelationId());
+        final OutstandingRequest<R> handler = replyMap.remove(message.getCorrelationId());
 
         if (handler == null) {
             LOG.debug("discarding unexpected response [reply-to: {}, correlation ID: {}]",
                     replyToAddress, message.getCorrelationId());
             ProtonHelper.rejected(delivery, true);
         } else {
+            handler.cancelTimeout();
             final R response = getRequestResponseResult(message);
-            final Span span = handler.three();
+            final Span span = handler.span;
             if (response == null) {
                 LOG.debug("discarding malformed response [reply-to: {}, correlation ID: {}]",
                         replyToAddress, message.getCorrelationId());
                 if (span != null) {
                     Tags.HTTP_STATUS.set(span, HttpURLConnection.HTTP_INTERNAL_ERROR);
                 }
-                handler.one().handle(Future.failedFuture(new ServerErrorException(HttpURLConnection.HTTP_INTERNAL_ERROR,
+                handler.resultHandler.handle(Future.failedFuture(new ServerErrorException(HttpURLConnection.HTTP_INTERNAL_ERROR,
                         "cannot process response from service [" + getName() + "]")));
                 ProtonHelper.released(delivery, true);
             } else {
                 LOG.debug("received response [reply-to: {}, subject: {}, correlation ID: {}, status: {}]",
                         replyToAddress, message.getSubject(), message.getCorrelationId(), response.getStatus());
-                addToCache(handler.two(), response);
+                addToCache(handler.cacheKey, response);
                 if (span != null) {
                     span.log("response from peer accepted");
                     Tags.HTTP_STATUS.set(span, response.getStatus());
                 }
-                handler.one().handle(Future.succeededFuture(response));
+                handler.resultHandler.handle(Future.succeededFuture(response));
                 ProtonHelper.accepted(delivery, true);
             }
         }
@@ -430,17 +496,18 @@ public abstract class AbstractRequestResponseClient<R extends RequestResponseRes
         if (result.succeeded()) {
             throw new IllegalArgumentException("result must be failed");
         } else {
-            final TriTuple<Handler<AsyncResult<R>>, Object, Span> handler = replyMap.remove(correlationId);
+            final OutstandingRequest<R> handler = replyMap.remove(correlationId);
             if (handler == null) {
                 // response has already been processed
             } else {
+                handler.cancelTimeout();
                 LOG.debug("canceling request [target: {}, correlation ID: {}]: {}",
                         targetAddress, correlationId, result.cause().getMessage());
-                final Span span = handler.three();
+                final Span span = handler.span;
                 if (span != null) {
                     Tags.HTTP_STATUS.set(span, ServiceInvocationException.extractStatusCode(result.cause()));
                 }
-                handler.one().handle(result);
+                handler.resultHandler.handle(result);
             }
         }
     }
@@ -580,7 +647,8 @@ public abstract class AbstractRequestResponseClient<R extends RequestResponseRes
      * Creates a request message for a payload with content-type JSON and headers and sends it to the peer.
      * <p>
      * This method first checks if the sender has any credit left. If not, the result handler is failed immediately.
-     * Otherwise, the request message is sent and a timer is started which fails the result handler,
+     * Otherwise, the request message is sent and a time-out is scheduled on the connection's
+     * {@linkplain HonoConnection#getTimingWheel() timing wheel} which fails the result handler,
      * if no response is received within <em>requestTimeout</em> milliseconds.
      *
      * @param action The operation that the request is supposed to trigger/invoke.
@@ -652,6 +720,11 @@ public abstract class AbstractRequestResponseClient<R extends RequestResponseRes
      * Otherwise, the request message is sent and a timer is started which fails the result handler,
      * if no response is received within <em>requestTimeoutMillis</em> milliseconds.
      * <p>
+     * If a cache key is given and a request with the same cache key is already outstanding,
+     * no new request message is sent. Instead, the result handler is notified about the
+     * outcome of the outstanding request. This prevents a burst of identical requests from
+     * being sent to the peer before the first response has been put to the cache.
+     * <p>
      * In case of an error the {@code Tags.HTTP_STATUS} tag of the span is set accordingly.
      * However, the span is never finished by this method.
      * 
@@ -683,9 +756,35 @@ public abstract class AbstractRequestResponseClient<R extends RequestResponseRes
         Objects.requireNonNull(currentSpan);
 
         if (isOpen()) {
-            final Message request = createMessage(action, properties);
-            MessageHelper.setPayload(request, contentType, payload);
-            sendRequest(request, resultHandler, cacheKey, currentSpan);
+            if (cacheKey == null) {
+                final Message request = createMessage(action, properties);
+                MessageHelper.setPayload(request, contentType, payload);
+                sendRequest(request, resultHandler, cacheKey, currentSpan);
+            } else {
+                final List<Handler<AsyncResult<R>>> waitingHandlers = pendingRequests.get(cacheKey);
+                if (waitingHandlers == null) {
+                    final List<Handler<AsyncResult<R>>> handlers = new ArrayList<>();
+                    pendingRequests.put(cacheKey, handlers);
+                    final Message request = createMessage(action, properties);
+                    MessageHelper.setPayload(request, contentType, payload);
+                    sendRequest(request, ar -> {
+                        pendingRequests.remove(cacheKey, handlers);
+                        resultHandler.handle(ar);
+                        handlers.forEach(handler -> handler.handle(ar));
+                    }, cacheKey, currentSpan);
+                } else {
+                    LOG.trace("joining outstanding request [target: {}, subject: {}]", targetAddress, action);
+                    currentSpan.log("joining outstanding request for same resource");
+                    waitingHandlers.add(ar -> {
+                        if (ar.failed()) {
+                            Tags.HTTP_STATUS.set(currentSpan, ServiceInvocationException.extractStatusCode(ar.cause()));
+                        } else if (ar.result() != null) {
+                            Tags.HTTP_STATUS.set(currentSpan, ar.result().getStatus());
+                        }
+                        resultHandler.handle(ar);
+                    });
+                }
+            }
         } else {
             Tags.HTTP_STATUS.set(currentSpan, HttpURLConnection.HTTP_UNAVAILABLE);
             resultHandler.handle(Future.failedFuture(new ServerErrorException(
@@ -739,9 +838,18 @@ public abstract class AbstractRequestResponseClient<R extends RequestResponseRes
                 details.put(TracingHelper.TAG_QOS.getKey(), sender.getQoS().toString());
                 currentSpan.log(details);
 
-                final TriTuple<Handler<AsyncResult<R>>, Object, Span> handler = TriTuple.of(resultHandler, cacheKey, currentSpan);
+                final OutstandingRequest<R> handler = new OutstandingRequest<>(resultHandler, cacheKey, currentSpan);
                 TracingHelper.injectSpanContext(connection.getTracer(), currentSpan.context(), request);
                 replyMap.put(correlationId, handler);
+                if (requestTimeoutMillis > 0) {
+                    // use the connection's timing wheel instead of a vert.x timer per request
+                    // because the time-out gets canceled for most requests anyway
+                    final long timeout = requestTimeoutMillis;
+                    handler.timeout = connection.getTimingWheel().schedule(timeout, v -> {
+                        cancelRequest(correlationId, Future.failedFuture(new ServerErrorException(
+                                HttpURLConnection.HTTP_UNAVAILABLE, "request timed out after " + timeout + "ms")));
+                    });
+                }
 
                 sender.send(request, deliveryUpdated -> {
                     final Future<R> failedResult = Future.future();
@@ -767,6 +875,7 @@ public abstract class AbstractRequestResponseClient<R extends RequestResponseRes
                         if (request.getReplyTo() == null) {
                             Tags.HTTP_STATUS.set(currentSpan, HttpURLConnection.HTTP_ACCEPTED);
                             replyMap.remove(correlationId);
+                            handler.cancelTimeout();
                             resultHandler.handle(Future.succeededFuture());
                         }
                     } else if (Released.class.isInstance(remoteState)) {
@@ -783,12 +892,6 @@ public abstract class AbstractRequestResponseClient<R extends RequestResponseRes
                         cancelRequest(correlationId, failedResult);
                     }
                 });
-                if (requestTimeoutMillis > 0) {
-                    connection.getVertx().setTimer(requestTimeoutMillis, tid -> {
-                        cancelRequest(correlationId, Future.failedFuture(new ServerErrorException(
-                                HttpURLConnection.HTTP_UNAVAILABLE, "request timed out after " + requestTimeoutMillis + "ms")));
-                    });
-                }
                 if (LOG.isDebugEnabled()) {
                     final String deviceId = MessageHelper.getDeviceId(request);
                     if (deviceId == null) {
@@ -854,7 +957,10 @@ public abstract class AbstractRequestResponseClient<R extends RequestResponseRes
         if (responseCache == null) {
             return Future.failedFuture(new IllegalStateException("no cache configured"));
         } else {
-            final R result = responseCache.get(key);
+            R result = responseCache.get(key);
+            if (result == null) {
+                result = getNotFoundResponse(key);
+            }
             if (result == null) {
                 return Future.failedFuture("cache miss");
             } else {
@@ -874,6 +980,11 @@ public abstract class AbstractRequestResponseClient<R extends RequestResponseRes
      * one of the codes defined by <a href="https://tools.ietf.org/html/rfc2616#section-13.4">
      * RFC 2616, Section 13.4 Response Cacheability</a>, the response is put to the cache using
      * the default timeout returned by {@link #getResponseCacheDefaultTimeout()}<li>
+     * <li>else if the response does not contain any cache directive, the response's status code is 404
+     * and {@link #isNotFoundResponseCacheable()} returns {@code true}, the response is kept by this client
+     * using the timeout returned by {@link #getResponseCacheNotFoundTimeout()}. At most
+     * {@value #MAX_CACHED_NOT_FOUND_RESPONSES} such responses are kept, the oldest ones being
+     * discarded first.</li>
      * <li>else if the response contains a <em>max-age</em> directive, the response
      * is put to the cache using the max age from the directive.</li>
      * <li>else if the response contains a <em>no-cache</em> directive, the response
@@ -890,6 +1001,16 @@ public abstract class AbstractRequestResponseClient<R extends RequestResponseRes
 
         if (responseCache != null && key != null) {
 
+            notFoundResponses.remove(key);
+            if (response.getCacheDirective() == null
+                    && response.getStatus() == HttpURLConnection.HTTP_NOT_FOUND
+                    && isNotFoundResponseCacheable() && getResponseCacheNotFoundTimeout() > 0) {
+                notFoundResponses.put(key, new BasicExpiringValue<>(
+                        response,
+                        Instant.now().plusSeconds(getResponseCacheNotFoundTimeout())));
+                return;
+            }
+
             final CacheDirective cacheDirective = Optional.ofNullable(response.getCacheDirective())
                     .orElseGet(() -> {
                         if (isCacheableStatusCode(response.getStatus())) {
@@ -907,6 +1028,19 @@ public abstract class AbstractRequestResponseClient<R extends RequestResponseRes
         }
     }
 
+    private R getNotFoundResponse(final Object key) {
+
+        final ExpiringValue<R> notFound = notFoundResponses.get(key);
+        if (notFound == null) {
+            return null;
+        } else if (notFound.isExpired()) {
+            notFoundResponses.remove(key);
+            return null;
+        } else {
+            return notFound.getValue();
+        }
+    }
+
     private boolean isCacheableStatusCode(final int code) {
         return Arrays.binarySearch(CACHEABLE_STATUS_CODES, code) >= 0;
     }
@@ -919,4 +1053,30 @@ public abstract class AbstractRequestResponseClient<R extends RequestResponseRes
     protected final String getTenantId() {
         return tenantId;
     }
+
+    /**
+     * A request that has been sent to the peer and for which the outcome is not known yet.
+     *
+     * @param <R> The type of result the request is expected to produce.
+     */
+    private static final class OutstandingRequest<R> {
+
+        private final Handler<AsyncResult<R>> resultHandler;
+        private final Object cacheKey;
+        private final Span span;
+        private TimingWheel.Timeout timeout;
+
+        OutstandingRequest(final Handler<AsyncResult<R>> resultHandler, final Object cacheKey, final Span span) {
+            this.resultHandler = resultHandler;
+            this.cacheKey = cacheKey;
+            this.span = span;
+        }
+
+        void cancelTimeout() {
+            if (timeout != null) {
+                timeout.cancel();
+                timeout = null;
+            }
+        }
+    }
 }
@@ -15,9 +15,14 @@
 package org.eclipse.hono.client.impl;
 
 import java.net.HttpURLConnection;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.function.LongSupplier;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 
@@ -37,44 +42,103 @@ import io.vertx.core.Vertx;
  * The getOrCreateClient method makes sure that the creation attempt
  * fails if the clearState method is being invoked.
  * <p>
- * Created clients are being cached.
+ * Created clients are being cached. Concurrent requests for a client that
+ * is still being created are completed with the outcome of the single
+ * creation attempt for the client's key.
+ * <p>
+ * Optionally, cached clients that have not been used for a given amount
+ * of time are removed from the cache and handed over to a handler, e.g. for
+ * closing them.
  * 
  * @param <T> The type of client to be created.
  */
 class CachingClientFactory<T> extends ClientFactory<T> {
 
+    private static final Logger log = LoggerFactory.getLogger(CachingClientFactory.class);
+    private static final long NO_TIMER = -1L;
     /**
-     * The maximum number of retries for getting or creating a client while a concurrent request with the same key is
-     * still not completed.
-     */
-    static final int MAX_CREATION_RETRIES = 3;
-    /**
-     * The interval in milliseconds before a retry attempt is done to get or create a client.
+     * The minimum interval in milliseconds between checks for idle clients.
      */
-    static final int CREATION_RETRY_INTERVAL_MILLIS = 20;
-
-    private static final Logger log = LoggerFactory.getLogger(CachingClientFactory.class);
+    private static final long MIN_IDLE_CHECK_INTERVAL_MILLIS = 1000L;
 
     private final Vertx vertx;
 
     private final Predicate<T> livenessCheck;
+    private final long maxIdleTimeMillis;
+    private final Handler<T> idleClientHandler;
+    private final LongSupplier clock;
     /**
      * The clients that can be used to send messages.
      * The target address is used as the key, e.g. <em>telemetry/DEFAULT_TENANT</em>.
+     * The entries are kept in access order, i.e. the least recently used client comes first.
      */
-    private final Map<String, T> activeClients = new HashMap<>();
+    private final Map<String, CachedClient<T>> activeClients = new LinkedHashMap<>(16, 0.75f, true);
     /**
-     * The locks for guarding the creation of new instances.
+     * The handlers waiting for the outcome of an ongoing creation attempt, indexed by the client's key.
      */
-    private final Map<String, Boolean> creationLocks = new HashMap<>();
+    private final Map<String, List<Handler<AsyncResult<T>>>> pendingCreations = new HashMap<>();
+    private long idleCheckTimerId = NO_TIMER;
 
     /**
+     * Creates a factory that never removes idle clients from the cache.
+     * 
      * @param vertx The Vert.x instance to use for creating a timer.
      * @param livenessCheck A predicate for checking if a cached client is usable.
      */
     CachingClientFactory(final Vertx vertx, final Predicate<T> livenessCheck) {
+        this(vertx, livenessCheck, 0, null);
+    }
+
+    /**
+     * Creates a factory that removes idle clients from the cache.
+     * 
+     * @param vertx The Vert.x instance to use for creating a timer.
+     * @param livenessCheck A predicate for checking if a cached client is usable.
+     * @param maxIdleTimeMillis The number of milliseconds after which a cached client that has
+     *                          not been used is removed from the cache. If set to 0, clients are
+     *                          never removed because of being idle.
+     * @param idleClientHandler The handler to invoke with clients that have been removed
+     *                          from the cache because of being idle (may be {@code null}).
+     * @throws NullPointerException if liveness check is {@code null}.
+     * @throws IllegalArgumentException if max idle time is negative.
+     */
+    CachingClientFactory(
+            final Vertx vertx,
+            final Predicate<T> livenessCheck,
+            final long maxIdleTimeMillis,
+            final Handler<T> idleClientHandler) {
+        this(vertx, livenessCheck, maxIdleTimeMillis, idleClientHandler, System::currentTimeMillis);
+    }
+
+    /**
+     * Creates a factory that removes idle clients from the cache based on a specific clock.
+     * 
+     * @param vertx The Vert.x instance to use for creating a timer.
+     * @param livenessCheck A predicate for checking if a cached client is usable.
+     * @param maxIdleTimeMillis The number of milliseconds after which a cached client that has
+     *                          not been used is removed from the cache. If set to 0, clients are
+     *                          never removed because of being idle.
+     * @param idleClientHandler The handler to invoke with clients that have been removed
+     *                          from the cache because of being idle (may be {@code null}).
+     * @param clock The source of the current time in milliseconds.
+     * @throws NullPointerException if liveness check or clock are {@code null}.
+     * @throws IllegalArgumentException if max idle time is negative.
+     */
+    CachingClientFactory(
+            final Vertx vertx,
+            final Predicate<T> livenessCheck,
+            final long maxIdleTimeMillis,
+            final Handler<T> idleClientHandler,
+            final LongSupplier clock) {
+
+        if (maxIdleTimeMillis < 0) {
+            throw new IllegalArgumentException("max idle time must not be negative");
+        }
         this.vertx = vertx;
         this.livenessCheck = Objects.requireNonNull(livenessCheck);
+        this.maxIdleTimeMillis = maxIdleTimeMillis;
+        this.idleClientHandler = idleClientHandler;
+        this.clock = Objects.requireNonNull(clock);
     }
 
     /**
@@ -93,9 +157,9 @@ class CachingClientFactory<T> extends ClientFactory<T> {
      * @param postProcessor A handler to invoke with the removed client.
      */
     public void removeClient(final String key, final Handler<T> postProcessor) {
-        final T client = activeClients.remove(key);
-        if (client != null) {
-            postProcessor.handle(client);
+        final CachedClient<T> cachedClient = activeClients.remove(key);
+        if (cachedClient != null) {
+            postProcessor.handle(cachedClient.client);
         }
     }
 
@@ -105,11 +169,12 @@ class CachingClientFactory<T> extends ClientFactory<T> {
     @Override
     protected void doClearState() {
         activeClients.clear();
-        creationLocks.clear();
+        pendingCreations.clear();
+        cancelIdleCheck();
     }
 
     public boolean isEmpty() {
-        return activeClients.isEmpty() && creationLocks.isEmpty() && creationRequests.isEmpty();
+        return activeClients.isEmpty() && pendingCreations.isEmpty() && creationRequests.isEmpty();
     }
 
     /**
@@ -120,7 +185,13 @@ class CachingClientFactory<T> extends ClientFactory<T> {
      *         not contain the key.
      */
     public T getClient(final String key) {
-        return activeClients.get(key);
+        final CachedClient<T> cachedClient = activeClients.get(key);
+        if (cachedClient == null) {
+            return null;
+        } else {
+            cachedClient.lastUsed = clock.getAsLong();
+            return cachedClient.client;
+        }
     }
 
     /**
@@ -129,6 +200,8 @@ class CachingClientFactory<T> extends ClientFactory<T> {
      * This method first tries to look up an already existing
      * client using the given key. If no client exists yet, a new
      * instance is created using the given factory and put to the cache.
+     * If a client for the key is already being created, the given handler
+     * is invoked with the outcome of that creation attempt instead.
      * 
      * @param key The key to cache the client under.
      * @param clientInstanceSupplier The factory to use for creating a
@@ -143,59 +216,110 @@ class CachingClientFactory<T> extends ClientFactory<T> {
             final String key,
             final Supplier<Future<T>> clientInstanceSupplier,
             final Handler<AsyncResult<T>> result) {
-        getOrCreateClient(key, clientInstanceSupplier, result, 0);
-    }
-
-    private void getOrCreateClient(
-            final String key,
-            final Supplier<Future<T>> clientInstanceSupplier,
-            final Handler<AsyncResult<T>> result,
-            final int retry) {
 
-        final T sender = activeClients.get(key);
+        final T sender = getClient(key);
 
         if (sender != null && livenessCheck.test(sender)) {
             log.debug("reusing cached client [{}]", key);
             result.handle(Future.succeededFuture(sender));
-        } else if (!creationLocks.computeIfAbsent(key, k -> Boolean.FALSE)) {
-            // register a handler to be notified if the underlying connection to the server fails
-            // so that we can fail the result handler passed in
-            final Handler<Void> connectionFailureHandler = connectionLost -> {
-                // remove lock so that next attempt to open a sender doesn't fail
-                creationLocks.remove(key);
-                result.handle(Future.failedFuture(
-                        new ServerErrorException(HttpURLConnection.HTTP_UNAVAILABLE, "no connection to service")));
-            };
-            creationRequests.add(connectionFailureHandler);
-            creationLocks.put(key, Boolean.TRUE);
-            log.debug("creating new client for [{}]", key);
-
-            clientInstanceSupplier.get().setHandler(creationAttempt -> {
-                creationLocks.remove(key);
-                creationRequests.remove(connectionFailureHandler);
-                if (creationAttempt.succeeded()) {
-                    final T newClient = creationAttempt.result();
-                    log.debug("successfully created new client for [{}]", key);
-                    activeClients.put(key, newClient);
-                    result.handle(Future.succeededFuture(newClient));
-                } else {
-                    log.debug("failed to create new client for [{}]", key, creationAttempt.cause());
-                    activeClients.remove(key);
-                    result.handle(Future.failedFuture(creationAttempt.cause()));
-                }
-            });
+            return;
+        }
 
-        } else {
-            if (retry < MAX_CREATION_RETRIES) {
-                log.debug("already trying to create a client for [{}], retrying in {}ms", key, CREATION_RETRY_INTERVAL_MILLIS);
-                vertx.setTimer(CREATION_RETRY_INTERVAL_MILLIS, id -> {
-                    getOrCreateClient(key, clientInstanceSupplier, result, retry + 1);
-                });
+        final List<Handler<AsyncResult<T>>> waitingHandlers = pendingCreations.get(key);
+        if (waitingHandlers != null) {
+            log.debug("already trying to create a client for [{}], waiting for outcome", key);
+            waitingHandlers.add(result);
+            return;
+        }
+
+        final List<Handler<AsyncResult<T>>> handlers = new ArrayList<>();
+        handlers.add(result);
+        pendingCreations.put(key, handlers);
+
+        // register a handler to be notified if the underlying connection to the server fails
+        // so that we can fail the result handlers passed in
+        final Handler<Void> connectionFailureHandler = connectionLost -> {
+            // remove pending creation so that next attempt to open a sender doesn't fail
+            pendingCreations.remove(key, handlers);
+            completeAll(handlers, Future.failedFuture(
+                    new ServerErrorException(HttpURLConnection.HTTP_UNAVAILABLE, "no connection to service")));
+        };
+        creationRequests.add(connectionFailureHandler);
+        log.debug("creating new client for [{}]", key);
+
+        clientInstanceSupplier.get().setHandler(creationAttempt -> {
+            if (!creationRequests.remove(connectionFailureHandler)) {
+                // handlers have already been failed because of connection loss
+                return;
+            }
+            pendingCreations.remove(key, handlers);
+            if (creationAttempt.succeeded()) {
+                final T newClient = creationAttempt.result();
+                log.debug("successfully created new client for [{}]", key);
+                activeClients.put(key, new CachedClient<>(newClient, clock.getAsLong()));
+                scheduleIdleCheck();
+                completeAll(handlers, Future.succeededFuture(newClient));
             } else {
-                log.debug("already trying to create a client for [{}] (max retries reached)", key);
-                result.handle(Future.failedFuture(new ServerErrorException(
-                        HttpURLConnection.HTTP_UNAVAILABLE, "already creating client for key")));
+                log.debug("failed to create new client for [{}]", key, creationAttempt.cause());
+                activeClients.remove(key);
+                completeAll(handlers, Future.failedFuture(creationAttempt.cause()));
             }
+        });
+    }
+
+    private void completeAll(final List<Handler<AsyncResult<T>>> handlers, final AsyncResult<T> outcome) {
+        for (final Handler<AsyncResult<T>> handler : handlers) {
+            handler.handle(outcome);
+        }
+    }
+
+    private void scheduleIdleCheck() {
+        if (maxIdleTimeMillis > 0 && idleCheckTimerId == NO_TIMER) {
+            final long interval = Math.max(MIN_IDLE_CHECK_INTERVAL_MILLIS, maxIdleTimeMillis / 2);
+            idleCheckTimerId = vertx.setPeriodic(interval, tid -> removeIdleClients());
+        }
+    }
+
+    private void cancelIdleCheck() {
+        if (idleCheckTimerId != NO_TIMER) {
+            vertx.cancelTimer(idleCheckTimerId);
+            idleCheckTimerId = NO_TIMER;
+        }
+    }
+
+    private void removeIdleClients() {
+
+        final long now = clock.getAsLong();
+        // entries are in access order, so we can stop at the first client that is not idle
+        for (final Iterator<Map.Entry<String, CachedClient<T>>> iter = activeClients.entrySet().iterator(); iter.hasNext();) {
+            final Map.Entry<String, CachedClient<T>> entry = iter.next();
+            if (now - entry.getValue().lastUsed < maxIdleTimeMillis) {
+                break;
+            }
+            iter.remove();
+            log.debug("removing idle client [{}]", entry.getKey());
+            if (idleClientHandler != null) {
+                idleClientHandler.handle(entry.getValue().client);
+            }
+        }
+        if (activeClients.isEmpty()) {
+            cancelIdleCheck();
+        }
+    }
+
+    /**
+     * A client in the cache along with the time it has been used last.
+     *
+     * @param <T> The type of client.
+     */
+    private static final class CachedClient<T> {
+
+        private final T client;
+        private long lastUsed;
+
+        CachedClient(final T client, final long lastUsed) {
+            this.client = client;
+            this.lastUsed = lastUsed;
         }
     }
 }
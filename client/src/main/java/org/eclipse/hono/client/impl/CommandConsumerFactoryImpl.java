@@ -54,6 +54,13 @@ import io.vertx.proton.ProtonReceiver;
  * command is mapped to the id of the gateway through which the device has last sent messages. Then the command message
  * is either handled by an already existing command handler for the (mapped) device id, or the message is sent back to
  * the downstream peer to be handled by a device-specific consumer.
+ * <p>
+ * If <em>multiplexing</em> is enabled in the connection's configuration, no device-specific consumers are created at all.
+ * Instead, the command handlers are only registered with the tenant-scoped consumer, so that the number of links
+ * (and liveness checks) required only depends on the number of tenants instead of the number of devices. Note that
+ * commands for devices that have no handler registered at this factory are settled with the <em>released</em> outcome
+ * because there are no device-specific consumers that they could be delegated to. This mode is therefore intended for
+ * deployments in which the devices of a tenant connect to a single adapter instance.
  */
 public class CommandConsumerFactoryImpl extends AbstractHonoClientFactory implements CommandConsumerFactory {
 
@@ -80,7 +87,12 @@ public class CommandConsumerFactoryImpl extends AbstractHonoClientFactory implem
      * liveness checks for the consumers.
      */
     private final Map<String, Long> livenessChecks = new HashMap<>();
+    /**
+     * The number of multiplexed command consumers per tenant.
+     */
+    private final Map<String, Integer> multiplexedCommandConsumers = new HashMap<>();
     private final GatewayMapper gatewayMapper;
+    private final boolean multiplexingEnabled;
 
     /**
      * Creates a new factory for an existing connection.
@@ -96,6 +108,7 @@ public class CommandConsumerFactoryImpl extends AbstractHonoClientFactory implem
     public CommandConsumerFactoryImpl(final HonoConnection connection, final GatewayMapper gatewayMapper) {
         super(connection);
         this.gatewayMapper = Objects.requireNonNull(gatewayMapper);
+        this.multiplexingEnabled = connection.getConfig().isMultiplexingEnabled();
         deviceSpecificCommandConsumerFactory = new CachingClientFactory<>(connection.getVertx(), c -> true);
         tenantScopedCommandConsumerFactory = new CachingClientFactory<>(connection.getVertx(), c -> true);
         delegatedCommandSenderFactory = new CachingClientFactory<>(connection.getVertx(), s -> s.isOpen());
@@ -105,7 +118,11 @@ public class CommandConsumerFactoryImpl extends AbstractHonoClientFactory implem
     protected void onDisconnect() {
         deviceSpecificCommandConsumerFactory.clearState();
         tenantScopedCommandConsumerFactory.clearState();
-        deviceSpecificCommandHandlers.clear();
+        if (!multiplexingEnabled) {
+            deviceSpecificCommandHandlers.clear();
+        }
+        // else keep the handlers so that commands are dispatched to them again
+        // once the tenant-scoped consumers have been re-created
     }
 
     private String getKey(final String tenantId, final String deviceId) {
@@ -126,6 +143,9 @@ public class CommandConsumerFactoryImpl extends AbstractHonoClientFactory implem
         Objects.requireNonNull(deviceId);
         Objects.requireNonNull(commandHandler);
 
+        if (multiplexingEnabled) {
+            return createMultiplexedCommandConsumer(tenantId, deviceId, commandHandler, -1);
+        }
         return connection.executeOrRunOnContext(result -> {
             final String key = getKey(tenantId, deviceId);
             final MessageConsumer commandConsumer = deviceSpecificCommandConsumerFactory.getClient(key);
@@ -149,6 +169,57 @@ public class CommandConsumerFactoryImpl extends AbstractHonoClientFactory implem
         });
     }
 
+    private Future<MessageConsumer> createMultiplexedCommandConsumer(
+            final String tenantId,
+            final String deviceId,
+            final Handler<CommandContext> commandHandler,
+            final long checkInterval) {
+
+        return connection.executeOrRunOnContext(result -> {
+            final String key = getKey(tenantId, deviceId);
+            if (deviceSpecificCommandHandlers.containsKey(key)) {
+                log.debug("cannot create concurrent command consumer [tenant: {}, device-id: {}]", tenantId, deviceId);
+                result.fail(new ResourceConflictException("message consumer already in use"));
+            } else {
+                // register the handler right away in order to detect concurrent attempts
+                deviceSpecificCommandHandlers.put(key, commandHandler);
+                getOrCreateTenantScopedCommandConsumer(tenantId)
+                .map(tenantScopedConsumer -> {
+                    log.debug("registered command handler with tenant scoped command consumer [tenant: {}, device-id: {}]",
+                            tenantId, deviceId);
+                    multiplexedCommandConsumers.merge(tenantId, 1, Integer::sum);
+                    if (checkInterval >= 0 && !livenessChecks.containsKey(tenantId)) {
+                        final long effectiveCheckInterval = Math.max(MIN_LIVENESS_CHECK_INTERVAL_MILLIS, checkInterval);
+                        livenessChecks.put(tenantId, connection.getVertx().setPeriodic(
+                                effectiveCheckInterval,
+                                newTenantLivenessCheck(tenantId)));
+                    }
+                    return (MessageConsumer) new MultiplexedCommandConsumer(tenantId, key, commandHandler);
+                })
+                .recover(t -> {
+                    deviceSpecificCommandHandlers.remove(key, commandHandler);
+                    return Future.failedFuture(t);
+                })
+                .setHandler(result);
+            }
+        });
+    }
+
+    private void onMultiplexedCommandConsumerClosed(
+            final String tenantId,
+            final String key,
+            final Handler<CommandContext> commandHandler) {
+
+        if (deviceSpecificCommandHandlers.remove(key, commandHandler)) {
+            final Integer remainingConsumers = multiplexedCommandConsumers.computeIfPresent(
+                    tenantId, (k, count) -> count > 1 ? count - 1 : null);
+            if (remainingConsumers == null) {
+                // stop liveness check of the tenant scoped consumer
+                Optional.ofNullable(livenessChecks.remove(tenantId)).ifPresent(connection.getVertx()::cancelTimer);
+            }
+        }
+    }
+
     private Future<MessageConsumer> getOrCreateTenantScopedCommandConsumer(final String tenantId) {
         Objects.requireNonNull(tenantId);
         return connection.executeOrRunOnContext(result -> {
@@ -178,6 +249,11 @@ public class CommandConsumerFactoryImpl extends AbstractHonoClientFactory implem
                     if (commandHandler != null) {
                         log.trace("use local command handler for device {}", deviceId);
                         commandHandler.handle(commandContext);
+                    } else if (multiplexingEnabled) {
+                        // there are no device-specific consumers that the command could be delegated to
+                        log.debug("no local command handler found for device {} of tenant {}, releasing command",
+                                deviceId, tenantId);
+                        commandContext.release();
                     } else {
                         // delegate to matching consumer via downstream peer
                         delegatingCommandHandler.handle(commandContext);
@@ -251,6 +327,9 @@ public class CommandConsumerFactoryImpl extends AbstractHonoClientFactory implem
             throw new IllegalArgumentException("liveness check interval must be > 0");
         }
 
+        if (multiplexingEnabled) {
+            return createMultiplexedCommandConsumer(tenantId, deviceId, commandHandler, checkInterval);
+        }
         return createCommandConsumer(tenantId, deviceId, commandHandler, remoteCloseHandler)
                 .map(c -> {
 
@@ -307,30 +386,50 @@ public class CommandConsumerFactoryImpl extends AbstractHonoClientFactory implem
                         }
                     }
 
-                    if (tenantScopedCommandConsumerFactory.getClient(tenantId) == null) {
-                        if (recreatingTenantScopedCommandConsumer.compareAndSet(false, true)) {
-                            log.debug("trying to re-create tenant scoped command consumer [tenant: {}]", tenantId);
-                            getOrCreateTenantScopedCommandConsumer(tenantId)
-                                    .map(consumer -> {
-                                        log.debug("successfully re-created tenant scoped command consumer [tenant: {}]", tenantId);
-                                        return consumer;
-                                    })
-                                    .otherwise(t -> {
-                                        log.info("failed to re-create tenant scoped command consumer [tenant: {}]: {}",
-                                                tenantId, t.getMessage());
-                                        return null;
-                                    })
-                                    .setHandler(s -> recreatingTenantScopedCommandConsumer.compareAndSet(true, false));
-                        } else {
-                            log.debug("already trying to re-create tenant scoped command consumer [tenant: {}], yielding ...", tenantId);
-                        }
-                    }
+                    recreateTenantScopedCommandConsumerIfNeeded(tenantId, recreatingTenantScopedCommandConsumer);
                     return null;
                 });
             }
         };
     }
 
+    Handler<Long> newTenantLivenessCheck(final String tenantId) {
+
+        final AtomicBoolean recreating = new AtomicBoolean(false);
+        return timerId -> {
+            if (connection.isShutdown()) {
+                connection.getVertx().cancelTimer(timerId);
+            } else {
+                connection.isConnected().map(ok -> {
+                    recreateTenantScopedCommandConsumerIfNeeded(tenantId, recreating);
+                    return null;
+                });
+            }
+        };
+    }
+
+    private void recreateTenantScopedCommandConsumerIfNeeded(final String tenantId, final AtomicBoolean recreating) {
+
+        if (tenantScopedCommandConsumerFactory.getClient(tenantId) == null) {
+            if (recreating.compareAndSet(false, true)) {
+                log.debug("trying to re-create tenant scoped command consumer [tenant: {}]", tenantId);
+                getOrCreateTenantScopedCommandConsumer(tenantId)
+                        .map(consumer -> {
+                            log.debug("successfully re-created tenant scoped command consumer [tenant: {}]", tenantId);
+                            return consumer;
+                        })
+                        .otherwise(t -> {
+                            log.info("failed to re-create tenant scoped command consumer [tenant: {}]: {}",
+                                    tenantId, t.getMessage());
+                            return null;
+                        })
+                        .setHandler(s -> recreating.compareAndSet(true, false));
+            } else {
+                log.debug("already trying to re-create tenant scoped command consumer [tenant: {}], yielding ...", tenantId);
+            }
+        }
+    }
+
     private Future<MessageConsumer> newDeviceSpecificCommandConsumer(
             final String tenantId,
             final String deviceId,
@@ -379,6 +478,66 @@ public class CommandConsumerFactoryImpl extends AbstractHonoClientFactory implem
         });
     }
 
+    /**
+     * A command consumer that has its command handler registered with
+     * the tenant-scoped consumer instead of using a link of its own.
+     */
+    private final class MultiplexedCommandConsumer implements MessageConsumer {
+
+        private final String tenantId;
+        private final String key;
+        private final Handler<CommandContext> commandHandler;
+
+        MultiplexedCommandConsumer(
+                final String tenantId,
+                final String key,
+                final Handler<CommandContext> commandHandler) {
+            this.tenantId = tenantId;
+            this.key = key;
+            this.commandHandler = commandHandler;
+        }
+
+        /**
+         * {@inheritDoc}
+         * <p>
+         * Unregisters the command handler. The tenant-scoped link is not closed.
+         */
+        @Override
+        public void close(final Handler<AsyncResult<Void>> closeHandler) {
+            connection.<Void> executeOrRunOnContext(result -> {
+                onMultiplexedCommandConsumerClosed(tenantId, key, commandHandler);
+                result.complete();
+            }).setHandler(r -> {
+                if (closeHandler != null) {
+                    closeHandler.handle(Future.succeededFuture());
+                }
+            });
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @throws IllegalStateException always, because credit is managed
+         *                               by the tenant-scoped consumer.
+         */
+        @Override
+        public void flow(final int credits) throws IllegalStateException {
+            throw new IllegalStateException("credit is managed by tenant scoped command consumer");
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @return The remaining credit of the tenant-scoped consumer or 0 if it is not available.
+         */
+        @Override
+        public int getRemainingCredit() {
+            return Optional.ofNullable(tenantScopedCommandConsumerFactory.getClient(tenantId))
+                    .map(MessageConsumer::getRemainingCredit)
+                    .orElse(0);
+        }
+    }
+
     // ------------- Override AbstractHonoClientFactory methods to also connect/disconnect the gatewayMapper ------------
 
     @Override
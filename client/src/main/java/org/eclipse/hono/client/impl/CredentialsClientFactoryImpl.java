@@ -43,7 +43,11 @@ public class CredentialsClientFactoryImpl extends AbstractHonoClientFactory impl
      */
     public CredentialsClientFactoryImpl(final HonoConnection connection, final CacheProvider cacheProvider) {
         super(connection);
-        credentialsClientFactory = new CachingClientFactory<>(connection.getVertx(), c -> c.isOpen());
+        credentialsClientFactory = new CachingClientFactory<>(
+                connection.getVertx(),
+                c -> c.isOpen(),
+                connection.getConfig().getLinkIdleTimeout(),
+                idleClient -> idleClient.close(null));
         this.cacheProvider = cacheProvider;
     }
 
@@ -90,6 +90,16 @@ public class CredentialsClientImpl extends AbstractRequestResponseClient<Credent
         return CredentialsConstants.CREDENTIALS_ENDPOINT;
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * @return {@code true} because a <em>not found</em> response indicates that no matching credentials exist.
+     */
+    @Override
+    protected final boolean isNotFoundResponseCacheable() {
+        return true;
+    }
+
     @Override
     protected final String createMessageId() {
 
@@ -194,6 +204,20 @@ public class CredentialsClientImpl extends AbstractRequestResponseClient<Credent
     public final Future<CredentialsObject> get(final String type, final String authId, final JsonObject clientContext,
             final SpanContext spanContext) {
 
+        return getCredentialsResult(type, authId, clientContext, spanContext).map(CredentialsResult::getPayload);
+    }
+
+    /**
+     * Invokes the <em>Get Credentials</em> operation of Hono's
+     * <a href="https://www.eclipse.org/hono/api/Credentials-API">Credentials API</a>
+     * on the service represented by the <em>sender</em> and <em>receiver</em> links.
+     * <p>
+     * The returned result contains the cache directive of the response message.
+     */
+    @Override
+    public final Future<CredentialsResult<CredentialsObject>> getCredentialsResult(final String type, final String authId,
+            final JsonObject clientContext, final SpanContext spanContext) {
+
         Objects.requireNonNull(type);
         Objects.requireNonNull(authId);
         Objects.requireNonNull(clientContext);
@@ -235,7 +259,7 @@ public class CredentialsClientImpl extends AbstractRequestResponseClient<Credent
             span.finish();
             switch(response.getStatus()) {
             case HttpURLConnection.HTTP_OK:
-                return response.getPayload();
+                return response;
             case HttpURLConnection.HTTP_NOT_FOUND:
                 throw new ClientErrorException(response.getStatus(), "no such credentials");
             default:
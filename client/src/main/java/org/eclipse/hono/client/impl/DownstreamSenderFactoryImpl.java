@@ -36,7 +36,11 @@ public class DownstreamSenderFactoryImpl extends AbstractHonoClientFactory imple
      */
     public DownstreamSenderFactoryImpl(final HonoConnection connection) {
         super(connection);
-        clientFactory = new CachingClientFactory<>(connection.getVertx(), s -> s.isOpen());
+        clientFactory = new CachingClientFactory<>(
+                connection.getVertx(),
+                s -> s.isOpen(),
+                connection.getConfig().getLinkIdleTimeout(),
+                idleSender -> idleSender.close(closed -> {}));
     }
 
     /**
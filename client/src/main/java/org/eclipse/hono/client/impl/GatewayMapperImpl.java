@@ -13,8 +13,12 @@
 
 package org.eclipse.hono.client.impl;
 
+import java.time.Duration;
 import java.util.Objects;
 
+import org.eclipse.hono.auth.Device;
+import org.eclipse.hono.cache.CacheProvider;
+import org.eclipse.hono.cache.ExpiringValueCache;
 import org.eclipse.hono.client.GatewayMapper;
 import org.eclipse.hono.client.RegistrationClientFactory;
 import org.eclipse.hono.util.Constants;
@@ -26,10 +30,19 @@ import io.vertx.core.json.JsonObject;
 
 /**
  * A component that maps a given device to the gateway through which data was last published for the given device.
+ * <p>
+ * If created with a cache provider, the gateways recorded by means of
+ * {@link #setMappedGatewayDevice(String, String, String)} are kept in a cache and are used for mapping
+ * devices without looking up the device's registration information. The device registry is only
+ * queried if no gateway is known for a device.
  */
 public class GatewayMapperImpl extends ConnectionLifecycleWrapper implements GatewayMapper {
 
+    private static final String CACHE_NAME = "gateway-mapping";
+
     private final RegistrationClientFactory registrationClientFactory;
+    private final ExpiringValueCache<String, String> mappedGateways;
+    private final Duration maxAge;
 
     /**
      * Creates a new GatewayMapperImpl instance.
@@ -37,12 +50,72 @@ public class GatewayMapperImpl extends ConnectionLifecycleWrapper implements Gat
      * @param registrationClientFactory The factory to create a registration client instance.
      */
     public GatewayMapperImpl(final RegistrationClientFactory registrationClientFactory) {
+        this(registrationClientFactory, null, Duration.ZERO);
+    }
+
+    /**
+     * Creates a new GatewayMapperImpl instance that caches the gateways through which
+     * data has been published for devices.
+     *
+     * @param registrationClientFactory The factory to create a registration client instance.
+     * @param cacheProvider The provider of the cache to keep the gateways in or {@code null}
+     *                      if gateways should not be cached.
+     * @param maxAge The period of time for which a gateway is cached after data has been
+     *               published through it.
+     * @throws NullPointerException if factory or max age are {@code null}.
+     */
+    public GatewayMapperImpl(
+            final RegistrationClientFactory registrationClientFactory,
+            final CacheProvider cacheProvider,
+            final Duration maxAge) {
         super(registrationClientFactory);
         this.registrationClientFactory = registrationClientFactory;
+        this.maxAge = Objects.requireNonNull(maxAge);
+        if (cacheProvider == null || maxAge.isZero() || maxAge.isNegative()) {
+            this.mappedGateways = null;
+        } else {
+            this.mappedGateways = cacheProvider.getCache(CACHE_NAME);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This implementation puts the gateway to the cache (if configured) unless the
+     * same gateway is already cached for the device. The period of time for which
+     * a gateway is cached is therefore not extended by subsequent invocations with
+     * the same gateway.
+     */
+    @Override
+    public void setMappedGatewayDevice(final String tenantId, final String deviceId, final String gatewayId) {
+
+        Objects.requireNonNull(tenantId);
+        Objects.requireNonNull(deviceId);
+        Objects.requireNonNull(gatewayId);
+
+        if (mappedGateways != null) {
+            final String key = Device.asAddress(tenantId, deviceId);
+            if (!gatewayId.equals(mappedGateways.get(key))) {
+                mappedGateways.put(key, gatewayId, maxAge);
+            }
+        }
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This implementation returns the gateway from the cache (if configured) and only
+     * retrieves the device's registration information if no gateway is cached for the device.
+     */
     @Override
     public Future<String> getMappedGatewayDevice(final String tenantId, final String deviceId, final SpanContext context) {
+
+        if (mappedGateways != null) {
+            final String gatewayId = mappedGateways.get(Device.asAddress(tenantId, deviceId));
+            if (gatewayId != null) {
+                return Future.succeededFuture(gatewayId);
+            }
+        }
         return registrationClientFactory.getOrCreateRegistrationClient(tenantId).compose(client -> {
             return client.get(deviceId, context);
         }).map(deviceData -> {
@@ -39,6 +39,7 @@ import org.eclipse.hono.config.ClientConfigProperties;
 import org.eclipse.hono.connection.ConnectionFactory;
 import org.eclipse.hono.util.Constants;
 import org.eclipse.hono.util.HonoProtonHelper;
+import org.eclipse.hono.util.TimingWheel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -105,6 +106,7 @@ public class HonoConnectionImpl implements HonoConnection {
     private final AtomicBoolean disconnecting = new AtomicBoolean(false);
     private final ConnectionFactory connectionFactory;
     private final Object connectionLock = new Object();
+    private final TimingWheel timingWheel;
 
     private ProtonClientOptions clientOptions;
     private AtomicInteger connectAttempts;
@@ -153,6 +155,7 @@ public class HonoConnectionImpl implements HonoConnection {
         }
         this.clientConfigProperties = clientConfigProperties;
         this.connectAttempts = new AtomicInteger(0);
+        this.timingWheel = new TimingWheel(this.vertx);
     }
 
     /**
@@ -163,6 +166,14 @@ public class HonoConnectionImpl implements HonoConnection {
         return vertx;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public final TimingWheel getTimingWheel() {
+        return timingWheel;
+    }
+
     /**
      * Sets the OpenTracing {@code Tracer} to use for tracing messages
      * published by devices across Hono's components.
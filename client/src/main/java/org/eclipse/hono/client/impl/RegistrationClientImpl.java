@@ -100,6 +100,16 @@ public class RegistrationClientImpl extends AbstractRequestResponseClient<Regist
         return RegistrationConstants.REGISTRATION_ENDPOINT;
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * @return {@code true} because a <em>not found</em> response indicates that the device does not exist or is disabled.
+     */
+    @Override
+    protected final boolean isNotFoundResponseCacheable() {
+        return true;
+    }
+
     @Override
     protected final String createMessageId() {
 
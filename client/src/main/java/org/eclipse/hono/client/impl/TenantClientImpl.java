@@ -99,6 +99,16 @@ public class TenantClientImpl extends AbstractRequestResponseClient<TenantResult
         return TenantConstants.TENANT_ENDPOINT;
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * @return {@code true} because a <em>not found</em> response indicates that the tenant does not exist.
+     */
+    @Override
+    protected final boolean isNotFoundResponseCacheable() {
+        return true;
+    }
+
     @Override
     protected final String createMessageId() {
 
@@ -46,6 +46,7 @@ import org.eclipse.hono.client.ServiceInvocationException;
 import org.eclipse.hono.util.CacheDirective;
 import org.eclipse.hono.util.Constants;
 import org.eclipse.hono.util.MessageHelper;
+import org.eclipse.hono.util.TimingWheel;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -87,6 +88,7 @@ public class AbstractRequestResponseClientTest  {
     private AbstractRequestResponseClient<SimpleRequestResponseResult> client;
     private ExpiringValueCache<Object, SimpleRequestResponseResult> cache;
     private Vertx vertx;
+    private HonoConnection connection;
     private ProtonReceiver receiver;
     private ProtonSender sender;
     private Span span;
@@ -173,8 +175,8 @@ public class AbstractRequestResponseClientTest  {
         assertThat(body.getBytes(), is(payload.toBuffer().getBytes()));
         assertThat(messageCaptor.getValue().getApplicationProperties(), is(notNullValue()));
         assertThat(messageCaptor.getValue().getApplicationProperties().getValue().get("test-key"), is("test-value"));
-        // and a timer has been set to time out the request after 200 ms
-        verify(vertx).setTimer(eq(200L), any(Handler.class));
+        // and a time-out has been scheduled for the request after 200 ms
+        verify(connection.getTimingWheel()).schedule(eq(200L), any(Handler.class));
     }
 
     /**
@@ -243,8 +245,8 @@ public class AbstractRequestResponseClientTest  {
         responseReceived.await();
         // and the status code conveyed in the response is set on the span
         verify(span).setTag(Tags.HTTP_STATUS.getKey(), 200);
-        // and no response time-out handler has been set
-        verify(vertx, never()).setTimer(anyLong(), any(Handler.class));
+        // and no response time-out has been scheduled
+        verify(connection.getTimingWheel(), never()).schedule(anyLong(), any(Handler.class));
     }
 
     /**
@@ -262,13 +264,14 @@ public class AbstractRequestResponseClientTest  {
         client.setRequestTimeout(200);
 
         // WHEN no response is received for a request sent to the peer
+        final TimingWheel timingWheel = connection.getTimingWheel();
         doAnswer(invocation -> {
             // do not wait 200ms before running the timeout task but instead
             // run it immediately
-            final Handler<Long> task = invocation.getArgument(1);
-            task.handle(1L);
-            return null;
-        }).when(vertx).setTimer(anyLong(), any(Handler.class));
+            final Handler<Void> task = invocation.getArgument(1);
+            task.handle(null);
+            return mock(TimingWheel.Timeout.class);
+        }).when(timingWheel).schedule(anyLong(), any(Handler.class));
 
         client.createAndSendRequest(
                 "request",
@@ -448,6 +451,43 @@ public class AbstractRequestResponseClientTest  {
         verify(cache, never()).put(eq("cacheKey"), any(SimpleRequestResponseResult.class), any(Duration.class));
     }
 
+    /**
+     * Verifies that the client sends a single request message only for
+     * concurrent requests with the same cache key and notifies all result
+     * handlers about the response.
+     *
+     * @param ctx The vert.x test context.
+     */
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testCreateAndSendRequestCoalescesRequestsWithSameCacheKey(final TestContext ctx) {
+
+        // GIVEN an adapter with an empty cache
+        client.setResponseCache(cache);
+
+        // WHEN sending two requests with the same cache key before a response has been received
+        final Async responses = ctx.async(2);
+        client.createAndSendRequest("get", (Buffer) null, ctx.asyncAssertSuccess(result -> {
+            ctx.assertEquals(HttpURLConnection.HTTP_OK, result.getStatus());
+            responses.countDown();
+        }), "cacheKey");
+        client.createAndSendRequest("get", (Buffer) null, ctx.asyncAssertSuccess(result -> {
+            ctx.assertEquals(HttpURLConnection.HTTP_OK, result.getStatus());
+            responses.countDown();
+        }), "cacheKey");
+
+        // THEN only a single request message is sent to the peer
+        final ArgumentCaptor<Message> messageCaptor = ArgumentCaptor.forClass(Message.class);
+        verify(sender).send(messageCaptor.capture(), any(Handler.class));
+        final Message response = ProtonHelper.message("result");
+        MessageHelper.addProperty(response, MessageHelper.APP_PROPERTY_STATUS, HttpURLConnection.HTTP_OK);
+        response.setCorrelationId(messageCaptor.getValue().getMessageId());
+        client.handleResponse(mock(ProtonDelivery.class), response);
+
+        // and both result handlers are notified about the response
+        responses.await();
+    }
+
     /**
      * Verifies that the client succeeds the result handler if the peer accepts
      * the request message for a one-way request.
@@ -505,7 +545,7 @@ public class AbstractRequestResponseClientTest  {
 
     private AbstractRequestResponseClient<SimpleRequestResponseResult> getClient(final String tenant, final ProtonSender sender, final ProtonReceiver receiver) {
 
-        final HonoConnection connection = HonoClientUnitTestHelper.mockHonoConnection(vertx);
+        connection = HonoClientUnitTestHelper.mockHonoConnection(vertx);
         return new AbstractRequestResponseClient<SimpleRequestResponseResult>(connection, tenant, sender, receiver) {
 
             @Override
@@ -19,12 +19,16 @@ import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
 import java.net.HttpURLConnection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.eclipse.hono.client.ServerErrorException;
 import org.eclipse.hono.client.ServiceInvocationException;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 
 import io.vertx.core.Future;
 import io.vertx.core.Handler;
@@ -82,74 +86,128 @@ public class CachingClientFactoryTest {
     }
 
     /**
-     * Verifies that a concurrent request to create a client fails the given
-     * future for tracking the attempt if the initial request doesn't complete.
+     * Verifies that a concurrent request to create a client is completed
+     * with the outcome of the initial request instead of creating another client.
      * 
      * @param ctx The helper to use for running async tests.
      */
     @Test
-    public void testGetOrCreateClientFailsIfInvokedConcurrently(final TestContext ctx) {
+    public void testGetOrCreateClientWaitsForOngoingCreation(final TestContext ctx) {
 
-        // GIVEN a factory that already creates a client for key "bumlux" (and never completes doing so)
+        // GIVEN a factory that already creates a client for key "bumlux"
         final CachingClientFactory<Object> factory = new CachingClientFactory<>(vertx, o -> true);
         final Future<Object> creationResult = Future.future();
+        final Future<Object> clientInstanceFuture = Future.future();
         factory.getOrCreateClient(
                 "bumlux",
-                () -> Future.future(),
+                () -> clientInstanceFuture,
                 creationResult);
 
         // WHEN an additional, concurrent attempt is made to create a client for the same key
+        final Future<Object> concurrentResult = Future.future();
         factory.getOrCreateClient(
                 "bumlux",
                 () -> {
                     ctx.fail("should not create client concurrently");
                     return Future.succeededFuture();
-                }, ctx.asyncAssertFailure(t -> {
-                    // THEN the concurrent attempt fails after having done the default number of retries.
-                    ctx.assertTrue(t instanceof ServerErrorException);
-                    ctx.assertEquals(
-                            HttpURLConnection.HTTP_UNAVAILABLE,
-                            ServiceInvocationException.extractStatusCode(t));
-                    verify(vertx, times(CachingClientFactory.MAX_CREATION_RETRIES)).setTimer(anyLong(), notNull());
-                }));
+                },
+                concurrentResult);
+        ctx.assertFalse(concurrentResult.isComplete());
+
+        // THEN the additional attempt completes with the client created by the initial attempt
+        final Object client = new Object();
+        clientInstanceFuture.complete(client);
+        ctx.assertTrue(creationResult.succeeded());
+        ctx.assertTrue(concurrentResult.succeeded());
+        ctx.assertEquals(client, concurrentResult.result());
+        // without any retries having been scheduled
+        verify(vertx, never()).setTimer(anyLong(), any(Handler.class));
     }
 
     /**
-     * Verifies that a concurrent request to create a client succeeds
-     * if the initial request completes before the first retry of the
-     * concurrent request.
+     * Verifies that a concurrent request to create a client fails if the
+     * initial request fails.
      *
      * @param ctx The helper to use for running async tests.
      */
     @Test
-    public void testGetOrCreateClientSucceedsOnRetry(final TestContext ctx) {
+    public void testGetOrCreateClientFailsConcurrentRequestsIfCreationFails(final TestContext ctx) {
 
         // GIVEN a factory that already creates a client for key "bumlux"
         final CachingClientFactory<Object> factory = new CachingClientFactory<>(vertx, o -> true);
-        final Future<Object> creationResult = Future.future();
         final Future<Object> clientInstanceFuture = Future.future();
         factory.getOrCreateClient(
                 "bumlux",
                 () -> clientInstanceFuture,
-                creationResult);
+                ctx.asyncAssertFailure());
 
-        // WHEN an additional, concurrent attempt is made to create a client for the same key
-        // and the first 'setTimer' invocation finishes the first creation attempt.
-        when(vertx.setTimer(anyLong(), any(Handler.class))).thenAnswer(invocation -> {
-            clientInstanceFuture.tryComplete(new Object());
-            final Handler<Void> task = invocation.getArgument(1);
-            task.handle(null);
-            return 1L;
-        });
-        // THEN the additional attempt finishes after one retry
+        // and an additional, concurrent attempt is made to create a client for the same key
         factory.getOrCreateClient(
                 "bumlux",
                 () -> {
-                    ctx.fail("should not create new client (cached one shall be used)");
+                    ctx.fail("should not create client concurrently");
                     return Future.succeededFuture();
                 },
-                ctx.asyncAssertSuccess());
-        verify(vertx).setTimer(anyLong(), notNull());
+                ctx.asyncAssertFailure(t -> {
+                    // THEN the concurrent attempt fails with the initial attempt's error
+                    ctx.assertEquals(
+                            HttpURLConnection.HTTP_UNAVAILABLE,
+                            ServiceInvocationException.extractStatusCode(t));
+                }));
+
+        // WHEN the initial attempt fails
+        clientInstanceFuture.fail(new ServerErrorException(HttpURLConnection.HTTP_UNAVAILABLE));
+        // THEN the factory does not contain any state for the key anymore
+        ctx.assertTrue(factory.isEmpty());
+    }
+
+    /**
+     * Verifies that clients which have not been used for the configured
+     * amount of time are removed from the cache and passed to the handler
+     * for idle clients.
+     *
+     * @param ctx The helper to use for running async tests.
+     */
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testIdleClientsAreRemovedFromCache(final TestContext ctx) {
+
+        // GIVEN a factory that removes clients which have not been used for 10 secs
+        final AtomicLong now = new AtomicLong(0);
+        final List<Object> removedClients = new ArrayList<>();
+        final CachingClientFactory<Object> factory = new CachingClientFactory<>(
+                vertx, o -> true, 10000, removedClients::add, now::get);
+        // and which contains two clients
+        final Object idleClient = new Object();
+        final Object activeClient = new Object();
+        factory.getOrCreateClient("idle", () -> Future.succeededFuture(idleClient), ctx.asyncAssertSuccess());
+        factory.getOrCreateClient("active", () -> Future.succeededFuture(activeClient), ctx.asyncAssertSuccess());
+        final ArgumentCaptor<Handler<Long>> idleCheck = ArgumentCaptor.forClass(Handler.class);
+        verify(vertx).setPeriodic(anyLong(), idleCheck.capture());
+
+        // WHEN only one of the clients is used again after 8 secs
+        now.set(8000);
+        factory.getOrCreateClient("active", () -> Future.failedFuture("should use cached client"), ctx.asyncAssertSuccess());
+        // and the check for idle clients is run after 12 secs
+        now.set(12000);
+        idleCheck.getValue().handle(1L);
+
+        // THEN only the idle client has been removed from the cache
+        ctx.assertEquals(1, removedClients.size());
+        ctx.assertEquals(idleClient, removedClients.get(0));
+        ctx.assertNull(factory.getClient("idle"));
+        ctx.assertEquals(activeClient, factory.getClient("active"));
+        verify(vertx, never()).cancelTimer(anyLong());
+
+        // and once the other client has been idle for 10 secs as well
+        now.set(30000);
+        idleCheck.getValue().handle(1L);
+
+        // THEN it is removed from the cache as well
+        ctx.assertEquals(2, removedClients.size());
+        ctx.assertTrue(factory.isEmpty());
+        // and the periodic check has been stopped
+        verify(vertx).cancelTimer(anyLong());
     }
 
     /**
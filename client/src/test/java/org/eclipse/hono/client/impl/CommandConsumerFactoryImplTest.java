@@ -21,18 +21,22 @@ import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.net.HttpURLConnection;
 
+import org.apache.qpid.proton.amqp.messaging.Released;
 import org.apache.qpid.proton.amqp.transport.Source;
+import org.apache.qpid.proton.message.Message;
 import org.eclipse.hono.client.CommandContext;
 import org.eclipse.hono.client.DisconnectListener;
 import org.eclipse.hono.client.GatewayMapper;
 import org.eclipse.hono.client.HonoConnection;
 import org.eclipse.hono.client.MessageConsumer;
+import org.eclipse.hono.client.ResourceConflictException;
 import org.eclipse.hono.client.ServerErrorException;
 import org.eclipse.hono.client.ServiceInvocationException;
 import org.eclipse.hono.config.ClientConfigProperties;
@@ -51,6 +55,8 @@ import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
 import io.vertx.ext.unit.TestContext;
 import io.vertx.ext.unit.junit.VertxUnitRunner;
+import io.vertx.proton.ProtonDelivery;
+import io.vertx.proton.ProtonHelper;
 import io.vertx.proton.ProtonMessageHandler;
 import io.vertx.proton.ProtonQoS;
 import io.vertx.proton.ProtonReceiver;
@@ -350,4 +356,101 @@ public class CommandConsumerFactoryImplTest {
                 eq(0),
                 any(Handler.class));
     }
+
+    /**
+     * Verifies that, if multiplexing is enabled, command consumers for devices
+     * of the same tenant share the tenant-scoped link and that no device-specific
+     * links are opened.
+     *
+     * @param ctx The test context.
+     */
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testCreateCommandConsumerUsesTenantScopedLinkIfMultiplexingIsEnabled(final TestContext ctx) {
+
+        // GIVEN a factory with multiplexing enabled
+        props.setMultiplexingEnabled(true);
+        commandConsumerFactory = new CommandConsumerFactoryImpl(connection, gatewayMapper);
+        final Handler<CommandContext> commandHandler = mock(Handler.class);
+        when(vertx.setPeriodic(anyLong(), any(Handler.class))).thenReturn(10L);
+
+        // WHEN creating command consumers for two devices of the same tenant
+        commandConsumerFactory.createCommandConsumer(tenantId, deviceId, commandHandler, null, 5000L)
+        .compose(consumer -> commandConsumerFactory.createCommandConsumer(tenantId, "otherDevice", commandHandler, null, 5000L)
+                .map(otherConsumer -> {
+                    // THEN only the tenant-scoped link has been opened
+                    verify(connection).createReceiver(
+                            eq(tenantCommandAddress),
+                            eq(ProtonQoS.AT_LEAST_ONCE),
+                            any(ProtonMessageHandler.class),
+                            any(Handler.class));
+                    verify(connection, never()).createReceiver(
+                            anyString(),
+                            any(ProtonQoS.class),
+                            any(ProtonMessageHandler.class),
+                            anyInt(),
+                            any(Handler.class));
+                    // and a single liveness check has been started for the tenant
+                    verify(vertx, times(1)).setPeriodic(eq(5000L), any(Handler.class));
+                    // and a second consumer for the same device is rejected
+                    commandConsumerFactory.createCommandConsumer(tenantId, deviceId, commandHandler, null)
+                    .setHandler(ctx.asyncAssertFailure(t -> ctx.assertTrue(t instanceof ResourceConflictException)));
+                    // and when both consumers are closed
+                    consumer.close(null);
+                    otherConsumer.close(null);
+                    // then the liveness check is canceled
+                    verify(vertx).cancelTimer(10L);
+                    return consumer;
+                }))
+        // and a consumer for the device can be created again
+        .compose(ok -> commandConsumerFactory.createCommandConsumer(tenantId, deviceId, commandHandler, null))
+        .setHandler(ctx.asyncAssertSuccess());
+    }
+
+    /**
+     * Verifies that, if multiplexing is enabled, a command for a device that has
+     * no command handler registered at the factory is released instead of being
+     * delegated to the device-specific address which nobody consumes from.
+     *
+     * @param ctx The test context.
+     */
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testCommandForDeviceWithoutLocalHandlerIsReleasedIfMultiplexingIsEnabled(final TestContext ctx) {
+
+        // GIVEN a factory with multiplexing enabled
+        props.setMultiplexingEnabled(true);
+        commandConsumerFactory = new CommandConsumerFactoryImpl(connection, gatewayMapper);
+        final Handler<CommandContext> commandHandler = mock(Handler.class);
+        final String otherDeviceId = "otherDevice";
+        when(gatewayMapper.getMappedGatewayDevice(eq(tenantId), eq(otherDeviceId), any()))
+            .thenReturn(Future.succeededFuture(otherDeviceId));
+
+        // and a command consumer for a device of the tenant
+        commandConsumerFactory.createCommandConsumer(tenantId, deviceId, commandHandler, null)
+        .setHandler(ctx.asyncAssertSuccess(consumer -> {
+
+            final ArgumentCaptor<ProtonMessageHandler> messageHandler = ArgumentCaptor.forClass(ProtonMessageHandler.class);
+            verify(connection).createReceiver(
+                    eq(tenantCommandAddress),
+                    eq(ProtonQoS.AT_LEAST_ONCE),
+                    messageHandler.capture(),
+                    any(Handler.class));
+
+            // WHEN a command for another device of the tenant is received
+            final Message command = ProtonHelper.message(
+                    ResourceIdentifier.from(CommandConstants.COMMAND_ENDPOINT, tenantId, otherDeviceId).toString(),
+                    "payload");
+            command.setSubject("doThis");
+            command.setMessageId("the-message-id");
+            final ProtonDelivery delivery = mock(ProtonDelivery.class);
+            messageHandler.getValue().handle(delivery, command);
+
+            // THEN the command is released
+            verify(delivery).disposition(any(Released.class), eq(true));
+            // and is neither passed to the local handler nor delegated via the downstream peer
+            verify(commandHandler, never()).handle(any(CommandContext.class));
+            verify(connection, never()).createSender(anyString(), any(ProtonQoS.class), any(Handler.class));
+        }));
+    }
 }
@@ -141,6 +141,40 @@ public class CredentialsClientImplTest {
         assertEquals(MessageHelper.getJsonPayload(sentMessage).getString(CredentialsConstants.FIELD_AUTH_ID), authId);
     }
 
+    /**
+     * Verifies that the result of getting credentials contains the cache directive
+     * of the response from the Credentials service.
+     *
+     * @param ctx The vert.x test context.
+     */
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testGetCredentialsResultContainsCacheDirective(final TestContext ctx) {
+
+        final String authId = "test-auth";
+        final String credentialsType = CredentialsConstants.SECRETS_TYPE_PRESHARED_KEY;
+        final Message response = ProtonHelper.message(newCredentialsResult("device", authId).encode());
+        MessageHelper.addProperty(response, MessageHelper.APP_PROPERTY_STATUS, HttpURLConnection.HTTP_OK);
+        MessageHelper.addCacheDirective(response, CacheDirective.maxAgeDirective(60));
+
+        // WHEN getting credentials including the cache directive
+        final Async assertion = ctx.async();
+        client.getCredentialsResult(credentialsType, authId, new JsonObject(), null)
+        .setHandler(ctx.asyncAssertSuccess(result -> {
+            // THEN the result contains the credentials
+            ctx.assertEquals("device", result.getPayload().getDeviceId());
+            // and the cache directive of the response
+            ctx.assertEquals(CacheDirective.maxAgeDirective(60), result.getCacheDirective());
+            assertion.complete();
+        }));
+
+        final ArgumentCaptor<Message> messageCaptor = ArgumentCaptor.forClass(Message.class);
+        verify(sender).send(messageCaptor.capture(), any(Handler.class));
+        response.setCorrelationId(messageCaptor.getValue().getMessageId());
+        client.handleResponse(mock(ProtonDelivery.class), response);
+        assertion.await();
+    }
+
     /**
      * Verifies that on a cache miss the adapter retrieves credentials information from the credentials service and puts
      * it to the cache.
@@ -15,17 +15,16 @@
 package org.eclipse.hono.client.impl;
 
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
-import static org.mockito.ArgumentMatchers.notNull;
 import static org.mockito.Mockito.*;
 
 import org.eclipse.hono.client.DisconnectListener;
 import org.eclipse.hono.client.DownstreamSender;
 import org.eclipse.hono.client.HonoConnection;
-import org.eclipse.hono.client.ServerErrorException;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -34,7 +33,6 @@ import org.mockito.ArgumentCaptor;
 import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
-import io.vertx.ext.unit.TestContext;
 import io.vertx.ext.unit.junit.VertxUnitRunner;
 import io.vertx.proton.ProtonQoS;
 import io.vertx.proton.ProtonSender;
@@ -69,29 +67,32 @@ public class DownstreamSenderFactoryImplTest {
     }
 
     /**
-     * Verifies that a concurrent request to create a sender fails the given future for tracking the attempt if the
-     * initial request doesn't complete.
-     * 
-     * @param ctx The helper to use for running async tests.
+     * Verifies that a concurrent request to create a sender is completed with the
+     * sender created by the initial request.
      */
     @SuppressWarnings("unchecked")
     @Test
-    public void testGetTelemetrySenderFailsIfInvokedConcurrently(final TestContext ctx) {
+    public void testGetTelemetrySenderWaitsForOngoingCreation() {
 
-        // GIVEN a factory that already tries to create a telemetry sender for "tenant" (and never completes doing so)
+        // GIVEN a factory that already tries to create a telemetry sender for "tenant"
         final Future<ProtonSender> sender = Future.future();
         when(connection.createSender(anyString(), any(ProtonQoS.class), any(Handler.class))).thenReturn(sender);
         final Future<DownstreamSender> result = factory.getOrCreateTelemetrySender("telemetry/tenant");
         assertFalse(result.isComplete());
 
         // WHEN an additional, concurrent attempt is made to create a telemetry sender for "tenant"
-        factory.getOrCreateTelemetrySender("telemetry/tenant").setHandler(ctx.asyncAssertFailure(t -> {
-            // THEN the concurrent attempt fails after having done the default number of retries.
-            ctx.assertTrue(ServerErrorException.class.isInstance(t));
-            verify(vertx, times(CachingClientFactory.MAX_CREATION_RETRIES)).setTimer(anyLong(), notNull());
-        }));
+        final Future<DownstreamSender> concurrentResult = factory.getOrCreateTelemetrySender("telemetry/tenant");
+        assertFalse(concurrentResult.isComplete());
+        // and the initial attempt succeeds
         sender.complete(mock(ProtonSender.class));
-        assertTrue(result.isComplete());
+
+        // THEN both attempts are completed with the same sender
+        assertTrue(result.succeeded());
+        assertTrue(concurrentResult.succeeded());
+        assertSame(result.result(), concurrentResult.result());
+        // and only a single link has been created
+        verify(connection).createSender(anyString(), any(ProtonQoS.class), any(Handler.class));
+        verify(vertx, never()).setTimer(anyLong(), any(Handler.class));
     }
 
     /**
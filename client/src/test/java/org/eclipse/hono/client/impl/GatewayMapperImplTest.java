@@ -18,9 +18,16 @@ import static org.hamcrest.CoreMatchers.nullValue;
 import static org.junit.Assert.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.time.Duration;
+
+import org.eclipse.hono.cache.CacheProvider;
+import org.eclipse.hono.cache.ExpiringValueCache;
 import org.eclipse.hono.client.RegistrationClient;
 import org.eclipse.hono.client.RegistrationClientFactory;
 import org.eclipse.hono.util.Constants;
@@ -37,6 +44,7 @@ import io.vertx.core.json.JsonObject;
 public class GatewayMapperImplTest {
 
     private GatewayMapperImpl gatewayMapper;
+    private RegistrationClientFactory registrationClientFactory;
     private RegistrationClient regClient;
     private String tenantId;
     private String deviceId;
@@ -49,7 +57,7 @@ public class GatewayMapperImplTest {
         tenantId = "testTenant";
         deviceId = "testDevice";
         regClient = mock(RegistrationClient.class);
-        final RegistrationClientFactory registrationClientFactory = mock(RegistrationClientFactory.class);
+        registrationClientFactory = mock(RegistrationClientFactory.class);
         when(registrationClientFactory.getOrCreateRegistrationClient(anyString()))
                 .thenReturn(Future.succeededFuture(regClient));
         gatewayMapper = new GatewayMapperImpl(registrationClientFactory);
@@ -119,4 +127,77 @@ public class GatewayMapperImplTest {
         assertThat(mappedGatewayDeviceFuture.result(), is(nullValue()));
     }
 
+    /**
+     * Verifies that the <em>getMappedGatewayDevice</em> method returns the gateway that has been
+     * recorded for a device without retrieving the device's registration information.
+     */
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testGetMappedGatewayDeviceUsesRecordedGateway() {
+
+        // GIVEN a gateway mapper that caches recorded gateways
+        final ExpiringValueCache<Object, Object> cache = mock(ExpiringValueCache.class);
+        final CacheProvider cacheProvider = mock(CacheProvider.class);
+        when(cacheProvider.getCache(anyString())).thenReturn(cache);
+        gatewayMapper = new GatewayMapperImpl(registrationClientFactory, cacheProvider, Duration.ofMinutes(1));
+
+        // WHEN data is published for the device via a gateway
+        gatewayMapper.setMappedGatewayDevice(tenantId, deviceId, "testDeviceVia");
+
+        // THEN the gateway is put to the cache
+        verify(cache).put(eq(tenantId + "/" + deviceId), eq("testDeviceVia"), eq(Duration.ofMinutes(1)));
+
+        // and is used for mapping the device
+        when(cache.get(tenantId + "/" + deviceId)).thenReturn("testDeviceVia");
+        final Future<String> mappedGatewayDeviceFuture = gatewayMapper.getMappedGatewayDevice(tenantId, deviceId, null);
+        assertThat(mappedGatewayDeviceFuture.isComplete(), is(true));
+        assertThat(mappedGatewayDeviceFuture.result(), is("testDeviceVia"));
+        // without retrieving the device's registration information
+        verify(regClient, never()).get(anyString(), any());
+    }
+
+    /**
+     * Verifies that the <em>setMappedGatewayDevice</em> method only updates the cache
+     * if the gateway of a device has changed.
+     */
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testSetMappedGatewayDeviceOnlyUpdatesCacheIfGatewayChanges() {
+
+        // GIVEN a gateway mapper that has already cached a gateway for the device
+        final ExpiringValueCache<Object, Object> cache = mock(ExpiringValueCache.class);
+        final CacheProvider cacheProvider = mock(CacheProvider.class);
+        when(cacheProvider.getCache(anyString())).thenReturn(cache);
+        when(cache.get(tenantId + "/" + deviceId)).thenReturn("testDeviceVia");
+        gatewayMapper = new GatewayMapperImpl(registrationClientFactory, cacheProvider, Duration.ofMinutes(1));
+
+        // WHEN data is published for the device via the same gateway
+        gatewayMapper.setMappedGatewayDevice(tenantId, deviceId, "testDeviceVia");
+
+        // THEN the cache is not updated
+        verify(cache, never()).put(any(), any(), any(Duration.class));
+
+        // but WHEN data is published via another gateway
+        gatewayMapper.setMappedGatewayDevice(tenantId, deviceId, "otherDeviceVia");
+
+        // THEN the new gateway is put to the cache
+        verify(cache).put(eq(tenantId + "/" + deviceId), eq("otherDeviceVia"), eq(Duration.ofMinutes(1)));
+    }
+
+    /**
+     * Verifies that gateways are not cached if the mapper is created with a zero max age.
+     */
+    @Test
+    public void testSetMappedGatewayDeviceDoesNotUseCacheForZeroMaxAge() {
+
+        // GIVEN a gateway mapper with caching disabled
+        final CacheProvider cacheProvider = mock(CacheProvider.class);
+        gatewayMapper = new GatewayMapperImpl(registrationClientFactory, cacheProvider, Duration.ZERO);
+
+        // WHEN data is published for the device via a gateway
+        gatewayMapper.setMappedGatewayDevice(tenantId, deviceId, "testDeviceVia");
+
+        // THEN no cache is used
+        verify(cacheProvider, never()).getCache(anyString());
+    }
 }
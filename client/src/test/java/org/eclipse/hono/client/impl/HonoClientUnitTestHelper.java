@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016, 2018 Contributors to the Eclipse Foundation
+ * Copyright (c) 2016, 2019 Contributors to the Eclipse Foundation
  *
  * See the NOTICE file(s) distributed with this work for additional
  * information regarding copyright ownership.
@@ -27,6 +27,7 @@ import io.vertx.proton.ProtonSender;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyLong;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
@@ -34,6 +35,7 @@ import static org.mockito.Mockito.when;
 
 import org.eclipse.hono.client.HonoConnection;
 import org.eclipse.hono.config.ClientConfigProperties;
+import org.eclipse.hono.util.TimingWheel;
 import org.mockito.Mockito;
 
 /**
@@ -126,7 +128,7 @@ public final class HonoClientUnitTestHelper {
 
     /**
      * Creates a mocked Hono connection that returns a
-     * Noop Tracer.
+     * Noop Tracer and a mocked timing wheel.
      * 
      * @param vertx The vert.x instance to use.
      * @param props The client properties to use.
@@ -140,6 +142,9 @@ public final class HonoClientUnitTestHelper {
         when(connection.getVertx()).thenReturn(vertx);
         when(connection.getConfig()).thenReturn(props);
         when(connection.getTracer()).thenReturn(tracer);
+        final TimingWheel timingWheel = mock(TimingWheel.class);
+        when(timingWheel.schedule(anyLong(), any(Handler.class))).thenReturn(mock(TimingWheel.Timeout.class));
+        when(connection.getTimingWheel()).thenReturn(timingWheel);
         when(connection.executeOrRunOnContext(any(Handler.class))).then(invocation -> {
             final Future result = Future.future();
             final Handler<Future> handler = invocation.getArgument(0);
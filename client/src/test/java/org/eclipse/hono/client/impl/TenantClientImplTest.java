@@ -191,6 +191,45 @@ public class TenantClientImplTest {
         verify(span).finish();
     }
 
+    /**
+     * Verifies that the client keeps a <em>not found</em> response from the Tenant service
+     * separately from the response cache and uses it for subsequent requests.
+     *
+     * @param ctx The vert.x test context.
+     */
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testGetTenantKeepsNotFoundResponseOutsideOfCache(final TestContext ctx) {
+
+        // GIVEN an adapter with an empty cache
+        client.setResponseCache(cache);
+
+        // WHEN getting information for a non-existing tenant
+        final Async get = ctx.async();
+        client.get("tenant").setHandler(ctx.asyncAssertFailure(t -> {
+            ctx.assertEquals(HttpURLConnection.HTTP_NOT_FOUND, ((ServiceInvocationException) t).getErrorCode());
+            get.complete();
+        }));
+
+        final ArgumentCaptor<Message> messageCaptor = ArgumentCaptor.forClass(Message.class);
+        verify(sender).send(messageCaptor.capture(), any(Handler.class));
+        final Message response = ProtonHelper.message();
+        MessageHelper.addProperty(response, MessageHelper.APP_PROPERTY_STATUS, HttpURLConnection.HTTP_NOT_FOUND);
+        response.setCorrelationId(messageCaptor.getValue().getMessageId());
+        final ProtonDelivery delivery = mock(ProtonDelivery.class);
+        client.handleResponse(delivery, response);
+        get.await();
+
+        // THEN the response has not been put to the shared cache
+        verify(cache, never()).put(any(), any(TenantResult.class), any(Duration.class));
+
+        // but a subsequent request for the same tenant fails without a request being sent
+        client.get("tenant").setHandler(ctx.asyncAssertFailure(t -> {
+            ctx.assertEquals(HttpURLConnection.HTTP_NOT_FOUND, ((ServiceInvocationException) t).getErrorCode());
+            verify(sender).send(any(Message.class), any(Handler.class));
+        }));
+    }
+
     /**
      * Verifies that tenant information is taken from cache if cache is configured and the cache has this tenant
      * information cached.
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016, 2018 Contributors to the Eclipse Foundation
+ * Copyright (c) 2016, 2019 Contributors to the Eclipse Foundation
  *
  * See the NOTICE file(s) distributed with this work for additional
  * information regarding copyright ownership.
@@ -14,8 +14,10 @@
 package org.eclipse.hono.auth;
 
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 
 import org.eclipse.hono.util.ResourceIdentifier;
 import org.slf4j.Logger;
@@ -25,7 +27,11 @@ import io.jsonwebtoken.Claims;
 
 /**
  * A map backed implementation of authorities on resources and operations.
- *
+ * <p>
+ * For the purpose of checking authorization, the authorities are compiled into a tree
+ * of the resource paths' segments, each node holding the activities and operations
+ * granted on the corresponding resource. Checking an authority therefore requires a few
+ * lookups of path segments only and does not create any objects.
  */
 public final class AuthoritiesImpl implements Authorities {
 
@@ -41,8 +47,14 @@ public final class AuthoritiesImpl implements Authorities {
     private static final Logger LOG = LoggerFactory.getLogger(AuthoritiesImpl.class);
     private static final String opTemplate = PREFIX_OPERATION + "%s:%s";
     private static final String resTemplate = PREFIX_RESOURCE + "%s";
+    private static final String WILDCARD = "*";
     // holds mapping resources -> activities
     private final Map<String, String> authorities = new HashMap<>();
+    /**
+     * The compiled authorities or {@code null} if the authorities have changed
+     * since they have been compiled last.
+     */
+    private volatile Node compiledAuthorities;
 
     /**
      * Creates empty authorities.
@@ -68,6 +80,7 @@ public final class AuthoritiesImpl implements Authorities {
                 LOG.trace("ignoring unsupported claim [key: {}]", key);
             }
         });
+        result.compile();
         return result;
     }
 
@@ -108,6 +121,7 @@ public final class AuthoritiesImpl implements Authorities {
      */
     public AuthoritiesImpl addOperation(final String endpoint, final String tenant, final String operation) {
         authorities.put(getOperationKey(endpoint, tenant, operation), String.valueOf(Activity.EXECUTE.getCode()));
+        compiledAuthorities = null;
         return this;
     }
 
@@ -136,6 +150,7 @@ public final class AuthoritiesImpl implements Authorities {
             b.append(a.getCode());
         }
         authorities.put(getResourceKey(endpoint, tenant), b.toString());
+        compiledAuthorities = null;
         return this;
     }
 
@@ -153,23 +168,32 @@ public final class AuthoritiesImpl implements Authorities {
                 LOG.trace("adding authority [key: {}, activities: {}]", entry.getKey(), value);
                 authorities.put(entry.getKey(), value);
             });
+        compiledAuthorities = null;
         return this;
     }
 
     @Override
     public boolean isAuthorized(final ResourceIdentifier resource, final Activity intent) {
 
+        final Node root = getCompiledAuthorities();
+        final int intentMask = mask(intent);
+        final Node endpoint = root.child(resource.getEndpoint());
+        final Node anyEndpoint = root.child(WILDCARD);
+
         boolean allowed = false;
         if (resource.getResourceId() != null) {
-            allowed = isAuthorized(String.format(resTemplate, resource.toString()), intent);
+            if (resource.length() > 3) {
+                allowed = isAuthorized(String.format(resTemplate, resource.toString()), intent);
+            } else {
+                allowed = isGranted(child(child(endpoint, resource.getTenantId()), resource.getResourceId()), intentMask);
+            }
         }
         if (!allowed && resource.getTenantId() != null) {
-            allowed = isAuthorized(String.format(resTemplate, resource.getEndpoint() + "/" + resource.getTenantId()), intent) ||
-                    isAuthorized(String.format(resTemplate, resource.getEndpoint() + "/*"), intent);
+            allowed = isGranted(child(endpoint, resource.getTenantId()), intentMask) ||
+                    isGranted(child(endpoint, WILDCARD), intentMask);
         }
         if (!allowed) {
-            allowed = isAuthorized(String.format(resTemplate, resource.getEndpoint()), intent) ||
-                    isAuthorized(String.format(resTemplate, "*"), intent);
+            allowed = isGranted(endpoint, intentMask) || isGranted(anyEndpoint, intentMask);
         }
         return allowed;
     }
@@ -177,22 +201,25 @@ public final class AuthoritiesImpl implements Authorities {
     @Override
     public boolean isAuthorized(final ResourceIdentifier resource, final String operation) {
 
+        final Node root = getCompiledAuthorities();
+        final Node endpoint = root.child(resource.getEndpoint());
+        final Node anyEndpoint = root.child(WILDCARD);
+
         boolean allowed = false;
         if (resource.getResourceId() != null) {
-            allowed = isAuthorized(String.format(opTemplate, resource.toString(), operation), Activity.EXECUTE) ||
-                    isAuthorized(String.format(opTemplate, resource.toString(), "*"), Activity.EXECUTE);
+            if (resource.length() > 3) {
+                allowed = isAuthorized(String.format(opTemplate, resource.toString(), operation), Activity.EXECUTE) ||
+                        isAuthorized(String.format(opTemplate, resource.toString(), WILDCARD), Activity.EXECUTE);
+            } else {
+                allowed = isExecutable(child(child(endpoint, resource.getTenantId()), resource.getResourceId()), operation);
+            }
         }
         if (!allowed && resource.getTenantId() != null) {
-            allowed = isAuthorized(String.format(opTemplate, resource.getEndpoint() + "/" + resource.getTenantId(), operation), Activity.EXECUTE) ||
-                    isAuthorized(String.format(opTemplate, resource.getEndpoint() + "/" + resource.getTenantId(), "*"), Activity.EXECUTE) ||
-                    isAuthorized(String.format(opTemplate, resource.getEndpoint() + "/*", operation), Activity.EXECUTE) ||
-                    isAuthorized(String.format(opTemplate, resource.getEndpoint() + "/*", "*"), Activity.EXECUTE);
+            allowed = isExecutable(child(endpoint, resource.getTenantId()), operation) ||
+                    isExecutable(child(endpoint, WILDCARD), operation);
         }
         if (!allowed) {
-            allowed = isAuthorized(String.format(opTemplate, resource.getEndpoint(), operation), Activity.EXECUTE) ||
-                    isAuthorized(String.format(opTemplate, resource.getEndpoint(), "*"), Activity.EXECUTE) ||
-                    isAuthorized(String.format(opTemplate, "*", operation), Activity.EXECUTE) ||
-                    isAuthorized(String.format(opTemplate, "*", "*"), Activity.EXECUTE);
+            allowed = isExecutable(endpoint, operation) || isExecutable(anyEndpoint, operation);
         }
         return allowed;
     }
@@ -216,4 +243,115 @@ public final class AuthoritiesImpl implements Authorities {
         }
         return result;
     }
+
+    private Node getCompiledAuthorities() {
+        Node root = compiledAuthorities;
+        if (root == null) {
+            root = compile();
+        }
+        return root;
+    }
+
+    private Node compile() {
+        final Node root = new Node();
+        authorities.forEach((key, grantedActivities) -> {
+            if (key.startsWith(PREFIX_RESOURCE)) {
+                final Node node = getNode(root, key.substring(PREFIX_RESOURCE.length()));
+                if (node != null) {
+                    node.activities |= parseActivities(grantedActivities);
+                }
+            } else if (key.startsWith(PREFIX_OPERATION)) {
+                final int separatorIndex = key.lastIndexOf(':');
+                if (separatorIndex >= PREFIX_OPERATION.length()) {
+                    final Node node = getNode(root, key.substring(PREFIX_OPERATION.length(), separatorIndex));
+                    if (node != null && (parseActivities(grantedActivities) & mask(Activity.EXECUTE)) != 0) {
+                        node.addOperation(key.substring(separatorIndex + 1));
+                    }
+                }
+            }
+        });
+        compiledAuthorities = root;
+        return root;
+    }
+
+    /**
+     * Gets the node for a resource, creating it if necessary.
+     *
+     * @param root The root node.
+     * @param resource The resource path.
+     * @return The node or {@code null} if the path consists of more than three segments.
+     *         Authorities on such resources are checked using the authorities map.
+     */
+    private static Node getNode(final Node root, final String resource) {
+        Node node = root;
+        int start = 0;
+        for (int level = 0; level < 3; level++) {
+            final int end = resource.indexOf('/', start);
+            if (end < 0) {
+                return node.getOrAddChild(resource.substring(start));
+            }
+            node = node.getOrAddChild(resource.substring(start, end));
+            start = end + 1;
+        }
+        return null;
+    }
+
+    private static int parseActivities(final String grantedActivities) {
+        if (grantedActivities.equals(WILDCARD)) {
+            return mask(Activity.READ) | mask(Activity.WRITE) | mask(Activity.EXECUTE);
+        }
+        int result = 0;
+        for (final Activity activity : Activity.values()) {
+            if (grantedActivities.indexOf(activity.getCode()) >= 0) {
+                result |= mask(activity);
+            }
+        }
+        return result;
+    }
+
+    private static int mask(final Activity activity) {
+        return 1 << activity.ordinal();
+    }
+
+    private static Node child(final Node node, final String segment) {
+        return node == null ? null : node.child(segment);
+    }
+
+    private static boolean isGranted(final Node node, final int intentMask) {
+        return node != null && (node.activities & intentMask) != 0;
+    }
+
+    private static boolean isExecutable(final Node node, final String operation) {
+        return node != null && node.operations != null &&
+                (node.operations.contains(operation) || node.operations.contains(WILDCARD));
+    }
+
+    /**
+     * A segment of a resource path along with the activities and
+     * operations granted on the resource.
+     */
+    private static final class Node {
+
+        private Map<String, Node> children;
+        private Set<String> operations;
+        private int activities;
+
+        Node child(final String segment) {
+            return children == null || segment == null ? null : children.get(segment);
+        }
+
+        Node getOrAddChild(final String segment) {
+            if (children == null) {
+                children = new HashMap<>();
+            }
+            return children.computeIfAbsent(segment, s -> new Node());
+        }
+
+        void addOperation(final String operation) {
+            if (operations == null) {
+                operations = new HashSet<>();
+            }
+            operations.add(operation);
+        }
+    }
 }
@@ -49,6 +49,11 @@ public class ClientConfigProperties extends AbstractConfig {
      * frame during link establishment.
      */
     public static final long DEFAULT_LINK_ESTABLISHMENT_TIMEOUT = 1000L; //ms
+    /**
+     * The default amount of time (milliseconds) after which a cached link that has not been
+     * used is closed. A value of 0 means that links are never closed because of being idle.
+     */
+    public static final long DEFAULT_LINK_IDLE_TIMEOUT = 0L; //ms
     /**
      * The default amount of time (milliseconds) to wait for a response before a request times out.
      */
@@ -62,11 +67,14 @@ public class ClientConfigProperties extends AbstractConfig {
     private int connectTimeoutMillis = DEFAULT_CONNECT_TIMEOUT;
     private String credentialsPath;
     private long flowLatency = DEFAULT_FLOW_LATENCY;
+    private long gatewayMappingCacheTimeout = 0L;
     private String host = "localhost";
     private boolean hostnameVerificationRequired = true;
     private int idleTimeoutMillis = DEFAULT_IDLE_TIMEOUT;
     private int initialCredits = DEFAULT_INITIAL_CREDITS;
     private long linkEstablishmentTimeout = DEFAULT_LINK_ESTABLISHMENT_TIMEOUT;
+    private long linkIdleTimeout = DEFAULT_LINK_IDLE_TIMEOUT;
+    private boolean multiplexingEnabled = false;
     private String name;
     private char[] password;
     private int port = Constants.PORT_AMQPS;
@@ -93,11 +101,14 @@ public class ClientConfigProperties extends AbstractConfig {
         this.connectTimeoutMillis = otherProperties.connectTimeoutMillis;
         this.credentialsPath = otherProperties.credentialsPath;
         this.flowLatency = otherProperties.flowLatency;
+        this.gatewayMappingCacheTimeout = otherProperties.gatewayMappingCacheTimeout;
         this.host = otherProperties.host;
         this.hostnameVerificationRequired = otherProperties.hostnameVerificationRequired;
         this.idleTimeoutMillis = otherProperties.idleTimeoutMillis;
         this.initialCredits = otherProperties.initialCredits;
         this.linkEstablishmentTimeout = otherProperties.linkEstablishmentTimeout;
+        this.linkIdleTimeout = otherProperties.linkIdleTimeout;
+        this.multiplexingEnabled = otherProperties.multiplexingEnabled;
         this.name = otherProperties.name;
         this.password = otherProperties.password;
         this.port = otherProperties.port;
@@ -344,6 +355,43 @@ public class ClientConfigProperties extends AbstractConfig {
         }
     }
 
+    /**
+     * Gets the period of time for which the gateway through which a device has
+     * published data is cached for mapping commands to the gateway.
+     * <p>
+     * This property is currently only used by protocol adapters for the connection used
+     * for receiving commands. A value of 0 means that gateways are not cached, i.e. that
+     * the device registry is queried for the gateway of each command.
+     * <p>
+     * The default value of this property is 0.
+     *
+     * @return The number of seconds to cache gateways for.
+     */
+    public final long getGatewayMappingCacheTimeout() {
+        return gatewayMappingCacheTimeout;
+    }
+
+    /**
+     * Sets the period of time for which the gateway through which a device has
+     * published data is cached for mapping commands to the gateway.
+     * <p>
+     * This property is currently only used by protocol adapters for the connection used
+     * for receiving commands. A value of 0 means that gateways are not cached, i.e. that
+     * the device registry is queried for the gateway of each command.
+     * <p>
+     * The default value of this property is 0.
+     *
+     * @param timeout The number of seconds to cache gateways for.
+     * @throws IllegalArgumentException if timeout is negative.
+     */
+    public final void setGatewayMappingCacheTimeout(final long timeout) {
+        if (timeout < 0) {
+            throw new IllegalArgumentException("timeout must not be negative");
+        } else {
+            this.gatewayMappingCacheTimeout = timeout;
+        }
+    }
+
     /**
      * Gets the maximum amount of time that a client waits for the establishment of a link
      * with a peer.
@@ -387,6 +435,69 @@ public class ClientConfigProperties extends AbstractConfig {
         }
     }
 
+    /**
+     * Gets the amount of time after which a cached link to the peer that has not been
+     * used for sending messages or requests is closed.
+     * <p>
+     * Clients keep the links that they have established for a tenant, e.g. for sending
+     * telemetry data or for invoking the Device Registration API, in a cache for reuse.
+     * Closing idle links limits the resources required for keeping these links if a
+     * large number of tenants is served.
+     * <p>
+     * The default value of this property is {@link #DEFAULT_LINK_IDLE_TIMEOUT}.
+     *
+     * @return The number of milliseconds or 0 if idle links are never closed.
+     */
+    public final long getLinkIdleTimeout() {
+        return linkIdleTimeout;
+    }
+
+    /**
+     * Sets the amount of time after which a cached link to the peer that has not been
+     * used for sending messages or requests is closed.
+     * <p>
+     * The default value of this property is {@link #DEFAULT_LINK_IDLE_TIMEOUT}.
+     *
+     * @param linkIdleTimeout The number of milliseconds or 0 if idle links should never be closed.
+     * @throws IllegalArgumentException if the timeout is negative.
+     */
+    public final void setLinkIdleTimeout(final long linkIdleTimeout) {
+        if (linkIdleTimeout < 0) {
+            throw new IllegalArgumentException("link idle timeout must not be negative");
+        } else {
+            this.linkIdleTimeout = linkIdleTimeout;
+        }
+    }
+
+    /**
+     * Checks if messages for multiple resources should be received on a single,
+     * tenant-scoped link instead of opening a link per resource.
+     * <p>
+     * This property is currently only used by the factory for command consumers, which
+     * receives the commands for all devices of a tenant on the tenant-scoped link
+     * and dispatches them to the command handlers registered locally instead of
+     * opening a receiver link for each device.
+     * <p>
+     * The default value of this property is {@code false}.
+     *
+     * @return {@code true} if links should be multiplexed.
+     */
+    public final boolean isMultiplexingEnabled() {
+        return multiplexingEnabled;
+    }
+
+    /**
+     * Sets whether messages for multiple resources should be received on a single,
+     * tenant-scoped link instead of opening a link per resource.
+     * <p>
+     * The default value of this property is {@code false}.
+     *
+     * @param enabled {@code true} if links should be multiplexed.
+     */
+    public final void setMultiplexingEnabled(final boolean enabled) {
+        this.multiplexingEnabled = enabled;
+    }
+
     /**
      * Gets the number of initial credits, that will be given from a receiver to a sender at link creation.
      * <p>
@@ -19,11 +19,25 @@ package org.eclipse.hono.config;
  */
 public class ProtocolAdapterProperties extends ServiceConfigProperties {
 
+    /**
+     * The default number of seconds that a successful password verification is cached for.
+     */
+    public static final int DEFAULT_PASSWORD_VERIFICATION_CACHE_TIMEOUT = 30;
+    /**
+     * The default maximum number of password verifications waiting to be executed.
+     */
+    public static final int DEFAULT_PASSWORD_VERIFICATION_MAX_QUEUE_SIZE = 1000;
+
     private boolean authenticationRequired = true;
     private boolean jmsVendorPropsEnabled = false;
     private boolean defaultsEnabled = true;
+    private long downstreamCreditWaitTimeout = 0L;
     private long eventLoopBlockedCheckTimeout = 5000L;
     private int maxConnections = 0;
+    private double maxTracesPerSecond = -1;
+    private int passwordVerificationCacheTimeout = DEFAULT_PASSWORD_VERIFICATION_CACHE_TIMEOUT;
+    private int passwordVerificationPoolSize = Runtime.getRuntime().availableProcessors();
+    private int passwordVerificationMaxQueueSize = DEFAULT_PASSWORD_VERIFICATION_MAX_QUEUE_SIZE;
 
     /**
      * Checks whether the protocol adapter always authenticates devices using their provided credentials as defined
@@ -133,6 +147,41 @@ public class ProtocolAdapterProperties extends ServiceConfigProperties {
         this.defaultsEnabled = flag;
     }
 
+    /**
+     * Gets the maximum amount of time that the protocol adapter waits for a downstream
+     * sender to be replenished with credit before forwarding a message received from a device.
+     * <p>
+     * While waiting, the protocol adapter does not acknowledge the device's message and
+     * (where supported by the protocol) stops reading further messages from the device.
+     * This way, a lack of credit on the downstream link results in back pressure
+     * being applied to devices instead of messages being rejected.
+     * <p>
+     * The default value of this property is 0 which means that messages are rejected
+     * immediately if the downstream sender has no credit.
+     *
+     * @return The number of milliseconds to wait.
+     */
+    public final long getDownstreamCreditWaitTimeout() {
+        return downstreamCreditWaitTimeout;
+    }
+
+    /**
+     * Sets the maximum amount of time that the protocol adapter waits for a downstream
+     * sender to be replenished with credit before forwarding a message received from a device.
+     * <p>
+     * The default value of this property is 0 which means that messages are rejected
+     * immediately if the downstream sender has no credit.
+     *
+     * @param timeout The number of milliseconds to wait.
+     * @throws IllegalArgumentException if timeout is negative.
+     */
+    public final void setDownstreamCreditWaitTimeout(final long timeout) {
+        if (timeout < 0) {
+            throw new IllegalArgumentException("timeout must not be negative");
+        }
+        this.downstreamCreditWaitTimeout = timeout;
+    }
+
     /**
      * Gets the timeout value used by protocol adapter liveness check,
      * which determines if protocol adapter vert.x event loop is blocked.
@@ -194,4 +243,126 @@ public class ProtocolAdapterProperties extends ServiceConfigProperties {
     public final boolean isConnectionLimitConfigured() {
         return maxConnections > 0;
     }
+
+    /**
+     * Gets the maximum number of traces per second that the protocol adapter
+     * starts for the messages published by the devices of a tenant.
+     * <p>
+     * Messages that are not being traced are processed using a no-op tracer,
+     * i.e. no spans are created for them and no span context is propagated
+     * downstream. Messages that carry a trace context provided by the device
+     * as well as messages that cannot be processed are always traced.
+     * <p>
+     * The default value of this property is -1 which means that all messages
+     * are traced.
+     *
+     * @return The number of traces per second or a negative number if unlimited.
+     */
+    public final double getMaxTracesPerSecond() {
+        return maxTracesPerSecond;
+    }
+
+    /**
+     * Sets the maximum number of traces per second that the protocol adapter
+     * starts for the messages published by the devices of a tenant.
+     * <p>
+     * Setting this property to a negative value (the default) results in all messages
+     * being traced whereas setting it to 0 results in only messages being traced
+     * that carry a trace context or that cannot be processed.
+     *
+     * @param maxTracesPerSecond The number of traces per second.
+     */
+    public final void setMaxTracesPerSecond(final double maxTracesPerSecond) {
+        this.maxTracesPerSecond = maxTracesPerSecond;
+    }
+
+    /**
+     * Gets the number of seconds that the successful verification of a password
+     * presented by a device is cached for.
+     * <p>
+     * While cached, a device presenting the same password again is authenticated without
+     * verifying the password against the (computationally expensive) hash on record.
+     * A cached verification is not used anymore once the secret on record has changed.
+     * <p>
+     * The default value of this property is 30 seconds.
+     *
+     * @return The number of seconds or 0 if successful verifications are not cached.
+     */
+    public final int getPasswordVerificationCacheTimeout() {
+        return passwordVerificationCacheTimeout;
+    }
+
+    /**
+     * Sets the number of seconds that the successful verification of a password
+     * presented by a device is cached for.
+     * <p>
+     * The default value of this property is 30 seconds.
+     *
+     * @param timeout The number of seconds or 0 if successful verifications should not be cached.
+     * @throws IllegalArgumentException if timeout is negative.
+     */
+    public final void setPasswordVerificationCacheTimeout(final int timeout) {
+        if (timeout < 0) {
+            throw new IllegalArgumentException("timeout must not be negative");
+        }
+        this.passwordVerificationCacheTimeout = timeout;
+    }
+
+    /**
+     * Gets the number of threads used for verifying passwords presented by devices.
+     * <p>
+     * Passwords are verified on a dedicated pool of threads so that a large number of
+     * devices authenticating at the same time does not starve other blocking operations.
+     * <p>
+     * The default value of this property is the number of available processors.
+     *
+     * @return The number of threads.
+     */
+    public final int getPasswordVerificationPoolSize() {
+        return passwordVerificationPoolSize;
+    }
+
+    /**
+     * Sets the number of threads used for verifying passwords presented by devices.
+     * <p>
+     * The default value of this property is the number of available processors.
+     *
+     * @param poolSize The number of threads.
+     * @throws IllegalArgumentException if the pool size is &lt; 1.
+     */
+    public final void setPasswordVerificationPoolSize(final int poolSize) {
+        if (poolSize < 1) {
+            throw new IllegalArgumentException("pool size must be a positive integer");
+        }
+        this.passwordVerificationPoolSize = poolSize;
+    }
+
+    /**
+     * Gets the maximum number of password verifications waiting to be executed.
+     * <p>
+     * Authentication attempts that would exceed this number are rejected immediately
+     * in order to protect the adapter from being overloaded.
+     * <p>
+     * The default value of this property is 1000.
+     *
+     * @return The number of verifications or 0 if the number is not limited.
+     */
+    public final int getPasswordVerificationMaxQueueSize() {
+        return passwordVerificationMaxQueueSize;
+    }
+
+    /**
+     * Sets the maximum number of password verifications waiting to be executed.
+     * <p>
+     * The default value of this property is 1000.
+     *
+     * @param maxQueueSize The number of verifications or 0 if the number should not be limited.
+     * @throws IllegalArgumentException if the number is negative.
+     */
+    public final void setPasswordVerificationMaxQueueSize(final int maxQueueSize) {
+        if (maxQueueSize < 0) {
+            throw new IllegalArgumentException("queue size must not be negative");
+        }
+        this.passwordVerificationMaxQueueSize = maxQueueSize;
+    }
 }
@@ -0,0 +1,139 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.tracing;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * A sampler that decides whether the messages of a tenant should be traced.
+ * <p>
+ * The sampler limits the number of traces per second that are started for
+ * each tenant using a token bucket which is refilled continuously at the
+ * configured rate. This makes sure that a single tenant with a high message
+ * rate does not dominate the traces being collected while still tracing
+ * messages of tenants with a low message rate.
+ * <p>
+ * Instances of this class are thread safe.
+ */
+public final class TenantTraceSampler {
+
+    /**
+     * The maximum number of tenants that rate limits are being tracked for.
+     */
+    static final int MAX_TRACKED_TENANTS = 1000;
+
+    private static final String NO_TENANT = "";
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final double maxTracesPerSecond;
+    private final LongSupplier nanoClock;
+
+    /**
+     * Creates a new sampler.
+     *
+     * @param maxTracesPerSecond The maximum number of traces per second to start for a tenant.
+     *                           A negative value indicates that all messages should be traced
+     *                           whereas 0 indicates that no messages should be traced at all.
+     */
+    public TenantTraceSampler(final double maxTracesPerSecond) {
+        this(maxTracesPerSecond, System::nanoTime);
+    }
+
+    /**
+     * Creates a new sampler based on a specific clock.
+     *
+     * @param maxTracesPerSecond The maximum number of traces per second to start for a tenant.
+     * @param nanoClock The source of the current time in nanoseconds.
+     * @throws NullPointerException if clock is {@code null}.
+     */
+    TenantTraceSampler(final double maxTracesPerSecond, final LongSupplier nanoClock) {
+        this.maxTracesPerSecond = maxTracesPerSecond;
+        this.nanoClock = Objects.requireNonNull(nanoClock);
+    }
+
+    /**
+     * Checks if this sampler samples all messages.
+     *
+     * @return {@code true} if the number of traces is not limited.
+     */
+    public boolean isUnlimited() {
+        return maxTracesPerSecond < 0;
+    }
+
+    /**
+     * Checks if a message of a tenant should be traced.
+     * <p>
+     * Each positive decision consumes one of the traces available to the tenant
+     * in the current period.
+     *
+     * @param tenantId The tenant that the message belongs to or {@code null} if unknown.
+     *                 Messages of unknown tenants share a common limit.
+     * @return {@code true} if the message should be traced.
+     */
+    public boolean isSampled(final String tenantId) {
+
+        if (maxTracesPerSecond < 0) {
+            return true;
+        } else if (maxTracesPerSecond == 0) {
+            return false;
+        }
+        final String key = tenantId == null ? NO_TENANT : tenantId;
+        TokenBucket bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= MAX_TRACKED_TENANTS) {
+                // evict an arbitrary tenant in order to limit memory consumption
+                final Iterator<String> keys = buckets.keySet().iterator();
+                if (keys.hasNext()) {
+                    buckets.remove(keys.next());
+                }
+            }
+            bucket = buckets.computeIfAbsent(key, k -> new TokenBucket(nanoClock.getAsLong()));
+        }
+        return bucket.tryConsume(nanoClock.getAsLong());
+    }
+
+    /**
+     * A bucket of tokens that is refilled at the configured rate.
+     * The bucket holds at most as many tokens as can be consumed in one second.
+     */
+    private final class TokenBucket {
+
+        private final double capacity = Math.max(1, maxTracesPerSecond);
+        private double tokens = capacity;
+        private long lastRefill;
+
+        TokenBucket(final long now) {
+            this.lastRefill = now;
+        }
+
+        synchronized boolean tryConsume(final long now) {
+            final long elapsed = now - lastRefill;
+            if (elapsed > 0) {
+                tokens = Math.min(capacity, tokens + (double) elapsed * maxTracesPerSecond / NANOS_PER_SECOND);
+                lastRefill = now;
+            }
+            if (tokens >= 1) {
+                tokens -= 1;
+                return true;
+            }
+            return false;
+        }
+    }
+}
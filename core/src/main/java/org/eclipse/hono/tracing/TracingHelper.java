@@ -101,6 +101,21 @@ public final class TracingHelper {
         // prevent instantiation
     }
 
+    /**
+     * Checks if a span context belongs to a trace that is being recorded.
+     * <p>
+     * Messages that have not been sampled are processed using a no-op tracer.
+     * Code processing such messages may use this method in order to skip
+     * the (costly) creation of spans and propagation of span contexts.
+     *
+     * @param spanContext The context to check.
+     * @return {@code false} if the context is {@code null} or has been created
+     *         by a no-op tracer.
+     */
+    public static boolean isSampled(final SpanContext spanContext) {
+        return spanContext != null && !(spanContext instanceof NoopSpanContext);
+    }
+
     /**
      * Marks an <em>OpenTracing</em> span as erroneous and logs an exception.
      * <p>
@@ -185,6 +200,7 @@ public final class TracingHelper {
      * Injects a {@code SpanContext} into a JSON object.
      * <p>
      * The span context will be injected into a new JSON object under key <em>span-context</em>.
+     * Nothing is injected if the span context has not been sampled.
      *
      * @param tracer The Tracer to use for injecting the context.
      * @param spanContext The context to inject.
@@ -197,6 +213,9 @@ public final class TracingHelper {
         Objects.requireNonNull(spanContext);
         Objects.requireNonNull(jsonObject);
 
+        if (!isSampled(spanContext)) {
+            return;
+        }
         final JsonObject spanContextJson = new JsonObject();
         jsonObject.put(JSON_KEY_SPAN_CONTEXT, spanContextJson);
         tracer.inject(spanContext, Format.Builtin.TEXT_MAP, new JsonObjectInjectAdapter(spanContextJson));
@@ -227,6 +246,7 @@ public final class TracingHelper {
      * Injects a {@code SpanContext} into an AMQP {@code Message}.
      * <p>
      * The span context will be written to the message annotations of the given message.
+     * Nothing is injected if the span context has not been sampled.
      *
      * @param tracer The Tracer to use for injecting the context.
      * @param spanContext The context to inject.
@@ -239,6 +259,9 @@ public final class TracingHelper {
         Objects.requireNonNull(spanContext);
         Objects.requireNonNull(message);
 
+        if (!isSampled(spanContext)) {
+            return;
+        }
         tracer.inject(spanContext, Format.Builtin.TEXT_MAP,
                 new MessageAnnotationsInjectAdapter(message, AMQP_ANNOTATION_NAME_TRACE_CONTEXT));
     }
@@ -275,7 +298,7 @@ public final class TracingHelper {
         Objects.requireNonNull(tracer);
         Objects.requireNonNull(deliveryOptions);
 
-        if (spanContext != null && !(spanContext instanceof NoopSpanContext)) {
+        if (isSampled(spanContext)) {
             final MultiMap headers = Optional.of(deliveryOptions)
                     .map(options -> options.getHeaders())
                     .orElseGet(() -> {
@@ -0,0 +1,94 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.util;
+
+import java.util.Objects;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.EventBus;
+import io.vertx.core.eventbus.MessageCodec;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * A vert.x event bus codec for {@link EventBusMessage}s.
+ * <p>
+ * Messages sent to a consumer in the same JVM are not serialized. Instead, the
+ * consumer receives a copy of the message's JSON content (and the message's span context)
+ * which is created when the message is sent. Sender and consumer therefore do not share
+ * any (mutable) JSON objects, e.g. a service may still modify the data it has put to
+ * a response's payload after the response has been sent. Messages sent to a consumer
+ * on another node of a clustered event bus are serialized to their JSON representation.
+ */
+public final class EventBusMessageCodec implements MessageCodec<EventBusMessage, EventBusMessage> {
+
+    /**
+     * The name of this codec.
+     */
+    public static final String NAME = "hono-event-bus-message";
+
+    private static final EventBusMessageCodec INSTANCE = new EventBusMessageCodec();
+
+    EventBusMessageCodec() {
+    }
+
+    /**
+     * Registers this codec as the default codec for {@link EventBusMessage}s
+     * with an event bus.
+     * <p>
+     * This method may be invoked multiple times for the same event bus,
+     * e.g. by each verticle instance sending or consuming messages.
+     *
+     * @param eventBus The event bus to register the codec with.
+     * @throws NullPointerException if event bus is {@code null}.
+     */
+    public static void register(final EventBus eventBus) {
+        Objects.requireNonNull(eventBus);
+        try {
+            eventBus.registerDefaultCodec(EventBusMessage.class, INSTANCE);
+        } catch (final IllegalStateException e) {
+            // codec has already been registered
+        }
+    }
+
+    @Override
+    public void encodeToWire(final Buffer buffer, final EventBusMessage message) {
+        final Buffer json = message.toJson().toBuffer();
+        buffer.appendInt(json.length());
+        buffer.appendBuffer(json);
+    }
+
+    @Override
+    public EventBusMessage decodeFromWire(final int pos, final Buffer buffer) {
+        final int length = buffer.getInt(pos);
+        final int start = pos + 4;
+        return EventBusMessage.fromJson(new JsonObject(buffer.slice(start, start + length)));
+    }
+
+    @Override
+    public EventBusMessage transform(final EventBusMessage message) {
+        final EventBusMessage copy = EventBusMessage.fromJson(message.toJson());
+        copy.setSpanContext(message.getSpanContext());
+        return copy;
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public byte systemCodecID() {
+        return -1;
+    }
+}
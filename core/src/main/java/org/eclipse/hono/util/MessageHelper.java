@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016, 2018 Contributors to the Eclipse Foundation
+ * Copyright (c) 2016, 2019 Contributors to the Eclipse Foundation
  *
  * See the NOTICE file(s) distributed with this work for additional
  * information regarding copyright ownership.
@@ -32,6 +32,9 @@ import org.apache.qpid.proton.message.Message;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.Unpooled;
 import io.vertx.core.buffer.Buffer;
 import io.vertx.core.json.DecodeException;
 import io.vertx.core.json.JsonObject;
@@ -346,6 +349,9 @@ public final class MessageHelper {
 
     /**
      * Gets a message's body as Buffer object.
+     * <p>
+     * The buffer returned for a <em>Data</em> section wraps the section's content
+     * without copying it.
      *
      * @param msg The AMQP 1.0 message to parse the body of.
      * @return The message body as a Buffer or {@code null} if the message does not have a <em>Data</em> nor an
@@ -361,8 +367,8 @@ public final class MessageHelper {
         }
 
         if (msg.getBody() instanceof Data) {
-            final Data body = (Data) msg.getBody();
-            return Buffer.buffer(body.getValue().getArray());
+            final Binary body = ((Data) msg.getBody()).getValue();
+            return Buffer.buffer(Unpooled.wrappedBuffer(body.getArray(), body.getArrayOffset(), body.getLength()));
         } else if (msg.getBody() instanceof AmqpValue) {
             final AmqpValue body = (AmqpValue) msg.getBody();
             if (body.getValue() instanceof byte[]) {
@@ -696,6 +702,11 @@ public final class MessageHelper {
      * <p>
      * If the payload is {@code null}, then neither the payload, nor content type will be set.
      * </p>
+     * <p>
+     * If the buffer is backed by an unpooled heap buffer, the Data section will share
+     * the buffer's content instead of holding a copy of it. The buffer must therefore
+     * not be modified after it has been set as the message's payload.
+     * </p>
      * 
      * @param message The message to update.
      * @param contentType An optional content type.
@@ -706,7 +717,32 @@ public final class MessageHelper {
     public static void setPayload(final Message message, final String contentType, final Buffer payload) {
         Objects.requireNonNull(message);
 
-        setPayload(message, contentType, payload != null ? payload.getBytes() : null);
+        if (contentType != null) {
+            message.setContentType(contentType);
+        }
+        if (payload != null) {
+            message.setBody(new Data(toBinary(payload)));
+        }
+    }
+
+    /**
+     * Creates an AMQP binary for the content of a buffer.
+     * <p>
+     * The binary shares the buffer's backing array if the buffer is an unpooled heap buffer.
+     * Otherwise, i.e. if the buffer is a direct buffer or belongs to a pool that may reuse
+     * the buffer once it has been released, the content is copied.
+     * 
+     * @param buffer The buffer.
+     * @return The binary.
+     */
+    private static Binary toBinary(final Buffer buffer) {
+
+        final ByteBuf byteBuf = buffer.getByteBuf();
+        if (byteBuf != null && byteBuf.hasArray() && !(byteBuf.alloc() instanceof PooledByteBufAllocator)) {
+            return new Binary(byteBuf.array(), byteBuf.arrayOffset() + byteBuf.readerIndex(), byteBuf.readableBytes());
+        } else {
+            return new Binary(buffer.getBytes());
+        }
     }
 
     /**
@@ -12,10 +12,13 @@
  *******************************************************************************/
 package org.eclipse.hono.util;
 
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.List;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * A unique identifier for a resource within Hono.
@@ -43,28 +46,84 @@ import java.util.Objects;
  * <li>telemetry/DEFAULT_TENANT</li>
  * <li>telemetry/DEFAULT_TENANT/</li>
  * </ol>
- *
+ * <p>
+ * Resource identifiers are created for each message being processed. Parsing is
+ * therefore done without regular expressions and the string representation is
+ * created lazily. Base paths of Hono's well known endpoints are interned per tenant.
  */
 public final class ResourceIdentifier {
 
+    private static final char SEPARATOR = '/';
     private static final int IDX_ENDPOINT = 0;
     private static final int IDX_TENANT_ID = 1;
     private static final int IDX_RESOURCE_ID = 2;
+    /**
+     * The maximum number of tenants to cache base paths for (per endpoint).
+     */
+    private static final int MAX_CACHED_TENANTS = 1000;
+    /**
+     * The interned base paths, indexed by endpoint and tenant.
+     * <p>
+     * Only the base paths of well known endpoints are interned so that
+     * arbitrary endpoint names provided by clients do not fill up the cache.
+     */
+    private static final Map<String, ConcurrentMap<String, String>> BASE_PATHS = newBasePathCache(
+            TelemetryConstants.TELEMETRY_ENDPOINT,
+            TelemetryConstants.TELEMETRY_ENDPOINT_SHORT,
+            EventConstants.EVENT_ENDPOINT,
+            EventConstants.EVENT_ENDPOINT_SHORT,
+            CommandConstants.COMMAND_ENDPOINT,
+            CommandConstants.COMMAND_ENDPOINT_SHORT,
+            RegistrationConstants.REGISTRATION_ENDPOINT,
+            CredentialsConstants.CREDENTIALS_ENDPOINT,
+            TenantConstants.TENANT_ENDPOINT);
+
     private String[] resourcePath;
     private String resource;
     private String basePath;
 
     private ResourceIdentifier(final String resource, final boolean assumeDefaultTenant) {
-        final String[] path = resource.split("\\/");
-        final List<String> pathSegments = new ArrayList<>(Arrays.asList(path));
-        if (assumeDefaultTenant) {
-            pathSegments.add(1, Constants.DEFAULT_TENANT);
+
+        // ignore trailing separators, just like String.split does
+        int end = resource.length();
+        while (end > 0 && resource.charAt(end - 1) == SEPARATOR) {
+            end--;
+        }
+        if (end == 0 && resource.length() > 0) {
+            throw new IllegalArgumentException("resource must contain an endpoint");
+        }
+
+        int segments = assumeDefaultTenant ? 2 : 1;
+        for (int i = 0; i < end; i++) {
+            if (resource.charAt(i) == SEPARATOR) {
+                segments++;
+            }
+        }
+
+        final String[] path = new String[segments];
+        int idx = 0;
+        int segmentStart = 0;
+        for (int i = 0; i <= end; i++) {
+            if (i == end || resource.charAt(i) == SEPARATOR) {
+                path[idx++] = resource.substring(segmentStart, i);
+                segmentStart = i + 1;
+                if (idx == 1 && assumeDefaultTenant) {
+                    path[idx++] = Constants.DEFAULT_TENANT;
+                }
+            }
+        }
+        final boolean containsEmptySegment = setResourcePath(path, true);
+        if (!assumeDefaultTenant && !containsEmptySegment) {
+            // the string representation is the parsed string itself
+            this.resource = resource.substring(0, end);
+            if (path.length == 2) {
+                this.basePath = this.resource;
+            }
         }
-        setResourcePath(pathSegments.toArray(new String[pathSegments.size()]));
     }
 
     private ResourceIdentifier(final String endpoint, final String tenantId, final String resourceId) {
-        setResourcePath(new String[]{endpoint, tenantId, resourceId});
+        setResourcePath(new String[]{endpoint, tenantId, resourceId}, true);
     }
 
     private ResourceIdentifier(final ResourceIdentifier resourceIdentifier, final String tenantId, final String resourceId) {
@@ -75,33 +134,49 @@ public final class ResourceIdentifier {
         }
         path[IDX_TENANT_ID] = tenantId;
         path[IDX_RESOURCE_ID] = resourceId;
-        setResourcePath(path);
+        setResourcePath(path, true);
     }
 
     private ResourceIdentifier(final String[] path) {
-        setResourcePath(path);
+        setResourcePath(path, false);
     }
 
-    private void setResourcePath(final String[] path) {
-        final List<String> pathSegments = new ArrayList<>();
-        boolean pathContainsNullSegment = false;
-        for (final String segment : path) {
-            if (segment == null) {
-                pathContainsNullSegment = true;
-            } else if (pathContainsNullSegment) {
+    /**
+     * Sets the path segments of this identifier.
+     *
+     * @param path The segments.
+     * @param owned {@code true} if the given array may be used as is,
+     *              {@code false} if it needs to be copied.
+     * @return {@code true} if the tenant or resource ID segments have been
+     *         empty and have therefore been replaced with {@code null}.
+     * @throws IllegalArgumentException if the path contains no segments or contains non-trailing
+     *                                  {@code null} segments.
+     */
+    private boolean setResourcePath(final String[] path, final boolean owned) {
+
+        int length = path.length;
+        while (length > 0 && path[length - 1] == null) {
+            length--;
+        }
+        if (length == 0) {
+            throw new IllegalArgumentException("path must have at least one segment");
+        }
+        for (int i = 0; i < length; i++) {
+            if (path[i] == null) {
                 throw new IllegalArgumentException("path may contain trailing null segments only");
-            } else {
-                pathSegments.add(segment);
             }
         }
-        this.resourcePath = pathSegments.toArray(new String[pathSegments.size()]);
+        this.resourcePath = owned && length == path.length ? path : Arrays.copyOf(path, length);
+        boolean emptySegmentReplaced = false;
         if (resourcePath.length > IDX_TENANT_ID && resourcePath[IDX_TENANT_ID].length() == 0) {
             resourcePath[IDX_TENANT_ID] = null;
+            emptySegmentReplaced = true;
         }
         if (resourcePath.length > IDX_RESOURCE_ID && resourcePath[IDX_RESOURCE_ID].length() == 0) {
             resourcePath[IDX_RESOURCE_ID] = null;
+            emptySegmentReplaced = true;
         }
-        createStringRepresentation();
+        return emptySegmentReplaced;
     }
 
     /**
@@ -119,20 +194,40 @@ public final class ResourceIdentifier {
         for (int i = startIdx; i < resourcePath.length; i++) {
             b.append(resourcePath[i]);
             if (i < resourcePath.length - 1) {
-                b.append("/");
+                b.append(SEPARATOR);
             }
         }
         return b.toString();
     }
 
-    private void createStringRepresentation() {
-        resource = createStringRepresentation(0);
+    private static Map<String, ConcurrentMap<String, String>> newBasePathCache(final String... endpoints) {
 
-        final StringBuilder b = new StringBuilder(getEndpoint());
-        if (getTenantId() != null) {
-            b.append("/").append(getTenantId());
+        final Map<String, ConcurrentMap<String, String>> cache = new HashMap<>();
+        for (final String endpoint : endpoints) {
+            cache.put(endpoint, new ConcurrentHashMap<>());
         }
-        basePath = b.toString();
+        return Collections.unmodifiableMap(cache);
+    }
+
+    private static String getBasePath(final String endpoint, final String tenantId) {
+
+        if (tenantId == null) {
+            return endpoint;
+        }
+        final ConcurrentMap<String, String> tenantBasePaths = BASE_PATHS.get(endpoint);
+        if (tenantBasePaths == null) {
+            return endpoint + SEPARATOR + tenantId;
+        }
+        final String basePath = tenantBasePaths.get(tenantId);
+        if (basePath != null) {
+            return basePath;
+        }
+        final String newBasePath = endpoint + SEPARATOR + tenantId;
+        if (tenantBasePaths.size() >= MAX_CACHED_TENANTS) {
+            return newBasePath;
+        }
+        final String existingBasePath = tenantBasePaths.putIfAbsent(tenantId, newBasePath);
+        return existingBasePath == null ? newBasePath : existingBasePath;
     }
 
     /**
@@ -251,6 +346,18 @@ public final class ResourceIdentifier {
         }
     }
 
+    /**
+     * Gets the number of segments of the full resource path of this identifier.
+     * <p>
+     * In contrast to {@code getResourcePath().length}, this method does not create
+     * a copy of the path.
+     *
+     * @return The number of segments.
+     */
+    public int length() {
+        return resourcePath.length;
+    }
+
     /**
      * Gets a copy of the full resource path of this identifier, including extended elements.
      *
@@ -271,6 +378,9 @@ public final class ResourceIdentifier {
      */
     @Override
     public String toString() {
+        if (resource == null) {
+            resource = createStringRepresentation(0);
+        }
         return resource;
     }
 
@@ -281,6 +391,9 @@ public final class ResourceIdentifier {
      * @return A string consisting of the properties separated by a forward slash.
      */
     public String getBasePath() {
+        if (basePath == null) {
+            basePath = getBasePath(getEndpoint(), getTenantId());
+        }
         return basePath;
     }
 
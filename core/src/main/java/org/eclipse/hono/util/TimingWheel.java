@@ -0,0 +1,266 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+
+/**
+ * A hashed timing wheel for scheduling a large number of time-outs.
+ * <p>
+ * Scheduling a task using {@link Vertx#setTimer(long, Handler)} adds an entry to the vert.x
+ * timer queue, which needs to be maintained for every single task. A timing wheel instead
+ * keeps the tasks in a fixed number of buckets and uses a single periodic vert.x timer to
+ * advance the wheel by one bucket per tick. Scheduling and canceling a task are therefore
+ * constant time operations that do not involve vert.x at all. The periodic timer is only
+ * running while there are tasks scheduled.
+ * <p>
+ * Tasks are run with a precision of one tick, i.e. a task may be run up to one tick
+ * duration later than requested but never earlier.
+ * <p>
+ * Instances of this class are not thread safe. A timing wheel must only be used from
+ * the vert.x context that it has first been used on. The tasks are run on that context.
+ */
+public class TimingWheel {
+
+    /**
+     * The default duration of a tick in milliseconds.
+     */
+    public static final long DEFAULT_TICK_DURATION = 10L;
+    /**
+     * The default number of buckets of the wheel.
+     */
+    public static final int DEFAULT_WHEEL_SIZE = 512;
+
+    private static final Logger LOG = LoggerFactory.getLogger(TimingWheel.class);
+    private static final long NO_TIMER = -1L;
+
+    private final Vertx vertx;
+    private final long tickDuration;
+    private final Entry[] buckets;
+    private final int mask;
+    private final LongSupplier clock;
+
+    private long currentTick = 0;
+    private long lastTickTime;
+    private long timerId = NO_TIMER;
+    private int size = 0;
+
+    /**
+     * Creates a new timing wheel using default tick duration and wheel size.
+     *
+     * @param vertx The vert.x instance to use for advancing the wheel.
+     * @throws NullPointerException if vertx is {@code null}.
+     */
+    public TimingWheel(final Vertx vertx) {
+        this(vertx, DEFAULT_TICK_DURATION, DEFAULT_WHEEL_SIZE);
+    }
+
+    /**
+     * Creates a new timing wheel.
+     *
+     * @param vertx The vert.x instance to use for advancing the wheel.
+     * @param tickDuration The number of milliseconds after which the wheel is advanced by one bucket.
+     * @param wheelSize The number of buckets. The value is rounded up to the next power of two.
+     * @throws NullPointerException if vertx is {@code null}.
+     * @throws IllegalArgumentException if tick duration or wheel size are &lt;= 0.
+     */
+    public TimingWheel(final Vertx vertx, final long tickDuration, final int wheelSize) {
+        this(vertx, tickDuration, wheelSize, System::currentTimeMillis);
+    }
+
+    /**
+     * Creates a new timing wheel for a specific clock.
+     *
+     * @param vertx The vert.x instance to use for advancing the wheel.
+     * @param tickDuration The number of milliseconds after which the wheel is advanced by one bucket.
+     * @param wheelSize The number of buckets. The value is rounded up to the next power of two.
+     * @param clock The source of the current time in milliseconds.
+     * @throws NullPointerException if vertx or clock are {@code null}.
+     * @throws IllegalArgumentException if tick duration or wheel size are &lt;= 0.
+     */
+    TimingWheel(final Vertx vertx, final long tickDuration, final int wheelSize, final LongSupplier clock) {
+
+        if (tickDuration <= 0) {
+            throw new IllegalArgumentException("tick duration must be > 0");
+        }
+        if (wheelSize <= 0 || wheelSize > 1 << 30) {
+            throw new IllegalArgumentException("wheel size must be > 0 and <= 2^30");
+        }
+        this.vertx = Objects.requireNonNull(vertx);
+        this.clock = Objects.requireNonNull(clock);
+        this.tickDuration = tickDuration;
+        int normalizedSize = 1;
+        while (normalizedSize < wheelSize) {
+            normalizedSize <<= 1;
+        }
+        this.buckets = new Entry[normalizedSize];
+        this.mask = normalizedSize - 1;
+    }
+
+    /**
+     * Gets the number of tasks that are currently scheduled.
+     *
+     * @return The number of tasks.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Schedules a task to be run after a given delay.
+     *
+     * @param delay The number of milliseconds after which the task should be run.
+     * @param task The task to run.
+     * @return The handle for canceling the task.
+     * @throws NullPointerException if task is {@code null}.
+     * @throws IllegalArgumentException if delay is &lt; 0.
+     */
+    public Timeout schedule(final long delay, final Handler<Void> task) {
+
+        Objects.requireNonNull(task);
+        if (delay < 0) {
+            throw new IllegalArgumentException("delay must not be negative");
+        }
+
+        final long now = clock.getAsLong();
+        if (timerId == NO_TIMER) {
+            lastTickTime = now;
+            timerId = vertx.setPeriodic(tickDuration, tid -> onTick());
+        }
+        // the current tick may have started some time ago already
+        final long sinceLastTick = Math.max(0, now - lastTickTime);
+        final long ticks = Math.max(1, (delay + sinceLastTick + tickDuration - 1) / tickDuration);
+        final Entry entry = new Entry(currentTick + ticks, task);
+        link(entry);
+        return entry;
+    }
+
+    private void onTick() {
+
+        final long elapsedTicks = (clock.getAsLong() - lastTickTime) / tickDuration;
+        if (elapsedTicks <= 0) {
+            return;
+        }
+        final long targetTick = currentTick + elapsedTicks;
+        List<Entry> expired = null;
+        // visit each bucket at most once, even if the timer has been delayed for a long time
+        final long lastTickToVisit = currentTick + Math.min(elapsedTicks, buckets.length);
+        for (long tick = currentTick + 1; tick <= lastTickToVisit; tick++) {
+            Entry entry = buckets[(int) (tick & mask)];
+            while (entry != null) {
+                final Entry next = entry.next;
+                if (entry.deadline <= targetTick) {
+                    unlink(entry);
+                    if (expired == null) {
+                        expired = new ArrayList<>();
+                    }
+                    expired.add(entry);
+                }
+                entry = next;
+            }
+        }
+        currentTick = targetTick;
+        lastTickTime += elapsedTicks * tickDuration;
+
+        if (expired != null) {
+            for (final Entry entry : expired) {
+                try {
+                    entry.task.handle(null);
+                } catch (final RuntimeException e) {
+                    LOG.warn("error running scheduled task", e);
+                }
+            }
+        }
+        if (size == 0 && timerId != NO_TIMER) {
+            vertx.cancelTimer(timerId);
+            timerId = NO_TIMER;
+        }
+    }
+
+    private void link(final Entry entry) {
+        final int index = (int) (entry.deadline & mask);
+        entry.bucket = index;
+        entry.next = buckets[index];
+        if (entry.next != null) {
+            entry.next.prev = entry;
+        }
+        buckets[index] = entry;
+        size++;
+    }
+
+    private void unlink(final Entry entry) {
+        if (entry.prev == null) {
+            buckets[entry.bucket] = entry.next;
+        } else {
+            entry.prev.next = entry.next;
+        }
+        if (entry.next != null) {
+            entry.next.prev = entry.prev;
+        }
+        entry.prev = null;
+        entry.next = null;
+        entry.bucket = -1;
+        size--;
+    }
+
+    /**
+     * A handle to a task that has been scheduled on a timing wheel.
+     */
+    public interface Timeout {
+
+        /**
+         * Cancels the task.
+         *
+         * @return {@code true} if the task has been canceled or {@code false}
+         *         if the task has already been run or canceled before.
+         */
+        boolean cancel();
+    }
+
+    /**
+     * A scheduled task that is linked into one of the wheel's buckets.
+     */
+    private final class Entry implements Timeout {
+
+        private final long deadline;
+        private final Handler<Void> task;
+        private int bucket = -1;
+        private Entry prev;
+        private Entry next;
+
+        Entry(final long deadline, final Handler<Void> task) {
+            this.deadline = deadline;
+            this.task = task;
+        }
+
+        @Override
+        public boolean cancel() {
+            if (bucket < 0) {
+                return false;
+            } else {
+                unlink(this);
+                return true;
+            }
+        }
+    }
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016, 2018 Contributors to the Eclipse Foundation
+ * Copyright (c) 2016, 2019 Contributors to the Eclipse Foundation
  *
  * See the NOTICE file(s) distributed with this work for additional
  * information regarding copyright ownership.
@@ -57,4 +57,53 @@ public class AuthoritiesImplTest {
         assertFalse(authorities.isAuthorized(ResourceIdentifier.fromString("other-endpoint/tenant"), "get"));
         assertTrue(authorities.isAuthorized(ResourceIdentifier.fromString("endpoint/tenant"), "get"));
     }
+
+    /**
+     * Verifies that authorities on specific resources and on resources
+     * with more than three path segments are considered.
+     */
+    @Test
+    public void testIsAuthorizedConsidersSpecificResources() {
+
+        final AuthoritiesImpl authorities = new AuthoritiesImpl()
+                .addResource("command/tenant/device", Activity.READ)
+                .addResource("event/tenant/device/extra", Activity.WRITE)
+                .addOperation("registration/tenant/device", "get");
+        assertTrue(authorities.isAuthorized(ResourceIdentifier.fromString("command/tenant/device"), Activity.READ));
+        assertFalse(authorities.isAuthorized(ResourceIdentifier.fromString("command/tenant/device"), Activity.WRITE));
+        assertFalse(authorities.isAuthorized(ResourceIdentifier.fromString("command/tenant/other"), Activity.READ));
+        assertTrue(authorities.isAuthorized(ResourceIdentifier.fromString("event/tenant/device/extra"), Activity.WRITE));
+        assertFalse(authorities.isAuthorized(ResourceIdentifier.fromString("event/tenant/device"), Activity.WRITE));
+        assertTrue(authorities.isAuthorized(ResourceIdentifier.fromString("registration/tenant/device"), "get"));
+        assertFalse(authorities.isAuthorized(ResourceIdentifier.fromString("registration/tenant"), "get"));
+    }
+
+    /**
+     * Verifies that authorities added after a check has been performed are
+     * considered in subsequent checks.
+     */
+    @Test
+    public void testIsAuthorizedConsidersAddedAuthorities() {
+
+        final AuthoritiesImpl authorities = new AuthoritiesImpl().addResource("telemetry", Activity.READ);
+        final ResourceIdentifier resource = ResourceIdentifier.fromString("telemetry/tenant");
+        assertFalse(authorities.isAuthorized(resource, Activity.WRITE));
+        authorities.addResource("*", Activity.WRITE);
+        assertTrue(authorities.isAuthorized(resource, Activity.WRITE));
+    }
+
+    /**
+     * Verifies that operations on resources containing a colon are
+     * granted on the resource they have been added for only.
+     */
+    @Test
+    public void testIsAuthorizedConsidersOperationsOnResourcesContainingColon() {
+
+        final AuthoritiesImpl authorities = new AuthoritiesImpl()
+                .addOperation("registration/tenant:a", "get");
+        assertTrue(authorities.isAuthorized(ResourceIdentifier.fromString("registration/tenant:a"), "get"));
+        assertFalse(authorities.isAuthorized(ResourceIdentifier.fromString("registration/tenant"), "get"));
+        assertFalse(authorities.isAuthorized(ResourceIdentifier.fromString("registration/tenant"), "a:get"));
+        assertFalse(authorities.isAuthorized(ResourceIdentifier.fromString("registration/tenant:a"), "a:get"));
+    }
 }
@@ -0,0 +1,70 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.tracing;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+/**
+ * Tests verifying behavior of {@link TenantTraceSampler}.
+ *
+ */
+public class TenantTraceSamplerTest {
+
+    private final AtomicLong now = new AtomicLong(0L);
+
+    /**
+     * Verifies that the sampler limits the number of traces per tenant
+     * and second.
+     */
+    @Test
+    public void testIsSampledLimitsTracesPerTenant() {
+
+        // GIVEN a sampler that allows for two traces per second
+        final TenantTraceSampler sampler = new TenantTraceSampler(2, now::get);
+
+        // WHEN three messages of the same tenant are checked within the same instant
+        assertTrue(sampler.isSampled("tenant"));
+        assertTrue(sampler.isSampled("tenant"));
+        // THEN the third message is not sampled
+        assertFalse(sampler.isSampled("tenant"));
+        // but a message of another tenant is
+        assertTrue(sampler.isSampled("other"));
+
+        // and after half a second another message of the first tenant is sampled
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        assertTrue(sampler.isSampled("tenant"));
+        assertFalse(sampler.isSampled("tenant"));
+    }
+
+    /**
+     * Verifies that a negative rate results in all messages being sampled
+     * and a rate of 0 results in no messages being sampled.
+     */
+    @Test
+    public void testIsSampledHonorsUnlimitedAndDisabledRate() {
+
+        final TenantTraceSampler unlimited = new TenantTraceSampler(-1, now::get);
+        final TenantTraceSampler disabled = new TenantTraceSampler(0, now::get);
+        for (int i = 0; i < 100; i++) {
+            assertTrue(unlimited.isSampled("tenant"));
+            assertFalse(disabled.isSampled("tenant"));
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.util;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import io.opentracing.SpanContext;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+
+
+/**
+ * Tests verifying behavior of {@link EventBusMessageCodec}.
+ *
+ */
+public class EventBusMessageCodecTest {
+
+    private static Vertx vertx;
+
+    /**
+     * Creates the vert.x instance to use for sending messages.
+     */
+    @BeforeClass
+    public static void init() {
+        vertx = Vertx.vertx();
+    }
+
+    /**
+     * Closes the vert.x instance.
+     */
+    @AfterClass
+    public static void shutDown() {
+        vertx.close();
+    }
+
+    /**
+     * Verifies that a message sent to a local consumer is passed as a copy
+     * that does not share any JSON objects with the sent message.
+     *
+     * @throws InterruptedException if the test is interrupted.
+     */
+    @Test(timeout = 5000)
+    public void testLocalDeliveryPassesCopyOfMessage() throws InterruptedException {
+
+        // GIVEN an event bus with the codec registered (twice)
+        EventBusMessageCodec.register(vertx.eventBus());
+        EventBusMessageCodec.register(vertx.eventBus());
+        final BlockingQueue<Object> received = new LinkedBlockingQueue<>();
+        vertx.eventBus().consumer("test", msg -> received.add(msg.body()));
+
+        // WHEN sending a message to a local consumer
+        final JsonObject payload = new JsonObject().put("key", "value");
+        final SpanContext spanContext = mock(SpanContext.class);
+        final EventBusMessage message = EventBusMessage.forStatusCode(200)
+                .setTenant("tenant")
+                .setJsonPayload(payload);
+        message.setSpanContext(spanContext);
+        vertx.eventBus().send("test", message);
+        // and modifying the message's payload afterwards
+        payload.put("key", "changed");
+
+        // THEN the consumer receives a copy of the message as it has been sent
+        final EventBusMessage copy = (EventBusMessage) received.take();
+        assertThat(copy, not(sameInstance(message)));
+        assertThat(copy.getTenant(), is("tenant"));
+        assertThat(copy.getJsonPayload().getString("key"), is("value"));
+        assertThat(copy.getSpanContext(), sameInstance(spanContext));
+    }
+
+    /**
+     * Verifies that a message can be decoded from its wire format.
+     */
+    @Test
+    public void testDecodeFromWireReturnsEncodedMessage() {
+
+        // GIVEN a buffer containing an encoded message after some other data
+        final EventBusMessageCodec codec = new EventBusMessageCodec();
+        final EventBusMessage message = EventBusMessage.forStatusCode(200)
+                .setTenant("tenant")
+                .setJsonPayload(new JsonObject().put("key", "value"));
+        final Buffer buffer = Buffer.buffer("header");
+        codec.encodeToWire(buffer, message);
+
+        // WHEN decoding the message
+        final EventBusMessage decoded = codec.decodeFromWire(6, buffer);
+
+        // THEN the decoded message has the same content as the original message
+        assertThat(decoded.toJson(), is(message.toJson()));
+    }
+}
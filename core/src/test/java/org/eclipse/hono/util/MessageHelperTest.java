@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016, 2018 Contributors to the Eclipse Foundation
+ * Copyright (c) 2016, 2019 Contributors to the Eclipse Foundation
  *
  * See the NOTICE file(s) distributed with this work for additional
  * information regarding copyright ownership.
@@ -17,9 +17,12 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
 
+import org.apache.qpid.proton.amqp.Binary;
+import org.apache.qpid.proton.amqp.messaging.Data;
 import org.apache.qpid.proton.message.Message;
 import org.junit.Test;
 
+import io.vertx.core.buffer.Buffer;
 import io.vertx.proton.ProtonHelper;
 
 /**
@@ -79,4 +82,36 @@ public class MessageHelperTest {
         assertNull(msg.getApplicationProperties());
     }
 
+
+    /**
+     * Verifies that the payload set from a buffer can be retrieved again,
+     * even if the buffer only represents a slice of its backing array.
+     */
+    @Test
+    public void testGetPayloadReturnsPayloadSetFromBufferSlice() {
+
+        final Buffer buffer = Buffer.buffer("prefix-payload-suffix").slice(7, 14);
+        final Message msg = ProtonHelper.message();
+        MessageHelper.setPayload(msg, "text/plain", buffer);
+
+        assertThat(((Data) msg.getBody()).getValue(), is(new Binary("payload".getBytes())));
+        assertThat(MessageHelper.getPayload(msg).toString(), is("payload"));
+        assertThat(msg.getContentType(), is("text/plain"));
+    }
+
+    /**
+     * Verifies that the payload retrieved from a message contains the bytes
+     * of the message's Data section only.
+     */
+    @Test
+    public void testGetPayloadReturnsContentOfDataSection() {
+
+        final byte[] content = "the payload".getBytes();
+        final Message msg = ProtonHelper.message();
+        msg.setBody(new Data(new Binary(content, 4, 7)));
+
+        final Buffer payload = MessageHelper.getPayload(msg);
+        assertThat(payload.length(), is(7));
+        assertThat(payload.toString(), is("payload"));
+    }
 }
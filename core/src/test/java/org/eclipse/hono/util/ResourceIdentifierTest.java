@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016, 2018 Contributors to the Eclipse Foundation
+ * Copyright (c) 2016, 2019 Contributors to the Eclipse Foundation
  *
  * See the NOTICE file(s) distributed with this work for additional
  * information regarding copyright ownership.
@@ -201,4 +201,62 @@ public class ResourceIdentifierTest {
     public void testFromPathFailsForPathStartingWithNullSegment() {
         ResourceIdentifier.fromPath(new String[]{null, "second", "last"});
     }
+
+    /**
+     * Verifies that trailing separators are ignored when parsing a string and that
+     * empty tenant and device ID segments are treated as missing.
+     */
+    @Test
+    public void testFromStringHandlesEmptySegments() {
+
+        ResourceIdentifier id = ResourceIdentifier.fromString("telemetry/myTenant//");
+        assertThat(id.length(), is(2));
+        assertThat(id.toString(), is("telemetry/myTenant"));
+        assertThat(id.getBasePath(), is("telemetry/myTenant"));
+
+        id = ResourceIdentifier.fromString("telemetry//4711");
+        assertThat(id.length(), is(3));
+        assertNull(id.getTenantId());
+        assertThat(id.getResourceId(), is("4711"));
+        assertThat(id.getBasePath(), is("telemetry"));
+
+        id = ResourceIdentifier.fromStringAssumingDefaultTenant("telemetry/");
+        assertThat(id.length(), is(2));
+        assertThat(id.getTenantId(), is(Constants.DEFAULT_TENANT));
+        assertNull(id.getResourceId());
+    }
+
+    /**
+     * Verifies that a string consisting of separators only is rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testFromStringFailsForMissingEndpoint() {
+        ResourceIdentifier.fromString("//");
+    }
+
+    /**
+     * Verifies that resource identifiers with the same endpoint and tenant
+     * share the same base path instance.
+     */
+    @Test
+    public void testGetBasePathReturnsInternedString() {
+
+        final ResourceIdentifier one = ResourceIdentifier.fromString("event/myTenant/device-1");
+        final ResourceIdentifier two = ResourceIdentifier.from("event", "myTenant", "device-2");
+        assertThat(one.getBasePath(), is("event/myTenant"));
+        assertSame(one.getBasePath(), two.getBasePath());
+    }
+
+    /**
+     * Verifies that base paths of unknown endpoints are not interned.
+     */
+    @Test
+    public void testGetBasePathDoesNotInternUnknownEndpoints() {
+
+        final ResourceIdentifier one = ResourceIdentifier.fromString("unknown/myTenant/device-1");
+        final ResourceIdentifier two = ResourceIdentifier.from("unknown", "myTenant", "device-2");
+        assertThat(one.getBasePath(), is("unknown/myTenant"));
+        assertThat(two.getBasePath(), is("unknown/myTenant"));
+        assertNotSame(one.getBasePath(), two.getBasePath());
+    }
 }
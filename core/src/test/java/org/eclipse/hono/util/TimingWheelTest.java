@@ -0,0 +1,173 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.hono.util.TimingWheel.Timeout;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+
+/**
+ * Tests verifying behavior of {@link TimingWheel}.
+ *
+ */
+public class TimingWheelTest {
+
+    private static final long TIMER_ID = 4711L;
+
+    private Vertx vertx;
+    private AtomicLong now;
+    private TimingWheel wheel;
+    private Handler<Long> tickHandler;
+
+    /**
+     * Sets up the fixture.
+     */
+    @SuppressWarnings("unchecked")
+    @Before
+    public void setUp() {
+        vertx = mock(Vertx.class);
+        when(vertx.setPeriodic(anyLong(), any(Handler.class))).thenReturn(TIMER_ID);
+        now = new AtomicLong(1000L);
+        wheel = new TimingWheel(vertx, 10, 8, now::get);
+    }
+
+    /**
+     * Verifies that a task is run once its delay has expired but not before.
+     */
+    @Test
+    public void testScheduledTaskIsRunAfterDelay() {
+
+        final AtomicInteger runs = new AtomicInteger();
+        // GIVEN a task that has been scheduled to run after 25ms
+        wheel.schedule(25, v -> runs.incrementAndGet());
+        captureTickHandler();
+
+        // WHEN 20ms have passed
+        advance(20);
+        // THEN the task has not been run yet
+        assertEquals(0, runs.get());
+
+        // WHEN another 10ms have passed
+        advance(10);
+        // THEN the task has been run
+        assertEquals(1, runs.get());
+        assertEquals(0, wheel.size());
+        // and the periodic timer has been canceled
+        verify(vertx).cancelTimer(TIMER_ID);
+    }
+
+    /**
+     * Verifies that a task is run at the right time even if its delay exceeds
+     * a full revolution of the wheel.
+     */
+    @Test
+    public void testScheduledTaskWithDelayExceedingRevolutionIsRunAfterDelay() {
+
+        final AtomicInteger runs = new AtomicInteger();
+        // GIVEN a task that has been scheduled to run after 2.5 revolutions of the wheel
+        wheel.schedule(200, v -> runs.incrementAndGet());
+        captureTickHandler();
+
+        // WHEN the wheel has been advanced by 190ms
+        for (int i = 0; i < 19; i++) {
+            advance(10);
+        }
+        // THEN the task has not been run yet
+        assertEquals(0, runs.get());
+
+        // but is run after 200ms
+        advance(10);
+        assertEquals(1, runs.get());
+    }
+
+    /**
+     * Verifies that a canceled task is not run.
+     */
+    @Test
+    public void testCanceledTaskIsNotRun() {
+
+        final AtomicInteger runs = new AtomicInteger();
+        // GIVEN a task that has been scheduled to run after 10ms
+        final Timeout timeout = wheel.schedule(10, v -> runs.incrementAndGet());
+        captureTickHandler();
+
+        // WHEN canceling the task
+        assertTrue(timeout.cancel());
+        // and 10ms have passed
+        advance(10);
+
+        // THEN the task has not been run
+        assertEquals(0, runs.get());
+        assertEquals(0, wheel.size());
+        // and cannot be canceled again
+        assertFalse(timeout.cancel());
+    }
+
+    /**
+     * Verifies that the wheel uses a single periodic timer only for multiple tasks
+     * and that all tasks are run if the timer has been delayed for a long time.
+     */
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testDelayedTimerRunsAllExpiredTasks() {
+
+        final AtomicInteger runs = new AtomicInteger();
+        // GIVEN multiple tasks scheduled with different delays
+        wheel.schedule(10, v -> runs.incrementAndGet());
+        wheel.schedule(50, v -> runs.incrementAndGet());
+        wheel.schedule(500, v -> runs.incrementAndGet());
+        captureTickHandler();
+        verify(vertx, times(1)).setPeriodic(eq(10L), any(Handler.class));
+
+        // WHEN the periodic timer fires for the first time after 100ms only
+        advance(100);
+
+        // THEN the tasks with a delay of less than 100ms have been run
+        assertEquals(2, runs.get());
+        // and the wheel is kept running for the remaining task
+        assertEquals(1, wheel.size());
+        verify(vertx, never()).cancelTimer(anyLong());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void captureTickHandler() {
+        final ArgumentCaptor<Handler<Long>> captor = ArgumentCaptor.forClass(Handler.class);
+        verify(vertx).setPeriodic(anyLong(), captor.capture());
+        tickHandler = captor.getValue();
+    }
+
+    private void advance(final long millis) {
+        now.addAndGet(millis);
+        tickHandler.handle(TIMER_ID);
+    }
+}
@@ -13,6 +13,7 @@
 
 package org.eclipse.hono.service;
 
+import java.time.Duration;
 import java.util.Optional;
 
 import org.eclipse.hono.cache.CacheProvider;
@@ -28,7 +29,9 @@ import org.eclipse.hono.client.impl.GatewayMapperImpl;
 import org.eclipse.hono.config.ApplicationConfigProperties;
 import org.eclipse.hono.config.ClientConfigProperties;
 import org.eclipse.hono.config.VertxProperties;
-import org.eclipse.hono.service.cache.SpringCacheProvider;
+import org.eclipse.hono.service.cache.CaffeineCacheProvider;
+import org.eclipse.hono.service.metric.MicrometerBasedMetrics;
+import org.eclipse.hono.service.plan.CounterBasedResourceLimitChecks;
 import org.eclipse.hono.service.plan.PrometheusBasedResourceLimitChecks;
 import org.eclipse.hono.service.plan.PrometheusBasedResourceLimitChecksConfig;
 import org.eclipse.hono.service.plan.ResourceLimitChecks;
@@ -37,15 +40,16 @@ import org.eclipse.hono.util.Constants;
 import org.eclipse.hono.util.CredentialsConstants;
 import org.eclipse.hono.util.RegistrationConstants;
 import org.eclipse.hono.util.TenantConstants;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.ConfigurationProperties;
-import org.springframework.cache.guava.GuavaCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Scope;
 
-import com.google.common.cache.CacheBuilder;
-
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import io.opentracing.Tracer;
 import io.opentracing.contrib.tracerresolver.TracerResolver;
 import io.opentracing.noop.NoopTracerFactory;
@@ -58,6 +62,10 @@ import io.vertx.ext.web.client.WebClient;
  */
 public abstract class AbstractAdapterConfig {
 
+    private static final String GATEWAY_MAPPING_CACHE = "gateway-mapping";
+
+    private ObjectProvider<MeterRegistry> meterRegistryProvider;
+
     /**
      * Exposes an OpenTracing {@code Tracer} as a Spring Bean.
      * <p>
@@ -201,6 +209,9 @@ public abstract class AbstractAdapterConfig {
 
     /**
      * Exposes the provider for caches as a Spring bean.
+     * <p>
+     * A new provider is created for each client factory, i.e. the cached responses
+     * are not shared between verticle instances.
      *
      * @return The provider instance.
      */
@@ -208,7 +219,7 @@ public abstract class AbstractAdapterConfig {
     @Qualifier(RegistrationConstants.REGISTRATION_ENDPOINT)
     @Scope("prototype")
     public CacheProvider registrationCacheProvider() {
-        return newGuavaCache(registrationClientFactoryConfig());
+        return newResponseCache(RegistrationConstants.REGISTRATION_ENDPOINT, registrationClientFactoryConfig());
     }
 
     /**
@@ -264,6 +275,9 @@ public abstract class AbstractAdapterConfig {
 
     /**
      * Exposes the provider for caches as a Spring bean.
+     * <p>
+     * A new provider is created for each client factory, i.e. the cached responses
+     * are not shared between verticle instances.
      *
      * @return The provider instance.
      */
@@ -271,7 +285,7 @@ public abstract class AbstractAdapterConfig {
     @Qualifier(CredentialsConstants.CREDENTIALS_ENDPOINT)
     @Scope("prototype")
     public CacheProvider credentialsCacheProvider() {
-        return newGuavaCache(credentialsClientFactoryConfig());
+        return newResponseCache(CredentialsConstants.CREDENTIALS_ENDPOINT, credentialsClientFactoryConfig());
     }
 
     /**
@@ -327,6 +341,9 @@ public abstract class AbstractAdapterConfig {
 
     /**
      * Exposes the provider for caches as a Spring bean.
+     * <p>
+     * A new provider is created for each client factory, i.e. the cached responses
+     * are not shared between verticle instances.
      *
      * @return The provider instance.
      */
@@ -334,7 +351,7 @@ public abstract class AbstractAdapterConfig {
     @Qualifier(TenantConstants.TENANT_ENDPOINT)
     @Scope("prototype")
     public CacheProvider tenantCacheProvider() {
-        return newGuavaCache(tenantServiceClientConfig());
+        return newResponseCache(TenantConstants.TENANT_ENDPOINT, tenantServiceClientConfig());
     }
 
     /**
@@ -374,13 +391,37 @@ public abstract class AbstractAdapterConfig {
 
     /**
      * Exposes the component for mapping a device id to a corresponding gateway id.
+     * <p>
+     * The gateways through which devices have published data are only cached if
+     * the <em>gatewayMappingCacheTimeout</em> property of the {@link #commandConsumerFactoryConfig()}
+     * is set to a positive number of seconds.
      *
      * @return New GatewayMapper instance.
      */
     @Bean
     @Scope("prototype")
     public GatewayMapper gatewayMapper() {
-        return new GatewayMapperImpl(registrationClientFactory());
+        final long cacheTimeout = commandConsumerFactoryConfig().getGatewayMappingCacheTimeout();
+        return new GatewayMapperImpl(
+                registrationClientFactory(),
+                cacheTimeout > 0 ? gatewayMappingCacheProvider() : null,
+                Duration.ofSeconds(cacheTimeout));
+    }
+
+    /**
+     * Exposes the provider for the cache of gateways through which devices have published
+     * data as a Spring bean.
+     * <p>
+     * The provider is shared by all gateway mappers created by this configuration.
+     * The size of the cache is configured using the response cache properties of the
+     * registration service client.
+     *
+     * @return The provider instance.
+     */
+    @Bean
+    @Qualifier(GATEWAY_MAPPING_CACHE)
+    public CacheProvider gatewayMappingCacheProvider() {
+        return newResponseCache(GATEWAY_MAPPING_CACHE, registrationClientFactoryConfig());
     }
 
     /**
@@ -395,38 +436,55 @@ public abstract class AbstractAdapterConfig {
     }
 
     /**
-     * Create a new cache provider based on Guava and Spring Cache.
+     * Sets the registry to register the meters for the statistics of the response caches with.
+     * <p>
+     * The meters use the names of the services as values of the <em>cache</em> tag.
+     *
+     * @param registry The provider of the meter registry.
+     */
+    @Autowired
+    public final void setMeterRegistry(final ObjectProvider<MeterRegistry> registry) {
+        this.meterRegistryProvider = registry;
+    }
+
+    private static void bindCacheMetrics(final MeterRegistry registry, final CacheProvider cacheProvider) {
+        if (cacheProvider instanceof MeterBinder) {
+            ((MeterBinder) cacheProvider).bindTo(registry);
+        }
+    }
+
+    /**
+     * Create a new cache provider for responses of a service based on Caffeine.
+     * <p>
+     * The statistics of the cache are registered with the meter registry, if set.
      *
+     * @param name The name of the cache provider.
      * @param config The configuration to use as base for this cache.
      * @return A new cache provider or {@code null} if no cache should be used.
      */
-    private static CacheProvider newGuavaCache(final RequestResponseClientConfigProperties config) {
-        return newGuavaCache(config.getResponseCacheMinSize(), config.getResponseCacheMaxSize());
+    private CacheProvider newResponseCache(final String name, final RequestResponseClientConfigProperties config) {
+        final CacheProvider cacheProvider = newCaffeineCache(name, config.getResponseCacheMinSize(), config.getResponseCacheMaxSize());
+        Optional.ofNullable(meterRegistryProvider)
+            .map(ObjectProvider::getIfAvailable)
+            .ifPresent(registry -> bindCacheMetrics(registry, cacheProvider));
+        return cacheProvider;
     }
 
     /**
-     * Create a new cache provider based on Guava and Spring Cache.
+     * Create a new cache provider based on Caffeine.
      *
+     * @param name The name of the cache provider.
      * @param minCacheSize The minimum size of the cache.
      * @param maxCacheSize the maximum size of the cache.
      * @return A new cache provider or {@code null} if no cache should be used.
      */
-    private static CacheProvider newGuavaCache(final int minCacheSize, final long maxCacheSize) {
+    private static CacheProvider newCaffeineCache(final String name, final int minCacheSize, final long maxCacheSize) {
 
         if (maxCacheSize <= 0) {
             return null;
         }
 
-        final CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder()
-                .concurrencyLevel(1)
-                .initialCapacity(minCacheSize)
-                .maximumSize(Math.max(minCacheSize, maxCacheSize));
-
-        final GuavaCacheManager manager = new GuavaCacheManager();
-        manager.setAllowNullValues(false);
-        manager.setCacheBuilder(builder);
-
-        return new SpringCacheProvider(manager);
+        return new CaffeineCacheProvider(name, minCacheSize, Math.max(minCacheSize, maxCacheSize));
     }
 
     /**
@@ -464,14 +522,31 @@ public abstract class AbstractAdapterConfig {
 
     /**
      * Creates a new instance of {@link ResourceLimitChecks} based on prometheus metrics data.
+     * <p>
+     * If local counters are enabled in the configuration and the adapter uses
+     * {@link MicrometerBasedMetrics}, the checks are based on the locally tracked
+     * usage data which is reconciled with the prometheus metrics data in the background.
      * 
+     * @param metrics The adapter's metrics.
+     * @param meterRegistry The registry to register the meters for the statistics of the
+     *                      resource limits cache with.
      * @return A ResourceLimitChecks instance.
      */
     @Bean
     @ConditionalOnProperty(name = "hono.plan.prometheusBased.host")
-    public ResourceLimitChecks resourceLimitChecks() {
+    public ResourceLimitChecks resourceLimitChecks(
+            final ObjectProvider<MicrometerBasedMetrics> metrics,
+            final ObjectProvider<MeterRegistry> meterRegistry) {
         final PrometheusBasedResourceLimitChecksConfig config = resourceLimitChecksConfig();
-        return new PrometheusBasedResourceLimitChecks(WebClient.create(vertx()), config,
-                newGuavaCache(config.getCacheMinSize(), config.getCacheMaxSize()));
+        final CacheProvider cacheProvider = newCaffeineCache("resource-limits", config.getCacheMinSize(), config.getCacheMaxSize());
+        Optional.ofNullable(meterRegistry.getIfAvailable()).ifPresent(registry -> bindCacheMetrics(registry, cacheProvider));
+        final PrometheusBasedResourceLimitChecks prometheusBasedChecks = new PrometheusBasedResourceLimitChecks(
+                WebClient.create(vertx()), config, cacheProvider);
+        final MicrometerBasedMetrics localMetrics = metrics.getIfAvailable();
+        if (config.isLocalCountersEnabled() && localMetrics != null) {
+            return new CounterBasedResourceLimitChecks(prometheusBasedChecks, localMetrics, config);
+        } else {
+            return prometheusBasedChecks;
+        }
     }
 }
@@ -14,6 +14,9 @@ package org.eclipse.hono.service;
 
 import java.net.HttpURLConnection;
 import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.function.BiConsumer;
@@ -30,6 +33,7 @@ import org.eclipse.hono.client.CredentialsClientFactory;
 import org.eclipse.hono.client.DisconnectListener;
 import org.eclipse.hono.client.DownstreamSender;
 import org.eclipse.hono.client.DownstreamSenderFactory;
+import org.eclipse.hono.client.GatewayMapper;
 import org.eclipse.hono.client.HonoConnection;
 import org.eclipse.hono.client.MessageConsumer;
 import org.eclipse.hono.client.ReconnectListener;
@@ -46,6 +50,8 @@ import org.eclipse.hono.service.limiting.ConnectionLimitManager;
 import org.eclipse.hono.service.monitoring.ConnectionEventProducer;
 import org.eclipse.hono.service.plan.NoopResourceLimitChecks;
 import org.eclipse.hono.service.plan.ResourceLimitChecks;
+import org.eclipse.hono.tracing.TenantTraceSampler;
+import org.eclipse.hono.tracing.TracingHelper;
 import org.eclipse.hono.util.Constants;
 import org.eclipse.hono.util.CredentialsConstants;
 import org.eclipse.hono.util.EventConstants;
@@ -58,8 +64,14 @@ import org.eclipse.hono.util.TenantObject;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
 import io.micrometer.core.instrument.Timer.Sample;
+import io.opentracing.Span;
 import io.opentracing.SpanContext;
+import io.opentracing.Tracer;
+import io.opentracing.noop.NoopTracerFactory;
 import io.opentracing.tag.Tags;
 import io.vertx.core.CompositeFuture;
 import io.vertx.core.Context;
@@ -93,15 +105,36 @@ public abstract class AbstractProtocolAdapterBase<T extends ProtocolAdapterPrope
      */
     protected static final String KEY_MICROMETER_SAMPLE = "micrometer.sample";
 
+    private static final Tracer NOOP_TRACER = NoopTracerFactory.create();
+
     private DownstreamSenderFactory downstreamSenderFactory;
     private RegistrationClientFactory registrationClientFactory;
     private TenantClientFactory tenantClientFactory;
     private CredentialsClientFactory credentialsClientFactory;
     private CommandConsumerFactory commandConsumerFactory;
+    private GatewayMapper gatewayMapper;
     private ConnectionLimitManager connectionLimitManager;
 
     private ConnectionEventProducer connectionEventProducer;
     private ResourceLimitChecks resourceLimitChecks = new NoopResourceLimitChecks();
+    private TenantTraceSampler traceSampler;
+    /**
+     * The templates of default properties, keyed by (the identity of) the
+     * registration information they have been created for.
+     * <p>
+     * The keys are weakly referenced so that a template is discarded once the
+     * registration information is no longer used, e.g. because it has been
+     * evicted from the Device Registration client's response cache.
+     */
+    private final Cache<JsonObject, MessagePropertyTemplate> propertyTemplates = CacheBuilder.newBuilder()
+            .concurrencyLevel(1)
+            .weakKeys()
+            .build();
+    /**
+     * The futures waiting for downstream senders to be replenished with credit,
+     * mapped to the identifiers of the timers limiting the time to wait.
+     */
+    private final Map<DownstreamSender, Map<Future<DownstreamSender>, Long>> creditWaiters = new HashMap<>();
     private final ConnectionEventProducer.Context connectionEventProducerContext = new ConnectionEventProducer.Context() {
 
         @Override
@@ -323,6 +356,21 @@ public abstract class AbstractProtocolAdapterBase<T extends ProtocolAdapterPrope
         return this.commandConsumerFactory;
     }
 
+    /**
+     * Sets the component to record the gateways through which devices publish data with.
+     * <p>
+     * The gateways are recorded once a device's registration has been asserted successfully
+     * so that commands can be mapped to the gateway without looking up the device's
+     * registration information.
+     *
+     * @param gatewayMapper The component.
+     * @throws NullPointerException if gateway mapper is {@code null}.
+     */
+    @Autowired(required = false)
+    public final void setGatewayMapper(final GatewayMapper gatewayMapper) {
+        this.gatewayMapper = Objects.requireNonNull(gatewayMapper);
+    }
+
     /**
      * Sets the ResourceLimitChecks instance used to check if the number of connections exceeded the limit or not.
      *
@@ -343,6 +391,94 @@ public abstract class AbstractProtocolAdapterBase<T extends ProtocolAdapterPrope
         return this.resourceLimitChecks;
     }
 
+    /**
+     * Gets the tracer to use for processing a message published by a device.
+     * <p>
+     * The decision whether the message is traced is made once per message
+     * based on the configured maximum number of traces per tenant and second.
+     * For a message that is not traced, a no-op tracer is returned so that
+     * no spans are created and no span context is propagated downstream
+     * while processing the message.
+     *
+     * @param tenantId The tenant that the device belongs to or {@code null} if not known yet.
+     * @param forceSampling {@code true} if the message needs to be traced regardless of
+     *                      the rate limit, e.g. because the device has provided a trace context.
+     * @return The tracer to use.
+     * @see ProtocolAdapterProperties#getMaxTracesPerSecond()
+     */
+    protected final Tracer getTracerForMessage(final String tenantId, final boolean forceSampling) {
+
+        if (forceSampling || getTraceSampler().isSampled(tenantId)) {
+            return tracer;
+        } else {
+            return NOOP_TRACER;
+        }
+    }
+
+    /**
+     * Gets the tracer to use for creating a span as part of processing a message.
+     *
+     * @param parent The context of the span that the new span will refer to.
+     * @return The no-op tracer if the parent context has been created by a no-op tracer,
+     *         i.e. if the message is not traced. Otherwise, the configured tracer is returned.
+     */
+    protected final Tracer getTracer(final SpanContext parent) {
+
+        if (parent == null || TracingHelper.isSampled(parent)) {
+            return tracer;
+        } else {
+            return NOOP_TRACER;
+        }
+    }
+
+    /**
+     * Marks an <em>OpenTracing</em> span as erroneous and logs an error that has occurred
+     * while processing a message.
+     * <p>
+     * Processing errors are always traced. If the span belongs to a message that
+     * has not been sampled, a new span is created for recording the error and is finished
+     * immediately. Otherwise, the error is logged to the given span, which is <em>not</em>
+     * finished by this method.
+     *
+     * @param span The span to mark.
+     * @param operationName The name of the operation that has failed.
+     * @param tenantId The tenant that the device belongs to (may be {@code null}).
+     * @param deviceId The device that has published the message (may be {@code null}).
+     * @param error The error that has occurred.
+     * @throws NullPointerException if span, operation name or error are {@code null}.
+     */
+    protected final void traceError(
+            final Span span,
+            final String operationName,
+            final String tenantId,
+            final String deviceId,
+            final Throwable error) {
+
+        Objects.requireNonNull(span);
+        Objects.requireNonNull(operationName);
+        Objects.requireNonNull(error);
+
+        if (TracingHelper.isSampled(span.context())) {
+            TracingHelper.logError(span, error);
+        } else {
+            final Span errorSpan = tracer.buildSpan(operationName)
+                    .ignoreActiveSpan()
+                    .withTag(Tags.COMPONENT.getKey(), getTypeName())
+                    .withTag(MessageHelper.APP_PROPERTY_TENANT_ID, tenantId)
+                    .withTag(MessageHelper.APP_PROPERTY_DEVICE_ID, deviceId)
+                    .start();
+            TracingHelper.logError(errorSpan, error);
+            errorSpan.finish();
+        }
+    }
+
+    private TenantTraceSampler getTraceSampler() {
+        if (traceSampler == null) {
+            traceSampler = new TenantTraceSampler(getConfig().getMaxTracesPerSecond());
+        }
+        return traceSampler;
+    }
+
     /**
      * Establishes the connections to the services this adapter depends on.
      * <p>
@@ -806,6 +942,79 @@ public abstract class AbstractProtocolAdapterBase<T extends ProtocolAdapterPrope
         return getDownstreamSenderFactory().getOrCreateEventSender(tenantId);
     }
 
+    /**
+     * Waits for a downstream sender to have credit for sending a message.
+     * <p>
+     * The returned future is completed immediately if the sender has credit or if waiting
+     * for credit is disabled (see {@link ProtocolAdapterProperties#getDownstreamCreditWaitTimeout()}).
+     * Otherwise, the future is completed once the peer has replenished the sender with credit
+     * or the configured timeout has elapsed, whatever happens first. In the latter case,
+     * sending a message using the sender will fail due to the lack of credit.
+     * <p>
+     * Protocol adapters should defer the forwarding of a message received from a device
+     * until the returned future has completed. This way, back pressure is applied to the
+     * device instead of rejecting its message.
+     * <p>
+     * This method must be invoked on the vert.x context of this adapter.
+     *
+     * @param sender The sender to wait for.
+     * @return A future that will be completed with the sender.
+     * @throws NullPointerException if sender is {@code null}.
+     */
+    protected final Future<DownstreamSender> waitForCredit(final DownstreamSender sender) {
+
+        Objects.requireNonNull(sender);
+        final long timeout = getConfig().getDownstreamCreditWaitTimeout();
+        if (timeout <= 0 || sender.getCredit() > 0) {
+            return Future.succeededFuture(sender);
+        }
+
+        final Future<DownstreamSender> result = Future.future();
+        final Map<Future<DownstreamSender>, Long> waiters = creditWaiters.computeIfAbsent(sender, s -> new LinkedHashMap<>());
+        waiters.put(result, vertx.setTimer(timeout, id -> {
+            if (waiters.remove(result) != null) {
+                LOG.debug("downstream sender has not been replenished with credit within {}ms", timeout);
+                if (waiters.isEmpty()) {
+                    creditWaiters.remove(sender);
+                }
+                result.complete(sender);
+            }
+        }));
+        if (waiters.size() == 1) {
+            awaitReplenishment(sender);
+        }
+        return result;
+    }
+
+    private void awaitReplenishment(final DownstreamSender sender) {
+        try {
+            sender.sendQueueDrainHandler(replenished -> onReplenishment(sender));
+        } catch (final IllegalStateException e) {
+            // a handler is already registered, e.g. for waiters that have already timed out,
+            // which will notify the current waiters as well
+        }
+    }
+
+    private void onReplenishment(final DownstreamSender sender) {
+
+        final Map<Future<DownstreamSender>, Long> waiters = creditWaiters.get(sender);
+        if (waiters == null) {
+            return;
+        }
+        // completing a waiter usually results in a message being sent
+        // so we need to check for remaining credit before completing the next one
+        while (!waiters.isEmpty() && sender.getCredit() > 0) {
+            final Future<DownstreamSender> waiter = waiters.keySet().iterator().next();
+            vertx.cancelTimer(waiters.remove(waiter));
+            waiter.complete(sender);
+        }
+        if (waiters.isEmpty()) {
+            creditWaiters.remove(sender);
+        } else {
+            awaitReplenishment(sender);
+        }
+    }
+
     /**
      * Gets a client for interacting with the Device Registration service.
      *
@@ -884,7 +1093,16 @@ public abstract class AbstractProtocolAdapterBase<T extends ProtocolAdapterPrope
 
         return gatewayId
                 .compose(gwId -> getRegistrationClient(tenantId))
-                .compose(client -> client.assertRegistration(deviceId, gatewayId.result(), context));
+                .compose(client -> client.assertRegistration(deviceId, gatewayId.result(), context))
+                .map(assertion -> {
+                    if (gatewayMapper != null) {
+                        gatewayMapper.setMappedGatewayDevice(
+                                tenantId,
+                                deviceId,
+                                Optional.ofNullable(gatewayId.result()).orElse(deviceId));
+                    }
+                    return assertion;
+                });
     }
 
     private Future<String> getGatewayId(final String tenantId, final String deviceId,
@@ -1079,14 +1297,8 @@ public abstract class AbstractProtocolAdapterBase<T extends ProtocolAdapterPrope
             final JsonObject registrationInfo) {
 
         if (getConfig().isDefaultsEnabled()) {
-            final JsonObject defaults = tenant.getDefaults().copy();
-            final JsonObject deviceDefaults = registrationInfo.getJsonObject(RegistrationConstants.FIELD_PAYLOAD_DEFAULTS);
-            if (deviceDefaults != null) {
-                defaults.mergeIn(deviceDefaults);
-            }
-            if (!defaults.isEmpty()) {
-                addDefaults(message, target, defaults);
-            }
+            final boolean isEvent = target.getEndpoint().equals(EventConstants.EVENT_ENDPOINT);
+            getPropertyTemplate(tenant, registrationInfo).applyTo(message, isEvent);
         }
         if (Strings.isNullOrEmpty(message.getContentType())) {
             // set default content type if none has been specified when creating the
@@ -1098,51 +1310,27 @@ public abstract class AbstractProtocolAdapterBase<T extends ProtocolAdapterPrope
         }
     }
 
-    private void addDefaults(final Message message, final ResourceIdentifier target, final JsonObject defaults) {
-
-        defaults.forEach(prop -> {
+    /**
+     * Gets the template of default properties to apply to a device's messages.
+     * <p>
+     * Templates are cached for the registration information they have been created
+     * for and are re-created if the tenant object changes.
+     *
+     * @param tenant The tenant that the device belongs to.
+     * @param registrationInfo The device's registration information.
+     * @return The template.
+     */
+    private MessagePropertyTemplate getPropertyTemplate(final TenantObject tenant, final JsonObject registrationInfo) {
 
-            switch (prop.getKey()) {
-            case MessageHelper.SYS_HEADER_PROPERTY_TTL:
-                final boolean isEvent = target.getEndpoint().equals(EventConstants.EVENT_ENDPOINT);
-                if (isEvent && message.getTtl() == 0 && Number.class.isInstance(prop.getValue())) {
-                    message.setTtl(((Number) prop.getValue()).longValue());
-                }
-                break;
-            case MessageHelper.SYS_PROPERTY_CONTENT_TYPE:
-                if (Strings.isNullOrEmpty(message.getContentType()) && String.class.isInstance(prop.getValue())) {
-                    // set to default type registered for device or fall back to default content type
-                    message.setContentType((String) prop.getValue());
-                }
-                break;
-            case MessageHelper.SYS_PROPERTY_CONTENT_ENCODING:
-                if (Strings.isNullOrEmpty(message.getContentEncoding()) && String.class.isInstance(prop.getValue())) {
-                    message.setContentEncoding((String) prop.getValue());
-                }
-                break;
-            case MessageHelper.SYS_HEADER_PROPERTY_DELIVERY_COUNT:
-            case MessageHelper.SYS_HEADER_PROPERTY_DURABLE:
-            case MessageHelper.SYS_HEADER_PROPERTY_FIRST_ACQUIRER:
-            case MessageHelper.SYS_HEADER_PROPERTY_PRIORITY:
-            case MessageHelper.SYS_PROPERTY_ABSOLUTE_EXPIRY_TIME:
-            case MessageHelper.SYS_PROPERTY_CORRELATION_ID:
-            case MessageHelper.SYS_PROPERTY_CREATION_TIME:
-            case MessageHelper.SYS_PROPERTY_GROUP_ID:
-            case MessageHelper.SYS_PROPERTY_GROUP_SEQUENCE:
-            case MessageHelper.SYS_PROPERTY_MESSAGE_ID:
-            case MessageHelper.SYS_PROPERTY_REPLY_TO:
-            case MessageHelper.SYS_PROPERTY_REPLY_TO_GROUP_ID:
-            case MessageHelper.SYS_PROPERTY_SUBJECT:
-            case MessageHelper.SYS_PROPERTY_TO:
-            case MessageHelper.SYS_PROPERTY_USER_ID:
-                // these standard properties cannot be set using defaults
-                LOG.debug("ignoring default property [{}] registered for device", prop.getKey());
-                break;
-            default:
-                // add all other defaults as application properties
-                MessageHelper.addProperty(message, prop.getKey(), prop.getValue());
-            }
-        });
+        final MessagePropertyTemplate cachedTemplate = propertyTemplates.getIfPresent(registrationInfo);
+        if (cachedTemplate != null && cachedTemplate.isCreatedFor(tenant)) {
+            return cachedTemplate;
+        }
+        final MessagePropertyTemplate template = MessagePropertyTemplate.from(
+                tenant,
+                registrationInfo.getJsonObject(RegistrationConstants.FIELD_PAYLOAD_DEFAULTS));
+        propertyTemplates.put(registrationInfo, template);
+        return template;
     }
 
     /**
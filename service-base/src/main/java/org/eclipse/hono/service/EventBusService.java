@@ -13,6 +13,7 @@
 
 package org.eclipse.hono.service;
 
+import java.net.HttpURLConnection;
 import java.util.Objects;
 import java.util.Optional;
 
@@ -20,6 +21,7 @@ import org.eclipse.hono.client.ServiceInvocationException;
 import org.eclipse.hono.tracing.TracingHelper;
 import org.eclipse.hono.util.ConfigurationSupportingVerticle;
 import org.eclipse.hono.util.EventBusMessage;
+import org.eclipse.hono.util.EventBusMessageCodec;
 import org.eclipse.hono.util.RequestResponseApiConstants;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -55,7 +57,7 @@ public abstract class EventBusService<C> extends ConfigurationSupportingVerticle
      */
     protected Tracer tracer = NoopTracerFactory.create();
 
-    private MessageConsumer<JsonObject> requestConsumer;
+    private MessageConsumer<Object> requestConsumer;
 
     /**
      * Sets the OpenTracing {@code Tracer} to use for tracking the processing
@@ -143,18 +145,31 @@ public abstract class EventBusService<C> extends ConfigurationSupportingVerticle
 
     private void registerConsumer() {
 
+        EventBusMessageCodec.register(vertx.eventBus());
         requestConsumer = vertx.eventBus().consumer(getEventBusAddress());
         requestConsumer.handler(this::processRequestMessage);
         log.info("listening on event bus [address: {}] for requests", getEventBusAddress());
     }
 
-    private void processRequestMessage(final Message<JsonObject> msg) {
-
+    private void processRequestMessage(final Message<Object> msg) {
+
+        final EventBusMessage request;
+        // requests sent by local senders are passed as EventBusMessage instances
+        // which have been copied by the codec, i.e. they are owned by this service
+        final boolean passedByReference = msg.body() instanceof EventBusMessage;
+        if (passedByReference) {
+            request = (EventBusMessage) msg.body();
+        } else if (msg.body() instanceof JsonObject) {
+            request = EventBusMessage.fromJson((JsonObject) msg.body());
+        } else {
+            log.debug("discarding request of unsupported type [{}]", msg.body() == null ? null : msg.body().getClass());
+            msg.fail(HttpURLConnection.HTTP_BAD_REQUEST, "unsupported request type");
+            return;
+        }
         if (log.isTraceEnabled()) {
-            log.trace("received request message: {}", msg.body().encodePrettily());
+            log.trace("received request message: {}", request.toJson().encodePrettily());
         }
 
-        final EventBusMessage request = EventBusMessage.fromJson(msg.body());
         final SpanContext spanContext = TracingHelper.extractSpanContext(tracer, msg.headers());
         request.setSpanContext(spanContext);
         processRequest(request).recover(t -> {
@@ -164,7 +179,7 @@ public abstract class EventBusService<C> extends ConfigurationSupportingVerticle
         }).map(response -> {
             if (response.getReplyToAddress() == null) {
                 log.debug("sending response as direct reply to request [operation: {}]", request.getOperation());
-                msg.reply(response.toJson());
+                msg.reply(passedByReference ? response : response.toJson());
             } else if (response.hasResponseProperties()) {
                 log.debug("sending response [operation: {}, reply-to: {}]",
                         request.getOperation(), request.getReplyToAddress());
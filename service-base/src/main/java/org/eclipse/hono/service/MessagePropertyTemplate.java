@@ -0,0 +1,177 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.service;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import org.apache.qpid.proton.message.Message;
+import org.eclipse.hono.util.MessageHelper;
+import org.eclipse.hono.util.Strings;
+import org.eclipse.hono.util.TenantObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.vertx.core.json.JsonObject;
+
+/**
+ * The default properties defined for a device, compiled into a form that can
+ * be applied to downstream messages efficiently.
+ * <p>
+ * A template is created from the default properties of the tenant and the device
+ * once and can then be applied to any number of messages without having to
+ * merge and inspect the default properties again.
+ */
+final class MessagePropertyTemplate {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MessagePropertyTemplate.class);
+
+    private final TenantObject tenant;
+    private final Long ttl;
+    private final String contentType;
+    private final String contentEncoding;
+    private final Map<String, Object> applicationProperties;
+
+    private MessagePropertyTemplate(
+            final TenantObject tenant,
+            final Long ttl,
+            final String contentType,
+            final String contentEncoding,
+            final Map<String, Object> applicationProperties) {
+
+        this.tenant = tenant;
+        this.ttl = ttl;
+        this.contentType = contentType;
+        this.contentEncoding = contentEncoding;
+        this.applicationProperties = applicationProperties;
+    }
+
+    /**
+     * Creates a template from the default properties of a tenant and a device.
+     * <p>
+     * Default properties defined at the device level take precedence over properties
+     * with the same name defined at the tenant level.
+     *
+     * @param tenant The tenant that the device belongs to.
+     * @param deviceDefaults The default properties defined for the device or {@code null}
+     *                       if no defaults are defined.
+     * @return The template.
+     * @throws NullPointerException if tenant is {@code null}.
+     */
+    static MessagePropertyTemplate from(final TenantObject tenant, final JsonObject deviceDefaults) {
+
+        Objects.requireNonNull(tenant);
+
+        final Map<String, Object> defaults = new LinkedHashMap<>();
+        tenant.getDefaults().forEach(prop -> defaults.put(prop.getKey(), prop.getValue()));
+        if (deviceDefaults != null) {
+            deviceDefaults.forEach(prop -> defaults.put(prop.getKey(), prop.getValue()));
+        }
+
+        Long ttl = null;
+        String contentType = null;
+        String contentEncoding = null;
+        final Map<String, Object> applicationProperties = new LinkedHashMap<>();
+
+        for (final Map.Entry<String, Object> prop : defaults.entrySet()) {
+
+            switch (prop.getKey()) {
+            case MessageHelper.SYS_HEADER_PROPERTY_TTL:
+                if (Number.class.isInstance(prop.getValue())) {
+                    ttl = ((Number) prop.getValue()).longValue();
+                }
+                break;
+            case MessageHelper.SYS_PROPERTY_CONTENT_TYPE:
+                if (String.class.isInstance(prop.getValue())) {
+                    contentType = (String) prop.getValue();
+                }
+                break;
+            case MessageHelper.SYS_PROPERTY_CONTENT_ENCODING:
+                if (String.class.isInstance(prop.getValue())) {
+                    contentEncoding = (String) prop.getValue();
+                }
+                break;
+            case MessageHelper.SYS_HEADER_PROPERTY_DELIVERY_COUNT:
+            case MessageHelper.SYS_HEADER_PROPERTY_DURABLE:
+            case MessageHelper.SYS_HEADER_PROPERTY_FIRST_ACQUIRER:
+            case MessageHelper.SYS_HEADER_PROPERTY_PRIORITY:
+            case MessageHelper.SYS_PROPERTY_ABSOLUTE_EXPIRY_TIME:
+            case MessageHelper.SYS_PROPERTY_CORRELATION_ID:
+            case MessageHelper.SYS_PROPERTY_CREATION_TIME:
+            case MessageHelper.SYS_PROPERTY_GROUP_ID:
+            case MessageHelper.SYS_PROPERTY_GROUP_SEQUENCE:
+            case MessageHelper.SYS_PROPERTY_MESSAGE_ID:
+            case MessageHelper.SYS_PROPERTY_REPLY_TO:
+            case MessageHelper.SYS_PROPERTY_REPLY_TO_GROUP_ID:
+            case MessageHelper.SYS_PROPERTY_SUBJECT:
+            case MessageHelper.SYS_PROPERTY_TO:
+            case MessageHelper.SYS_PROPERTY_USER_ID:
+                // these standard properties cannot be set using defaults
+                LOG.debug("ignoring default property [{}] registered for device", prop.getKey());
+                break;
+            default:
+                // add all other defaults as application properties
+                applicationProperties.put(prop.getKey(), prop.getValue());
+            }
+        }
+
+        return new MessagePropertyTemplate(
+                tenant,
+                ttl,
+                contentType,
+                contentEncoding,
+                Collections.unmodifiableMap(applicationProperties));
+    }
+
+    /**
+     * Checks if this template has been created for a given tenant object.
+     *
+     * @param tenantObject The tenant object.
+     * @return {@code true} if this template has been created from the very same tenant object instance.
+     */
+    boolean isCreatedFor(final TenantObject tenantObject) {
+        return tenant == tenantObject;
+    }
+
+    /**
+     * Applies the properties of this template to a message.
+     * <p>
+     * The message's <em>ttl</em> is only set for events and if the message has no ttl set yet.
+     * The message's <em>content-type</em> and <em>content-encoding</em> are only set if the message
+     * does not contain a corresponding value yet. All other properties are added as application
+     * properties, replacing any existing values.
+     *
+     * @param message The message to apply the properties to.
+     * @param isEvent {@code true} if the message is an event.
+     * @throws NullPointerException if message is {@code null}.
+     */
+    void applyTo(final Message message, final boolean isEvent) {
+
+        Objects.requireNonNull(message);
+
+        if (ttl != null && isEvent && message.getTtl() == 0) {
+            message.setTtl(ttl);
+        }
+        if (contentType != null && Strings.isNullOrEmpty(message.getContentType())) {
+            // set to default type registered for device or fall back to default content type
+            message.setContentType(contentType);
+        }
+        if (contentEncoding != null && Strings.isNullOrEmpty(message.getContentEncoding())) {
+            message.setContentEncoding(contentEncoding);
+        }
+        applicationProperties.forEach((name, value) -> MessageHelper.addProperty(message, name, value));
+    }
+}
@@ -30,6 +30,7 @@ import org.eclipse.hono.service.auth.ClaimsBasedAuthorizationService;
 import org.eclipse.hono.tracing.TracingHelper;
 import org.eclipse.hono.util.Constants;
 import org.eclipse.hono.util.EventBusMessage;
+import org.eclipse.hono.util.EventBusMessageCodec;
 import org.eclipse.hono.util.HonoProtonHelper;
 import org.eclipse.hono.util.MessageHelper;
 import org.eclipse.hono.util.ResourceIdentifier;
@@ -63,6 +64,7 @@ public abstract class RequestResponseEndpoint<T extends ServiceConfigProperties>
     private final Map<String, ProtonSender> replyToSenderMap = new HashMap<>();
 
     private AuthorizationService authorizationService = new ClaimsBasedAuthorizationService();
+    private boolean codecRegistered = false;
 
     /**
      * Creates an endpoint for a Vertx instance.
@@ -242,9 +244,14 @@ public abstract class RequestResponseEndpoint<T extends ServiceConfigProperties>
         .compose(authorized -> {
             final Future<io.vertx.core.eventbus.Message<Object>> reply = Future.future();
             final DeliveryOptions options = createEventBusMessageDeliveryOptions(currentSpan.context());
+            if (!codecRegistered) {
+                EventBusMessageCodec.register(vertx.eventBus());
+                codecRegistered = true;
+            }
+            // the request is passed by reference to a service running in the same JVM
             vertx.eventBus().send(
                     getEventBusServiceAddress(),
-                    request.result().toJson(),
+                    request.result(),
                     options,
                     reply);
             return reply;
@@ -319,7 +326,9 @@ public abstract class RequestResponseEndpoint<T extends ServiceConfigProperties>
 
     private EventBusMessage extractResponse(final io.vertx.core.eventbus.Message<Object> response) {
 
-        if (response.body() instanceof JsonObject) {
+        if (response.body() instanceof EventBusMessage) {
+            return (EventBusMessage) response.body();
+        } else if (response.body() instanceof JsonObject) {
 
             final JsonObject body = (JsonObject) response.body();
             return EventBusMessage.fromJson(body);
@@ -487,7 +496,7 @@ public abstract class RequestResponseEndpoint<T extends ServiceConfigProperties>
         if (replyToAddress == null) {
             return false;
         } else {
-            return replyToAddress.getResourcePath().length >= 3;
+            return replyToAddress.length() >= 3;
         }
     }
 }
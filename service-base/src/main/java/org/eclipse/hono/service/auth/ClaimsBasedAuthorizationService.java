@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016, 2018 Contributors to the Eclipse Foundation
+ * Copyright (c) 2016, 2019 Contributors to the Eclipse Foundation
  *
  * See the NOTICE file(s) distributed with this work for additional
  * information regarding copyright ownership.
@@ -30,6 +30,10 @@ import io.vertx.core.Future;
  */
 public final class ClaimsBasedAuthorizationService implements AuthorizationService {
 
+    // completed futures are immutable and can therefore be shared
+    private static final Future<Boolean> AUTHORIZED = Future.succeededFuture(Boolean.TRUE);
+    private static final Future<Boolean> NOT_AUTHORIZED = Future.succeededFuture(Boolean.FALSE);
+
     @Override
     public Future<Boolean> isAuthorized(final HonoUser user, final ResourceIdentifier resource, final Activity intent) {
 
@@ -40,7 +44,7 @@ public final class ClaimsBasedAuthorizationService implements AuthorizationServi
         if (user.isExpired()) {
             return Future.failedFuture(new ClientErrorException(HttpURLConnection.HTTP_FORBIDDEN, "user information expired"));
         } else {
-            return Future.succeededFuture(user.getAuthorities().isAuthorized(resource, intent));
+            return user.getAuthorities().isAuthorized(resource, intent) ? AUTHORIZED : NOT_AUTHORIZED;
         }
     }
 
@@ -54,7 +58,7 @@ public final class ClaimsBasedAuthorizationService implements AuthorizationServi
         if (user.isExpired()) {
             return Future.failedFuture(new ClientErrorException(HttpURLConnection.HTTP_FORBIDDEN, "user information expired"));
         } else {
-            return Future.succeededFuture(user.getAuthorities().isAuthorized(resource, operation));
+            return user.getAuthorities().isAuthorized(resource, operation) ? AUTHORIZED : NOT_AUTHORIZED;
         }
     }
 }
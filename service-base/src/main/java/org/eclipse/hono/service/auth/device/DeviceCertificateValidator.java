@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016, 2018 Contributors to the Eclipse Foundation
+ * Copyright (c) 2016, 2019 Contributors to the Eclipse Foundation
  *
  * See the NOTICE file(s) distributed with this work for additional
  * information regarding copyright ownership.
@@ -13,9 +13,14 @@
 
 package org.eclipse.hono.service.auth.device;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.security.cert.CertPath;
 import java.security.cert.CertPathValidator;
+import java.security.cert.CertificateEncodingException;
 import java.security.cert.CertificateException;
 import java.security.cert.CertificateFactory;
 import java.security.cert.PKIXParameters;
@@ -24,21 +29,95 @@ import java.security.cert.X509Certificate;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.hono.service.auth.X509CertificateChainValidator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import io.vertx.core.Context;
 import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.WorkerExecutor;
 
 
 /**
  * Validates a device's certificate chain using a {@link CertPathValidator}.
- *
+ * <p>
+ * Successful validations are cached (in a cache shared by all instances) until any
+ * certificate of the chain expires. The cache is keyed by the SHA-256 fingerprint of
+ * the chain and the trust anchor, so a device presenting the same chain again
+ * is not validated again unless the tenant's trust anchor has changed. Note that
+ * this validator does not check for revocation of certificates.
+ * <p>
+ * If invoked on a vert.x context, chains that are not in the cache are validated on
+ * a dedicated pool of worker threads instead of the event loop.
  */
 public class DeviceCertificateValidator implements X509CertificateChainValidator {
 
+    /**
+     * The maximum number of successful validations to cache.
+     */
+    static final int MAX_CACHED_VALIDATIONS = 10000;
+
     private static final Logger LOG = LoggerFactory.getLogger(DeviceCertificateValidator.class);
+    private static final String VALIDATION_POOL_NAME = "hono-certificate-validation";
+
+    /**
+     * The successful validations, mapped to the point in time (millis since epoch)
+     * at which they expire.
+     */
+    private static final Cache<ByteBuffer, Long> VALIDATED_CHAINS = Caffeine.newBuilder()
+            .maximumSize(MAX_CACHED_VALIDATIONS)
+            .expireAfter(new Expiry<ByteBuffer, Long>() {
+
+                @Override
+                public long expireAfterCreate(final ByteBuffer key, final Long notAfter, final long currentTime) {
+                    return TimeUnit.MILLISECONDS.toNanos(Math.max(0, notAfter - System.currentTimeMillis()));
+                }
+
+                @Override
+                public long expireAfterUpdate(final ByteBuffer key, final Long notAfter, final long currentTime,
+                        final long currentDuration) {
+                    return expireAfterCreate(key, notAfter, currentTime);
+                }
+
+                @Override
+                public long expireAfterRead(final ByteBuffer key, final Long notAfter, final long currentTime,
+                        final long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .executor(Runnable::run)
+            .build();
+
+    private static final ThreadLocal<CertificateFactory> CERTIFICATE_FACTORY = ThreadLocal.withInitial(() -> {
+        try {
+            return CertificateFactory.getInstance("X.509");
+        } catch (final CertificateException e) {
+            throw new IllegalStateException("X.509 certificates not supported", e);
+        }
+    });
+    private static final ThreadLocal<CertPathValidator> CERT_PATH_VALIDATOR = ThreadLocal.withInitial(() -> {
+        try {
+            return CertPathValidator.getInstance("PKIX");
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException("PKIX validation not supported", e);
+        }
+    });
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not supported", e);
+        }
+    });
+
+    private WorkerExecutor validationExecutor;
 
     /**
      * {@inheritDoc}
@@ -53,18 +132,45 @@ public class DeviceCertificateValidator implements X509CertificateChainValidator
             throw new IllegalArgumentException("certificate chain must not be empty");
         }
 
-        final Future<Void> result = Future.future();
+        final ByteBuffer cacheKey;
+        try {
+            cacheKey = getCacheKey(chain, trustAnchor);
+        } catch (final CertificateEncodingException e) {
+            return Future.failedFuture(e);
+        }
+        final Long notAfter = VALIDATED_CHAINS.getIfPresent(cacheKey);
+        if (notAfter != null && notAfter > System.currentTimeMillis()) {
+            LOG.trace("using cached validation of device certificate [subject DN: {}]",
+                    chain.get(0).getSubjectX500Principal().getName());
+            return Future.succeededFuture();
+        }
+
+        final Context context = Vertx.currentContext();
+        if (context == null) {
+            final Future<Void> result = Future.future();
+            validate(chain, trustAnchor, cacheKey, result);
+            return result;
+        } else {
+            final Future<Void> result = Future.future();
+            getValidationExecutor(context).<Void>executeBlocking(
+                    validation -> validate(chain, trustAnchor, cacheKey, validation),
+                    false,
+                    result);
+            return result;
+        }
+    }
+
+    private void validate(
+            final List<X509Certificate> chain,
+            final TrustAnchor trustAnchor,
+            final ByteBuffer cacheKey,
+            final Future<Void> result) {
 
         try {
-            final PKIXParameters params = new PKIXParameters(Collections.singleton(trustAnchor));
-            // TODO do we need to check for revocation?
-            params.setRevocationEnabled(false);
-            final CertificateFactory factory = CertificateFactory.getInstance("X.509");
-            final CertPath path = factory.generateCertPath(chain);
-            final CertPathValidator validator = CertPathValidator.getInstance("PKIX");
-            validator.validate(path, params);
+            validateCertPath(chain, trustAnchor);
             LOG.debug("validation of device certificate [subject DN: {}] succeeded",
                     chain.get(0).getSubjectX500Principal().getName());
+            VALIDATED_CHAINS.put(cacheKey, getNotAfter(chain));
             result.complete();
         } catch (GeneralSecurityException e) {
             LOG.debug("validation of device certificate [subject DN: {}] failed",
@@ -75,6 +181,58 @@ public class DeviceCertificateValidator implements X509CertificateChainValidator
                 result.fail(new CertificateException("validation of device certificate failed", e));
             }
         }
-        return result;
+    }
+
+    /**
+     * Validates a certificate chain using the PKIX algorithm.
+     *
+     * @param chain The certificate chain to validate.
+     * @param trustAnchor The trust anchor to use for validating the chain.
+     * @throws GeneralSecurityException if the chain cannot be validated.
+     */
+    void validateCertPath(final List<X509Certificate> chain, final TrustAnchor trustAnchor)
+            throws GeneralSecurityException {
+
+        final PKIXParameters params = new PKIXParameters(Collections.singleton(trustAnchor));
+        // TODO do we need to check for revocation?
+        params.setRevocationEnabled(false);
+        final CertPath path = CERTIFICATE_FACTORY.get().generateCertPath(chain);
+        CERT_PATH_VALIDATOR.get().validate(path, params);
+    }
+
+    private WorkerExecutor getValidationExecutor(final Context context) {
+        if (validationExecutor == null) {
+            // shared executors are looked up by name, i.e. all validators use the same pool
+            validationExecutor = context.owner().createSharedWorkerExecutor(
+                    VALIDATION_POOL_NAME,
+                    Runtime.getRuntime().availableProcessors());
+        }
+        return validationExecutor;
+    }
+
+    private static long getNotAfter(final List<X509Certificate> chain) {
+        long notAfter = Long.MAX_VALUE;
+        for (final X509Certificate cert : chain) {
+            notAfter = Math.min(notAfter, cert.getNotAfter().getTime());
+        }
+        return notAfter;
+    }
+
+    private static ByteBuffer getCacheKey(
+            final List<X509Certificate> chain,
+            final TrustAnchor trustAnchor) throws CertificateEncodingException {
+
+        final MessageDigest digest = SHA_256.get();
+        for (final X509Certificate cert : chain) {
+            digest.update(cert.getEncoded());
+        }
+        digest.update((byte) 0);
+        if (trustAnchor.getTrustedCert() != null) {
+            digest.update(trustAnchor.getTrustedCert().getEncoded());
+        } else {
+            digest.update(trustAnchor.getCAName().getBytes(StandardCharsets.UTF_8));
+            digest.update(trustAnchor.getCAPublicKey().getEncoded());
+        }
+        return ByteBuffer.wrap(digest.digest());
     }
 }
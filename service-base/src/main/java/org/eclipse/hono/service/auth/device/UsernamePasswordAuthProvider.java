@@ -14,32 +14,81 @@
 package org.eclipse.hono.service.auth.device;
 
 import java.net.HttpURLConnection;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
 
 import org.eclipse.hono.auth.Device;
 import org.eclipse.hono.auth.HonoPasswordEncoder;
 import org.eclipse.hono.auth.SpringBasedHonoPasswordEncoder;
 import org.eclipse.hono.client.ClientErrorException;
 import org.eclipse.hono.client.CredentialsClientFactory;
+import org.eclipse.hono.client.ServerErrorException;
+import org.eclipse.hono.config.ProtocolAdapterProperties;
 import org.eclipse.hono.config.ServiceConfigProperties;
 import org.eclipse.hono.util.CredentialsObject;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
 import io.opentracing.Tracer;
 import io.vertx.core.Context;
 import io.vertx.core.Future;
 import io.vertx.core.Vertx;
+import io.vertx.core.WorkerExecutor;
 import io.vertx.core.json.JsonObject;
 
 
 /**
  * An authentication provider that verifies username/password credentials using
  * Hono's <em>Credentials</em> API.
+ * <p>
+ * Passwords are verified against the hashes on record on a dedicated pool of worker
+ * threads. Authentication attempts are rejected with a 503 error if too many verifications
+ * are already waiting to be executed. The number of waiting verifications and the number
+ * of rejected attempts are reported as <em>hono.password.verifications.pending</em> and
+ * <em>hono.password.verifications.rejected</em> to Micrometer's global meter registry.
+ * <p>
+ * Successful verifications are cached for a short amount of time so that a device that
+ * repeatedly authenticates using the same password, e.g. an HTTP device that authenticates
+ * every request, does not require the password hash to be computed again. The cache is keyed
+ * by a keyed hash (HMAC) of the tenant, the authentication identifier, the secret on record
+ * and the presented password, i.e. it contains neither the password nor an unkeyed hash of it.
+ * The configuration of the cache and the pool is taken from the {@link ProtocolAdapterProperties}
+ * if the given configuration is an instance thereof.
  */
 public final class UsernamePasswordAuthProvider extends CredentialsApiAuthProvider<UsernamePasswordCredentials> {
 
+    /**
+     * The maximum number of successful verifications to cache.
+     */
+    static final int MAX_CACHED_VERIFICATIONS = 10000;
+
+    private static final String VERIFICATION_POOL_NAME = "hono-password-verification";
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final AtomicInteger PENDING_VERIFICATIONS = Metrics.globalRegistry.gauge(
+            "hono.password.verifications.pending", new AtomicInteger());
+    private static final Counter REJECTED_VERIFICATIONS = Metrics.globalRegistry.counter(
+            "hono.password.verifications.rejected");
+
     private final ServiceConfigProperties config;
     private final HonoPasswordEncoder pwdEncoder;
+    private final int poolSize;
+    private final int maxQueueSize;
+    private final Cache<ByteBuffer, Boolean> verifiedPasswords;
+    private final ThreadLocal<Mac> mac;
+    private WorkerExecutor verificationExecutor;
 
     /**
      * Creates a new provider for a given configuration.
@@ -73,6 +122,38 @@ public final class UsernamePasswordAuthProvider extends CredentialsApiAuthProvid
         super(credentialsClientFactory, tracer);
         this.config = Objects.requireNonNull(config);
         this.pwdEncoder = Objects.requireNonNull(pwdEncoder);
+
+        final ProtocolAdapterProperties adapterConfig = config instanceof ProtocolAdapterProperties
+                ? (ProtocolAdapterProperties) config
+                : new ProtocolAdapterProperties();
+        this.poolSize = adapterConfig.getPasswordVerificationPoolSize();
+        this.maxQueueSize = adapterConfig.getPasswordVerificationMaxQueueSize();
+        if (adapterConfig.getPasswordVerificationCacheTimeout() > 0) {
+            this.verifiedPasswords = Caffeine.newBuilder()
+                    .maximumSize(MAX_CACHED_VERIFICATIONS)
+                    .expireAfterWrite(adapterConfig.getPasswordVerificationCacheTimeout(), TimeUnit.SECONDS)
+                    .executor(Runnable::run)
+                    .build();
+            final SecretKeySpec key = newCacheKeySecret();
+            this.mac = ThreadLocal.withInitial(() -> {
+                try {
+                    final Mac instance = Mac.getInstance(HMAC_ALGORITHM);
+                    instance.init(key);
+                    return instance;
+                } catch (final GeneralSecurityException e) {
+                    throw new IllegalStateException("cannot create HMAC", e);
+                }
+            });
+        } else {
+            this.verifiedPasswords = null;
+            this.mac = null;
+        }
+    }
+
+    private static SecretKeySpec newCacheKeySecret() {
+        final byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        return new SecretKeySpec(secret, HMAC_ALGORITHM);
     }
 
     /**
@@ -111,19 +192,71 @@ public final class UsernamePasswordAuthProvider extends CredentialsApiAuthProvid
         final Context currentContext = Vertx.currentContext();
         if (currentContext == null) {
             return Future.failedFuture(new IllegalStateException("not running on vert.x Context"));
-        } else {
-            final Future<Device> result = Future.future();
-            currentContext.executeBlocking(blockingCodeHandler -> {
-                log.debug("validating password hash on vert.x worker thread [{}]", Thread.currentThread().getName());
-                final boolean isValid = credentialsOnRecord.getCandidateSecrets().stream()
-                        .anyMatch(candidateSecret -> pwdEncoder.matches(deviceCredentials.getPassword(), candidateSecret));
-                if (isValid) {
+        }
+
+        final List<JsonObject> candidateSecrets = credentialsOnRecord.getCandidateSecrets();
+        final ByteBuffer[] cacheKeys = new ByteBuffer[candidateSecrets.size()];
+        if (verifiedPasswords != null) {
+            for (int i = 0; i < cacheKeys.length; i++) {
+                cacheKeys[i] = getCacheKey(deviceCredentials, candidateSecrets.get(i));
+                if (verifiedPasswords.getIfPresent(cacheKeys[i]) != null) {
+                    log.trace("using cached password verification [tenant: {}, auth-id: {}]",
+                            deviceCredentials.getTenantId(), deviceCredentials.getAuthId());
+                    return Future.succeededFuture(new Device(deviceCredentials.getTenantId(), credentialsOnRecord.getDeviceId()));
+                }
+            }
+        }
+
+        if (maxQueueSize > 0 && PENDING_VERIFICATIONS.get() >= maxQueueSize) {
+            REJECTED_VERIFICATIONS.increment();
+            log.debug("rejecting authentication attempt, too many pending password verifications");
+            return Future.failedFuture(new ServerErrorException(
+                    HttpURLConnection.HTTP_UNAVAILABLE, "too many pending authentication attempts"));
+        }
+
+        final Future<Device> result = Future.future();
+        PENDING_VERIFICATIONS.incrementAndGet();
+        getVerificationExecutor(currentContext).<Device>executeBlocking(blockingCodeHandler -> {
+            PENDING_VERIFICATIONS.decrementAndGet();
+            log.debug("validating password hash on worker thread [{}]", Thread.currentThread().getName());
+            for (int i = 0; i < cacheKeys.length; i++) {
+                if (pwdEncoder.matches(deviceCredentials.getPassword(), candidateSecrets.get(i))) {
+                    if (cacheKeys[i] != null) {
+                        verifiedPasswords.put(cacheKeys[i], Boolean.TRUE);
+                    }
                     blockingCodeHandler.complete(new Device(deviceCredentials.getTenantId(), credentialsOnRecord.getDeviceId()));
-                } else {
-                    blockingCodeHandler.fail(new ClientErrorException(HttpURLConnection.HTTP_UNAUTHORIZED, "bad credentials"));
+                    return;
                 }
-            }, false, result);
-            return result;
+            }
+            blockingCodeHandler.fail(new ClientErrorException(HttpURLConnection.HTTP_UNAUTHORIZED, "bad credentials"));
+        }, false, result);
+        return result;
+    }
+
+    private WorkerExecutor getVerificationExecutor(final Context context) {
+        if (verificationExecutor == null) {
+            // the executor is shared by all providers created for the same vert.x instance
+            verificationExecutor = context.owner().createSharedWorkerExecutor(VERIFICATION_POOL_NAME, poolSize);
+        }
+        return verificationExecutor;
+    }
+
+    private ByteBuffer getCacheKey(final UsernamePasswordCredentials deviceCredentials, final JsonObject secret) {
+
+        final Mac hmac = mac.get();
+        update(hmac, deviceCredentials.getTenantId());
+        update(hmac, deviceCredentials.getAuthId());
+        // the whole secret on record identifies the secret, including its hash and salt
+        update(hmac, secret.encode());
+        update(hmac, deviceCredentials.getPassword());
+        return ByteBuffer.wrap(hmac.doFinal());
+    }
+
+    private static void update(final Mac hmac, final String value) {
+        if (value != null) {
+            hmac.update(value.getBytes(StandardCharsets.UTF_8));
         }
+        // separate the values in order to prevent ambiguous concatenations
+        hmac.update((byte) 0);
     }
 }
@@ -0,0 +1,188 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.service.cache;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+
+import org.eclipse.hono.cache.ExpiringValueCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+/**
+ * A cache for expiring values based on a <a href="https://github.com/ben-manes/caffeine">Caffeine</a> cache.
+ * <p>
+ * The underlying Caffeine cache may be shared by multiple instances of this class.
+ * Each instance uses its own name space for keys, so that instances with different
+ * names do not see each other's values.
+ * <p>
+ * Values are evicted by the Caffeine cache itself once their expiration time is
+ * reached.
+ *
+ * @param <K> The type of keys that the cache supports.
+ * @param <V> The type of values that the cache supports.
+ */
+public class CaffeineBasedExpiringValueCache<K, V> implements ExpiringValueCache<K, V> {
+
+    /**
+     * The policy for expiring entries at the expiration time they have been put to the cache with.
+     */
+    static final Expiry<Key, Entry> EXPIRY = new Expiry<Key, Entry>() {
+
+        @Override
+        public long expireAfterCreate(final Key key, final Entry value, final long currentTime) {
+            return value.timeToLive;
+        }
+
+        @Override
+        public long expireAfterUpdate(final Key key, final Entry value, final long currentTime,
+                final long currentDuration) {
+            return value.timeToLive;
+        }
+
+        @Override
+        public long expireAfterRead(final Key key, final Entry value, final long currentTime,
+                final long currentDuration) {
+            return currentDuration;
+        }
+    };
+
+    private static final Logger LOG = LoggerFactory.getLogger(CaffeineBasedExpiringValueCache.class);
+    /**
+     * The maximum time to live (roughly 146 years) which does not cause an overflow when
+     * being added to the current time of the cache's ticker.
+     */
+    private static final long MAX_TIME_TO_LIVE = Long.MAX_VALUE >> 1;
+
+    private final Cache<Key, Entry> cache;
+    private final String name;
+
+    /**
+     * Creates a new cache.
+     *
+     * @param cache The Caffeine cache instance to use for storing values. The cache
+     *              must use {@link #EXPIRY} as its expiration policy.
+     * @param name The name space to store values in.
+     * @throws NullPointerException if any of the parameters are {@code null}.
+     */
+    CaffeineBasedExpiringValueCache(final Cache<Key, Entry> cache, final String name) {
+        this.cache = Objects.requireNonNull(cache);
+        this.name = Objects.requireNonNull(name);
+    }
+
+    @Override
+    public void put(final K key, final V value, final Instant expirationTime) {
+
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(value);
+        Objects.requireNonNull(expirationTime);
+
+        final Instant now = Instant.now();
+        if (now.isBefore(expirationTime)) {
+            cache.put(new Key(name, key), new Entry(value, toNanos(Duration.between(now, expirationTime))));
+        } else {
+            throw new IllegalArgumentException("value is already expired");
+        }
+    }
+
+    @Override
+    public void put(final K key, final V value, final Duration maxAge) {
+
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(value);
+        Objects.requireNonNull(maxAge);
+
+        if (maxAge.isNegative() || maxAge.isZero()) {
+            throw new IllegalArgumentException("value is already expired");
+        } else {
+            cache.put(new Key(name, key), new Entry(value, toNanos(maxAge)));
+        }
+    }
+
+    @Override
+    public V get(final K key) {
+
+        if (key == null) {
+            return null;
+        } else {
+            final Entry entry = cache.getIfPresent(new Key(name, key));
+            if (entry == null) {
+                LOG.trace("cache miss [cache: {}, key: {}]", name, key);
+                return null;
+            } else {
+                LOG.trace("cache hit [cache: {}, key: {}]", name, key);
+                @SuppressWarnings("unchecked")
+                final V value = (V) entry.value;
+                return value;
+            }
+        }
+    }
+
+    private static long toNanos(final Duration duration) {
+        try {
+            return Math.min(duration.toNanos(), MAX_TIME_TO_LIVE);
+        } catch (final ArithmeticException e) {
+            // duration is too long to be represented in nanoseconds
+            return MAX_TIME_TO_LIVE;
+        }
+    }
+
+    /**
+     * A key in the underlying Caffeine cache.
+     */
+    static final class Key {
+
+        private final String name;
+        private final Object key;
+
+        Key(final String name, final Object key) {
+            this.name = name;
+            this.key = key;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            } else if (!(obj instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key) obj;
+            return name.equals(other.name) && key.equals(other.key);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * name.hashCode() + key.hashCode();
+        }
+    }
+
+    /**
+     * A value in the underlying Caffeine cache.
+     */
+    static final class Entry {
+
+        private final Object value;
+        private final long timeToLive;
+
+        Entry(final Object value, final long timeToLive) {
+            this.value = value;
+            this.timeToLive = timeToLive;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.service.cache;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.hono.cache.CacheProvider;
+import org.eclipse.hono.cache.ExpiringValueCache;
+import org.eclipse.hono.service.cache.CaffeineBasedExpiringValueCache.Entry;
+import org.eclipse.hono.service.cache.CaffeineBasedExpiringValueCache.Key;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * A cache provider based on a single, size-bounded <a href="https://github.com/ben-manes/caffeine">Caffeine</a> cache.
+ * <p>
+ * All caches returned by this provider share the same underlying Caffeine cache, i.e. the
+ * maximum size applies to the total number of entries in all caches. Each entry expires at
+ * the expiration time it has been put to the cache with.
+ * <p>
+ * The provider is thread safe and can therefore be shared by multiple verticle instances.
+ * Statistics about cache hits, misses and evictions are registered with a meter registry
+ * by means of {@link #bindTo(MeterRegistry)} using the provider's name as the value of
+ * the <em>cache</em> tag. The <em>instance</em> tag distinguishes the statistics of
+ * multiple providers having the same name.
+ * <p>
+ * Note that the cached values are returned as is, i.e. values shared by multiple verticle
+ * instances must not be modified.
+ */
+public class CaffeineCacheProvider implements CacheProvider, MeterBinder {
+
+    private static final AtomicInteger INSTANCE_COUNT = new AtomicInteger();
+
+    private final String name;
+    private final String instanceId = String.valueOf(INSTANCE_COUNT.incrementAndGet());
+    private final Cache<Key, Entry> cache;
+
+    /**
+     * Creates a new provider.
+     *
+     * @param name The name of the provider that is used for reporting metrics.
+     * @param initialCapacity The number of entries to allocate space for initially.
+     * @param maximumSize The maximum number of entries to keep in the cache.
+     * @throws NullPointerException if name is {@code null}.
+     * @throws IllegalArgumentException if initial capacity or maximum size are negative.
+     */
+    public CaffeineCacheProvider(final String name, final int initialCapacity, final long maximumSize) {
+        this(name, initialCapacity, maximumSize, Ticker.systemTicker());
+    }
+
+    /**
+     * Creates a new provider using a specific source of time.
+     *
+     * @param name The name of the provider that is used for reporting metrics.
+     * @param initialCapacity The number of entries to allocate space for initially.
+     * @param maximumSize The maximum number of entries to keep in the cache.
+     * @param ticker The source of time to use for expiring entries.
+     * @throws NullPointerException if name or ticker are {@code null}.
+     * @throws IllegalArgumentException if initial capacity or maximum size are negative.
+     */
+    CaffeineCacheProvider(final String name, final int initialCapacity, final long maximumSize, final Ticker ticker) {
+        this.name = requireNonNull(name);
+        this.cache = Caffeine.newBuilder()
+                .initialCapacity(initialCapacity)
+                .maximumSize(maximumSize)
+                .expireAfter(CaffeineBasedExpiringValueCache.EXPIRY)
+                .ticker(requireNonNull(ticker))
+                // run (cheap) maintenance tasks on the calling thread instead of the common pool
+                .executor(Runnable::run)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Gets the name of this provider.
+     *
+     * @return The name.
+     */
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public <K, V> ExpiringValueCache<K, V> getCache(final String cacheName) {
+        requireNonNull(cacheName);
+        return new CaffeineBasedExpiringValueCache<>(cache, cacheName);
+    }
+
+    /**
+     * Registers meters for the statistics of the underlying Caffeine cache.
+     *
+     * @param registry The registry to register the meters with.
+     */
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, name, Tags.of("instance", instanceId));
+    }
+}
@@ -13,16 +13,20 @@
 
 package org.eclipse.hono.service.metric;
 
+import java.time.Duration;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.function.Supplier;
 
 import org.eclipse.hono.service.metric.MetricsTags.Direction;
 import org.eclipse.hono.service.metric.MetricsTags.ProcessingOutcome;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 
 import io.micrometer.core.instrument.DistributionSummary;
 import io.micrometer.core.instrument.MeterRegistry;
@@ -32,6 +36,10 @@ import io.micrometer.core.instrument.Timer.Sample;
 
 /**
  * Micrometer based metrics implementation.
+ * <p>
+ * The meters used for reporting telemetry messages and commands are looked up
+ * in the registry once per tenant and combination of tags only. Subsequent
+ * reports use the cached meters directly.
  */
 public class MicrometerBasedMetrics implements Metrics {
 
@@ -60,16 +68,40 @@ public class MicrometerBasedMetrics implements Metrics {
      */
     public static final String METER_COMMANDS_RECEIVED = "hono.commands.received";
 
+    /**
+     * The maximum number of tenants to cache meters for.
+     */
+    static final int MAX_CACHED_TENANTS = 1000;
+    /**
+     * The maximum number of tenants to track the number of payload bytes for.
+     */
+    static final int MAX_TRACKED_TENANTS = 10000;
+
+    private static final long[] PAYLOAD_SIZE_BUCKETS = { 128, 512, 1024, 4096, 16384, 65536, 262144 };
+    private static final Duration[] DURATION_BUCKETS = {
+            Duration.ofMillis(5), Duration.ofMillis(10), Duration.ofMillis(25), Duration.ofMillis(50),
+            Duration.ofMillis(100), Duration.ofMillis(250), Duration.ofMillis(500), Duration.ofSeconds(1),
+            Duration.ofMillis(2500), Duration.ofSeconds(5) };
+
+    private static final int NUM_ENDPOINTS = 2;
+    private static final int NUM_OUTCOMES = ProcessingOutcome.values().length;
+    private static final int NUM_QOS = MetricsTags.QoS.values().length;
+    private static final int NUM_TTD_STATUS = MetricsTags.TtdStatus.values().length;
+    private static final int NUM_DIRECTIONS = Direction.values().length;
+
     /**
      * The meter registry.
      */
     protected final MeterRegistry registry;
 
     private final Map<String, AtomicLong> authenticatedConnections = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> payloadBytes = new ConcurrentHashMap<>();
     private final AtomicLong unauthenticatedConnections;
     private final AtomicInteger totalCurrentConnections = new AtomicInteger();
+    private final Map<String, TenantMeters> tenantMeters = new ConcurrentHashMap<>();
 
     private LegacyMetrics legacyMetrics;
+    private boolean slaHistogramsEnabled = false;
 
     /**
      * Creates a new metrics instance.
@@ -95,6 +127,23 @@ public class MicrometerBasedMetrics implements Metrics {
         this.legacyMetrics = legacyMetrics;
     }
 
+    /**
+     * Sets whether the duration and payload size of messages should be recorded
+     * in histograms with fixed buckets.
+     * <p>
+     * The histograms can be used by back ends to aggregate percentiles across
+     * multiple adapter instances. Recording a value in a histogram with fixed
+     * buckets is considerably cheaper than calculating percentiles locally.
+     * <p>
+     * The default value of this property is {@code false}.
+     * 
+     * @param enabled {@code true} if histograms should be recorded.
+     */
+    @Value("${hono.metrics.slaHistograms:false}")
+    public final void setSlaHistogramsEnabled(final boolean enabled) {
+        this.slaHistogramsEnabled = enabled;
+    }
+
     @Override
     public final void incrementConnections(final String tenantId) {
 
@@ -132,6 +181,43 @@ public class MicrometerBasedMetrics implements Metrics {
         return this.totalCurrentConnections.get();
     }
 
+    /**
+     * Gets the number of authenticated connections of a tenant's devices
+     * that are currently established with this adapter instance.
+     * 
+     * @param tenantId The tenant to get the number of connections for.
+     * @return The number of connections.
+     * @throws NullPointerException if tenant is {@code null}.
+     */
+    public final long getNumberOfConnections(final String tenantId) {
+
+        Objects.requireNonNull(tenantId);
+        final AtomicLong connections = authenticatedConnections.get(tenantId);
+        return connections == null ? 0L : connections.get();
+    }
+
+    /**
+     * Gets the total number of payload bytes of telemetry and event messages that
+     * this adapter instance has forwarded or found unprocessable for a tenant.
+     * <p>
+     * The value corresponds to the amount of data that is accounted against
+     * the tenant's data volume limit.
+     * <p>
+     * The number of bytes is tracked for at most {@value #MAX_TRACKED_TENANTS} tenants.
+     * If more tenants are tracked, the number of bytes of an arbitrary tenant is
+     * discarded, i.e. the value returned for that tenant starts over at 0.
+     * 
+     * @param tenantId The tenant to get the number of bytes for.
+     * @return The number of bytes.
+     * @throws NullPointerException if tenant is {@code null}.
+     */
+    public final long getPayloadBytes(final String tenantId) {
+
+        Objects.requireNonNull(tenantId);
+        final AtomicLong bytes = payloadBytes.get(tenantId);
+        return bytes == null ? 0L : bytes.get();
+    }
+
     @Override
     public Sample startTimer() {
         return Timer.start(registry);
@@ -172,21 +258,14 @@ public class MicrometerBasedMetrics implements Metrics {
             throw new IllegalArgumentException("payload size must not be negative");
         }
 
-        final Tags tags = Tags.of(type.asTag())
-                .and(MetricsTags.getTenantTag(tenantId))
-                .and(outcome.asTag())
-                .and(qos.asTag())
-                .and(ttdStatus.asTag());
-
-        timer.stop(this.registry.timer(METER_MESSAGES_RECEIVED, tags));
-
+        final MessageMeters meters = getTenantMeters(tenantId).getTelemetryMeters(type, outcome, qos, ttdStatus);
+        timer.stop(meters.timer);
         // record payload size
-        DistributionSummary.builder(METER_MESSAGES_PAYLOAD)
-            .baseUnit("bytes")
-            .minimumExpectedValue(0L)
-            .tags(tags)
-            .register(this.registry)
-            .record(payloadSize);
+        meters.payloadSize.record(payloadSize);
+
+        if (outcome == ProcessingOutcome.FORWARDED || outcome == ProcessingOutcome.UNPROCESSABLE) {
+            getPayloadBytesCounter(tenantId).addAndGet(payloadSize);
+        }
 
         if (legacyMetrics != null) {
 
@@ -235,19 +314,10 @@ public class MicrometerBasedMetrics implements Metrics {
             throw new IllegalArgumentException("payload size must not be negative");
         }
 
-        final Tags tags = Tags.of(direction.asTag())
-                .and(MetricsTags.getTenantTag(tenantId))
-                .and(outcome.asTag());
-
-        timer.stop(this.registry.timer(METER_COMMANDS_RECEIVED, tags));
-
+        final MessageMeters meters = getTenantMeters(tenantId).getCommandMeters(direction, outcome);
+        timer.stop(meters.timer);
         // record payload size
-        DistributionSummary.builder(METER_COMMANDS_PAYLOAD)
-            .baseUnit("bytes")
-            .minimumExpectedValue(0L)
-            .tags(tags)
-            .register(this.registry)
-            .record(payloadSize);
+        meters.payloadSize.record(payloadSize);
 
         if (legacyMetrics != null) {
 
@@ -263,6 +333,56 @@ public class MicrometerBasedMetrics implements Metrics {
         }
     }
 
+    private AtomicLong getPayloadBytesCounter(final String tenantId) {
+
+        final AtomicLong bytes = payloadBytes.get(tenantId);
+        if (bytes != null) {
+            return bytes;
+        }
+        if (payloadBytes.size() >= MAX_TRACKED_TENANTS) {
+            // evict an arbitrary tenant in order to limit memory consumption
+            final Iterator<String> tenants = payloadBytes.keySet().iterator();
+            if (tenants.hasNext()) {
+                tenants.next();
+                tenants.remove();
+            }
+        }
+        return payloadBytes.computeIfAbsent(tenantId, k -> new AtomicLong());
+    }
+
+    private TenantMeters getTenantMeters(final String tenantId) {
+
+        final TenantMeters meters = tenantMeters.get(tenantId);
+        if (meters != null) {
+            return meters;
+        }
+        if (tenantMeters.size() >= MAX_CACHED_TENANTS) {
+            // evict an arbitrary tenant, its meters will be looked up
+            // in the registry again when needed
+            final Iterator<String> tenants = tenantMeters.keySet().iterator();
+            if (tenants.hasNext()) {
+                tenants.next();
+                tenants.remove();
+            }
+        }
+        return tenantMeters.computeIfAbsent(tenantId, TenantMeters::new);
+    }
+
+    private MessageMeters newMessageMeters(final String timerName, final String payloadSizeName, final Tags tags) {
+
+        final Timer.Builder timer = Timer.builder(timerName).tags(tags);
+        final DistributionSummary.Builder payloadSize = DistributionSummary.builder(payloadSizeName)
+                .baseUnit("bytes")
+                .minimumExpectedValue(0L)
+                .tags(tags);
+        if (slaHistogramsEnabled) {
+            timer.sla(DURATION_BUCKETS);
+            // Micrometer requires a positive minimum value for histograms
+            payloadSize.minimumExpectedValue(1L).sla(PAYLOAD_SIZE_BUCKETS);
+        }
+        return new MessageMeters(timer.register(registry), payloadSize.register(registry));
+    }
+
     /**
      * Gets a gauge value for a specific key.
      * <p>
@@ -306,4 +426,76 @@ public class MicrometerBasedMetrics implements Metrics {
 
         return gaugeForKey(name, map, tenant, Tags.of(MetricsTags.getTenantTag(tenant)), instanceSupplier);
     }
+
+    /**
+     * The meters for recording the duration and payload size of messages.
+     */
+    private static final class MessageMeters {
+
+        private final Timer timer;
+        private final DistributionSummary payloadSize;
+
+        MessageMeters(final Timer timer, final DistributionSummary payloadSize) {
+            this.timer = timer;
+            this.payloadSize = payloadSize;
+        }
+    }
+
+    /**
+     * The meters of a tenant, indexed by the ordinals of the tag values.
+     */
+    private final class TenantMeters {
+
+        private final String tenantId;
+        private final AtomicReferenceArray<MessageMeters> telemetryMeters =
+                new AtomicReferenceArray<>(NUM_ENDPOINTS * NUM_OUTCOMES * NUM_QOS * NUM_TTD_STATUS);
+        private final AtomicReferenceArray<MessageMeters> commandMeters =
+                new AtomicReferenceArray<>(NUM_DIRECTIONS * NUM_OUTCOMES);
+
+        TenantMeters(final String tenantId) {
+            this.tenantId = tenantId;
+        }
+
+        MessageMeters getTelemetryMeters(
+                final MetricsTags.EndpointType type,
+                final ProcessingOutcome outcome,
+                final MetricsTags.QoS qos,
+                final MetricsTags.TtdStatus ttdStatus) {
+
+            final int endpointIdx = type == MetricsTags.EndpointType.EVENT ? 1 : 0;
+            final int idx = ((endpointIdx * NUM_OUTCOMES + outcome.ordinal()) * NUM_QOS + qos.ordinal())
+                    * NUM_TTD_STATUS + ttdStatus.ordinal();
+            MessageMeters meters = telemetryMeters.get(idx);
+            if (meters == null) {
+                // registering the same meter more than once is harmless
+                // because the registry returns the existing meter
+                meters = newMessageMeters(
+                        METER_MESSAGES_RECEIVED,
+                        METER_MESSAGES_PAYLOAD,
+                        Tags.of(type.asTag())
+                            .and(MetricsTags.getTenantTag(tenantId))
+                            .and(outcome.asTag())
+                            .and(qos.asTag())
+                            .and(ttdStatus.asTag()));
+                telemetryMeters.set(idx, meters);
+            }
+            return meters;
+        }
+
+        MessageMeters getCommandMeters(final Direction direction, final ProcessingOutcome outcome) {
+
+            final int idx = direction.ordinal() * NUM_OUTCOMES + outcome.ordinal();
+            MessageMeters meters = commandMeters.get(idx);
+            if (meters == null) {
+                meters = newMessageMeters(
+                        METER_COMMANDS_RECEIVED,
+                        METER_COMMANDS_PAYLOAD,
+                        Tags.of(direction.asTag())
+                            .and(MetricsTags.getTenantTag(tenantId))
+                            .and(outcome.asTag()));
+                commandMeters.set(idx, meters);
+            }
+            return meters;
+        }
+    }
 }
@@ -0,0 +1,241 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.service.plan;
+
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import org.eclipse.hono.service.metric.MicrometerBasedMetrics;
+import org.eclipse.hono.util.TenantObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.vertx.core.Future;
+
+/**
+ * Resource limit checks which compare configured limits with usage data that is
+ * tracked locally by the protocol adapter's metrics.
+ * <p>
+ * The locally tracked data only covers the usage of this adapter instance. In order
+ * to also account for the usage of other adapter instances, the data is reconciled with
+ * the live metrics retrieved from a <em>Prometheus</em> server. Reconciliation is
+ * triggered in the background once the configured interval has elapsed, so that all
+ * checks but the very first one for a tenant are answered from local data without
+ * waiting for the Prometheus server. Concurrent reconciliation requests for the same
+ * tenant are coalesced into a single query.
+ */
+public final class CounterBasedResourceLimitChecks implements ResourceLimitChecks {
+
+    /**
+     * The maximum number of tenants to track usage data for.
+     */
+    static final int MAX_TRACKED_TENANTS = 10000;
+
+    private static final Logger log = LoggerFactory.getLogger(CounterBasedResourceLimitChecks.class);
+
+    private final PrometheusBasedResourceLimitChecks prometheusChecks;
+    private final MicrometerBasedMetrics metrics;
+    private final long reconcileIntervalMillis;
+    private final Map<String, UsageCounter> connections = new ConcurrentHashMap<>();
+    private final Map<String, UsageCounter> bytesConsumed = new ConcurrentHashMap<>();
+
+    /**
+     * Creates new checks.
+     *
+     * @param prometheusChecks The checks to use for retrieving usage data from the Prometheus server.
+     * @param metrics The metrics to get the locally tracked usage data from.
+     * @param config The configuration properties.
+     * @throws NullPointerException if any of the parameters are {@code null}.
+     */
+    public CounterBasedResourceLimitChecks(
+            final PrometheusBasedResourceLimitChecks prometheusChecks,
+            final MicrometerBasedMetrics metrics,
+            final PrometheusBasedResourceLimitChecksConfig config) {
+
+        this.prometheusChecks = Objects.requireNonNull(prometheusChecks);
+        this.metrics = Objects.requireNonNull(metrics);
+        this.reconcileIntervalMillis = Objects.requireNonNull(config).getReconcileInterval() * 1000L;
+    }
+
+    @Override
+    public Future<Boolean> isConnectionLimitReached(final TenantObject tenant) {
+
+        Objects.requireNonNull(tenant);
+        final long maxConnections = prometheusChecks.getConnectionsLimit(tenant);
+
+        log.trace("connection limit for tenant [{}] is [{}]", tenant.getTenantId(), maxConnections);
+
+        if (maxConnections == -1) {
+            return Future.succeededFuture(Boolean.FALSE);
+        } else {
+            final String tenantId = tenant.getTenantId();
+            return getUsageCounter(connections, tenantId, () -> metrics.getNumberOfConnections(tenantId), false)
+                    .getUsage(() -> prometheusChecks.queryCurrentConnections(tenantId))
+                    .map(currentConnections -> {
+                        if (currentConnections < maxConnections) {
+                            return Boolean.FALSE;
+                        } else {
+                            log.trace(
+                                    "connection limit exceeded [tenant: {}, current connections: {}, max-connections: {}]",
+                                    tenantId, currentConnections, maxConnections);
+                            return Boolean.TRUE;
+                        }
+                    }).otherwise(Boolean.FALSE);
+        }
+    }
+
+    @Override
+    public Future<Boolean> isMessageLimitReached(final TenantObject tenant, final long payloadSize) {
+
+        Objects.requireNonNull(tenant);
+        final long maxBytes = prometheusChecks.getMaximumNumberOfBytes(tenant);
+        final LocalDate effectiveSince = prometheusChecks.getEffectiveSince(tenant);
+        final long periodInDays = prometheusChecks.getPeriodInDays(tenant);
+
+        if (maxBytes == -1 || effectiveSince == null || periodInDays <= 0 || payloadSize <= 0) {
+            return Future.succeededFuture(Boolean.FALSE);
+        } else {
+            final long dataUsagePeriod = prometheusChecks.calculateDataUsagePeriod(effectiveSince, periodInDays);
+
+            if (dataUsagePeriod <= 0) {
+                return Future.succeededFuture(Boolean.FALSE);
+            }
+
+            final String tenantId = tenant.getTenantId();
+            return getUsageCounter(bytesConsumed, tenantId, () -> metrics.getPayloadBytes(tenantId), true)
+                    .getUsage(() -> prometheusChecks.queryBytesConsumed(tenantId, dataUsagePeriod))
+                    .map(bytesUsed -> {
+                        if ((bytesUsed + payloadSize) <= maxBytes) {
+                            return Boolean.FALSE;
+                        } else {
+                            log.trace("data limit exceeded for tenant [{}] [bytesUsed: {}, max-bytes: {}]",
+                                    tenantId, bytesUsed, maxBytes);
+                            return Boolean.TRUE;
+                        }
+                    }).otherwise(Boolean.FALSE);
+        }
+    }
+
+    private UsageCounter getUsageCounter(
+            final Map<String, UsageCounter> counters,
+            final String tenantId,
+            final LongSupplier localValue,
+            final boolean cumulative) {
+
+        final UsageCounter counter = counters.get(tenantId);
+        if (counter != null) {
+            return counter;
+        }
+        if (counters.size() >= MAX_TRACKED_TENANTS) {
+            // evict an arbitrary tenant in order to limit memory consumption,
+            // its usage will be retrieved from the Prometheus server again when needed
+            final Iterator<String> tenants = counters.keySet().iterator();
+            if (tenants.hasNext()) {
+                tenants.next();
+                tenants.remove();
+            }
+        }
+        return counters.computeIfAbsent(tenantId, id -> new UsageCounter(localValue, cumulative));
+    }
+
+    /**
+     * Usage data of a tenant that is tracked locally and reconciled with
+     * the data retrieved from the Prometheus server.
+     */
+    private final class UsageCounter {
+
+        private final LongSupplier localValue;
+        private final boolean cumulative;
+        private boolean initialized = false;
+        private long remoteValue;
+        private long localValueAtQuery;
+        private long lastReconciliation;
+        private Future<Void> pendingReconciliation;
+
+        /**
+         * Creates a new counter.
+         *
+         * @param localValue The source of the locally tracked usage.
+         * @param cumulative {@code true} if the locally tracked usage never decreases unless
+         *                   it has been discarded and starts over at 0.
+         */
+        UsageCounter(final LongSupplier localValue, final boolean cumulative) {
+            this.localValue = localValue;
+            this.cumulative = cumulative;
+        }
+
+        /**
+         * Gets the estimated overall usage.
+         * <p>
+         * The estimate is the value last retrieved from the Prometheus server plus the
+         * local usage that has been added since.
+         *
+         * @param query The query to use for reconciling with the Prometheus server.
+         * @return A future containing the estimated usage.
+         */
+        synchronized Future<Long> getUsage(final Supplier<Future<Long>> query) {
+
+            if (!initialized) {
+                return reconcile(query).map(ok -> estimate());
+            }
+            if (System.currentTimeMillis() - lastReconciliation >= reconcileIntervalMillis) {
+                reconcile(query);
+            }
+            return Future.succeededFuture(estimate());
+        }
+
+        private synchronized long estimate() {
+            final long currentLocalValue = localValue.getAsLong();
+            if (cumulative && currentLocalValue < localValueAtQuery) {
+                // the local data has been discarded in the meantime and starts over at 0
+                localValueAtQuery = 0;
+            }
+            return remoteValue + currentLocalValue - localValueAtQuery;
+        }
+
+        private Future<Void> reconcile(final Supplier<Future<Long>> query) {
+
+            if (pendingReconciliation != null) {
+                return pendingReconciliation;
+            }
+
+            final Future<Void> result = Future.future();
+            final long localValueBeforeQuery = localValue.getAsLong();
+            pendingReconciliation = result;
+            query.get().setHandler(queryAttempt -> {
+                synchronized (this) {
+                    pendingReconciliation = null;
+                    lastReconciliation = System.currentTimeMillis();
+                    if (queryAttempt.succeeded()) {
+                        remoteValue = queryAttempt.result();
+                        localValueAtQuery = localValueBeforeQuery;
+                        initialized = true;
+                    } else if (!initialized) {
+                        // fall back to local data until next reconciliation
+                        remoteValue = 0;
+                        localValueAtQuery = 0;
+                        initialized = true;
+                    }
+                }
+                result.complete();
+            });
+            return result;
+        }
+    }
+}
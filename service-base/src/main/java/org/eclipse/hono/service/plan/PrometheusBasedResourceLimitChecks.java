@@ -126,9 +126,7 @@ public final class PrometheusBasedResourceLimitChecks implements ResourceLimitCh
         if (maxConnections == -1) {
             return Future.succeededFuture(Boolean.FALSE);
         } else {
-            final String queryParams = String.format("sum(%s{tenant=\"%s\"})", CONNECTIONS_METRIC_NAME,
-                    tenant.getTenantId());
-            return executeQuery(queryParams)
+            return queryCurrentConnections(tenant.getTenantId())
                     .map(currentConnections -> {
                         if (currentConnections < maxConnections) {
                             return Boolean.FALSE;
@@ -172,18 +170,12 @@ public final class PrometheusBasedResourceLimitChecks implements ResourceLimitCh
                 return Future.succeededFuture(Boolean.FALSE);
             }
 
-            final String queryParams = String.format("floor(sum(increase(%s{status=~\"%s|%s\", tenant=\"%s\"} [%sd])))",
-                    MESSAGES_PAYLOAD_SIZE_METRIC_NAME,
-                    MetricsTags.ProcessingOutcome.FORWARDED.asTag().getValue(),
-                    MetricsTags.ProcessingOutcome.UNPROCESSABLE.asTag().getValue(),
-                    tenant.getTenantId(),
-                    dataUsagePeriod);
             final String key = String.format("%s_bytes_consumed", tenant.getTenantId());
 
             return Optional.ofNullable(limitsCache)
                     .map(success -> limitsCache.get(key))
                     .map(cachedValue -> Future.succeededFuture((long) cachedValue))
-                    .orElseGet(() -> executeQuery(queryParams)
+                    .orElseGet(() -> queryBytesConsumed(tenant.getTenantId(), dataUsagePeriod)
                             .map(bytesConsumed -> addToCache(limitsCache, key, bytesConsumed)))
                     .map(bytesConsumed -> {
                         if ((bytesConsumed + payloadSize) <= maxBytes) {
@@ -256,6 +248,38 @@ public final class PrometheusBasedResourceLimitChecks implements ResourceLimitCh
                 .orElse(null);
     }
 
+    /**
+     * Retrieves the number of connections of a tenant's devices that are
+     * currently established with all protocol adapter instances.
+     *
+     * @param tenantId The identifier of the tenant.
+     * @return A future indicating the outcome of the query.
+     */
+    Future<Long> queryCurrentConnections(final String tenantId) {
+
+        final String query = String.format("sum(%s{tenant=\"%s\"})", CONNECTIONS_METRIC_NAME, tenantId);
+        return executeQuery(query);
+    }
+
+    /**
+     * Retrieves the number of bytes that have been consumed by a tenant's devices
+     * during a given number of days.
+     *
+     * @param tenantId The identifier of the tenant.
+     * @param dataUsagePeriod The number of days to retrieve the data usage for.
+     * @return A future indicating the outcome of the query.
+     */
+    Future<Long> queryBytesConsumed(final String tenantId, final long dataUsagePeriod) {
+
+        final String query = String.format("floor(sum(increase(%s{status=~\"%s|%s\", tenant=\"%s\"} [%sd])))",
+                MESSAGES_PAYLOAD_SIZE_METRIC_NAME,
+                MetricsTags.ProcessingOutcome.FORWARDED.asTag().getValue(),
+                MetricsTags.ProcessingOutcome.UNPROCESSABLE.asTag().getValue(),
+                tenantId,
+                dataUsagePeriod);
+        return executeQuery(query);
+    }
+
     private Future<Long> executeQuery(final String query) {
 
         final Future<Long> result = Future.future();
@@ -337,7 +361,7 @@ public final class PrometheusBasedResourceLimitChecks implements ResourceLimitCh
      * @param periodInDays The number of days for which the data usage is to be calculated.
      * @return The period for which the data usage is to be calculated.
      */
-    private long calculateDataUsagePeriod(final LocalDate effectiveSince, final long periodInDays) {
+    long calculateDataUsagePeriod(final LocalDate effectiveSince, final long periodInDays) {
         final long inclusiveDaysBetween = DAYS.between(effectiveSince, LocalDate.now()) + 1;
         if (inclusiveDaysBetween > 0 && periodInDays > 0) {
             return inclusiveDaysBetween % periodInDays;
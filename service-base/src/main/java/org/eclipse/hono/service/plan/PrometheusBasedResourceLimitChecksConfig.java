@@ -33,12 +33,19 @@ public final class PrometheusBasedResourceLimitChecksConfig {
      * The default timeout for cached data in seconds until they are considered invalid.
      */
     static final long DEFAULT_CACHE_TIMEOUT = 600L;
+    /**
+     * The default period of time in seconds after which locally tracked usage data is reconciled
+     * with the data retrieved from the Prometheus server.
+     */
+    static final long DEFAULT_RECONCILE_INTERVAL = 30L;
 
     private String host;
     private int port = 9090;
     private int cacheMinSize = DEFAULT_CACHE_MIN_SIZE;
     private long cacheMaxSize = DEFAULT_CACHE_MAX_SIZE;
     private long cacheTimeout = DEFAULT_CACHE_TIMEOUT;
+    private boolean localCountersEnabled = false;
+    private long reconcileInterval = DEFAULT_RECONCILE_INTERVAL;
 
     /**
      * Gets the host of the Prometheus server to retrieve metrics from.
@@ -175,4 +182,58 @@ public final class PrometheusBasedResourceLimitChecksConfig {
         this.cacheTimeout = timeout;
     }
 
+    /**
+     * Checks if the limit checks should be based on usage data tracked locally by
+     * the protocol adapter instead of querying the Prometheus server for every check.
+     * <p>
+     * The default value of this property is {@code false}.
+     *
+     * @return {@code true} if local counters should be used.
+     */
+    public boolean isLocalCountersEnabled() {
+        return localCountersEnabled;
+    }
+
+    /**
+     * Sets whether the limit checks should be based on usage data tracked locally by
+     * the protocol adapter instead of querying the Prometheus server for every check.
+     * <p>
+     * If enabled, the locally tracked data is periodically reconciled with the data
+     * retrieved from the Prometheus server (see {@link #setReconcileInterval(long)}).
+     * <p>
+     * The default value of this property is {@code false}.
+     *
+     * @param enabled {@code true} if local counters should be used.
+     */
+    public void setLocalCountersEnabled(final boolean enabled) {
+        this.localCountersEnabled = enabled;
+    }
+
+    /**
+     * Gets the period of time after which locally tracked usage data is reconciled
+     * with the data retrieved from the Prometheus server.
+     * <p>
+     * The default value of this property is {@link #DEFAULT_RECONCILE_INTERVAL}.
+     *
+     * @return The interval in seconds.
+     */
+    public long getReconcileInterval() {
+        return reconcileInterval;
+    }
+
+    /**
+     * Sets the period of time after which locally tracked usage data is reconciled
+     * with the data retrieved from the Prometheus server.
+     * <p>
+     * The default value of this property is {@link #DEFAULT_RECONCILE_INTERVAL}.
+     *
+     * @param interval The interval in seconds.
+     * @throws IllegalArgumentException if interval is &lt;= 0.
+     */
+    public void setReconcileInterval(final long interval) {
+        if (interval <= 0) {
+            throw new IllegalArgumentException("reconcile interval must be greater than zero");
+        }
+        this.reconcileInterval = interval;
+    }
 }
@@ -174,7 +174,7 @@ public class TenantAmqpEndpoint extends RequestResponseEndpoint<ServiceConfigPro
         if (replyToAddress == null) {
             return false;
         } else {
-            return replyToAddress.getResourcePath().length >= 2;
+            return replyToAddress.length() >= 2;
         }
     }
 }
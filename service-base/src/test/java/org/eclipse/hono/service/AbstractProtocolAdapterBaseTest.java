@@ -36,6 +36,7 @@ import org.eclipse.hono.client.ClientErrorException;
 import org.eclipse.hono.client.CommandConsumerFactory;
 import org.eclipse.hono.client.CredentialsClientFactory;
 import org.eclipse.hono.client.DisconnectListener;
+import org.eclipse.hono.client.DownstreamSender;
 import org.eclipse.hono.client.DownstreamSenderFactory;
 import org.eclipse.hono.client.HonoConnection;
 import org.eclipse.hono.client.ReconnectListener;
@@ -57,6 +58,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 
 import io.opentracing.SpanContext;
+import io.opentracing.Tracer;
+import io.opentracing.noop.NoopSpanContext;
 import io.vertx.core.Context;
 import io.vertx.core.Future;
 import io.vertx.core.Handler;
@@ -346,6 +349,41 @@ public class AbstractProtocolAdapterBaseTest {
         assertThat(message.getTtl(), is(30L));
     }
 
+    /**
+     * Verifies that default properties are applied to all messages of a device
+     * and that changes to the tenant's default properties are taken into account.
+     */
+    @Test
+    public void testAddPropertiesAddsUpdatedTenantDefaults() {
+
+        final ResourceIdentifier target = ResourceIdentifier.from(EventConstants.EVENT_ENDPOINT, Constants.DEFAULT_TENANT, "4711");
+        final TenantObject tenant = TenantObject.from(Constants.DEFAULT_TENANT, true);
+        tenant.setDefaults(new JsonObject().put("custom-tenant", "foo"));
+        final JsonObject assertion = newRegistrationAssertionResult("application/hono");
+
+        final Message message = ProtonHelper.message();
+        adapter.addProperties(message, target, null, tenant, assertion, null);
+        final Message otherMessage = ProtonHelper.message();
+        adapter.addProperties(otherMessage, target, null, tenant, assertion, null);
+
+        assertThat(otherMessage.getContentType(), is("application/hono"));
+        assertThat(
+                MessageHelper.getApplicationProperty(otherMessage.getApplicationProperties(), "custom-tenant", String.class),
+                is("foo"));
+
+        // WHEN the tenant's configuration has been updated
+        final TenantObject updatedTenant = TenantObject.from(Constants.DEFAULT_TENANT, true);
+        updatedTenant.setDefaults(new JsonObject().put("custom-tenant", "bar"));
+        final Message updatedMessage = ProtonHelper.message();
+        adapter.addProperties(updatedMessage, target, null, updatedTenant, assertion, null);
+
+        // THEN the updated defaults are used
+        assertThat(updatedMessage.getContentType(), is("application/hono"));
+        assertThat(
+                MessageHelper.getApplicationProperty(updatedMessage.getApplicationProperties(), "custom-tenant", String.class),
+                is("bar"));
+    }
+
     /**
      * Verifies that the adapter successfully retrieves a registration assertion
      * for an existing device.
@@ -621,4 +659,94 @@ public class AbstractProtocolAdapterBaseTest {
             ctx.completeNow();
         })));
     }
+
+    /**
+     * Verifies that the adapter waits for a downstream sender without credit
+     * to be replenished with credit.
+     */
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testWaitForCreditSucceedsOnReplenishment() {
+
+        // GIVEN an adapter that waits for downstream credit
+        properties.setDownstreamCreditWaitTimeout(1000);
+        when(vertx.setTimer(eq(1000L), any(Handler.class))).thenReturn(5L);
+        // and a downstream sender without credit
+        final DownstreamSender sender = mock(DownstreamSender.class);
+        when(sender.getCredit()).thenReturn(0);
+
+        // WHEN waiting for credit
+        final Future<DownstreamSender> result = adapter.waitForCredit(sender);
+
+        // THEN the result is not completed before the sender has been replenished
+        assertFalse(result.isComplete());
+        final ArgumentCaptor<Handler<Void>> drainHandler = ArgumentCaptor.forClass(Handler.class);
+        verify(sender).sendQueueDrainHandler(drainHandler.capture());
+        when(sender.getCredit()).thenReturn(1);
+        drainHandler.getValue().handle(null);
+        assertTrue(result.succeeded());
+        verify(vertx).cancelTimer(5L);
+    }
+
+    /**
+     * Verifies that the adapter stops waiting for a downstream sender to
+     * be replenished with credit once the configured timeout has elapsed.
+     */
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testWaitForCreditSucceedsAfterTimeout() {
+
+        // GIVEN an adapter that waits for downstream credit
+        properties.setDownstreamCreditWaitTimeout(1000);
+        final ArgumentCaptor<Handler<Long>> timeoutHandler = ArgumentCaptor.forClass(Handler.class);
+        when(vertx.setTimer(eq(1000L), timeoutHandler.capture())).thenReturn(5L);
+        // and a downstream sender without credit
+        final DownstreamSender sender = mock(DownstreamSender.class);
+        when(sender.getCredit()).thenReturn(0);
+
+        // WHEN waiting for credit
+        final Future<DownstreamSender> result = adapter.waitForCredit(sender);
+        assertFalse(result.isComplete());
+
+        // THEN the result is completed once the timeout has elapsed
+        timeoutHandler.getValue().handle(5L);
+        assertTrue(result.succeeded());
+    }
+
+    /**
+     * Verifies that the adapter does not wait for credit if waiting is disabled.
+     */
+    @Test
+    public void testWaitForCreditSucceedsImmediatelyIfDisabled() {
+
+        final DownstreamSender sender = mock(DownstreamSender.class);
+        when(sender.getCredit()).thenReturn(0);
+
+        assertTrue(adapter.waitForCredit(sender).succeeded());
+        verify(sender, never()).sendQueueDrainHandler(any());
+    }
+
+    /**
+     * Verifies that the adapter uses a no-op tracer for messages that
+     * exceed the configured number of traces per second unless sampling
+     * is enforced.
+     */
+    @Test
+    public void testGetTracerForMessageHonorsSamplingRate() {
+
+        // GIVEN an adapter that does not trace any messages
+        properties.setMaxTracesPerSecond(0);
+        final Tracer tracer = mock(Tracer.class);
+        adapter.setTracer(tracer);
+
+        // THEN a no-op tracer is used for processing a message
+        final SpanContext messageContext = adapter.getTracerForMessage(Constants.DEFAULT_TENANT, false)
+                .buildSpan("test").start().context();
+        assertTrue(messageContext instanceof NoopSpanContext);
+        // as well as for any subsequent processing steps
+        assertFalse(adapter.getTracer(messageContext) == tracer);
+        // unless the message needs to be traced
+        assertThat(adapter.getTracerForMessage(Constants.DEFAULT_TENANT, true), is(tracer));
+        assertThat(adapter.getTracer(mock(SpanContext.class)), is(tracer));
+    }
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016, 2018 Contributors to the Eclipse Foundation
+ * Copyright (c) 2016, 2019 Contributors to the Eclipse Foundation
  *
  * See the NOTICE file(s) distributed with this work for additional
  * information regarding copyright ownership.
@@ -13,16 +13,26 @@
 
 package org.eclipse.hono.service;
 
+import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.HttpURLConnection;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.hono.util.EventBusMessage;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
 import io.vertx.core.Future;
+import io.vertx.core.Vertx;
 import io.vertx.core.json.JsonObject;
 
 
@@ -124,4 +134,67 @@ public class EventBusServiceTest {
         final String value = EventBusService.getTypesafeValueForField(String.class, device, "device-id");
         assertNull(value);
     }
+
+    /**
+     * Verifies that a response received by a local client does not change
+     * when the service modifies the data contained in the response's payload
+     * after the response has been sent.
+     *
+     * @throws Exception if the test fails.
+     */
+    @Test
+    public void testResponseIsNotAffectedByModificationOfStoredData() throws Exception {
+
+        final Vertx vertx = Vertx.vertx();
+        try {
+            // GIVEN a service that returns its stored data in responses
+            // and modifies the stored data after the response has been sent
+            final JsonObject storedData = new JsonObject().put("last-via", "gw-1");
+            final CountDownLatch modified = new CountDownLatch(1);
+            final EventBusService<Object> storingService = new EventBusService<Object>() {
+
+                @Override
+                public void setConfig(final Object configuration) {
+                }
+
+                @Override
+                protected String getEventBusAddress() {
+                    return "test.service";
+                }
+
+                @Override
+                protected Future<EventBusMessage> processRequest(final EventBusMessage request) {
+                    final Future<EventBusMessage> result = Future.future();
+                    vertx.runOnContext(go -> {
+                        result.complete(request.getResponse(HttpURLConnection.HTTP_OK).setJsonPayload(storedData));
+                        storedData.put("last-via", "gw-2");
+                        modified.countDown();
+                    });
+                    return result;
+                }
+            };
+            final CompletableFuture<String> deployment = new CompletableFuture<>();
+            vertx.deployVerticle(storingService, deployed -> {
+                if (deployed.succeeded()) {
+                    deployment.complete(deployed.result());
+                } else {
+                    deployment.completeExceptionally(deployed.cause());
+                }
+            });
+            deployment.get(5, TimeUnit.SECONDS);
+
+            // WHEN a local client sends a request
+            final BlockingQueue<Object> responses = new LinkedBlockingQueue<>();
+            vertx.eventBus().send("test.service", EventBusMessage.forOperation("get"),
+                    reply -> responses.add(reply.succeeded() ? reply.result().body() : reply.cause()));
+
+            // THEN the response contains the data as it was when the response has been sent
+            assertTrue(modified.await(5, TimeUnit.SECONDS));
+            final Object response = responses.poll(5, TimeUnit.SECONDS);
+            assertThat(response, instanceOf(EventBusMessage.class));
+            assertEquals("gw-1", ((EventBusMessage) response).getJsonPayload().getString("last-via"));
+        } finally {
+            vertx.close();
+        }
+    }
 }
@@ -54,7 +54,6 @@ import io.vertx.core.eventbus.DeliveryOptions;
 import io.vertx.core.eventbus.EventBus;
 import io.vertx.core.eventbus.ReplyException;
 import io.vertx.core.eventbus.ReplyFailure;
-import io.vertx.core.json.JsonObject;
 import io.vertx.proton.ProtonConnection;
 import io.vertx.proton.ProtonDelivery;
 import io.vertx.proton.ProtonHelper;
@@ -252,7 +251,7 @@ public class RequestResponseEndpointTest {
         verify(delivery).disposition(argThat(d -> d instanceof Accepted), booleanThat(is(Boolean.TRUE)));
         // and forwarded to the service instance
         final ArgumentCaptor<Handler<AsyncResult<io.vertx.core.eventbus.Message<Object>>>> replyHandler = ArgumentCaptor.forClass(Handler.class);
-        verify(eventBus).send(eq(EVENT_BUS_ADDRESS), any(JsonObject.class), any(DeliveryOptions.class), replyHandler.capture());
+        verify(eventBus).send(eq(EVENT_BUS_ADDRESS), any(EventBusMessage.class), any(DeliveryOptions.class), replyHandler.capture());
 
         // WHEN the service invocation times out
         replyHandler.getValue().handle(Future.failedFuture(error));
@@ -292,12 +291,12 @@ public class RequestResponseEndpointTest {
         verify(authService).isAuthorized(Constants.PRINCIPAL_ANONYMOUS, resource, "get");
         // and forwarded to the service instance
         final ArgumentCaptor<Handler<AsyncResult<io.vertx.core.eventbus.Message<Object>>>> replyHandler = ArgumentCaptor.forClass(Handler.class);
-        verify(eventBus).send(eq(EVENT_BUS_ADDRESS), any(JsonObject.class), any(DeliveryOptions.class), replyHandler.capture());
+        verify(eventBus).send(eq(EVENT_BUS_ADDRESS), any(EventBusMessage.class), any(DeliveryOptions.class), replyHandler.capture());
 
         // WHEN the service implementation sends the response
         final EventBusMessage response = EventBusMessage.forStatusCode(HttpURLConnection.HTTP_ACCEPTED);
         final io.vertx.core.eventbus.Message<Object> reply = mock(io.vertx.core.eventbus.Message.class);
-        when(reply.body()).thenReturn(response.toJson());
+        when(reply.body()).thenReturn(response);
         replyHandler.getValue().handle(Future.succeededFuture(reply));
 
         // THEN the response is sent to the client
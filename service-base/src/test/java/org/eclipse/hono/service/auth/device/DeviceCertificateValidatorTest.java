@@ -0,0 +1,157 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.service.auth.device;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.security.GeneralSecurityException;
+import java.security.PublicKey;
+import java.security.cert.CertPathValidatorException;
+import java.security.cert.TrustAnchor;
+import java.security.cert.X509Certificate;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.security.auth.x500.X500Principal;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import io.vertx.core.Future;
+
+/**
+ * Tests verifying behavior of {@link DeviceCertificateValidator}.
+ *
+ */
+public class DeviceCertificateValidatorTest {
+
+    private final AtomicInteger validations = new AtomicInteger();
+    private boolean failValidation;
+    private DeviceCertificateValidator validator;
+
+    /**
+     * Sets up the fixture.
+     */
+    @Before
+    public void setUp() {
+
+        validations.set(0);
+        failValidation = false;
+        validator = new DeviceCertificateValidator() {
+
+            @Override
+            void validateCertPath(final List<X509Certificate> chain, final TrustAnchor trustAnchor)
+                    throws GeneralSecurityException {
+                validations.incrementAndGet();
+                if (failValidation) {
+                    throw new CertPathValidatorException("invalid chain");
+                }
+            }
+        };
+    }
+
+    /**
+     * Verifies that a chain that has been validated successfully is not validated
+     * again when presented with the same trust anchor.
+     */
+    @Test
+    public void testValidateUsesCachedValidationForSameChainAndTrustAnchor() {
+
+        final List<X509Certificate> chain = newChain(System.currentTimeMillis() + 60_000);
+        final TrustAnchor trustAnchor = newTrustAnchor("CN=ca");
+
+        assertTrue(validator.validate(chain, trustAnchor).succeeded());
+        assertTrue(validator.validate(chain, trustAnchor).succeeded());
+        assertEquals(1, validations.get());
+    }
+
+    /**
+     * Verifies that a chain that has been validated successfully is validated
+     * again when presented with a different trust anchor.
+     */
+    @Test
+    public void testValidateValidatesChainAgainAfterTrustAnchorHasChanged() {
+
+        final List<X509Certificate> chain = newChain(System.currentTimeMillis() + 60_000);
+
+        assertTrue(validator.validate(chain, newTrustAnchor("CN=ca")).succeeded());
+        assertTrue(validator.validate(chain, newTrustAnchor("CN=ca")).succeeded());
+        assertEquals(2, validations.get());
+    }
+
+    /**
+     * Verifies that a validation is not taken from the cache anymore
+     * once a certificate of the chain has expired.
+     *
+     * @throws InterruptedException if the test is interrupted.
+     */
+    @Test
+    public void testValidateDoesNotUseCachedValidationOfExpiredChain() throws InterruptedException {
+
+        final List<X509Certificate> chain = newChain(System.currentTimeMillis() + 200);
+        final TrustAnchor trustAnchor = newTrustAnchor("CN=ca");
+
+        assertTrue(validator.validate(chain, trustAnchor).succeeded());
+        assertTrue(validator.validate(chain, trustAnchor).succeeded());
+        assertEquals(1, validations.get());
+
+        Thread.sleep(300);
+        validator.validate(chain, trustAnchor);
+        assertEquals(2, validations.get());
+    }
+
+    /**
+     * Verifies that a failed validation is not put to the cache.
+     */
+    @Test
+    public void testValidateDoesNotCacheFailedValidation() {
+
+        final List<X509Certificate> chain = newChain(System.currentTimeMillis() + 60_000);
+        final TrustAnchor trustAnchor = newTrustAnchor("CN=ca");
+        failValidation = true;
+
+        final Future<Void> result = validator.validate(chain, trustAnchor);
+        assertTrue(result.failed());
+        assertFalse(validator.validate(chain, trustAnchor).succeeded());
+        assertEquals(2, validations.get());
+    }
+
+    private static List<X509Certificate> newChain(final long notAfter) {
+
+        final X509Certificate cert = mock(X509Certificate.class);
+        try {
+            // use unique content because validations are cached by all validator instances
+            when(cert.getEncoded()).thenReturn(UUID.randomUUID().toString().getBytes());
+        } catch (final GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+        when(cert.getNotAfter()).thenReturn(new Date(notAfter));
+        when(cert.getSubjectX500Principal()).thenReturn(new X500Principal("CN=device"));
+        return Collections.singletonList(cert);
+    }
+
+    private static TrustAnchor newTrustAnchor(final String caName) {
+
+        final PublicKey publicKey = mock(PublicKey.class);
+        when(publicKey.getEncoded()).thenReturn(UUID.randomUUID().toString().getBytes());
+        return new TrustAnchor(caName, publicKey, null);
+    }
+}
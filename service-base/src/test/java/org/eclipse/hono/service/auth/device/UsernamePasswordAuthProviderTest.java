@@ -17,6 +17,8 @@ package org.eclipse.hono.service.auth.device;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.net.HttpURLConnection;
@@ -187,6 +189,31 @@ public class UsernamePasswordAuthProviderTest {
         }));
     }
 
+    /**
+     * Verifies that a password is verified only once if a device authenticates
+     * repeatedly using the same password.
+     *
+     * @param ctx The vert.x test context.
+     */
+    @Test
+    public void testAuthenticateUsesCachedVerification(final TestContext ctx) {
+
+        // GIVEN a device that has already been authenticated successfully
+        final Future<DeviceUser> firstAttempt = Future.future();
+        vertx.runOnContext(go -> provider.authenticate(deviceCredentials, null, firstAttempt));
+        firstAttempt.compose(device -> {
+            // WHEN the device authenticates again using the same password
+            final Future<DeviceUser> secondAttempt = Future.future();
+            vertx.runOnContext(go -> provider.authenticate(deviceCredentials, null, secondAttempt));
+            return secondAttempt;
+        }).setHandler(ctx.asyncAssertSuccess(device -> {
+            // THEN authentication succeeds
+            ctx.assertEquals("4711", device.getDeviceId());
+            // without the password having been verified again
+            verify(pwdEncoder, times(1)).matches(eq(PWD), any(JsonObject.class));
+        }));
+    }
+
     private void givenCredentialsOnRecord(final CredentialsObject credentials) {
         when(credentialsClient.get(
                 eq(CredentialsConstants.SECRETS_TYPE_HASHED_PASSWORD),
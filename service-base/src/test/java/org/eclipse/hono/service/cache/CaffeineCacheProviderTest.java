@@ -0,0 +1,141 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.service.cache;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.hono.cache.ExpiringValueCache;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+
+/**
+ * Tests verifying behavior of {@link CaffeineCacheProvider}.
+ *
+ */
+public class CaffeineCacheProviderTest {
+
+    private AtomicLong nanoTime;
+    private CaffeineCacheProvider provider;
+
+    /**
+     * Sets up the fixture.
+     */
+    @Before
+    public void setUp() {
+        nanoTime = new AtomicLong();
+        provider = new CaffeineCacheProvider("test", 10, 100, nanoTime::get);
+    }
+
+    /**
+     * Verifies that a cache returns a value until it expires.
+     */
+    @Test
+    public void testGetReturnsValueUntilExpired() {
+
+        // GIVEN a cache that contains a value that expires after ten seconds
+        final ExpiringValueCache<String, String> cache = provider.getCache("cache");
+        cache.put("key", "hello", Duration.ofSeconds(10));
+
+        // THEN the value is returned before the expiration time
+        nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(9));
+        assertThat(cache.get("key"), is("hello"));
+        // but not after the expiration time
+        nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        assertNull(cache.get("key"));
+    }
+
+    /**
+     * Verifies that values put to caches with different names
+     * do not interfere with each other.
+     */
+    @Test
+    public void testCachesWithDifferentNamesAreSeparate() {
+
+        // GIVEN two caches with different names
+        final ExpiringValueCache<String, String> cache = provider.getCache("one");
+        final ExpiringValueCache<String, String> otherCache = provider.getCache("two");
+
+        // WHEN putting a value to one of the caches
+        cache.put("key", "hello", Duration.ofSeconds(10));
+
+        // THEN the value is only contained in that cache
+        assertThat(cache.get("key"), is("hello"));
+        assertNull(otherCache.get("key"));
+        // and is visible to other instances of the cache with the same name
+        assertThat(provider.<String, String> getCache("one").get("key"), is("hello"));
+    }
+
+    /**
+     * Verifies that the cache rejects values that are already expired.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testPutFailsForExpiredValue() {
+
+        provider.getCache("cache").put("key", "hello", Instant.now().minusSeconds(1));
+    }
+
+    /**
+     * Verifies that cache hits and misses are reported to the meter registry.
+     */
+    @Test
+    public void testBindToRegistersCacheStatistics() {
+
+        // GIVEN a cache provider whose meters have been registered
+        final MeterRegistry registry = new SimpleMeterRegistry();
+        provider.bindTo(registry);
+        final ExpiringValueCache<String, String> cache = provider.getCache("cache");
+        cache.put("key", "hello", Duration.ofSeconds(10));
+
+        // WHEN looking up an existing and a non-existing key
+        cache.get("key");
+        cache.get("unknown");
+
+        // THEN both the hit and the miss have been recorded
+        assertThat(registry.get("cache.gets").tags("cache", "test", "result", "hit").functionCounter().count(), is(1.0));
+        assertThat(registry.get("cache.gets").tags("cache", "test", "result", "miss").functionCounter().count(), is(1.0));
+    }
+
+    /**
+     * Verifies that the statistics of providers having the same name
+     * are reported separately.
+     */
+    @Test
+    public void testBindToRegistersStatisticsPerProviderInstance() {
+
+        // GIVEN two providers with the same name whose meters have been registered
+        final MeterRegistry registry = new SimpleMeterRegistry();
+        final CaffeineCacheProvider other = new CaffeineCacheProvider("test", 10, 100, nanoTime::get);
+        provider.bindTo(registry);
+        other.bindTo(registry);
+
+        // WHEN looking up a non-existing key in one of the providers' caches
+        other.getCache("cache").get("unknown");
+
+        // THEN the miss has been recorded for that provider only
+        assertThat(registry.get("cache.gets").tags("cache", "test", "result", "miss").functionCounters().size(), is(2));
+        assertThat(registry.get("cache.gets").tags("cache", "test", "result", "miss").functionCounters().stream()
+                .mapToDouble(counter -> counter.count()).sum(), is(1.0));
+    }
+}
@@ -14,6 +14,7 @@
 
 package org.eclipse.hono.service.metric;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
@@ -24,12 +25,15 @@ import java.util.stream.Stream;
 import org.eclipse.hono.service.metric.MetricsTags.EndpointType;
 import org.eclipse.hono.service.metric.MetricsTags.QoS;
 import org.eclipse.hono.service.metric.MetricsTags.TtdStatus;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
 
 import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.DistributionSummary;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
 import io.micrometer.core.instrument.Timer.Sample;
 import io.micrometer.graphite.GraphiteConfig;
 import io.micrometer.graphite.GraphiteMeterRegistry;
@@ -157,4 +161,71 @@ public class MicrometerBasedMetricsTest {
 
         verify(legacyMetrics).incrementProcessedMessages(eq(EndpointType.TELEMETRY), eq("tenant"));
     }
+
+    /**
+     * Verifies that all reported telemetry messages are recorded
+     * in the same meters.
+     *
+     * @param registry : the registry that the tests should be run against.
+     */
+    @ParameterizedTest
+    @MethodSource("registries")
+    public void testReportTelemetryRecordsMessagesInSameMeters(final MeterRegistry registry) {
+
+        final MicrometerBasedMetrics metrics = new MicrometerBasedMetrics(registry);
+
+        // WHEN reporting multiple telemetry messages of the same kind
+        for (int i = 0; i < 3; i++) {
+            metrics.reportTelemetry(
+                    MetricsTags.EndpointType.EVENT,
+                    "tenant",
+                    MetricsTags.ProcessingOutcome.FORWARDED,
+                    MetricsTags.QoS.AT_LEAST_ONCE,
+                    100,
+                    MetricsTags.TtdStatus.NONE,
+                    metrics.startTimer());
+        }
+
+        // THEN all of the messages have been recorded in the same meters
+        final Tags expectedTags = Tags.of(MetricsTags.EndpointType.EVENT.asTag())
+                .and(MetricsTags.getTenantTag("tenant"))
+                .and(MetricsTags.ProcessingOutcome.FORWARDED.asTag())
+                .and(MetricsTags.QoS.AT_LEAST_ONCE.asTag())
+                .and(MetricsTags.TtdStatus.NONE.asTag());
+        final Timer timer = registry.find(MicrometerBasedMetrics.METER_MESSAGES_RECEIVED).tags(expectedTags).timer();
+        assertEquals(3, timer.count());
+        final DistributionSummary payloadSize = registry.find(MicrometerBasedMetrics.METER_MESSAGES_PAYLOAD)
+                .tags(expectedTags).summary();
+        assertEquals(3, payloadSize.count());
+        assertEquals(300.0, payloadSize.totalAmount());
+        assertEquals(300L, metrics.getPayloadBytes("tenant"));
+    }
+
+    /**
+     * Verifies that the payload size of commands is recorded in a histogram
+     * with fixed buckets if SLA histograms are enabled.
+     */
+    @Test
+    public void testReportCommandRecordsSlaHistogram() {
+
+        final MeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        final MicrometerBasedMetrics metrics = new MicrometerBasedMetrics(registry);
+        metrics.setSlaHistogramsEnabled(true);
+
+        metrics.reportCommand(
+                MetricsTags.Direction.ONE_WAY,
+                "tenant",
+                MetricsTags.ProcessingOutcome.FORWARDED,
+                1000,
+                metrics.startTimer());
+
+        final Tags expectedTags = Tags.of(MetricsTags.Direction.ONE_WAY.asTag())
+                .and(MetricsTags.getTenantTag("tenant"))
+                .and(MetricsTags.ProcessingOutcome.FORWARDED.asTag());
+        final DistributionSummary payloadSize = registry.find(MicrometerBasedMetrics.METER_COMMANDS_PAYLOAD)
+                .tags(expectedTags).summary();
+        assertEquals(7, payloadSize.takeSnapshot().histogramCounts().length);
+        final Timer timer = registry.find(MicrometerBasedMetrics.METER_COMMANDS_RECEIVED).tags(expectedTags).timer();
+        assertEquals(10, timer.takeSnapshot().histogramCounts().length);
+    }
 }
@@ -0,0 +1,203 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.service.plan;
+
+import static java.time.format.DateTimeFormatter.ISO_LOCAL_DATE;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+
+import org.eclipse.hono.service.metric.MetricsTags;
+import org.eclipse.hono.service.metric.MicrometerBasedMetrics;
+import org.eclipse.hono.util.Constants;
+import org.eclipse.hono.util.TenantConstants;
+import org.eclipse.hono.util.TenantObject;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+import org.junit.runner.RunWith;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import io.vertx.ext.web.client.HttpRequest;
+import io.vertx.ext.web.client.HttpResponse;
+import io.vertx.ext.web.client.WebClient;
+import io.vertx.ext.web.client.predicate.ResponsePredicate;
+import io.vertx.ext.web.codec.BodyCodec;
+
+/**
+ * Verifies the behavior of {@link CounterBasedResourceLimitChecks}.
+ */
+@RunWith(VertxUnitRunner.class)
+public class CounterBasedResourceLimitChecksTest {
+
+    private static final int DEFAULT_PORT = 8080;
+    private static final String DEFAULT_HOST = "localhost";
+    /**
+     * Time out each test after five seconds.
+     */
+    @Rule
+    public final Timeout timeout = Timeout.seconds(5);
+
+    private CounterBasedResourceLimitChecks limitChecksImpl;
+    private MicrometerBasedMetrics metrics;
+    private WebClient webClient;
+    private HttpRequest<Buffer> request;
+
+    /**
+     * Sets up the fixture.
+     */
+    @SuppressWarnings("unchecked")
+    @Before
+    public void setup() {
+
+        request = mock(HttpRequest.class);
+        when(request.addQueryParam(anyString(), anyString())).thenReturn(request);
+        when(request.expect(any(ResponsePredicate.class))).thenReturn(request);
+        when(request.as(any(BodyCodec.class))).thenReturn(request);
+
+        webClient = mock(WebClient.class);
+        when(webClient.get(anyInt(), anyString(), anyString())).thenReturn(request);
+
+        final PrometheusBasedResourceLimitChecksConfig config = new PrometheusBasedResourceLimitChecksConfig();
+        config.setHost(DEFAULT_HOST);
+        config.setPort(DEFAULT_PORT);
+        config.setLocalCountersEnabled(true);
+
+        metrics = new MicrometerBasedMetrics(new SimpleMeterRegistry()) {
+        };
+        limitChecksImpl = new CounterBasedResourceLimitChecks(
+                new PrometheusBasedResourceLimitChecks(webClient, config, null),
+                metrics,
+                config);
+    }
+
+    /**
+     * Verifies that the connection limit check queries the Prometheus server only
+     * once and uses the locally tracked connections for subsequent checks.
+     *
+     * @param ctx The vert.x test context.
+     */
+    @Test
+    public void testConnectionLimitIsCheckedAgainstLocalConnections(final TestContext ctx) {
+
+        givenQueryResult(9);
+        final TenantObject tenant = TenantObject.from(Constants.DEFAULT_TENANT, true);
+        tenant.setProperty(TenantConstants.FIELD_RESOURCE_LIMITS, new JsonObject()
+                .put(PrometheusBasedResourceLimitChecks.FIELD_MAX_CONNECTIONS, 10));
+
+        limitChecksImpl.isConnectionLimitReached(tenant).compose(reached -> {
+            ctx.assertFalse(reached);
+            // WHEN a device connects to this adapter instance
+            metrics.incrementConnections(Constants.DEFAULT_TENANT);
+            return limitChecksImpl.isConnectionLimitReached(tenant);
+        }).setHandler(ctx.asyncAssertSuccess(reached -> {
+            // THEN the limit is reached without querying the Prometheus server again
+            ctx.assertTrue(reached);
+            verify(webClient, times(1)).get(eq(DEFAULT_PORT), eq(DEFAULT_HOST), anyString());
+        }));
+    }
+
+    /**
+     * Verifies that the message limit check queries the Prometheus server only
+     * once and uses the locally tracked data volume for subsequent checks.
+     *
+     * @param ctx The vert.x test context.
+     */
+    @Test
+    public void testMessageLimitIsCheckedAgainstLocalDataVolume(final TestContext ctx) {
+
+        givenQueryResult(90);
+        final TenantObject tenant = TenantObject.from(Constants.DEFAULT_TENANT, true);
+        tenant.setProperty(TenantConstants.FIELD_RESOURCE_LIMITS, new JsonObject()
+                .put(PrometheusBasedResourceLimitChecks.FIELD_DATA_VOLUME, new JsonObject()
+                        .put(PrometheusBasedResourceLimitChecks.FIELD_MAX_BYTES, 100)
+                        .put(PrometheusBasedResourceLimitChecks.FIELD_EFFECTIVE_SINCE,
+                                LocalDate.now().minusDays(10).format(ISO_LOCAL_DATE))
+                        .put(PrometheusBasedResourceLimitChecks.FIELD_PERIOD_IN_DAYS, 30)));
+
+        limitChecksImpl.isMessageLimitReached(tenant, 5).compose(reached -> {
+            ctx.assertFalse(reached);
+            // WHEN a message gets forwarded by this adapter instance
+            metrics.reportTelemetry(
+                    MetricsTags.EndpointType.TELEMETRY,
+                    Constants.DEFAULT_TENANT,
+                    MetricsTags.ProcessingOutcome.FORWARDED,
+                    MetricsTags.QoS.AT_MOST_ONCE,
+                    10,
+                    metrics.startTimer());
+            return limitChecksImpl.isMessageLimitReached(tenant, 5);
+        }).setHandler(ctx.asyncAssertSuccess(reached -> {
+            // THEN the limit is reached without querying the Prometheus server again
+            ctx.assertTrue(reached);
+            verify(webClient, times(1)).get(eq(DEFAULT_PORT), eq(DEFAULT_HOST), anyString());
+        }));
+    }
+
+    /**
+     * Verifies that the checks fall back to the locally tracked data
+     * if the Prometheus server cannot be queried.
+     *
+     * @param ctx The vert.x test context.
+     */
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testConnectionLimitUsesLocalConnectionsIfQueryFails(final TestContext ctx) {
+
+        doAnswer(invocation -> {
+            final Handler<AsyncResult<HttpResponse<JsonObject>>> responseHandler = invocation.getArgument(0);
+            responseHandler.handle(Future.failedFuture(new IllegalStateException("unavailable")));
+            return null;
+        }).when(request).send(any(Handler.class));
+        final TenantObject tenant = TenantObject.from(Constants.DEFAULT_TENANT, true);
+        tenant.setProperty(TenantConstants.FIELD_RESOURCE_LIMITS, new JsonObject()
+                .put(PrometheusBasedResourceLimitChecks.FIELD_MAX_CONNECTIONS, 1));
+        metrics.incrementConnections(Constants.DEFAULT_TENANT);
+
+        limitChecksImpl.isConnectionLimitReached(tenant).setHandler(ctx.asyncAssertSuccess(reached -> {
+            ctx.assertTrue(reached);
+        }));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void givenQueryResult(final int value) {
+        doAnswer(invocation -> {
+            final Handler<AsyncResult<HttpResponse<JsonObject>>> responseHandler = invocation.getArgument(0);
+            final HttpResponse<JsonObject> response = mock(HttpResponse.class);
+            when(response.body()).thenReturn(new JsonObject()
+                    .put("status", "success")
+                    .put("data", new JsonObject()
+                            .put("result", new JsonArray().add(new JsonObject()
+                                    .put("value", new JsonArray().add("timestamp").add(String.valueOf(value)))))));
+            responseHandler.handle(Future.succeededFuture(response));
+            return null;
+        }).when(request).send(any(Handler.class));
+    }
+}
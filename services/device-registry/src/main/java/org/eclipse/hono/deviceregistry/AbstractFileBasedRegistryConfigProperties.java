@@ -13,6 +13,8 @@
 
 package org.eclipse.hono.deviceregistry;
 
+import java.util.Objects;
+
 /**
  * Common configuration properties for file based implementations of the APIs of Hono's device registry as own server.
  * <p>
@@ -25,12 +27,40 @@ public abstract class AbstractFileBasedRegistryConfigProperties {
      * operations may be cached for.
      */
     public static final int DEFAULT_MAX_AGE_SECONDS = 180;
+    /**
+     * The default number of journal entries after which the journal is compacted
+     * into the registry file.
+     */
+    public static final int DEFAULT_JOURNAL_COMPACTION_THRESHOLD = 10_000;
+
+    /**
+     * The policies for forcing journal entries to be written to the storage device.
+     */
+    public enum JournalSyncPolicy {
+        /**
+         * Each entry is forced to the storage device when it is appended to the journal.
+         */
+        ALWAYS,
+        /**
+         * Entries are forced to the storage device periodically, i.e. every time the
+         * registry checks if the journal needs to be compacted.
+         */
+        PERIODIC,
+        /**
+         * Entries are never forced explicitly but are left to the operating system
+         * to be written to the storage device.
+         */
+        NEVER
+    }
 
     private String filename = getDefaultFileName();
     private boolean saveToFile = false;
     private boolean modificationEnabled = true;
     private boolean startEmpty = false;
     private int cacheMaxAge = DEFAULT_MAX_AGE_SECONDS;
+    private boolean journalEnabled = false;
+    private JournalSyncPolicy journalSyncPolicy = JournalSyncPolicy.PERIODIC;
+    private int journalCompactionThreshold = DEFAULT_JOURNAL_COMPACTION_THRESHOLD;
 
     /**
      * Gets the path to the file that the registry should be persisted to periodically.
@@ -164,4 +194,89 @@ public abstract class AbstractFileBasedRegistryConfigProperties {
     public final void setStartEmpty(final boolean flag) {
         this.startEmpty = flag;
     }
+
+    /**
+     * Checks whether changes to the registry content should be appended to a journal
+     * instead of writing out the complete registry content to the file.
+     * <p>
+     * If set to {@code true}, each change is appended to a journal file next to
+     * the registry file. The journal is compacted into the registry file once the number
+     * of entries exceeds the <em>journalCompactionThreshold</em> and during shutdown.
+     * This property is only considered if <em>saveToFile</em> is {@code true}.
+     * <p>
+     * Default value is {@code false}.
+     *
+     * @return {@code true} if changes should be appended to a journal.
+     */
+    public final boolean isJournalEnabled() {
+        return journalEnabled;
+    }
+
+    /**
+     * Sets whether changes to the registry content should be appended to a journal
+     * instead of writing out the complete registry content to the file.
+     * <p>
+     * If set to {@code true}, each change is appended to a journal file next to
+     * the registry file. The journal is compacted into the registry file once the number
+     * of entries exceeds the <em>journalCompactionThreshold</em> and during shutdown.
+     * This property is only considered if <em>saveToFile</em> is {@code true}.
+     * <p>
+     * Default value is {@code false}.
+     *
+     * @param enabled {@code true} if changes should be appended to a journal.
+     */
+    public final void setJournalEnabled(final boolean enabled) {
+        this.journalEnabled = enabled;
+    }
+
+    /**
+     * Gets the policy for forcing journal entries to be written to the storage device.
+     * <p>
+     * Default value is {@link JournalSyncPolicy#PERIODIC}.
+     *
+     * @return The policy.
+     */
+    public final JournalSyncPolicy getJournalSyncPolicy() {
+        return journalSyncPolicy;
+    }
+
+    /**
+     * Sets the policy for forcing journal entries to be written to the storage device.
+     * <p>
+     * Default value is {@link JournalSyncPolicy#PERIODIC}.
+     *
+     * @param policy The policy.
+     * @throws NullPointerException if policy is {@code null}.
+     */
+    public final void setJournalSyncPolicy(final JournalSyncPolicy policy) {
+        this.journalSyncPolicy = Objects.requireNonNull(policy);
+    }
+
+    /**
+     * Gets the number of journal entries after which the journal is compacted
+     * into the registry file.
+     * <p>
+     * The default value of this property is {@link #DEFAULT_JOURNAL_COMPACTION_THRESHOLD}.
+     *
+     * @return The number of entries.
+     */
+    public final int getJournalCompactionThreshold() {
+        return journalCompactionThreshold;
+    }
+
+    /**
+     * Sets the number of journal entries after which the journal is compacted
+     * into the registry file.
+     * <p>
+     * The default value of this property is {@link #DEFAULT_JOURNAL_COMPACTION_THRESHOLD}.
+     *
+     * @param threshold The number of entries.
+     * @throws IllegalArgumentException if threshold is &lt;= 0.
+     */
+    public final void setJournalCompactionThreshold(final int threshold) {
+        if (threshold <= 0) {
+            throw new IllegalArgumentException("compaction threshold must be > 0");
+        }
+        this.journalCompactionThreshold = threshold;
+    }
 }
@@ -15,13 +15,16 @@ package org.eclipse.hono.deviceregistry;
 
 import java.net.HttpURLConnection;
 import java.nio.charset.StandardCharsets;
-import java.util.HashMap;
-import java.util.Iterator;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 import org.eclipse.hono.auth.HonoPasswordEncoder;
 import org.eclipse.hono.service.credentials.CompleteBaseCredentialsService;
@@ -49,6 +52,8 @@ import io.vertx.core.json.JsonObject;
  * <p>
  * On startup this adapter tries to load credentials from a file (if configured).
  * On shutdown all credentials kept in memory are written to the file (if configured).
+ * If the journal is enabled, changes are appended to a journal file and the journal
+ * is compacted into the credentials file periodically.
  */
 @Repository
 @ConditionalOnProperty(name = "hono.app.type", havingValue = "file", matchIfMissing = true)
@@ -63,10 +68,11 @@ public final class FileBasedCredentialsService extends CompleteBaseCredentialsSe
      */
     public static final String FIELD_TENANT = "tenant";
 
-    // <tenantId, <authId, credentialsData[]>>
-    private final Map<String, Map<String, JsonArray>> credentials = new HashMap<>();
+    // <tenantId, credentials>
+    private final Map<String, TenantCredentials> credentials = new ConcurrentHashMap<>();
     private boolean running = false;
     private boolean dirty = false;
+    private RegistryJournal journal;
 
     /**
      * Creates a new service instance for a password encoder.
@@ -119,8 +125,16 @@ public final class FileBasedCredentialsService extends CompleteBaseCredentialsSe
             } else {
                 checkFileExists(getConfig().isSaveToFile()).compose(ok -> {
                     return loadCredentials();
+                }).compose(ok -> {
+                    return openJournal();
                 }).compose(s -> {
-                    if (getConfig().isSaveToFile()) {
+                    if (journal != null) {
+                        log.info("appending changes to journal, compacting journal every {} changes",
+                                getConfig().getJournalCompactionThreshold());
+                        vertx.setPeriodic(3000, saveIdentities -> {
+                            saveToFile();
+                        });
+                    } else if (getConfig().isSaveToFile()) {
                         log.info("saving credentials to file every 3 seconds");
                         vertx.setPeriodic(3000, saveIdentities -> {
                             saveToFile();
@@ -177,28 +191,94 @@ public final class FileBasedCredentialsService extends CompleteBaseCredentialsSe
     int addCredentialsForTenant(final JsonObject tenant) {
         int count = 0;
         final String tenantId = tenant.getString(FIELD_TENANT);
-        final Map<String, JsonArray> credentialsMap = new HashMap<>();
+        final TenantCredentials credentialsForTenant = new TenantCredentials();
         for (final Object credentialsObj : tenant.getJsonArray(ARRAY_CREDENTIALS)) {
-            final JsonObject credentials = (JsonObject) credentialsObj;
-            final JsonArray authIdCredentials;
-            if (credentialsMap.containsKey(credentials.getString(CredentialsConstants.FIELD_AUTH_ID))) {
-                authIdCredentials = credentialsMap.get(credentials.getString(CredentialsConstants.FIELD_AUTH_ID));
-            } else {
-                authIdCredentials = new JsonArray();
-            }
-            authIdCredentials.add(credentials);
-            credentialsMap.put(credentials.getString(CredentialsConstants.FIELD_AUTH_ID), authIdCredentials);
+            credentialsForTenant.add((JsonObject) credentialsObj);
             count++;
         }
-        credentials.put(tenantId, credentialsMap);
+        credentials.put(tenantId, credentialsForTenant);
         return count;
     }
 
+    private Future<Void> openJournal() {
+
+        if (!getConfig().isSaveToFile() || !getConfig().isJournalEnabled()) {
+            return Future.succeededFuture();
+        }
+        journal = new RegistryJournal(vertx, getConfig().getFilename(), getConfig().getJournalSyncPolicy());
+        if (getConfig().isStartEmpty()) {
+            // discard the changes recorded for the credentials that have not been loaded
+            return journal.compact(createSnapshot(new AtomicInteger()));
+        } else {
+            return journal.replay(this::applyJournalEntry).map(count -> {
+                log.info("successfully replayed {} changes from credentials journal", count);
+                return (Void) null;
+            });
+        }
+    }
+
+    private void applyJournalEntry(final JsonObject entry) {
+
+        final String tenantId = entry.getString(FIELD_TENANT);
+
+        switch (entry.getString(RegistryJournal.FIELD_OPERATION, "")) {
+        case RegistryJournal.OP_PUT:
+            replaceCredentials(getCredentialsForTenant(tenantId), entry.getJsonObject(RegistryJournal.FIELD_VALUE));
+            break;
+        case RegistryJournal.OP_REMOVE:
+            Optional.ofNullable(credentials.get(tenantId)).ifPresent(tenant -> {
+                if (entry.containsKey(CredentialsConstants.FIELD_PAYLOAD_DEVICE_ID)) {
+                    tenant.removeByDeviceId(entry.getString(CredentialsConstants.FIELD_PAYLOAD_DEVICE_ID));
+                } else {
+                    tenant.get(
+                            entry.getString(CredentialsConstants.FIELD_TYPE),
+                            entry.getString(CredentialsConstants.FIELD_AUTH_ID))
+                        .stream().findFirst().ifPresent(tenant::remove);
+                }
+            });
+            break;
+        case RegistryJournal.OP_CLEAR:
+            credentials.clear();
+            break;
+        default:
+            log.debug("ignoring unknown journal entry [{}]", entry);
+        }
+    }
+
+    private static void replaceCredentials(final TenantCredentials credentialsForTenant, final JsonObject newCredentials) {
+
+        credentialsForTenant.get(
+                newCredentials.getString(CredentialsConstants.FIELD_TYPE),
+                newCredentials.getString(CredentialsConstants.FIELD_AUTH_ID))
+            .stream().findFirst().ifPresent(credentialsForTenant::remove);
+        credentialsForTenant.add(newCredentials);
+    }
+
+    private void appendToJournal(final JsonObject entry) {
+        if (journal != null) {
+            journal.append(entry);
+        }
+    }
+
+    private Future<Void> closeJournal() {
+
+        if (journal == null) {
+            return Future.succeededFuture();
+        }
+        final Future<Void> compacted = journal.getEntryCount() > 0
+                ? journal.compact(createSnapshot(new AtomicInteger())).otherwiseEmpty()
+                : Future.succeededFuture();
+        return compacted.compose(ok -> journal.close()).map(ok -> {
+            journal = null;
+            return (Void) null;
+        });
+    }
+
     @Override
     protected void doStop(final Future<Void> stopFuture) {
 
         if (running) {
-            saveToFile().compose(s -> {
+            saveToFile().compose(s -> closeJournal()).compose(s -> {
                 running = false;
                 stopFuture.complete();
             }, stopFuture);
@@ -211,21 +291,16 @@ public final class FileBasedCredentialsService extends CompleteBaseCredentialsSe
 
         if (!getConfig().isSaveToFile()) {
             return Future.succeededFuture();
+        } else if (journal != null) {
+            if (journal.getEntryCount() >= getConfig().getJournalCompactionThreshold()) {
+                return journal.compact(createSnapshot(new AtomicInteger())).otherwiseEmpty();
+            } else {
+                return journal.sync().otherwiseEmpty();
+            }
         } else if (dirty) {
             return checkFileExists(true).compose(s -> {
                 final AtomicInteger idCount = new AtomicInteger();
-                final JsonArray tenants = new JsonArray();
-                for (final Entry<String, Map<String, JsonArray>> entry : credentials.entrySet()) {
-                    final JsonArray credentialsArray = new JsonArray();
-                    for (final JsonArray singleAuthIdCredentials : entry.getValue().values()) {
-                        credentialsArray.addAll(singleAuthIdCredentials.copy());
-                        idCount.incrementAndGet();
-                    }
-                    tenants.add(
-                            new JsonObject()
-                                    .put(FIELD_TENANT, entry.getKey())
-                                    .put(ARRAY_CREDENTIALS, credentialsArray));
-                }
+                final JsonArray tenants = createSnapshot(idCount);
                 final Future<Void> writeHandler = Future.future();
                 vertx.fileSystem().writeFile(
                         getConfig().getFilename(),
@@ -246,6 +321,23 @@ public final class FileBasedCredentialsService extends CompleteBaseCredentialsSe
         }
     }
 
+    private JsonArray createSnapshot(final AtomicInteger idCount) {
+
+        final JsonArray tenants = new JsonArray();
+        for (final Entry<String, TenantCredentials> entry : credentials.entrySet()) {
+            final JsonArray credentialsArray = new JsonArray();
+            entry.getValue().forEach(credentials -> {
+                credentialsArray.add(credentials.copy());
+                idCount.incrementAndGet();
+            });
+            tenants.add(
+                    new JsonObject()
+                            .put(FIELD_TENANT, entry.getKey())
+                            .put(ARRAY_CREDENTIALS, credentialsArray));
+        }
+        return tenants;
+    }
+
     /**
      * {@inheritDoc}
      * <p>
@@ -300,15 +392,14 @@ public final class FileBasedCredentialsService extends CompleteBaseCredentialsSe
         Objects.requireNonNull(deviceId);
         Objects.requireNonNull(resultHandler);
 
-        final Map<String, JsonArray> credentialsForTenant = credentials.get(tenantId);
+        final TenantCredentials credentialsForTenant = credentials.get(tenantId);
         if (credentialsForTenant == null) {
             TracingHelper.logError(span, "no credentials found for tenant");
             resultHandler.handle(Future.succeededFuture(CredentialsResult.from(HttpURLConnection.HTTP_NOT_FOUND)));
         } else {
             final JsonArray matchingCredentials = new JsonArray();
-            // iterate over all credentials per auth-id in order to find credentials matching the given device
-            for (final JsonArray credentialsForAuthId : credentialsForTenant.values()) {
-                findCredentialsForDevice(credentialsForAuthId, deviceId, matchingCredentials);
+            for (final JsonObject credentialsForDevice : credentialsForTenant.getByDeviceId(deviceId)) {
+                matchingCredentials.add(credentialsForDevice.copy());
             }
             if (matchingCredentials.isEmpty()) {
                 TracingHelper.logError(span, "no credentials found for device");
@@ -323,20 +414,6 @@ public final class FileBasedCredentialsService extends CompleteBaseCredentialsSe
         }
     }
 
-    private void findCredentialsForDevice(final JsonArray credentials, final String deviceId, final JsonArray result) {
-
-        for (final Object obj : credentials) {
-            if (obj instanceof JsonObject) {
-                final JsonObject currentCredentials = (JsonObject) obj;
-                if (deviceId.equals(getTypesafeValueForField(String.class, currentCredentials,
-                        CredentialsConstants.FIELD_PAYLOAD_DEVICE_ID))) {
-                    // device ID matches, add a copy of credentials to result
-                    result.add(currentCredentials.copy());
-                }
-            }
-        }
-    }
-
     /**
      * Get the credentials associated with the authId and the given type.
      * If type is null, all credentials associated with the authId are returned (as JsonArray inside the return value).
@@ -354,39 +431,19 @@ public final class FileBasedCredentialsService extends CompleteBaseCredentialsSe
         Objects.requireNonNull(authId);
         Objects.requireNonNull(type);
 
-        final Map<String, JsonArray> credentialsForTenant = credentials.get(tenantId);
+        final TenantCredentials credentialsForTenant = credentials.get(tenantId);
         if (credentialsForTenant != null) {
-            final JsonArray authIdCredentials = credentialsForTenant.get(authId);
-            if (authIdCredentials != null) {
-                for (final Object authIdCredentialEntry : authIdCredentials) {
-                    final JsonObject authIdCredential = (JsonObject) authIdCredentialEntry;
-                    // return the first matching type entry for this authId
-                    if (type.equals(authIdCredential.getString(CredentialsConstants.FIELD_TYPE))) {
-                        if (clientContext != null) {
-                            final AtomicBoolean match = new AtomicBoolean(true);
-                            clientContext.forEach(field -> {
-                                if (authIdCredential.containsKey(field.getKey())) {
-                                    if (!authIdCredential.getString(field.getKey()).equals(field.getValue())) {
-                                        match.set(false);
-                                    }
-                                } else {
-                                    match.set(false);
-                                }
-                            });
-                            if (!match.get()) {
-                                continue;
-                            }
-                        }
-                        return authIdCredential;
+            final List<JsonObject> matchingCredentials = credentialsForTenant.get(type, authId);
+            if (!matchingCredentials.isEmpty()) {
+                // return the first entry matching the client context
+                for (final JsonObject candidate : matchingCredentials) {
+                    if (matchesClientContext(candidate, clientContext)) {
+                        return candidate;
                     }
                 }
-                if (clientContext != null) {
-                    TracingHelper.logError(span, "no credentials found with matching type and client context");
-                } else {
-                    TracingHelper.logError(span, "no credentials found with matching type");
-                }
+                TracingHelper.logError(span, "no credentials found with matching type and client context");
             } else {
-                TracingHelper.logError(span, "no credentials found for auth-id");
+                TracingHelper.logError(span, "no credentials found with matching type");
             }
         } else {
             TracingHelper.logError(span, "no credentials found for tenant");
@@ -394,6 +451,20 @@ public final class FileBasedCredentialsService extends CompleteBaseCredentialsSe
         return null;
     }
 
+    private static boolean matchesClientContext(final JsonObject credentials, final JsonObject clientContext) {
+
+        if (clientContext == null) {
+            return true;
+        }
+        for (final Entry<String, Object> field : clientContext) {
+            if (!credentials.containsKey(field.getKey())
+                    || !credentials.getString(field.getKey()).equals(field.getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     @Override
     public void add(final String tenantId, final JsonObject credentials, final Handler<AsyncResult<CredentialsResult<JsonObject>>> resultHandler) {
 
@@ -410,20 +481,18 @@ public final class FileBasedCredentialsService extends CompleteBaseCredentialsSe
         final String type = credentialsToAdd.getString(CredentialsConstants.FIELD_TYPE);
         log.debug("adding credentials for device [tenant-id: {}, auth-id: {}, type: {}]", tenantId, authId, type);
 
-        final Map<String, JsonArray> credentialsForTenant = getCredentialsForTenant(tenantId);
-
-        final JsonArray authIdCredentials = getAuthIdCredentials(authId, credentialsForTenant);
+        final TenantCredentials credentialsForTenant = getCredentialsForTenant(tenantId);
 
         // check if credentials already exist with the type and auth-id from the payload
-        for (final Object credentialsObj: authIdCredentials) {
-            final JsonObject credentials = (JsonObject) credentialsObj;
-            if (credentials.getString(CredentialsConstants.FIELD_TYPE).equals(type)) {
-                return CredentialsResult.from(HttpURLConnection.HTTP_CONFLICT);
-            }
+        if (!credentialsForTenant.get(type, authId).isEmpty()) {
+            return CredentialsResult.from(HttpURLConnection.HTTP_CONFLICT);
         }
 
-        authIdCredentials.add(credentialsToAdd);
+        credentialsForTenant.add(credentialsToAdd);
         dirty = true;
+        appendToJournal(RegistryJournal.newEntry(RegistryJournal.OP_PUT)
+                .put(FIELD_TENANT, tenantId)
+                .put(RegistryJournal.FIELD_VALUE, credentialsToAdd));
         return CredentialsResult.from(HttpURLConnection.HTTP_CREATED);
     }
 
@@ -439,32 +508,22 @@ public final class FileBasedCredentialsService extends CompleteBaseCredentialsSe
             final String type = newCredentials.getString(CredentialsConstants.FIELD_TYPE);
             log.debug("updating credentials for device [tenant-id: {}, auth-id: {}, type: {}]", tenantId, authId, type);
 
-            final Map<String, JsonArray> credentialsForTenant = getCredentialsForTenant(tenantId);
+            final TenantCredentials credentialsForTenant = credentials.get(tenantId);
             if (credentialsForTenant == null) {
                 resultHandler.handle(Future.succeededFuture(CredentialsResult.from(HttpURLConnection.HTTP_NOT_FOUND)));
             } else {
-                final JsonArray credentialsForAuthId = credentialsForTenant.get(authId);
-                if (credentialsForAuthId == null) {
+                // replace credentials of given type
+                final List<JsonObject> existingCredentials = credentialsForTenant.get(type, authId);
+                if (existingCredentials.isEmpty()) {
                     resultHandler.handle(Future.succeededFuture(CredentialsResult.from(HttpURLConnection.HTTP_NOT_FOUND)));
                 } else {
-                    // find credentials of given type
-                    boolean removed = false;
-                    final Iterator<Object> credentialsIterator = credentialsForAuthId.iterator();
-                    while (credentialsIterator.hasNext()) {
-                        final JsonObject creds = (JsonObject) credentialsIterator.next();
-                        if (creds.getString(CredentialsConstants.FIELD_TYPE).equals(type)) {
-                            credentialsIterator.remove();
-                            removed = true;
-                            break;
-                        }
-                    }
-                    if (removed) {
-                        credentialsForAuthId.add(newCredentials);
-                        dirty = true;
-                        resultHandler.handle(Future.succeededFuture(CredentialsResult.from(HttpURLConnection.HTTP_NO_CONTENT)));
-                    } else {
-                        resultHandler.handle(Future.succeededFuture(CredentialsResult.from(HttpURLConnection.HTTP_NOT_FOUND)));
-                    }
+                    credentialsForTenant.remove(existingCredentials.get(0));
+                    credentialsForTenant.add(newCredentials);
+                    dirty = true;
+                    appendToJournal(RegistryJournal.newEntry(RegistryJournal.OP_PUT)
+                            .put(FIELD_TENANT, tenantId)
+                            .put(RegistryJournal.FIELD_VALUE, newCredentials));
+                    resultHandler.handle(Future.succeededFuture(CredentialsResult.from(HttpURLConnection.HTTP_NO_CONTENT)));
                 }
             }
         } else {
@@ -481,20 +540,22 @@ public final class FileBasedCredentialsService extends CompleteBaseCredentialsSe
         Objects.requireNonNull(resultHandler);
 
         if (getConfig().isModificationEnabled()) {
-            final Map<String, JsonArray> credentialsForTenant = credentials.get(tenantId);
+            final TenantCredentials credentialsForTenant = credentials.get(tenantId);
             if (credentialsForTenant == null) {
                 resultHandler.handle(Future.succeededFuture(CredentialsResult.from(HttpURLConnection.HTTP_NOT_FOUND)));
             } else {
-                final JsonArray credentialsForAuthId = credentialsForTenant.get(authId);
-                if (credentialsForAuthId == null) {
+                final List<JsonObject> credentialsForAuthId = credentialsForTenant.get(type, authId);
+                if (credentialsForAuthId.isEmpty()) {
                     resultHandler.handle(Future.succeededFuture(CredentialsResult.from(HttpURLConnection.HTTP_NOT_FOUND)));
-                } else if (removeCredentialsFromCredentialsArray(null, type, credentialsForAuthId)) {
-                    if (credentialsForAuthId.isEmpty()) {
-                        credentialsForTenant.remove(authId); // do not leave empty array as value
-                    }
-                    resultHandler.handle(Future.succeededFuture(CredentialsResult.from(HttpURLConnection.HTTP_NO_CONTENT)));
                 } else {
-                    resultHandler.handle(Future.succeededFuture(CredentialsResult.from(HttpURLConnection.HTTP_NOT_FOUND)));
+                    // there can only be one matching instance due to uniqueness guarantees
+                    credentialsForTenant.remove(credentialsForAuthId.get(0));
+                    dirty = true;
+                    appendToJournal(RegistryJournal.newEntry(RegistryJournal.OP_REMOVE)
+                            .put(FIELD_TENANT, tenantId)
+                            .put(CredentialsConstants.FIELD_TYPE, type)
+                            .put(CredentialsConstants.FIELD_AUTH_ID, authId));
+                    resultHandler.handle(Future.succeededFuture(CredentialsResult.from(HttpURLConnection.HTTP_NO_CONTENT)));
                 }
             }
         } else {
@@ -511,88 +572,25 @@ public final class FileBasedCredentialsService extends CompleteBaseCredentialsSe
 
         if (getConfig().isModificationEnabled()) {
 
-            final Map<String, JsonArray> credentialsForTenant = credentials.get(tenantId);
+            final TenantCredentials credentialsForTenant = credentials.get(tenantId);
             if (credentialsForTenant == null) {
                 resultHandler.handle(Future.succeededFuture(CredentialsResult.from(HttpURLConnection.HTTP_NOT_FOUND)));
+            } else if (credentialsForTenant.removeByDeviceId(deviceId)) {
+                dirty = true;
+                appendToJournal(RegistryJournal.newEntry(RegistryJournal.OP_REMOVE)
+                        .put(FIELD_TENANT, tenantId)
+                        .put(CredentialsConstants.FIELD_PAYLOAD_DEVICE_ID, deviceId));
+                resultHandler.handle(Future.succeededFuture(CredentialsResult.from(HttpURLConnection.HTTP_NO_CONTENT)));
             } else {
-
-                boolean removedAnyElement = false;
-
-                // delete based on type (no authId provided) - this might consume more time on large data sets and is thus
-                // handled explicitly
-                for (final JsonArray credentialsForAuthId : credentialsForTenant.values()) {
-                    if (removeCredentialsFromCredentialsArray(deviceId, CredentialsConstants.SPECIFIER_WILDCARD, credentialsForAuthId)) {
-                        removedAnyElement = true;
-                    }
-                }
-
-                // there might be empty credentials arrays left now, so remove them in a second run
-                cleanupEmptyCredentialsArrays(credentialsForTenant);
-
-                if (removedAnyElement) {
-                    dirty = true;
-                    resultHandler.handle(Future.succeededFuture(CredentialsResult.from(HttpURLConnection.HTTP_NO_CONTENT)));
-                } else {
-                    resultHandler.handle(Future.succeededFuture(CredentialsResult.from(HttpURLConnection.HTTP_NOT_FOUND)));
-                }
+                resultHandler.handle(Future.succeededFuture(CredentialsResult.from(HttpURLConnection.HTTP_NOT_FOUND)));
             }
         } else {
             resultHandler.handle(Future.succeededFuture(CredentialsResult.from(HttpURLConnection.HTTP_FORBIDDEN)));
         }
     }
 
-    private void cleanupEmptyCredentialsArrays(final Map<String, JsonArray> mapToCleanup) {
-
-        // use an iterator here to allow removal during looping (streams currently do not allow this)
-        final Iterator<Entry<String, JsonArray>> entries = mapToCleanup.entrySet().iterator();
-        while (entries.hasNext()) {
-            final Entry<String, JsonArray> entry = entries.next();
-            if (entry.getValue().isEmpty()) {
-                entries.remove();
-            }
-        }
-    }
-
-    private boolean removeCredentialsFromCredentialsArray(final String deviceId, final String type, final JsonArray credentialsForAuthId) {
-
-        boolean removedElement = false;
-
-        if (credentialsForAuthId != null) {
-            // the credentials in the array always have the same authId, but possibly different types
-            // use an iterator here to allow removal during looping (streams currently do not allow this)
-            final Iterator<Object> credentialsIterator = credentialsForAuthId.iterator();
-            while (credentialsIterator.hasNext()) {
-
-                final JsonObject element = (JsonObject) credentialsIterator.next();
-                final String credType = element.getString(CredentialsConstants.FIELD_TYPE);
-                final String credDevice = element.getString(CredentialsConstants.FIELD_PAYLOAD_DEVICE_ID);
-
-                if (!CredentialsConstants.SPECIFIER_WILDCARD.equals(type) && credType.equals(type)) {
-                    // delete a single credentials instance
-                    credentialsIterator.remove();
-                    removedElement = true;
-                    break; // there can only be one matching instance due to uniqueness guarantees
-                } else if (CredentialsConstants.SPECIFIER_WILDCARD.equalsIgnoreCase(type) && credDevice.equals(deviceId)) {
-                    // delete all credentials for device
-                    credentialsIterator.remove();
-                    removedElement = true;
-                } else if (credDevice.equals(deviceId) && credType.equals(type)) {
-                    // delete all credentials for device of given type
-                    credentialsIterator.remove();
-                    removedElement = true;
-                }
-            }
-        }
-
-        return removedElement;
-    }
-
-    private Map<String, JsonArray> getCredentialsForTenant(final String tenantId) {
-        return credentials.computeIfAbsent(tenantId, id -> new HashMap<>());
-    }
-
-    private JsonArray getAuthIdCredentials(final String authId, final Map<String, JsonArray> credentialsForTenant) {
-        return credentialsForTenant.computeIfAbsent(authId, id -> new JsonArray());
+    private TenantCredentials getCredentialsForTenant(final String tenantId) {
+        return credentials.computeIfAbsent(tenantId, id -> new TenantCredentials());
     }
 
     private CacheDirective getCacheDirective(final String type) {
@@ -616,6 +614,7 @@ public final class FileBasedCredentialsService extends CompleteBaseCredentialsSe
     public void clear() {
         dirty = true;
         credentials.clear();
+        appendToJournal(RegistryJournal.newEntry(RegistryJournal.OP_CLEAR));
     }
 
     @Override
@@ -627,4 +626,93 @@ public final class FileBasedCredentialsService extends CompleteBaseCredentialsSe
     protected int getMaxBcryptIterations() {
         return getConfig().getMaxBcryptIterations();
     }
+
+    /**
+     * The credentials of a tenant, indexed by type and auth-id as well as by device-id.
+     * <p>
+     * Both indices refer to the same credentials objects so that looking up credentials
+     * by means of either of them takes constant time regardless of the overall number
+     * of credentials.
+     */
+    private static final class TenantCredentials {
+
+        // <type, <authId, credentials[]>>
+        private final Map<String, Map<String, List<JsonObject>>> byTypeAndAuthId = new ConcurrentHashMap<>();
+        // <deviceId, credentials[]>
+        private final Map<String, List<JsonObject>> byDeviceId = new ConcurrentHashMap<>();
+
+        void add(final JsonObject credentials) {
+
+            final String type = credentials.getString(CredentialsConstants.FIELD_TYPE);
+            final String authId = credentials.getString(CredentialsConstants.FIELD_AUTH_ID);
+            final String deviceId = credentials.getString(CredentialsConstants.FIELD_PAYLOAD_DEVICE_ID);
+
+            byTypeAndAuthId
+                .computeIfAbsent(type, t -> new ConcurrentHashMap<>())
+                .computeIfAbsent(authId, id -> new CopyOnWriteArrayList<>())
+                .add(credentials);
+            if (deviceId != null) {
+                byDeviceId.computeIfAbsent(deviceId, id -> new CopyOnWriteArrayList<>()).add(credentials);
+            }
+        }
+
+        List<JsonObject> get(final String type, final String authId) {
+
+            final Map<String, List<JsonObject>> credentialsOfType = byTypeAndAuthId.get(type);
+            if (credentialsOfType == null) {
+                return Collections.emptyList();
+            }
+            return credentialsOfType.getOrDefault(authId, Collections.emptyList());
+        }
+
+        List<JsonObject> getByDeviceId(final String deviceId) {
+            return byDeviceId.getOrDefault(deviceId, Collections.emptyList());
+        }
+
+        void remove(final JsonObject credentials) {
+
+            final String type = credentials.getString(CredentialsConstants.FIELD_TYPE);
+            final String authId = credentials.getString(CredentialsConstants.FIELD_AUTH_ID);
+            final String deviceId = credentials.getString(CredentialsConstants.FIELD_PAYLOAD_DEVICE_ID);
+
+            final Map<String, List<JsonObject>> credentialsOfType = byTypeAndAuthId.get(type);
+            if (credentialsOfType != null) {
+                removeByIdentity(credentialsOfType, authId, credentials);
+                if (credentialsOfType.isEmpty()) {
+                    byTypeAndAuthId.remove(type);
+                }
+            }
+            if (deviceId != null) {
+                removeByIdentity(byDeviceId, deviceId, credentials);
+            }
+        }
+
+        boolean removeByDeviceId(final String deviceId) {
+
+            final List<JsonObject> credentialsOfDevice = byDeviceId.get(deviceId);
+            if (credentialsOfDevice == null) {
+                return false;
+            }
+            credentialsOfDevice.forEach(this::remove);
+            byDeviceId.remove(deviceId);
+            return true;
+        }
+
+        void forEach(final Consumer<JsonObject> consumer) {
+            byTypeAndAuthId.values().forEach(credentialsOfType -> credentialsOfType.values()
+                    .forEach(credentialsOfAuthId -> credentialsOfAuthId.forEach(consumer)));
+        }
+
+        private static void removeByIdentity(final Map<String, List<JsonObject>> index, final String key, final JsonObject credentials) {
+
+            final List<JsonObject> entries = index.get(key);
+            if (entries != null) {
+                // JsonObject.equals compares content, so remove the very same instance only
+                entries.removeIf(entry -> entry == credentials);
+                if (entries.isEmpty()) {
+                    index.remove(key);
+                }
+            }
+        }
+    }
 }
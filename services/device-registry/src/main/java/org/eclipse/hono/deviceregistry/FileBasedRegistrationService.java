@@ -21,6 +21,7 @@ import static org.eclipse.hono.util.RequestResponseApiConstants.FIELD_ENABLED;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -44,7 +45,9 @@ import io.vertx.core.json.JsonObject;
  * A registration service that keeps all data in memory but is backed by a file.
  * <p>
  * On startup this adapter loads all registered devices from a file. On shutdown all
- * devices kept in memory are written to the file.
+ * devices kept in memory are written to the file. If the journal is enabled, changes
+ * are appended to a journal file and the journal is compacted into the device identities
+ * file periodically.
  */
 @Repository
 @ConditionalOnProperty(name = "hono.app.type", havingValue = "file", matchIfMissing = true)
@@ -63,6 +66,7 @@ public final class FileBasedRegistrationService extends CompleteBaseRegistration
     private final Map<String, Map<String, JsonObject>> identities = new HashMap<>();
     private boolean running = false;
     private boolean dirty = false;
+    private RegistryJournal journal;
 
     @Autowired
     @Override
@@ -88,8 +92,16 @@ public final class FileBasedRegistrationService extends CompleteBaseRegistration
             } else {
                 checkFileExists(getConfig().isSaveToFile()).compose(ok -> {
                     return loadRegistrationData();
+                }).compose(ok -> {
+                    return openJournal();
                 }).compose(s -> {
-                    if (getConfig().isSaveToFile()) {
+                    if (journal != null) {
+                        log.info("appending changes to journal, compacting journal every {} changes",
+                                getConfig().getJournalCompactionThreshold());
+                        vertx.setPeriodic(3000, tid -> {
+                            saveToFile();
+                        });
+                    } else if (getConfig().isSaveToFile()) {
                         log.info("saving device identities to file every 3 seconds");
                         vertx.setPeriodic(3000, tid -> {
                             saveToFile();
@@ -121,6 +133,63 @@ public final class FileBasedRegistrationService extends CompleteBaseRegistration
         }
     }
 
+    private Future<Void> openJournal() {
+
+        if (!getConfig().isSaveToFile() || !getConfig().isJournalEnabled()) {
+            return Future.succeededFuture();
+        }
+        journal = new RegistryJournal(vertx, getConfig().getFilename(), getConfig().getJournalSyncPolicy());
+        if (getConfig().isStartEmpty()) {
+            // discard the changes recorded for the device identities that have not been loaded
+            return journal.compact(createSnapshot());
+        } else {
+            return journal.replay(this::applyJournalEntry).map(count -> {
+                log.info("successfully replayed {} changes from device identities journal", count);
+                return (Void) null;
+            });
+        }
+    }
+
+    private void applyJournalEntry(final JsonObject entry) {
+
+        final String tenantId = entry.getString(FIELD_TENANT);
+        final String deviceId = entry.getString(FIELD_PAYLOAD_DEVICE_ID);
+
+        switch (entry.getString(RegistryJournal.FIELD_OPERATION, "")) {
+        case RegistryJournal.OP_PUT:
+            getDevicesForTenant(tenantId).put(deviceId, entry.getJsonObject(FIELD_DATA));
+            break;
+        case RegistryJournal.OP_REMOVE:
+            Optional.ofNullable(identities.get(tenantId)).ifPresent(devices -> devices.remove(deviceId));
+            break;
+        case RegistryJournal.OP_CLEAR:
+            identities.clear();
+            break;
+        default:
+            log.debug("ignoring unknown journal entry [{}]", entry);
+        }
+    }
+
+    private void appendToJournal(final JsonObject entry) {
+        if (journal != null) {
+            journal.append(entry);
+        }
+    }
+
+    private Future<Void> closeJournal() {
+
+        if (journal == null) {
+            return Future.succeededFuture();
+        }
+        final Future<Void> compacted = journal.getEntryCount() > 0
+                ? journal.compact(createSnapshot()).otherwiseEmpty()
+                : Future.succeededFuture();
+        return compacted.compose(ok -> journal.close()).map(ok -> {
+            journal = null;
+            return (Void) null;
+        });
+    }
+
     private Future<Void> checkFileExists(final boolean createIfMissing) {
 
         final Future<Void> result = Future.future();
@@ -186,7 +255,7 @@ public final class FileBasedRegistrationService extends CompleteBaseRegistration
     protected void doStop(final Future<Void> stopFuture) {
 
         if (running) {
-            saveToFile().compose(s -> {
+            saveToFile().compose(s -> closeJournal()).compose(s -> {
                 running = false;
                 stopFuture.complete();
             }, stopFuture);
@@ -199,24 +268,16 @@ public final class FileBasedRegistrationService extends CompleteBaseRegistration
 
         if (!getConfig().isSaveToFile()) {
             return Future.succeededFuture();
+        } else if (journal != null) {
+            if (journal.getEntryCount() >= getConfig().getJournalCompactionThreshold()) {
+                return journal.compact(createSnapshot()).otherwiseEmpty();
+            } else {
+                return journal.sync().otherwiseEmpty();
+            }
         } else if (dirty) {
             return checkFileExists(true).compose(s -> {
                 final AtomicInteger idCount = new AtomicInteger();
-                final JsonArray tenants = new JsonArray();
-                for (final Entry<String, Map<String, JsonObject>> entry : identities.entrySet()) {
-                    final JsonArray devices = new JsonArray();
-                    for (final Entry<String, JsonObject> deviceEntry : entry.getValue().entrySet()) {
-                        devices.add(
-                                new JsonObject()
-                                        .put(FIELD_PAYLOAD_DEVICE_ID, deviceEntry.getKey())
-                                        .put(FIELD_DATA, deviceEntry.getValue()));
-                        idCount.incrementAndGet();
-                    }
-                    tenants.add(
-                            new JsonObject()
-                                    .put(FIELD_TENANT, entry.getKey())
-                                    .put(ARRAY_DEVICES, devices));
-                }
+                final JsonArray tenants = createSnapshot(idCount);
 
                 final Future<Void> writeHandler = Future.future();
                 vertx.fileSystem().writeFile(getConfig().getFilename(), Buffer.factory.buffer(tenants.encodePrettily()), writeHandler);
@@ -235,6 +296,30 @@ public final class FileBasedRegistrationService extends CompleteBaseRegistration
         }
     }
 
+    private JsonArray createSnapshot() {
+        return createSnapshot(new AtomicInteger());
+    }
+
+    private JsonArray createSnapshot(final AtomicInteger idCount) {
+
+        final JsonArray tenants = new JsonArray();
+        for (final Entry<String, Map<String, JsonObject>> entry : identities.entrySet()) {
+            final JsonArray devices = new JsonArray();
+            for (final Entry<String, JsonObject> deviceEntry : entry.getValue().entrySet()) {
+                devices.add(
+                        new JsonObject()
+                                .put(FIELD_PAYLOAD_DEVICE_ID, deviceEntry.getKey())
+                                .put(FIELD_DATA, deviceEntry.getValue().copy()));
+                idCount.incrementAndGet();
+            }
+            tenants.add(
+                    new JsonObject()
+                            .put(FIELD_TENANT, entry.getKey())
+                            .put(ARRAY_DEVICES, devices));
+        }
+        return tenants;
+    }
+
     @Override
     public void getDevice(final String tenantId, final String deviceId, final Handler<AsyncResult<RegistrationResult>> resultHandler) {
         Objects.requireNonNull(tenantId);
@@ -284,6 +369,9 @@ public final class FileBasedRegistrationService extends CompleteBaseRegistration
             final Map<String, JsonObject> devices = identities.get(tenantId);
             if (devices != null && devices.remove(deviceId) != null) {
                 dirty = true;
+                appendToJournal(RegistryJournal.newEntry(RegistryJournal.OP_REMOVE)
+                        .put(FIELD_TENANT, tenantId)
+                        .put(FIELD_PAYLOAD_DEVICE_ID, deviceId));
                 return RegistrationResult.from(HTTP_NO_CONTENT);
             } else {
                 return RegistrationResult.from(HTTP_NOT_FOUND);
@@ -321,6 +409,10 @@ public final class FileBasedRegistrationService extends CompleteBaseRegistration
         if (devices.size() < getConfig().getMaxDevicesPerTenant()) {
             if (devices.putIfAbsent(deviceId, obj) == null) {
                 dirty = true;
+                appendToJournal(RegistryJournal.newEntry(RegistryJournal.OP_PUT)
+                        .put(FIELD_TENANT, tenantId)
+                        .put(FIELD_PAYLOAD_DEVICE_ID, deviceId)
+                        .put(FIELD_DATA, obj));
                 return RegistrationResult.from(HTTP_CREATED);
             } else {
                 return RegistrationResult.from(HTTP_CONFLICT);
@@ -351,6 +443,10 @@ public final class FileBasedRegistrationService extends CompleteBaseRegistration
             if (devices != null && devices.containsKey(deviceId)) {
                 devices.put(deviceId, obj);
                 dirty = true;
+                appendToJournal(RegistryJournal.newEntry(RegistryJournal.OP_PUT)
+                        .put(FIELD_TENANT, tenantId)
+                        .put(FIELD_PAYLOAD_DEVICE_ID, deviceId)
+                        .put(FIELD_DATA, obj));
                 return RegistrationResult.from(HTTP_NO_CONTENT);
             } else {
                 return RegistrationResult.from(HTTP_NOT_FOUND);
@@ -386,6 +482,7 @@ public final class FileBasedRegistrationService extends CompleteBaseRegistration
     public void clear() {
         dirty = true;
         identities.clear();
+        appendToJournal(RegistryJournal.newEntry(RegistryJournal.OP_CLEAR));
     }
 
     @Override
@@ -23,6 +23,7 @@ import javax.security.auth.x500.X500Principal;
 import org.eclipse.hono.service.tenant.CompleteBaseTenantService;
 import org.eclipse.hono.tracing.TracingHelper;
 import org.eclipse.hono.util.CacheDirective;
+import org.eclipse.hono.util.TenantConstants;
 import org.eclipse.hono.util.TenantObject;
 import org.eclipse.hono.util.TenantResult;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -42,7 +43,8 @@ import io.vertx.core.json.JsonObject;
  * A tenant service that keeps all data in memory but is backed by a file.
  * <p>
  * On startup this adapter loads all registered tenants from a file. On shutdown all tenants kept in memory are written
- * to the file.
+ * to the file. If the journal is enabled, changes are appended to a journal file and the journal is compacted into
+ * the tenants file periodically.
  */
 @Repository
 @ConditionalOnProperty(name = "hono.app.type", havingValue = "file", matchIfMissing = true)
@@ -50,8 +52,11 @@ public final class FileBasedTenantService extends CompleteBaseTenantService<File
 
     // <ID, tenant>
     private final Map<String, TenantObject> tenants = new HashMap<>();
+    // <trusted CA subject DN, tenant ID>
+    private final Map<X500Principal, String> tenantsByTrustedCa = new HashMap<>();
     private boolean running = false;
     private boolean dirty = false;
+    private RegistryJournal journal;
 
     @Autowired
     @Override
@@ -77,8 +82,16 @@ public final class FileBasedTenantService extends CompleteBaseTenantService<File
             } else {
                 checkFileExists(getConfig().isSaveToFile()).compose(ok -> {
                     return loadTenantData();
+                }).compose(ok -> {
+                    return openJournal();
                 }).compose(s -> {
-                    if (getConfig().isSaveToFile()) {
+                    if (journal != null) {
+                        log.info("appending changes to journal, compacting journal every {} changes",
+                                getConfig().getJournalCompactionThreshold());
+                        vertx.setPeriodic(3000, tid -> {
+                            saveToFile();
+                        });
+                    } else if (getConfig().isSaveToFile()) {
                         log.info("saving tenants to file every 3 seconds");
                         vertx.setPeriodic(3000, tid -> {
                             saveToFile();
@@ -110,6 +123,61 @@ public final class FileBasedTenantService extends CompleteBaseTenantService<File
         }
     }
 
+    private Future<Void> openJournal() {
+
+        if (!getConfig().isSaveToFile() || !getConfig().isJournalEnabled()) {
+            return Future.succeededFuture();
+        }
+        journal = new RegistryJournal(vertx, getConfig().getFilename(), getConfig().getJournalSyncPolicy());
+        if (getConfig().isStartEmpty()) {
+            // discard the changes recorded for the tenants that have not been loaded
+            return journal.compact(createSnapshot());
+        } else {
+            return journal.replay(this::applyJournalEntry).map(count -> {
+                log.info("successfully replayed {} changes from tenants journal", count);
+                return (Void) null;
+            });
+        }
+    }
+
+    private void applyJournalEntry(final JsonObject entry) {
+
+        switch (entry.getString(RegistryJournal.FIELD_OPERATION, "")) {
+        case RegistryJournal.OP_PUT:
+            addTenant(entry.getJsonObject(RegistryJournal.FIELD_VALUE));
+            break;
+        case RegistryJournal.OP_REMOVE:
+            removeTenantObject(entry.getString(TenantConstants.FIELD_PAYLOAD_TENANT_ID));
+            break;
+        case RegistryJournal.OP_CLEAR:
+            tenants.clear();
+            tenantsByTrustedCa.clear();
+            break;
+        default:
+            log.debug("ignoring unknown journal entry [{}]", entry);
+        }
+    }
+
+    private void appendToJournal(final JsonObject entry) {
+        if (journal != null) {
+            journal.append(entry);
+        }
+    }
+
+    private Future<Void> closeJournal() {
+
+        if (journal == null) {
+            return Future.succeededFuture();
+        }
+        final Future<Void> compacted = journal.getEntryCount() > 0
+                ? journal.compact(createSnapshot()).otherwiseEmpty()
+                : Future.succeededFuture();
+        return compacted.compose(ok -> journal.close()).map(ok -> {
+            journal = null;
+            return (Void) null;
+        });
+    }
+
     private Future<Void> checkFileExists(final boolean createIfMissing) {
 
         final Future<Void> result = Future.future();
@@ -154,7 +222,7 @@ public final class FileBasedTenantService extends CompleteBaseTenantService<File
         try {
             final TenantObject tenantObject = tenant.mapTo(TenantObject.class);
             log.debug("loading tenant [{}]", tenantObject.getTenantId());
-            tenants.put(tenantObject.getTenantId(), tenantObject);
+            putTenantObject(tenantObject);
         } catch (final IllegalArgumentException e) {
             log.warn("cannot deserialize tenant", e);
         }
@@ -164,7 +232,7 @@ public final class FileBasedTenantService extends CompleteBaseTenantService<File
     protected void doStop(final Future<Void> stopFuture) {
 
         if (running) {
-            saveToFile().compose(s -> {
+            saveToFile().compose(s -> closeJournal()).compose(s -> {
                 running = false;
                 stopFuture.complete();
             }, stopFuture);
@@ -177,13 +245,16 @@ public final class FileBasedTenantService extends CompleteBaseTenantService<File
 
         if (!getConfig().isSaveToFile()) {
             return Future.succeededFuture();
+        } else if (journal != null) {
+            if (journal.getEntryCount() >= getConfig().getJournalCompactionThreshold()) {
+                return journal.compact(createSnapshot()).otherwiseEmpty();
+            } else {
+                return journal.sync().otherwiseEmpty();
+            }
         } else if (dirty) {
             return checkFileExists(true).compose(s -> {
 
-                final JsonArray tenantsJson = new JsonArray();
-                tenants.values().stream().forEach(tenant -> {
-                    tenantsJson.add(JsonObject.mapFrom(tenant));
-                });
+                final JsonArray tenantsJson = createSnapshot();
 
                 final Future<Void> writeHandler = Future.future();
                 vertx.fileSystem().writeFile(getConfig().getFilename(),
@@ -204,6 +275,15 @@ public final class FileBasedTenantService extends CompleteBaseTenantService<File
         }
     }
 
+    private JsonArray createSnapshot() {
+
+        final JsonArray tenantsJson = new JsonArray();
+        tenants.values().stream().forEach(tenant -> {
+            tenantsJson.add(JsonObject.mapFrom(tenant));
+        });
+        return tenantsJson;
+    }
+
     @Override
     public void get(final String tenantId, final Span span, final Handler<AsyncResult<TenantResult<JsonObject>>> resultHandler) {
 
@@ -268,8 +348,10 @@ public final class FileBasedTenantService extends CompleteBaseTenantService<File
         Objects.requireNonNull(tenantId);
 
         if (getConfig().isModificationEnabled()) {
-            if (tenants.remove(tenantId) != null) {
+            if (removeTenantObject(tenantId) != null) {
                 dirty = true;
+                appendToJournal(RegistryJournal.newEntry(RegistryJournal.OP_REMOVE)
+                        .put(TenantConstants.FIELD_PAYLOAD_TENANT_ID, tenantId));
                 return TenantResult.from(HttpURLConnection.HTTP_NO_CONTENT);
             } else {
                 return TenantResult.from(HttpURLConnection.HTTP_NOT_FOUND);
@@ -314,8 +396,10 @@ public final class FileBasedTenantService extends CompleteBaseTenantService<File
                     // we are trying to use the same CA as an already existing tenant
                     return TenantResult.from(HttpURLConnection.HTTP_CONFLICT);
                 } else {
-                    tenants.put(tenantId, tenant);
+                    putTenantObject(tenant);
                     dirty = true;
+                    appendToJournal(RegistryJournal.newEntry(RegistryJournal.OP_PUT)
+                            .put(RegistryJournal.FIELD_VALUE, JsonObject.mapFrom(tenant)));
                     return TenantResult.from(HttpURLConnection.HTTP_CREATED);
                 }
             } catch (final IllegalArgumentException e) {
@@ -366,8 +450,10 @@ public final class FileBasedTenantService extends CompleteBaseTenantService<File
                         // we are trying to use the same CA as another tenant
                         return TenantResult.from(HttpURLConnection.HTTP_CONFLICT);
                     } else {
-                        tenants.put(tenantId, tenant);
+                        putTenantObject(tenant);
                         dirty = true;
+                        appendToJournal(RegistryJournal.newEntry(RegistryJournal.OP_PUT)
+                                .put(RegistryJournal.FIELD_VALUE, JsonObject.mapFrom(tenant)));
                         return TenantResult.from(HttpURLConnection.HTTP_NO_CONTENT);
                     }
                 } catch (final IllegalArgumentException e) {
@@ -386,9 +472,43 @@ public final class FileBasedTenantService extends CompleteBaseTenantService<File
         if (subjectDn == null) {
             return null;
         } else {
-            return tenants.values().stream()
-                    .filter(t -> subjectDn.equals(t.getTrustedCaSubjectDn()))
-                    .findFirst().orElse(null);
+            final String tenantId = tenantsByTrustedCa.get(subjectDn);
+            return tenantId == null ? null : tenants.get(tenantId);
+        }
+    }
+
+    /**
+     * Puts a tenant to the tenants map and updates the trusted CA index accordingly.
+     *
+     * @param tenant The tenant.
+     * @throws IllegalArgumentException if the tenant's trusted CA subject DN is malformed.
+     */
+    private void putTenantObject(final TenantObject tenant) {
+
+        final X500Principal subjectDn = tenant.getTrustedCaSubjectDn();
+        final TenantObject replacedTenant = tenants.put(tenant.getTenantId(), tenant);
+        if (replacedTenant != null) {
+            removeFromTrustedCaIndex(replacedTenant);
+        }
+        if (subjectDn != null) {
+            tenantsByTrustedCa.putIfAbsent(subjectDn, tenant.getTenantId());
+        }
+    }
+
+    private TenantObject removeTenantObject(final String tenantId) {
+
+        final TenantObject removedTenant = tenants.remove(tenantId);
+        if (removedTenant != null) {
+            removeFromTrustedCaIndex(removedTenant);
+        }
+        return removedTenant;
+    }
+
+    private void removeFromTrustedCaIndex(final TenantObject tenant) {
+
+        final X500Principal subjectDn = tenant.getTrustedCaSubjectDn();
+        if (subjectDn != null) {
+            tenantsByTrustedCa.remove(subjectDn, tenant.getTenantId());
         }
     }
 
@@ -405,7 +525,9 @@ public final class FileBasedTenantService extends CompleteBaseTenantService<File
      */
     public void clear() {
         tenants.clear();
+        tenantsByTrustedCa.clear();
         dirty = true;
+        appendToJournal(RegistryJournal.newEntry(RegistryJournal.OP_CLEAR));
     }
 
     @Override
@@ -0,0 +1,340 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.deviceregistry;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import org.eclipse.hono.deviceregistry.AbstractFileBasedRegistryConfigProperties.JournalSyncPolicy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.DecodeException;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * An append-only journal of changes to the content of a file based registry.
+ * <p>
+ * The journal is kept in a file next to the registry file. Each change is appended
+ * as a single line containing a JSON object. Appending an entry only requires writing
+ * the change itself instead of the complete registry content. Once the journal has grown
+ * large enough, it is compacted by writing a snapshot of the registry content to the
+ * registry file and truncating the journal. During startup the registry content is
+ * restored by loading the snapshot and replaying the journal on top of it.
+ * <p>
+ * All file system access is done by means of <em>ordered</em> blocking tasks that are
+ * executed on a vert.x worker thread. This guarantees that the entries are written
+ * in the order in which they have been appended and that a snapshot taken on the
+ * event loop reflects exactly the entries appended before the snapshot.
+ * <p>
+ * Entries must be idempotent, i.e. replaying entries that are already reflected by
+ * the snapshot must not change the outcome. This is the case if entries contain the
+ * complete new state of the affected registry object.
+ * <p>
+ * Instances of this class are not thread safe and are supposed to be used from the
+ * vert.x context of the registry service only.
+ */
+final class RegistryJournal {
+
+    /**
+     * The name of the field containing the type of operation that an entry represents.
+     */
+    static final String FIELD_OPERATION = "op";
+    /**
+     * The name of the field containing the new state of an object that has been added or updated.
+     */
+    static final String FIELD_VALUE = "value";
+    /**
+     * The operation type indicating that an object has been added or updated.
+     */
+    static final String OP_PUT = "put";
+    /**
+     * The operation type indicating that an object has been removed.
+     */
+    static final String OP_REMOVE = "remove";
+    /**
+     * The operation type indicating that all objects have been removed.
+     */
+    static final String OP_CLEAR = "clear";
+    /**
+     * The suffix appended to the registry file name to get the name of the journal file.
+     */
+    static final String JOURNAL_FILE_SUFFIX = ".journal";
+
+    private static final Logger LOG = LoggerFactory.getLogger(RegistryJournal.class);
+
+    private final Context context;
+    private final Path snapshotFile;
+    private final Path journalFile;
+    private final JournalSyncPolicy syncPolicy;
+    // only accessed from within the ordered blocking tasks
+    private FileChannel channel;
+    private boolean unsynced = false;
+    // only accessed on the event loop
+    private int entryCount = 0;
+
+    /**
+     * Creates a journal for a registry file.
+     * <p>
+     * The blocking file system operations are run on the current vert.x context
+     * (or a newly created context if the calling thread is not associated with
+     * a context).
+     *
+     * @param vertx The vert.x instance to run blocking file system operations on.
+     * @param filename The path to the registry file. The journal is kept in a file
+     *                 with the same name and suffix {@value #JOURNAL_FILE_SUFFIX}.
+     * @param syncPolicy The policy for forcing entries to the storage device.
+     * @throws NullPointerException if any of the parameters are {@code null}.
+     */
+    RegistryJournal(final Vertx vertx, final String filename, final JournalSyncPolicy syncPolicy) {
+        this.context = Objects.requireNonNull(vertx).getOrCreateContext();
+        this.snapshotFile = Paths.get(Objects.requireNonNull(filename));
+        this.journalFile = Paths.get(filename + JOURNAL_FILE_SUFFIX);
+        this.syncPolicy = Objects.requireNonNull(syncPolicy);
+    }
+
+    /**
+     * Gets the number of entries that have been appended since the journal
+     * has been compacted.
+     *
+     * @return The number of entries.
+     */
+    int getEntryCount() {
+        return entryCount;
+    }
+
+    /**
+     * Replays the entries contained in the journal file.
+     * <p>
+     * Malformed entries, e.g. an entry that has been written only partially
+     * because of a crash, are skipped.
+     *
+     * @param entryHandler The handler to invoke with each entry (in order).
+     *                     The handler is invoked on the calling context.
+     * @return A future indicating the outcome of the operation. The future will be
+     *         succeeded with the number of entries that have been replayed.
+     * @throws NullPointerException if handler is {@code null}.
+     */
+    Future<Integer> replay(final Handler<JsonObject> entryHandler) {
+
+        Objects.requireNonNull(entryHandler);
+
+        final Future<List<JsonObject>> result = Future.future();
+        context.executeBlocking(read -> {
+            final List<JsonObject> entries = new ArrayList<>();
+            if (Files.exists(journalFile)) {
+                try (BufferedReader reader = Files.newBufferedReader(journalFile, StandardCharsets.UTF_8)) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        if (!line.isEmpty()) {
+                            try {
+                                entries.add(new JsonObject(line));
+                            } catch (final DecodeException e) {
+                                LOG.warn("skipping malformed entry in journal [{}]", journalFile);
+                            }
+                        }
+                    }
+                } catch (final IOException e) {
+                    read.fail(e);
+                    return;
+                }
+            }
+            read.complete(entries);
+        }, true, result);
+
+        return result.map(entries -> {
+            entries.forEach(entryHandler::handle);
+            entryCount = entries.size();
+            LOG.debug("replayed {} entries from journal [{}]", entries.size(), journalFile);
+            return entries.size();
+        });
+    }
+
+    /**
+     * Appends an entry to the journal.
+     * <p>
+     * The entry is written asynchronously. Failures to write the entry are logged.
+     *
+     * @param entry The entry to append.
+     * @throws NullPointerException if entry is {@code null}.
+     */
+    void append(final JsonObject entry) {
+
+        Objects.requireNonNull(entry);
+
+        entryCount++;
+        final ByteBuffer line = entry.toBuffer().appendByte((byte) '\n').getByteBuf().nioBuffer();
+        context.executeBlocking(write -> {
+            try {
+                final FileChannel ch = getChannel();
+                while (line.hasRemaining()) {
+                    ch.write(line);
+                }
+                if (syncPolicy == JournalSyncPolicy.ALWAYS) {
+                    ch.force(false);
+                } else {
+                    unsynced = true;
+                }
+                write.complete();
+            } catch (final IOException e) {
+                write.fail(e);
+            }
+        }, true, r -> {
+            if (r.failed()) {
+                LOG.warn("could not append entry to journal [{}]", journalFile, r.cause());
+            }
+        });
+    }
+
+    /**
+     * Forces all entries that have been appended so far to be written to the storage device.
+     * <p>
+     * This method does nothing unless the sync policy is {@link JournalSyncPolicy#PERIODIC}.
+     *
+     * @return A future indicating the outcome of the operation.
+     */
+    Future<Void> sync() {
+
+        if (syncPolicy != JournalSyncPolicy.PERIODIC) {
+            return Future.succeededFuture();
+        }
+        final Future<Void> result = Future.future();
+        context.executeBlocking(sync -> {
+            try {
+                if (unsynced && channel != null && channel.isOpen()) {
+                    channel.force(false);
+                }
+                unsynced = false;
+                sync.complete();
+            } catch (final IOException e) {
+                sync.fail(e);
+            }
+        }, true, result);
+        return result;
+    }
+
+    /**
+     * Compacts the journal.
+     * <p>
+     * The snapshot is written to a temporary file which then replaces the registry file.
+     * The journal is truncated afterwards. If the process crashes before the journal has
+     * been truncated, the (idempotent) entries are replayed on top of the new snapshot
+     * during the next start.
+     *
+     * @param snapshot The registry content. The snapshot must not be modified
+     *                 after invoking this method.
+     * @return A future indicating the outcome of the operation.
+     * @throws NullPointerException if snapshot is {@code null}.
+     */
+    Future<Void> compact(final JsonArray snapshot) {
+
+        Objects.requireNonNull(snapshot);
+
+        final int compactedEntries = entryCount;
+        entryCount = 0;
+        final Future<Void> result = Future.future();
+        context.executeBlocking(compact -> {
+            try {
+                final Path tmpFile = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+                try (FileChannel tmp = FileChannel.open(tmpFile, StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                    final ByteBuffer content = ByteBuffer.wrap(snapshot.encodePrettily().getBytes(StandardCharsets.UTF_8));
+                    while (content.hasRemaining()) {
+                        tmp.write(content);
+                    }
+                    tmp.force(true);
+                }
+                try {
+                    Files.move(tmpFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (final AtomicMoveNotSupportedException e) {
+                    Files.move(tmpFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING);
+                }
+                final FileChannel ch = getChannel();
+                ch.truncate(0);
+                ch.force(false);
+                unsynced = false;
+                compact.complete();
+            } catch (final IOException e) {
+                compact.fail(e);
+            }
+        }, true, result);
+
+        return result.map(ok -> {
+            LOG.debug("compacted {} journal entries into [{}]", compactedEntries, snapshotFile);
+            return (Void) null;
+        }).recover(t -> {
+            // the entries are still contained in the journal
+            entryCount += compactedEntries;
+            LOG.warn("could not compact journal [{}]", journalFile, t);
+            return Future.failedFuture(t);
+        });
+    }
+
+    /**
+     * Closes the journal file.
+     *
+     * @return A future indicating the outcome of the operation.
+     */
+    Future<Void> close() {
+
+        final Future<Void> result = Future.future();
+        context.executeBlocking(close -> {
+            try {
+                if (channel != null) {
+                    channel.close();
+                    channel = null;
+                }
+                close.complete();
+            } catch (final IOException e) {
+                close.fail(e);
+            }
+        }, true, result);
+        return result;
+    }
+
+    private FileChannel getChannel() throws IOException {
+        if (channel == null || !channel.isOpen()) {
+            channel = FileChannel.open(journalFile, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        return channel;
+    }
+
+    /**
+     * Creates a new journal entry.
+     *
+     * @param operation The type of operation that the entry represents.
+     * @return The entry.
+     */
+    static JsonObject newEntry(final String operation) {
+        return new JsonObject().put(FIELD_OPERATION, operation);
+    }
+}
@@ -331,6 +331,31 @@ public class FileBasedCredentialsServiceTest extends AbstractCompleteCredentials
         .setHandler(ctx.completing());
     }
 
+    /**
+     * Verifies that removing all credentials of a device does not remove credentials
+     * of another device that are registered for the same authentication identifier.
+     *
+     * @param ctx The vert.x test context.
+     */
+    @Test
+    public void testRemoveAllKeepsCredentialsOfOtherDeviceWithSameAuthId(final VertxTestContext ctx) {
+
+        // GIVEN two devices having credentials of different types registered for the same auth-id
+        register(getCompleteCredentialsService(), "tenant", "device1", "myId", "myType")
+        .compose(ok -> register(getCompleteCredentialsService(), "tenant", "device2", "myId", "otherType"))
+        .compose(ok -> {
+            final Future<CredentialsResult<JsonObject>> result = Future.future();
+            // WHEN removing all credentials of the first device
+            svc.removeAll("tenant", "device1", result);
+            return result;
+        })
+        // THEN the credentials of the first device are gone
+        .compose(ok -> assertNotRegistered(getCompleteCredentialsService(), "tenant", "myId", "myType"))
+        // but the credentials of the second device can still be looked up
+        .compose(ok -> assertRegistered(getCompleteCredentialsService(), "tenant", "myId", "otherType"))
+        .setHandler(ctx.completing());
+    }
+
     /**
      * Verifies that the <em>modificationEnabled</em> property prevents updating an existing entry.
      *
@@ -26,9 +26,13 @@ import static org.mockito.Mockito.when;
 import java.net.HttpURLConnection;
 import java.nio.charset.StandardCharsets;
 
+import javax.security.auth.x500.X500Principal;
+
 import org.eclipse.hono.service.tenant.AbstractCompleteTenantServiceTest;
 import org.eclipse.hono.service.tenant.CompleteBaseTenantService;
 import org.eclipse.hono.util.Constants;
+import org.eclipse.hono.util.TenantConstants;
+import org.eclipse.hono.util.TenantObject;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -345,4 +349,43 @@ public class FileBasedTenantServiceTest extends AbstractCompleteTenantServiceTes
         })));
     }
 
+    /**
+     * Verifies that a tenant can no longer be found by the subject DN of its
+     * former trusted CA after the tenant has been updated to use another CA.
+     *
+     * @param ctx The vert.x test context.
+     */
+    @Test
+    public void testGetForCertificateAuthorityReflectsUpdatedCa(final VertxTestContext ctx) {
+
+        final X500Principal oldSubjectDn = new X500Principal("CN=old");
+        final X500Principal newSubjectDn = new X500Principal("CN=new");
+        final TenantObject tenant = TenantObject.from("tenant", true)
+                .setProperty(TenantConstants.FIELD_PAYLOAD_TRUSTED_CA, new JsonObject()
+                        .put(TenantConstants.FIELD_PAYLOAD_SUBJECT_DN, oldSubjectDn.getName(X500Principal.RFC2253))
+                        .put(TenantConstants.FIELD_PAYLOAD_PUBLIC_KEY, "NOTAKEY"));
+
+        // GIVEN a tenant with a trusted CA
+        addTenant("tenant", JsonObject.mapFrom(tenant))
+        .compose(ok -> {
+            // WHEN the tenant is updated to use another CA
+            tenant.setProperty(TenantConstants.FIELD_PAYLOAD_TRUSTED_CA, new JsonObject()
+                    .put(TenantConstants.FIELD_PAYLOAD_SUBJECT_DN, newSubjectDn.getName(X500Principal.RFC2253))
+                    .put(TenantConstants.FIELD_PAYLOAD_PUBLIC_KEY, "NOTAKEY"));
+            return Future.succeededFuture(svc.update("tenant", JsonObject.mapFrom(tenant)));
+        })
+        .setHandler(ctx.succeeding(updateResult -> ctx.verify(() -> {
+            assertEquals(HttpURLConnection.HTTP_NO_CONTENT, updateResult.getStatus());
+            // THEN the tenant can be found by the new CA's subject DN
+            svc.get(newSubjectDn, null, ctx.succeeding(s -> ctx.verify(() -> {
+                assertEquals(HttpURLConnection.HTTP_OK, s.getStatus());
+                assertEquals("tenant", s.getPayload().getString(TenantConstants.FIELD_PAYLOAD_TENANT_ID));
+                // but not by the old CA's subject DN anymore
+                svc.get(oldSubjectDn, null, ctx.succeeding(r -> ctx.verify(() -> {
+                    assertEquals(HttpURLConnection.HTTP_NOT_FOUND, r.getStatus());
+                    ctx.completeNow();
+                })));
+            })));
+        })));
+    }
 }
@@ -0,0 +1,140 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.deviceregistry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.hono.deviceregistry.AbstractFileBasedRegistryConfigProperties.JournalSyncPolicy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+
+/**
+ * Tests verifying behavior of {@link RegistryJournal}.
+ *
+ */
+@ExtendWith(VertxExtension.class)
+public class RegistryJournalTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Vertx vertx;
+    private String filename;
+
+    /**
+     * Sets up the fixture.
+     *
+     * @param vertx The vert.x instance to use.
+     */
+    @BeforeEach
+    public void setUp(final Vertx vertx) {
+        this.vertx = vertx;
+        this.filename = tempDir.resolve("registry.json").toString();
+    }
+
+    /**
+     * Verifies that appended entries are replayed in the order in which they have been appended.
+     *
+     * @param ctx The vert.x test context.
+     */
+    @Test
+    public void testReplayReturnsAppendedEntriesInOrder(final VertxTestContext ctx) {
+
+        final List<JsonObject> replayedEntries = new ArrayList<>();
+        // GIVEN a journal to which two entries have been appended
+        final RegistryJournal journal = new RegistryJournal(vertx, filename, JournalSyncPolicy.ALWAYS);
+        journal.append(RegistryJournal.newEntry(RegistryJournal.OP_PUT).put("id", "one"));
+        journal.append(RegistryJournal.newEntry(RegistryJournal.OP_REMOVE).put("id", "one"));
+        journal.close()
+        // WHEN replaying the journal
+        .compose(ok -> new RegistryJournal(vertx, filename, JournalSyncPolicy.ALWAYS).replay(replayedEntries::add))
+        .setHandler(ctx.succeeding(count -> ctx.verify(() -> {
+            // THEN both entries are replayed in the order in which they have been appended
+            assertEquals(2, count.intValue());
+            assertEquals(RegistryJournal.OP_PUT, replayedEntries.get(0).getString(RegistryJournal.FIELD_OPERATION));
+            assertEquals(RegistryJournal.OP_REMOVE, replayedEntries.get(1).getString(RegistryJournal.FIELD_OPERATION));
+            ctx.completeNow();
+        })));
+    }
+
+    /**
+     * Verifies that compacting the journal writes the snapshot to the registry file
+     * and removes all entries from the journal.
+     *
+     * @param ctx The vert.x test context.
+     */
+    @Test
+    public void testCompactWritesSnapshotAndTruncatesJournal(final VertxTestContext ctx) {
+
+        final List<JsonObject> replayedEntries = new ArrayList<>();
+        final JsonArray snapshot = new JsonArray().add(new JsonObject().put("id", "one"));
+        // GIVEN a journal containing an entry
+        final RegistryJournal journal = new RegistryJournal(vertx, filename, JournalSyncPolicy.PERIODIC);
+        journal.append(RegistryJournal.newEntry(RegistryJournal.OP_PUT).put("id", "one"));
+        // WHEN compacting the journal
+        journal.compact(snapshot)
+        .compose(ok -> journal.close())
+        .compose(ok -> new RegistryJournal(vertx, filename, JournalSyncPolicy.PERIODIC).replay(replayedEntries::add))
+        .setHandler(ctx.succeeding(count -> ctx.verify(() -> {
+            // THEN the registry file contains the snapshot
+            assertEquals(snapshot, Buffer.buffer(Files.readAllBytes(tempDir.resolve("registry.json"))).toJsonArray());
+            // and the journal is empty
+            assertEquals(0, count.intValue());
+            assertEquals(0, journal.getEntryCount());
+            ctx.completeNow();
+        })));
+    }
+
+    /**
+     * Verifies that an entry which has been written only partially is skipped
+     * when replaying the journal.
+     *
+     * @param ctx The vert.x test context.
+     * @throws IOException if the journal file cannot be created.
+     */
+    @Test
+    public void testReplaySkipsPartiallyWrittenEntry(final VertxTestContext ctx) throws IOException {
+
+        final List<JsonObject> replayedEntries = new ArrayList<>();
+        // GIVEN a journal file whose last entry has not been written completely
+        Files.write(
+                tempDir.resolve("registry.json" + RegistryJournal.JOURNAL_FILE_SUFFIX),
+                "{\"op\":\"put\",\"id\":\"one\"}\n{\"op\":\"rem".getBytes(StandardCharsets.UTF_8));
+
+        // WHEN replaying the journal
+        new RegistryJournal(vertx, filename, JournalSyncPolicy.NEVER).replay(replayedEntries::add)
+        .setHandler(ctx.succeeding(count -> ctx.verify(() -> {
+            // THEN only the complete entry is replayed
+            assertEquals(1, count.intValue());
+            assertEquals("one", replayedEntries.get(0).getString("id"));
+            ctx.completeNow();
+        })));
+    }
+}